@@ -11,13 +11,53 @@ TYPE varchar(10) NOT NULL
 create table ticket(
  ID int PRIMARY KEY AUTO_INCREMENT,
  PARKING_NUMBER int NOT NULL,
- VEHICLE_REG_NUMBER varchar(10) NOT NULL,
+ VEHICLE_REG_NUMBER varchar(12) NOT NULL,
+ VEHICLE_KEY bigint NOT NULL,
  PRICE double,
  IN_TIME DATETIME NOT NULL,
  OUT_TIME DATETIME,
  FOREIGN KEY (PARKING_NUMBER)
  REFERENCES parking(PARKING_NUMBER));
 
+/* VEHICLE_KEY is the PlateCodec key of the normalized VEHICLE_REG_NUMBER */
+create index TICKET_VEHICLE_IN_TIME on ticket(VEHICLE_KEY, IN_TIME);
+create index TICKET_OUT_TIME on ticket(OUT_TIME);
+
+/* closed tickets older than parkit.archive.age.days, moved out of ticket by the archiver */
+create table ticket_archive(
+ ARCHIVE_ID bigint PRIMARY KEY AUTO_INCREMENT,
+ ID int NOT NULL,
+ PARKING_NUMBER int NOT NULL,
+ VEHICLE_REG_NUMBER varchar(12) NOT NULL,
+ VEHICLE_KEY bigint NOT NULL,
+ PRICE double,
+ IN_TIME DATETIME NOT NULL,
+ OUT_TIME DATETIME NOT NULL);
+
+create index TICKET_ARCHIVE_VEHICLE on ticket_archive(VEHICLE_KEY);
+
+/* loyalty figures of each vehicle, kept up to date with the ticket writes */
+create table customer_stats(
+ VEHICLE_KEY bigint PRIMARY KEY,
+ VEHICLE_REG_NUMBER varchar(12) NOT NULL,
+ VISIT_COUNT int NOT NULL,
+ LAST_VISIT DATETIME NOT NULL,
+ TOTAL_SPENT double NOT NULL);
+
+/* exits, revenue and parked time of each spot type per hour */
+create table traffic_summary(
+ PARKING_TYPE varchar(10) NOT NULL,
+ HOUR_START DATETIME NOT NULL,
+ EXITS int NOT NULL,
+ REVENUE double NOT NULL,
+ OCCUPIED_MILLIS bigint NOT NULL,
+ PRIMARY KEY (PARKING_TYPE, HOUR_START));
+
+/* beat of each running gate on the primary, read back on the replicas to measure how far they lag */
+create table replica_heartbeat(
+ ID int PRIMARY KEY,
+ BEAT_MILLIS bigint NOT NULL);
+
 insert into parking(PARKING_NUMBER,AVAILABLE,TYPE) values(1,true,'CAR');
 insert into parking(PARKING_NUMBER,AVAILABLE,TYPE) values(2,true,'CAR');
 insert into parking(PARKING_NUMBER,AVAILABLE,TYPE) values(3,true,'CAR');
@@ -38,13 +78,53 @@ TYPE varchar(10) NOT NULL
 create table ticket(
  ID int PRIMARY KEY AUTO_INCREMENT,
  PARKING_NUMBER int NOT NULL,
- VEHICLE_REG_NUMBER varchar(10) NOT NULL,
+ VEHICLE_REG_NUMBER varchar(12) NOT NULL,
+ VEHICLE_KEY bigint NOT NULL,
  PRICE double,
  IN_TIME DATETIME NOT NULL,
  OUT_TIME DATETIME,
  FOREIGN KEY (PARKING_NUMBER)
  REFERENCES parking(PARKING_NUMBER));
 
+/* VEHICLE_KEY is the PlateCodec key of the normalized VEHICLE_REG_NUMBER */
+create index TICKET_VEHICLE_IN_TIME on ticket(VEHICLE_KEY, IN_TIME);
+create index TICKET_OUT_TIME on ticket(OUT_TIME);
+
+/* closed tickets older than parkit.archive.age.days, moved out of ticket by the archiver */
+create table ticket_archive(
+ ARCHIVE_ID bigint PRIMARY KEY AUTO_INCREMENT,
+ ID int NOT NULL,
+ PARKING_NUMBER int NOT NULL,
+ VEHICLE_REG_NUMBER varchar(12) NOT NULL,
+ VEHICLE_KEY bigint NOT NULL,
+ PRICE double,
+ IN_TIME DATETIME NOT NULL,
+ OUT_TIME DATETIME NOT NULL);
+
+create index TICKET_ARCHIVE_VEHICLE on ticket_archive(VEHICLE_KEY);
+
+/* loyalty figures of each vehicle, kept up to date with the ticket writes */
+create table customer_stats(
+ VEHICLE_KEY bigint PRIMARY KEY,
+ VEHICLE_REG_NUMBER varchar(12) NOT NULL,
+ VISIT_COUNT int NOT NULL,
+ LAST_VISIT DATETIME NOT NULL,
+ TOTAL_SPENT double NOT NULL);
+
+/* exits, revenue and parked time of each spot type per hour */
+create table traffic_summary(
+ PARKING_TYPE varchar(10) NOT NULL,
+ HOUR_START DATETIME NOT NULL,
+ EXITS int NOT NULL,
+ REVENUE double NOT NULL,
+ OCCUPIED_MILLIS bigint NOT NULL,
+ PRIMARY KEY (PARKING_TYPE, HOUR_START));
+
+/* beat of each running gate on the primary, read back on the replicas to measure how far they lag */
+create table replica_heartbeat(
+ ID int PRIMARY KEY,
+ BEAT_MILLIS bigint NOT NULL);
+
 insert into parking(PARKING_NUMBER,AVAILABLE,TYPE) values(1,true,'CAR');
 insert into parking(PARKING_NUMBER,AVAILABLE,TYPE) values(2,true,'CAR');
 insert into parking(PARKING_NUMBER,AVAILABLE,TYPE) values(3,true,'CAR');
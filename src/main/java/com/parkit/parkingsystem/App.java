@@ -1,13 +1,107 @@
 package com.parkit.parkingsystem;
 
+import com.parkit.parkingsystem.config.DataBaseConfig;
+import com.parkit.parkingsystem.config.ParkingTypeCatalog;
+import com.parkit.parkingsystem.dao.CustomerStatsBackfill;
+import com.parkit.parkingsystem.dao.DAOFactory;
+import com.parkit.parkingsystem.dao.PlateKeyMigration;
+import com.parkit.parkingsystem.dao.TicketTimeMigration;
+import com.parkit.parkingsystem.service.AllocationStrategyFactory;
+import com.parkit.parkingsystem.service.AuditLogReport;
+import com.parkit.parkingsystem.service.FareCalculatorService;
 import com.parkit.parkingsystem.service.InteractiveShell;
+import com.parkit.parkingsystem.service.ReplayReport;
+import com.parkit.parkingsystem.service.ReplayService;
+import com.parkit.parkingsystem.service.TariffAnalysisReport;
+import com.parkit.parkingsystem.service.TariffAnalysisService;
+import com.parkit.parkingsystem.util.SilentPrintStream;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.ZoneId;
+import java.util.Properties;
+
 public class App {
     private static final Logger logger = LogManager.getLogger("App");
+    private static final int BACKFILL_CHUNK_SIZE = 10000;
     public static void main(String args[]) throws Exception {
         logger.info("Initializing Parking System");
-        InteractiveShell.loadInterface();
+        if (args.length > 0 && args[0].equals("--replay")) {
+            replay(args);
+        } else if (args.length > 0 && args[0].equals("--analyze-tariff")) {
+            analyzeTariff(args);
+        } else if (args.length > 0 && args[0].equals("--backfill-customer-stats")) {
+            backfillCustomerStats();
+        } else if (args.length > 0 && args[0].equals("--migrate-plate-keys")) {
+            System.out.println("Gave a key to the tickets of " + new PlateKeyMigration(new DataBaseConfig()).migrate() + " plates");
+        } else if (args.length > 0 && args[0].equals("--migrate-utc-times")) {
+            //usage: --migrate-utc-times [<zone of the gates>], the zone of this machine by default
+            ZoneId zone = args.length > 1 ? ZoneId.of(args[1]) : ZoneId.systemDefault();
+            System.out.println("Converted the times of " + new TicketTimeMigration(new DataBaseConfig(), zone).migrate() + " tickets to UTC");
+        } else if (args.length > 0 && args[0].equals("--read-audit-log")) {
+            readAuditLog(args);
+        } else {
+            InteractiveShell.loadInterface();
+        }
+    }
+
+    //usage: --replay <event log> [--wall-speed]
+    private static void replay(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Usage: --replay <event log> [--wall-speed]");
+            return;
+        }
+        boolean wallSpeed = args.length > 2 && args[2].equals("--wall-speed");
+        DataBaseConfig dataBaseConfig = new DataBaseConfig();
+        DAOFactory daoFactory = new DAOFactory(dataBaseConfig);
+        ReplayService replayService = new ReplayService(daoFactory.getParkingSpotDAO(), daoFactory.getTicketDAO(), new FareCalculatorService());
+        replayService.setAllocationStrategy(AllocationStrategyFactory.create(dataBaseConfig, daoFactory.getParkingSpotDAO()));
+
+        //the shell prompts printed for each event would dominate the measured latency
+        PrintStream console = System.out;
+        System.setOut(new SilentPrintStream());
+        ReplayReport report;
+        try {
+            report = replayService.replay(Paths.get(args[1]), wallSpeed);
+        } finally {
+            System.setOut(console);
+        }
+        report.print(console);
+    }
+
+    //usage: --analyze-tariff <rates properties> [<ticket export>], the database being read without export
+    private static void analyzeTariff(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Usage: --analyze-tariff <rates properties> [<ticket export>]");
+            return;
+        }
+        Properties rates = new Properties();
+        try (InputStream in = Files.newInputStream(Paths.get(args[1]))) {
+            rates.load(in);
+        }
+        TariffAnalysisService tariffAnalysisService = new TariffAnalysisService(new FareCalculatorService(new ParkingTypeCatalog(rates)),
+                Runtime.getRuntime().availableProcessors());
+        TariffAnalysisReport report = args.length > 2 ? tariffAnalysisService.analyzeExport(Paths.get(args[2]))
+                : tariffAnalysisService.analyzeDataBase(new DataBaseConfig());
+        report.print(System.out);
+    }
+
+    //usage: --read-audit-log <directory> [<vehicle registration number>]
+    private static void readAuditLog(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Usage: --read-audit-log <directory> [<vehicle registration number>]");
+            return;
+        }
+        AuditLogReport.scan(Paths.get(args[1]), args.length > 2 ? args[2] : null).print(System.out);
+    }
+
+    //one-time job, run against the MySQL database before the gates are started
+    private static void backfillCustomerStats() throws Exception {
+        CustomerStatsBackfill backfill = new CustomerStatsBackfill(new DataBaseConfig(), BACKFILL_CHUNK_SIZE, Runtime.getRuntime().availableProcessors());
+        System.out.println("Aggregated " + backfill.backfill() + " chunks of tickets into customer_stats");
     }
 }
@@ -0,0 +1,86 @@
+package com.parkit.parkingsystem.config;
+
+import com.parkit.parkingsystem.util.CircuitBreaker;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * Opens the connections of another configuration through a {@link CircuitBreaker}: while the database is
+ * unreachable, {@link #getConnection} fails at once instead of waiting for the connection timeout. The replicas
+ * have breakers of their own, the reads falling back to the primary through this one.
+ */
+public class CircuitBreakingDataBaseConfig extends DataBaseConfig {
+
+    private final DataBaseConfig dataBaseConfig;
+    private final CircuitBreaker circuitBreaker;
+
+    public CircuitBreakingDataBaseConfig(DataBaseConfig dataBaseConfig, CircuitBreaker circuitBreaker) {
+        this.dataBaseConfig = dataBaseConfig;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public Connection getConnection() throws ClassNotFoundException, SQLException {
+        if (!circuitBreaker.allowRequest()) {
+            throw new SQLException("Database circuit open");
+        }
+        try {
+            Connection con = dataBaseConfig.getConnection();
+            circuitBreaker.recordSuccess();
+            return con;
+        } catch (SQLException e) {
+            circuitBreaker.recordFailure();
+            throw e;
+        }
+    }
+
+    @Override
+    protected Connection getReplicaConnection() throws ClassNotFoundException {
+        return dataBaseConfig.getReplicaConnection();
+    }
+
+    @Override
+    public void recordWrite(long key) {
+        dataBaseConfig.recordWrite(key);
+    }
+
+    /**
+     * Opens the breaker on the errors of a lost connection, SQLSTATE class 08, the other errors meaning that
+     * the database answered.
+     */
+    @Override
+    public void recordError(Exception e) {
+        if (isConnectionError(e)) {
+            circuitBreaker.recordFailure();
+        }
+    }
+
+    static boolean isConnectionError(Exception e) {
+        if (e instanceof SQLTransientConnectionException || e instanceof SQLNonTransientConnectionException
+                || e instanceof SQLRecoverableException) {
+            return true;
+        }
+        return e instanceof SQLException && ((SQLException) e).getSQLState() != null && ((SQLException) e).getSQLState().startsWith("08");
+    }
+
+    @Override
+    public void closeConnection(Connection con) {
+        dataBaseConfig.closeConnection(con);
+    }
+
+    @Override
+    public void closePreparedStatement(PreparedStatement ps) {
+        dataBaseConfig.closePreparedStatement(ps);
+    }
+
+    @Override
+    public void closeResultSet(ResultSet rs) {
+        dataBaseConfig.closeResultSet(rs);
+    }
+}
@@ -1,19 +1,622 @@
 package com.parkit.parkingsystem.config;
 
+import com.parkit.parkingsystem.constants.AllocationType;
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.constants.StorageType;
+import com.parkit.parkingsystem.util.CircuitBreaker;
+import com.parkit.parkingsystem.util.RecentWrites;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.*;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Reads every setting from, in order, the system property of its name, the environment variable of that name
+ * upper-cased with underscores for dots (PARKIT_DB_URL for parkit.db.url), the properties file named by the
+ * parkit.config system property or PARKIT_CONFIG variable, and a built-in default. Sites can then be tuned
+ * without rebuilding the jar. The parkit.db.* settings are resolved once, on the first connection, the calls
+ * then taking no lock; {@link #closeDataSource()} makes the next connection resolve them again.
+ * <p>
+ * The writes, and the reads that must see them, use {@link #getConnection()} on the primary database. The
+ * reports and the lookups that may lag behind use {@link #getReadConnection()}, spread over the replicas of
+ * parkit.db.replica.urls which a {@link ReplicaLagMonitor} measured close enough behind the primary.
+ */
 public class DataBaseConfig {
 
     private static final Logger logger = LogManager.getLogger("DataBaseConfig");
+    public static final String STORAGE_PROPERTY = "parkit.storage";
+    public static final String LAYOUT_PROPERTY = "parkit.layout";
+    public static final String DATA_DIRECTORY_PROPERTY = "parkit.data.dir";
+    public static final String ALLOCATION_PROPERTY = "parkit.allocation";
+    public static final String LAYOUT_FILE_PROPERTY = "parkit.layout.file";
+    public static final String ZONES_PROPERTY = "parkit.layout.zones";
+    public static final String ARCHIVE_AGE_PROPERTY = "parkit.archive.age.days";
+    public static final String ARCHIVE_BATCH_PROPERTY = "parkit.archive.batch";
+    public static final String ADMISSION_LIMIT_PROPERTY = "parkit.admission.limit";
+    public static final String ADMISSION_QUEUE_PROPERTY = "parkit.admission.queue.millis";
+    public static final String OFFLINE_DIRECTORY_PROPERTY = "parkit.offline.dir";
+    public static final String AUDIT_DIRECTORY_PROPERTY = "parkit.audit.dir";
+    public static final String FEED_PORT_PROPERTY = "parkit.feed.port";
+    public static final String FEED_HOST_PROPERTY = "parkit.feed.host";
+    public static final String CONFIG_FILE_PROPERTY = "parkit.config";
+    public static final String DB_URL_PROPERTY = "parkit.db.url";
+    public static final String DB_USER_PROPERTY = "parkit.db.user";
+    public static final String DB_PASSWORD_PROPERTY = "parkit.db.password";
+    public static final String DB_POOL_SIZE_PROPERTY = "parkit.db.pool.size";
+    public static final String DB_POOL_MIN_IDLE_PROPERTY = "parkit.db.pool.min.idle";
+    public static final String DB_CONNECTION_TIMEOUT_PROPERTY = "parkit.db.connection.timeout.millis";
+    public static final String DB_MAX_LIFETIME_PROPERTY = "parkit.db.max.lifetime.millis";
+    public static final String DB_DRIVER_PROPERTY = "parkit.db.driver";
+    public static final String DB_REPLICA_URLS_PROPERTY = "parkit.db.replica.urls";
+    public static final String DB_REPLICA_MAX_LAG_PROPERTY = "parkit.db.replica.max.lag.millis";
+    public static final String DB_REPLICA_HEARTBEAT_PROPERTY = "parkit.db.replica.heartbeat.millis";
+    public static final String DB_REPLICA_RETRY_PROPERTY = "parkit.db.replica.retry.millis";
+    /**
+     * Prefix of the settings passed to the JDBC driver, parkit.db.property.cachePrepStmts=true giving it
+     * cachePrepStmts=true. They are read from the system properties and the file only, the environment
+     * variable names losing their case.
+     */
+    public static final String DRIVER_PROPERTY_PREFIX = "parkit.db.property.";
+    private static final String MYSQL_DRIVER = "com.mysql.cj.jdbc.Driver";
+    private static final String DEFAULT_DB_URL = "jdbc:mysql://localhost:3306/prod";
+    private static final String DEFAULT_DB_USER = "root";
+    private static final String DEFAULT_DB_PASSWORD = "rootroot";
+    private static final int DEFAULT_POOL_SIZE = 10;
+    private static final long DEFAULT_CONNECTION_TIMEOUT_MILLIS = 3000;
+    private static final long DEFAULT_MAX_LIFETIME_MILLIS = 1_800_000;
+    private static final long DEFAULT_REPLICA_MAX_LAG_MILLIS = 1000;
+    private static final long DEFAULT_REPLICA_HEARTBEAT_MILLIS = 250;
+    private static final long DEFAULT_REPLICA_RETRY_MILLIS = 30_000;
+    private static final int RECENT_WRITE_SLOTS = 1 << 16;
+    private static final String DEFAULT_LAYOUT = "CAR:3,BIKE:2";
+    private static final int DEFAULT_ZONES = 4;
+    private static final int DEFAULT_ARCHIVE_AGE_DAYS = 90;
+    private static final int DEFAULT_ARCHIVE_BATCH = 500;
+    private static final int DEFAULT_ADMISSION_LIMIT = 16;
+    private static final int DEFAULT_ADMISSION_QUEUE_MILLIS = 500;
+    private static final String DEFAULT_FEED_HOST = "localhost";
 
+    //the file settings and the pools are shared by every instance, the DAOs each creating their own
+    private static volatile FileSettings fileSettings;
+    private static volatile Pools pools;
+    private static volatile Replicas replicas;
+    private static final AtomicInteger nextReplica = new AtomicInteger();
+
+    private static final class FileSettings {
+        final String file;
+        final Properties settings;
+
+        FileSettings(String file, Properties settings) {
+            this.file = file;
+            this.settings = settings;
+        }
+    }
+
+    //the connection settings resolved on the first connection, and the pools opened with them
+    private static final class Pools {
+        final String url;
+        final String driverClassName;
+        final Properties connectionProperties;
+        //null to open a connection per call
+        final HikariDataSource dataSource;
+
+        Pools(String url, String driverClassName, Properties connectionProperties, HikariDataSource dataSource) {
+            this.url = url;
+            this.driverClassName = driverClassName;
+            this.connectionProperties = connectionProperties;
+            this.dataSource = dataSource;
+        }
+
+        Connection getConnection(String url, HikariDataSource pool) throws ClassNotFoundException, SQLException {
+            if (pool != null) {
+                return pool.getConnection();
+            }
+            Class.forName(driverClassName);
+            return DriverManager.getConnection(url, connectionProperties);
+        }
+    }
+
+    //the replicas resolved on the first read, kept apart from the primary pool so that a configuration without
+    //replicas, or whose connections do not come from the settings, never opens it for a read
+    private static final class Replicas {
+        static final Replicas NONE = new Replicas(Collections.emptyList(), null, 0, null);
+
+        final List<Replica> list;
+        final ReplicaLagMonitor lagMonitor;
+        final long maxLagMillis;
+        final RecentWrites recentWrites;
+
+        Replicas(List<Replica> list, ReplicaLagMonitor lagMonitor, long maxLagMillis, RecentWrites recentWrites) {
+            this.list = list;
+            this.lagMonitor = lagMonitor;
+            this.maxLagMillis = maxLagMillis;
+            this.recentWrites = recentWrites;
+        }
+    }
+
+    //a replica pool, left alone for a while after failing to give a connection
+    private static final class Replica {
+        final String url;
+        final HikariDataSource dataSource;
+        final CircuitBreaker circuitBreaker;
+
+        Replica(String url, HikariDataSource dataSource, CircuitBreaker circuitBreaker) {
+            this.url = url;
+            this.dataSource = dataSource;
+            this.circuitBreaker = circuitBreaker;
+        }
+    }
+
+    /**
+     * @return where the parking data is kept, MYSQL unless the parkit.storage setting says otherwise
+     */
+    public StorageType getStorageType() {
+        return StorageType.valueOf(getSetting(STORAGE_PROPERTY, StorageType.MYSQL.name()).trim().toUpperCase());
+    }
+
+    /**
+     * @return the directory of the embedded storage files, read from the parkit.data.dir setting
+     */
+    public Path getDataDirectory() {
+        return Paths.get(getSetting(DATA_DIRECTORY_PROPERTY, "data"));
+    }
+
+    /**
+     * Number of spots of each type for storages that are not seeded by Data.sql, read from the
+     * parkit.layout setting, for instance CAR:3,BIKE:2 which matches Data.sql.
+     * Spots are numbered from 1 in the order of the types.
+     */
+    public Map<ParkingType, Integer> getParkingLayout() {
+        Map<ParkingType, Integer> layout = new EnumMap<>(ParkingType.class);
+        for (String entry : getSetting(LAYOUT_PROPERTY, DEFAULT_LAYOUT).split(",")) {
+            String[] typeAndCount = entry.split(":");
+            layout.put(ParkingType.valueOf(typeAndCount[0].trim().toUpperCase()), Integer.parseInt(typeAndCount[1].trim()));
+        }
+        return layout;
+    }
+
+    /**
+     * @return how spots are chosen for entering vehicles, STORAGE (the lowest available number in the storage)
+     * unless the parkit.allocation setting says otherwise
+     */
+    public AllocationType getAllocationType() {
+        return AllocationType.valueOf(getSetting(ALLOCATION_PROPERTY, AllocationType.STORAGE.name()).trim().toUpperCase());
+    }
+
+    /**
+     * @return the file describing the zone, level and distance to the exit of every spot, read from the
+     * parkit.layout.file setting, or null to derive them from {@link #getParkingLayout()}
+     */
+    public Path getParkingLayoutFile() {
+        String file = getSetting(LAYOUT_FILE_PROPERTY);
+        return file == null ? null : Paths.get(file);
+    }
+
+    /**
+     * @return the number of zones the spots are dealt to when there is no layout file, read from the
+     * parkit.layout.zones setting
+     */
+    public int getZoneCount() {
+        return Integer.parseInt(getSetting(ZONES_PROPERTY, String.valueOf(DEFAULT_ZONES)).trim());
+    }
+
+    /**
+     * @return the age in days after which closed tickets are moved to ticket_archive, read from the
+     * parkit.archive.age.days setting, 0 to never archive
+     */
+    public int getArchiveAgeDays() {
+        return Integer.parseInt(getSetting(ARCHIVE_AGE_PROPERTY, String.valueOf(DEFAULT_ARCHIVE_AGE_DAYS)).trim());
+    }
+
+    /**
+     * @return the number of tickets archived per transaction, read from the parkit.archive.batch setting
+     */
+    public int getArchiveBatchSize() {
+        return Integer.parseInt(getSetting(ARCHIVE_BATCH_PROPERTY, String.valueOf(DEFAULT_ARCHIVE_BATCH)).trim());
+    }
+
+    /**
+     * @return the most entries, and the most exits, processed at once, read from the parkit.admission.limit
+     * setting, 0 for no limit
+     */
+    public int getAdmissionLimit() {
+        return Integer.parseInt(getSetting(ADMISSION_LIMIT_PROPERTY, String.valueOf(DEFAULT_ADMISSION_LIMIT)).trim());
+    }
+
+    /**
+     * @return how long an entry or exit may wait to start before being rejected as busy, read from the
+     * parkit.admission.queue.millis setting
+     */
+    public long getAdmissionQueueMillis() {
+        return Long.parseLong(getSetting(ADMISSION_QUEUE_PROPERTY, String.valueOf(DEFAULT_ADMISSION_QUEUE_MILLIS)).trim());
+    }
+
+    /**
+     * @return the directory of the journal keeping the changes made while MySQL is unreachable, read from the
+     * parkit.offline.dir setting, or null to only work against the database
+     */
+    public Path getOfflineDirectory() {
+        String directory = getSetting(OFFLINE_DIRECTORY_PROPERTY);
+        return directory == null ? null : Paths.get(directory);
+    }
+
+    /**
+     * @return the directory of the binary log of the entries and exits, read from the parkit.audit.dir setting,
+     * or null to keep no such log
+     */
+    public Path getAuditDirectory() {
+        String directory = getSetting(AUDIT_DIRECTORY_PROPERTY);
+        return directory == null ? null : Paths.get(directory);
+    }
+
+    /**
+     * @return the port streaming the spot changes, read from the parkit.feed.port setting, 0 when the
+     * changes are not streamed
+     */
+    public int getFeedPort() {
+        return Integer.parseInt(getSetting(FEED_PORT_PROPERTY, "0").trim());
+    }
+
+    /**
+     * @return the address streaming the spot changes, read from the parkit.feed.host setting, localhost by default
+     */
+    public String getFeedHost() {
+        return getSetting(FEED_HOST_PROPERTY, DEFAULT_FEED_HOST).trim();
+    }
+
+    /**
+     * @return the JDBC URL of the database, read from the parkit.db.url setting
+     */
+    public String getUrl() {
+        return getSetting(DB_URL_PROPERTY, DEFAULT_DB_URL);
+    }
+
+    /**
+     * @return the JDBC driver class, read from the parkit.db.driver setting
+     */
+    public String getDriverClassName() {
+        return getSetting(DB_DRIVER_PROPERTY, MYSQL_DRIVER);
+    }
+
+    /**
+     * @return the JDBC URLs of the read replicas of the database, read from the comma-separated
+     * parkit.db.replica.urls setting, empty to read everything from the primary
+     */
+    public List<String> getReplicaUrls() {
+        List<String> urls = new ArrayList<>();
+        for (String url : getSetting(DB_REPLICA_URLS_PROPERTY, "").split(",")) {
+            if (!url.trim().isEmpty()) {
+                urls.add(url.trim());
+            }
+        }
+        return urls;
+    }
+
+    /**
+     * @return the most a replica may lag behind the primary and still be read from, read from the
+     * parkit.db.replica.max.lag.millis setting
+     */
+    public long getReplicaMaxLagMillis() {
+        return Long.parseLong(getSetting(DB_REPLICA_MAX_LAG_PROPERTY, String.valueOf(DEFAULT_REPLICA_MAX_LAG_MILLIS)).trim());
+    }
+
+    /**
+     * @return how often the lag of the replicas is measured, read from the parkit.db.replica.heartbeat.millis
+     * setting
+     */
+    public long getReplicaHeartbeatMillis() {
+        return Long.parseLong(getSetting(DB_REPLICA_HEARTBEAT_PROPERTY, String.valueOf(DEFAULT_REPLICA_HEARTBEAT_MILLIS)).trim());
+    }
+
+    /**
+     * @return the last measured lag of each replica of {@link #getReplicaUrls()} in milliseconds, -1 while it
+     * is unknown
+     */
+    public List<Long> getReplicaLags() {
+        Replicas current = getReplicas();
+        List<Long> lags = new ArrayList<>();
+        for (int replica = 0; replica < current.list.size(); replica++) {
+            lags.add(current.lagMonitor.getLagMillis(replica));
+        }
+        return lags;
+    }
+
+    /**
+     * @return how long an unreachable replica is left alone, read from the parkit.db.replica.retry.millis setting
+     */
+    public long getReplicaRetryMillis() {
+        return Long.parseLong(getSetting(DB_REPLICA_RETRY_PROPERTY, String.valueOf(DEFAULT_REPLICA_RETRY_MILLIS)).trim());
+    }
+
+    /**
+     * @return the most connections kept open to the database, read from the parkit.db.pool.size setting,
+     * 0 to open a connection per call
+     */
+    public int getPoolSize() {
+        return Integer.parseInt(getSetting(DB_POOL_SIZE_PROPERTY, String.valueOf(DEFAULT_POOL_SIZE)).trim());
+    }
+
+    /**
+     * @return the connections kept open while idle, read from the parkit.db.pool.min.idle setting, the pool
+     * size by default
+     */
+    public int getPoolMinIdle() {
+        return Integer.parseInt(getSetting(DB_POOL_MIN_IDLE_PROPERTY, String.valueOf(getPoolSize())).trim());
+    }
+
+    /**
+     * @return how long a call waits for a pooled connection before failing, read from the
+     * parkit.db.connection.timeout.millis setting
+     */
+    public long getConnectionTimeoutMillis() {
+        return Long.parseLong(getSetting(DB_CONNECTION_TIMEOUT_PROPERTY, String.valueOf(DEFAULT_CONNECTION_TIMEOUT_MILLIS)).trim());
+    }
+
+    /**
+     * @return the age after which a pooled connection is replaced, read from the parkit.db.max.lifetime.millis
+     * setting, to be kept below the wait_timeout of the server
+     */
+    public long getMaxLifetimeMillis() {
+        return Long.parseLong(getSetting(DB_MAX_LIFETIME_PROPERTY, String.valueOf(DEFAULT_MAX_LIFETIME_MILLIS)).trim());
+    }
+
+    /**
+     * @return the parkit.db.property.* settings without their prefix, for instance cachePrepStmts,
+     * useServerPrepStmts, rewriteBatchedStatements, socketTimeout or useLocalSessionState
+     */
+    public Properties getDriverProperties() {
+        Properties driverProperties = new Properties();
+        for (Properties settings : new Properties[]{getFileSettings(), System.getProperties()}) {
+            for (String name : settings.stringPropertyNames()) {
+                if (name.startsWith(DRIVER_PROPERTY_PREFIX)) {
+                    driverProperties.setProperty(name.substring(DRIVER_PROPERTY_PREFIX.length()), settings.getProperty(name));
+                }
+            }
+        }
+        return driverProperties;
+    }
+
+    /**
+     * @return a connection to the primary database, for the writes and the reads that must see them
+     */
     public Connection getConnection() throws ClassNotFoundException, SQLException {
         logger.info("Create DB connection");
-        Class.forName("com.mysql.cj.jdbc.Driver");
-        return DriverManager.getConnection(
-                "jdbc:mysql://localhost:3306/prod","root","rootroot");
+        Pools current = getPools();
+        return current.getConnection(current.url, current.dataSource);
+    }
+
+    /**
+     * @return a connection to one of the replicas in turn, or to the primary when there are none or none is
+     * reachable and less than {@link #getReplicaMaxLagMillis()} behind, for the reads that may lag behind the
+     * writes
+     */
+    public Connection getReadConnection() throws ClassNotFoundException, SQLException {
+        Connection con = getReplicaConnection();
+        return con == null ? getConnection() : con;
+    }
+
+    /**
+     * @return a connection to the primary when the given key was written by this process recently enough for
+     * a replica read from to miss it, that is less than {@link #getReplicaMaxLagMillis()} and two heartbeats
+     * ago, else {@link #getReadConnection()}
+     */
+    public Connection getReadConnection(long key) throws ClassNotFoundException, SQLException {
+        RecentWrites writes = getReplicas().recentWrites;
+        return writes != null && writes.isRecent(key) ? getConnection() : getReadConnection();
+    }
+
+    /**
+     * Records a write of the given key, for {@link #getReadConnection(long)}.
+     */
+    public void recordWrite(long key) {
+        RecentWrites writes = getReplicas().recentWrites;
+        if (writes != null) {
+            writes.record(key);
+        }
+    }
+
+    /**
+     * @return a connection to the next reachable replica whose measured lag is within
+     * {@link #getReplicaMaxLagMillis()}, or null when there is none
+     */
+    protected Connection getReplicaConnection() throws ClassNotFoundException {
+        Replicas current = getReplicas();
+        List<Replica> replicas = current.list;
+        if (replicas.isEmpty()) {
+            return null;
+        }
+        Pools primary = getPools();
+        for (int attempt = 0; attempt < replicas.size(); attempt++) {
+            int index = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+            Replica replica = replicas.get(index);
+            long lag = current.lagMonitor.getLagMillis(index);
+            if (lag == ReplicaLagMonitor.UNKNOWN || lag > current.maxLagMillis || !replica.circuitBreaker.allowRequest()) {
+                continue;
+            }
+            try {
+                Connection con = primary.getConnection(replica.url, replica.dataSource);
+                con.setReadOnly(true);
+                replica.circuitBreaker.recordSuccess();
+                return con;
+            } catch (SQLException e) {
+                logger.warn("Unable to connect to the replica " + replica.url + ", reading from another database", e);
+                replica.circuitBreaker.recordFailure();
+            }
+        }
+        return null;
+    }
+
+    //read on every call, so published without locking once resolved
+    private Pools getPools() {
+        Pools current = pools;
+        if (current != null) {
+            return current;
+        }
+        synchronized (DataBaseConfig.class) {
+            if (pools == null) {
+                pools = openPools();
+            }
+            return pools;
+        }
+    }
+
+    private Pools openPools() {
+        Properties connectionProperties = getDriverProperties();
+        connectionProperties.setProperty("user", getSetting(DB_USER_PROPERTY, DEFAULT_DB_USER));
+        connectionProperties.setProperty("password", getSetting(DB_PASSWORD_PROPERTY, DEFAULT_DB_PASSWORD));
+        return new Pools(getUrl(), getDriverClassName(), connectionProperties, getPoolSize() > 0 ? openDataSource("parkit", getUrl()) : null);
+    }
+
+    private Replicas getReplicas() {
+        Replicas current = replicas;
+        if (current != null) {
+            return current;
+        }
+        synchronized (DataBaseConfig.class) {
+            if (replicas == null) {
+                replicas = openReplicas();
+            }
+            return replicas;
+        }
+    }
+
+    private Replicas openReplicas() {
+        List<String> urls = getReplicaUrls();
+        if (urls.isEmpty()) {
+            return Replicas.NONE;
+        }
+        Pools primary = getPools();
+        List<Replica> opened = new ArrayList<>();
+        List<ReplicaLagMonitor.ConnectionSource> replicaSources = new ArrayList<>();
+        for (String url : urls) {
+            HikariDataSource pool = primary.dataSource != null ? openDataSource("parkit-replica-" + opened.size(), url) : null;
+            Replica replica = new Replica(url, pool, new CircuitBreaker(Clock.systemUTC(), 1, getReplicaRetryMillis()));
+            opened.add(replica);
+            replicaSources.add(() -> primary.getConnection(replica.url, replica.dataSource));
+        }
+        long maxLagMillis = getReplicaMaxLagMillis();
+        long heartbeatMillis = getReplicaHeartbeatMillis();
+        ReplicaLagMonitor lagMonitor = new ReplicaLagMonitor(() -> primary.getConnection(primary.url, primary.dataSource),
+                replicaSources, heartbeatMillis);
+        lagMonitor.start();
+        //a replica is read from while its lag, measured up to a heartbeat ago to within a heartbeat, is below the maximum
+        RecentWrites recentWrites = new RecentWrites(RECENT_WRITE_SLOTS, TimeUnit.MILLISECONDS.toNanos(maxLagMillis + 2 * heartbeatMillis));
+        return new Replicas(Collections.unmodifiableList(opened), lagMonitor, maxLagMillis, recentWrites);
+    }
+
+    private HikariDataSource openDataSource(String poolName, String url) {
+        HikariConfig hikariConfig = new HikariConfig();
+        hikariConfig.setPoolName(poolName);
+        hikariConfig.setDriverClassName(getDriverClassName());
+        hikariConfig.setJdbcUrl(url);
+        hikariConfig.setUsername(getSetting(DB_USER_PROPERTY, DEFAULT_DB_USER));
+        hikariConfig.setPassword(getSetting(DB_PASSWORD_PROPERTY, DEFAULT_DB_PASSWORD));
+        hikariConfig.setMaximumPoolSize(getPoolSize());
+        hikariConfig.setMinimumIdle(getPoolMinIdle());
+        hikariConfig.setConnectionTimeout(getConnectionTimeoutMillis());
+        hikariConfig.setMaxLifetime(getMaxLifetimeMillis());
+        hikariConfig.setDataSourceProperties(getDriverProperties());
+        //the gates start, and fail over, while the database is down
+        hikariConfig.setInitializationFailTimeout(-1);
+        HikariDataSource pool = new HikariDataSource(hikariConfig);
+        logger.info("Opened a pool of " + getPoolSize() + " connections to " + url);
+        return pool;
+    }
+
+    /**
+     * Closes the pooled connections of the primary and the replicas, the next call resolving the connection
+     * settings again and opening new pools.
+     */
+    public static void closeDataSource() {
+        synchronized (DataBaseConfig.class) {
+            if (replicas != null) {
+                if (replicas.lagMonitor != null) {
+                    replicas.lagMonitor.close();
+                }
+                for (Replica replica : replicas.list) {
+                    if (replica.dataSource != null) {
+                        replica.dataSource.close();
+                    }
+                }
+                replicas = null;
+            }
+            if (pools != null) {
+                if (pools.dataSource != null) {
+                    pools.dataSource.close();
+                }
+                pools = null;
+            }
+        }
+    }
+
+    /**
+     * @return the value of the given setting, looked up as described above, or null
+     */
+    protected String getSetting(String name) {
+        return getSetting(name, null);
+    }
+
+    /**
+     * @return the value of the given setting, looked up as described above, or the default
+     */
+    protected String getSetting(String name, String defaultValue) {
+        String value = System.getProperty(name);
+        if (value == null) {
+            value = System.getenv(name.toUpperCase().replace('.', '_'));
+        }
+        if (value == null) {
+            value = getFileSettings().getProperty(name);
+        }
+        return value == null ? defaultValue : value;
+    }
+
+    //read again only when the file changes, the settings being looked up without locking otherwise
+    private static Properties getFileSettings() {
+        String file = System.getProperty(CONFIG_FILE_PROPERTY, System.getenv("PARKIT_CONFIG"));
+        if (file == null) {
+            return new Properties();
+        }
+        FileSettings current = fileSettings;
+        if (current != null && file.equals(current.file)) {
+            return current.settings;
+        }
+        synchronized (DataBaseConfig.class) {
+            if (fileSettings == null || !file.equals(fileSettings.file)) {
+                Properties settings = new Properties();
+                try (InputStream in = Files.newInputStream(Paths.get(file))) {
+                    settings.load(in);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Unable to read the settings file " + file, e);
+                }
+                fileSettings = new FileSettings(file, settings);
+                logger.info("Read the settings of " + file);
+            }
+            return fileSettings.settings;
+        }
+    }
+
+    /**
+     * Tells the configuration that a call failed with the given exception, for the ones tracking whether the
+     * database is reachable. Does nothing here.
+     */
+    public void recordError(Exception e) {
     }
 
     public void closeConnection(Connection con){
@@ -0,0 +1,132 @@
+package com.parkit.parkingsystem.config;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Menu number, hourly rate and overflow rules of each {@link ParkingType}, read from parking-types.properties.
+ * Everything is kept in arrays indexed by the type ordinal.
+ */
+public class ParkingTypeCatalog {
+
+    public static final String RESOURCE = "/parking-types.properties";
+
+    private static volatile ParkingTypeCatalog defaultCatalog;
+
+    private final double[] ratePerHour = new double[ParkingType.values().length];
+    private final List<List<ParkingType>> allowedSpotTypes = new ArrayList<>();
+    private final int[] menuSelection = new int[ParkingType.values().length];
+    private final List<ParkingType> menuTypes;
+    private final ParkingType[] typesBySelection;
+
+    public ParkingTypeCatalog(Properties properties) {
+        List<ParkingType> offered = new ArrayList<>();
+        for (ParkingType parkingType : ParkingType.values()) {
+            int index = parkingType.ordinal();
+            String rate = properties.getProperty(parkingType.name() + ".rate");
+            ratePerHour[index] = rate == null ? Double.NaN : Double.parseDouble(rate.trim());
+            String menu = properties.getProperty(parkingType.name() + ".menu");
+            menuSelection[index] = menu == null ? -1 : Integer.parseInt(menu.trim());
+            if (menuSelection[index] > 0) {
+                offered.add(parkingType);
+            }
+            allowedSpotTypes.add(readAllowedSpotTypes(parkingType, properties.getProperty(parkingType.name() + ".overflow", "")));
+        }
+        offered.sort((first, second) -> Integer.compare(menuSelection[first.ordinal()], menuSelection[second.ordinal()]));
+        menuTypes = Collections.unmodifiableList(offered);
+        typesBySelection = new ParkingType[offered.isEmpty() ? 1 : menuSelection[offered.get(offered.size() - 1).ordinal()] + 1];
+        for (ParkingType parkingType : offered) {
+            typesBySelection[menuSelection[parkingType.ordinal()]] = parkingType;
+        }
+    }
+
+    private static List<ParkingType> readAllowedSpotTypes(ParkingType parkingType, String overflow) {
+        List<ParkingType> spotTypes = new ArrayList<>();
+        spotTypes.add(parkingType);
+        for (String name : overflow.split(",")) {
+            if (!name.trim().isEmpty()) {
+                ParkingType spotType = ParkingType.valueOf(name.trim().toUpperCase());
+                if (!spotTypes.contains(spotType)) {
+                    spotTypes.add(spotType);
+                }
+            }
+        }
+        return Collections.unmodifiableList(spotTypes);
+    }
+
+    /**
+     * @return the catalog read from parking-types.properties on the classpath
+     */
+    public static ParkingTypeCatalog getDefault() {
+        ParkingTypeCatalog catalog = defaultCatalog;
+        if (catalog == null) {
+            synchronized (ParkingTypeCatalog.class) {
+                catalog = defaultCatalog;
+                if (catalog == null) {
+                    catalog = new ParkingTypeCatalog(loadDefaultProperties());
+                    defaultCatalog = catalog;
+                }
+            }
+        }
+        return catalog;
+    }
+
+    private static Properties loadDefaultProperties() {
+        Properties properties = new Properties();
+        try (InputStream in = ParkingTypeCatalog.class.getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing resource " + RESOURCE);
+            }
+            properties.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read " + RESOURCE, e);
+        }
+        return properties;
+    }
+
+    /**
+     * @throws IllegalArgumentException when the type has no rate
+     */
+    public double getRatePerHour(ParkingType parkingType) {
+        double rate = ratePerHour[parkingType.ordinal()];
+        if (Double.isNaN(rate)) {
+            throw new IllegalArgumentException("Unknown Parking Type");
+        }
+        return rate;
+    }
+
+    /**
+     * @return the spot types a vehicle of the given type may take, its own type first then the overflow ones
+     */
+    public List<ParkingType> getAllowedSpotTypes(ParkingType vehicleType) {
+        return allowedSpotTypes.get(vehicleType.ordinal());
+    }
+
+    /**
+     * @return the types offered in the vehicle type menu, in menu order
+     */
+    public List<ParkingType> getMenuTypes() {
+        return menuTypes;
+    }
+
+    /**
+     * @return the menu number of the type, -1 when it is not offered
+     */
+    public int getMenuSelection(ParkingType parkingType) {
+        return menuSelection[parkingType.ordinal()];
+    }
+
+    /**
+     * @return the type with the given menu number, or null
+     */
+    public ParkingType getTypeForMenuSelection(int selection) {
+        return selection > 0 && selection < typesBySelection.length ? typesBySelection[selection] : null;
+    }
+}
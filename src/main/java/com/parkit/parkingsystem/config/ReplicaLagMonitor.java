@@ -0,0 +1,136 @@
+package com.parkit.parkingsystem.config;
+
+import com.parkit.parkingsystem.constants.DBConstants;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Measures how far each replica lags behind the primary with a replica_heartbeat row of its own. Every interval
+ * it reads its beat from each replica then from the primary, the difference being the lag, and writes a new
+ * beat to the primary. Each gate compares only the beats of its own clock, so the clocks of the gates do not
+ * need to agree, and the lag is known to within one interval. A replica whose beat cannot be read, or was not
+ * measured for a few intervals, has an unknown lag.
+ */
+class ReplicaLagMonitor implements Closeable {
+
+    static final long UNKNOWN = -1;
+    private static final Logger logger = LogManager.getLogger("ReplicaLagMonitor");
+    private static final int STALE_INTERVALS = 3;
+
+    interface ConnectionSource {
+        Connection getConnection() throws ClassNotFoundException, SQLException;
+    }
+
+    private final ConnectionSource primary;
+    private final List<ConnectionSource> replicas;
+    private final long intervalMillis;
+    //the row of this gate, removed when it closes
+    private final int beatId = ThreadLocalRandom.current().nextInt(1, Integer.MAX_VALUE);
+    private final AtomicLongArray lagMillis;
+    private final AtomicLongArray measuredAtNanos;
+    private ScheduledExecutorService executor;
+
+    ReplicaLagMonitor(ConnectionSource primary, List<ConnectionSource> replicas, long intervalMillis) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.intervalMillis = intervalMillis;
+        this.lagMillis = new AtomicLongArray(replicas.size());
+        this.measuredAtNanos = new AtomicLongArray(replicas.size());
+        for (int replica = 0; replica < replicas.size(); replica++) {
+            lagMillis.set(replica, UNKNOWN);
+        }
+    }
+
+    synchronized void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::measure, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return the lag of the given replica in milliseconds, or {@link #UNKNOWN}
+     */
+    long getLagMillis(int replica) {
+        long lag = lagMillis.get(replica);
+        if (lag == UNKNOWN || System.nanoTime() - measuredAtNanos.get(replica) > TimeUnit.MILLISECONDS.toNanos(STALE_INTERVALS * intervalMillis)) {
+            return UNKNOWN;
+        }
+        return lag;
+    }
+
+    /**
+     * Measures the lag of every replica once, then beats.
+     */
+    void measure() {
+        long[] replicaBeats = new long[replicas.size()];
+        for (int replica = 0; replica < replicas.size(); replica++) {
+            replicaBeats[replica] = readBeat(replicas.get(replica), "replica " + replica);
+        }
+        long primaryBeat = readBeat(primary, "primary");
+        if (primaryBeat != UNKNOWN) {
+            long now = System.nanoTime();
+            for (int replica = 0; replica < replicas.size(); replica++) {
+                long lag = replicaBeats[replica] == UNKNOWN ? UNKNOWN : Math.max(0, primaryBeat - replicaBeats[replica]);
+                if (lag == UNKNOWN && lagMillis.get(replica) != UNKNOWN) {
+                    logger.warn("Lost the lag of replica " + replica + ", reading from the primary instead");
+                }
+                lagMillis.set(replica, lag);
+                measuredAtNanos.set(replica, now);
+            }
+        }
+        beat();
+    }
+
+    private long readBeat(ConnectionSource source, String name) {
+        try (Connection con = source.getConnection();
+             PreparedStatement ps = con.prepareStatement(DBConstants.GET_HEARTBEAT)) {
+            ps.setInt(1, beatId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : UNKNOWN;
+            }
+        } catch (Exception e) {
+            logger.debug("Unable to read the heartbeat of the " + name, e);
+            return UNKNOWN;
+        }
+    }
+
+    private void beat() {
+        try (Connection con = primary.getConnection();
+             PreparedStatement ps = con.prepareStatement(DBConstants.BEAT_HEARTBEAT)) {
+            ps.setInt(1, beatId);
+            ps.setLong(2, System.currentTimeMillis());
+            ps.executeUpdate();
+        } catch (Exception e) {
+            logger.debug("Unable to write the heartbeat", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+            try (Connection con = primary.getConnection();
+                 PreparedStatement ps = con.prepareStatement(DBConstants.DELETE_HEARTBEAT)) {
+                ps.setInt(1, beatId);
+                ps.executeUpdate();
+            } catch (Exception e) {
+                logger.debug("Unable to remove the heartbeat", e);
+            }
+        }
+    }
+}
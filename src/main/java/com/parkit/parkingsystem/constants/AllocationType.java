@@ -0,0 +1,8 @@
+package com.parkit.parkingsystem.constants;
+
+public enum AllocationType {
+    STORAGE,
+    LOWEST_NUMBER,
+    ZONE_ROUND_ROBIN,
+    NEAREST_TO_EXIT
+}
@@ -0,0 +1,7 @@
+package com.parkit.parkingsystem.constants;
+
+public enum ChangeType {
+    SPOT_UPDATED,
+    TICKET_OPENED,
+    TICKET_CLOSED
+}
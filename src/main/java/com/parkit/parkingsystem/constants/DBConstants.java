@@ -3,11 +3,54 @@ package com.parkit.parkingsystem.constants;
 public class DBConstants {
 
     public static final String GET_NEXT_PARKING_SPOT = "select min(PARKING_NUMBER) from parking where AVAILABLE = true and TYPE = ?";
+    public static final String GET_PARKING_SPOT = "select PARKING_NUMBER, AVAILABLE, TYPE from parking where PARKING_NUMBER = ?";
+    public static final String GET_PARKING_SPOTS = "select PARKING_NUMBER, AVAILABLE, TYPE from parking order by PARKING_NUMBER";
     public static final String UPDATE_PARKING_SPOT = "update parking set available = ? where PARKING_NUMBER = ?";
+    public static final String TAKE_PARKING_SPOT = "update parking set available = false where PARKING_NUMBER = ? and AVAILABLE = true";
 
-    public static final String SAVE_TICKET = "insert into ticket(PARKING_NUMBER, VEHICLE_REG_NUMBER, PRICE, IN_TIME, OUT_TIME) values(?,?,?,?,?)";
+    public static final String SAVE_TICKET = "insert into ticket(PARKING_NUMBER, VEHICLE_REG_NUMBER, VEHICLE_KEY, PRICE, IN_TIME, OUT_TIME) values(?,?,?,?,?,?)";
     public static final String UPDATE_TICKET = "update ticket set PRICE=?, OUT_TIME=? where ID=?";
-    public static final String GET_TICKET_WITH_RECENT_IN_TIME = "select t.PARKING_NUMBER, t.ID, t.PRICE, t.IN_TIME, t.OUT_TIME, p.TYPE from ticket t,parking p where p.parking_number = t.parking_number and t.VEHICLE_REG_NUMBER=? order by t.IN_TIME desc limit 1";
+    public static final String GET_TICKET_WITH_RECENT_IN_TIME = "select t.PARKING_NUMBER, t.ID, t.PRICE, t.IN_TIME, t.OUT_TIME, p.TYPE from ticket t,parking p where p.parking_number = t.parking_number and t.VEHICLE_KEY=? order by t.IN_TIME desc limit 1";
 
-    public static final String COUNT_TICKETS = "select count(*) from ticket WHERE VEHICLE_REG_NUMBER=?";
+    public static final String GET_OPEN_TICKETS = "select t.PARKING_NUMBER, t.ID, t.PRICE, t.IN_TIME, t.VEHICLE_REG_NUMBER, p.TYPE from ticket t,parking p where p.parking_number = t.parking_number and t.OUT_TIME is null";
+    public static final String GET_CUSTOMER_STATS = "select VISIT_COUNT, LAST_VISIT, TOTAL_SPENT from customer_stats where VEHICLE_KEY=?";
+    public static final String RECORD_CUSTOMER_VISIT = "insert into customer_stats(VEHICLE_KEY, VEHICLE_REG_NUMBER, VISIT_COUNT, LAST_VISIT, TOTAL_SPENT) values(?,?,1,?,0) on duplicate key update VISIT_COUNT = VISIT_COUNT + 1, LAST_VISIT = greatest(LAST_VISIT, ?)";
+    //must run before UPDATE_TICKET, the spend is corrected by the difference with the price stored so far
+    public static final String RECORD_CUSTOMER_PAYMENT = "update customer_stats set TOTAL_SPENT = TOTAL_SPENT + ? - (select coalesce(PRICE, 0) from ticket where ID=?), LAST_VISIT = greatest(LAST_VISIT, ?) where VEHICLE_KEY=?";
+    public static final String GET_ALL_TICKETS = "select t.ID, t.PARKING_NUMBER, p.TYPE, t.VEHICLE_REG_NUMBER, t.PRICE, t.IN_TIME, t.OUT_TIME from "
+            + "(select ID, PARKING_NUMBER, VEHICLE_REG_NUMBER, PRICE, IN_TIME, OUT_TIME from ticket "
+            + "union all select ID, PARKING_NUMBER, VEHICLE_REG_NUMBER, PRICE, IN_TIME, OUT_TIME from ticket_archive) t "
+            + "join parking p on p.PARKING_NUMBER = t.PARKING_NUMBER order by t.ID";
+
+    public static final String ADD_HOURLY_TRAFFIC = "insert into traffic_summary(PARKING_TYPE, HOUR_START, EXITS, REVENUE, OCCUPIED_MILLIS) values(?,?,?,?,?) "
+            + "on duplicate key update EXITS = EXITS + values(EXITS), REVENUE = REVENUE + values(REVENUE), OCCUPIED_MILLIS = OCCUPIED_MILLIS + values(OCCUPIED_MILLIS)";
+    public static final String GET_HOURLY_TRAFFIC = "select HOUR_START, EXITS, REVENUE, OCCUPIED_MILLIS from traffic_summary where PARKING_TYPE=? and HOUR_START >= ? and HOUR_START < ? order by HOUR_START";
+
+    public static final String CLEAR_CUSTOMER_STATS = "truncate table customer_stats";
+    public static final String GET_TICKET_ID_RANGE = "select coalesce(min(ID), 0), coalesce(max(ID), 0) from (select ID from ticket union all select ID from ticket_archive) ids";
+    public static final String BACKFILL_CUSTOMER_STATS = "insert into customer_stats(VEHICLE_KEY, VEHICLE_REG_NUMBER, VISIT_COUNT, LAST_VISIT, TOTAL_SPENT) "
+            + "select VEHICLE_KEY, max(VEHICLE_REG_NUMBER), count(*), max(coalesce(OUT_TIME, IN_TIME)), coalesce(sum(PRICE), 0) from "
+            + "(select VEHICLE_KEY, VEHICLE_REG_NUMBER, PRICE, IN_TIME, OUT_TIME from ticket where ID between ? and ? and VEHICLE_KEY > 0 "
+            + "union all select VEHICLE_KEY, VEHICLE_REG_NUMBER, PRICE, IN_TIME, OUT_TIME from ticket_archive where ID between ? and ? and VEHICLE_KEY > 0) chunk "
+            + "group by VEHICLE_KEY "
+            + "on duplicate key update VISIT_COUNT = VISIT_COUNT + values(VISIT_COUNT), LAST_VISIT = greatest(LAST_VISIT, values(LAST_VISIT)), TOTAL_SPENT = TOTAL_SPENT + values(TOTAL_SPENT)";
+
+    public static final String GET_PLATES_WITHOUT_KEY = "select VEHICLE_REG_NUMBER from ticket where VEHICLE_KEY = 0 "
+            + "union select VEHICLE_REG_NUMBER from ticket_archive where VEHICLE_KEY = 0";
+    public static final String SET_TICKET_PLATE_KEY = "update ticket set VEHICLE_REG_NUMBER=?, VEHICLE_KEY=? where VEHICLE_REG_NUMBER=? and VEHICLE_KEY = 0";
+    public static final String SET_ARCHIVED_TICKET_PLATE_KEY = "update ticket_archive set VEHICLE_REG_NUMBER=?, VEHICLE_KEY=? where VEHICLE_REG_NUMBER=? and VEHICLE_KEY = 0";
+
+    public static final String GET_ARCHIVE_BATCH_LAST_ID = "select max(ID) from (select ID from ticket where OUT_TIME is not null and OUT_TIME < ? order by ID limit ?) batch";
+    public static final String ARCHIVE_TICKETS = "insert into ticket_archive(ID, PARKING_NUMBER, VEHICLE_REG_NUMBER, VEHICLE_KEY, PRICE, IN_TIME, OUT_TIME) select ID, PARKING_NUMBER, VEHICLE_REG_NUMBER, VEHICLE_KEY, PRICE, IN_TIME, OUT_TIME from ticket where OUT_TIME < ? and ID <= ?";
+    public static final String DELETE_ARCHIVED_TICKETS = "delete from ticket where OUT_TIME < ? and ID <= ?";
+
+    public static final String GET_TICKET_TIMES = "select ID, IN_TIME, OUT_TIME from ticket where ID > ? order by ID limit ?";
+    public static final String SET_TICKET_TIMES = "update ticket set IN_TIME=?, OUT_TIME=? where ID=?";
+    public static final String GET_ARCHIVED_TICKET_TIMES = "select ID, IN_TIME, OUT_TIME from ticket_archive where ID > ? order by ID limit ?";
+    public static final String SET_ARCHIVED_TICKET_TIMES = "update ticket_archive set IN_TIME=?, OUT_TIME=? where ID=?";
+
+    public static final String GET_HEARTBEAT = "select BEAT_MILLIS from replica_heartbeat where ID = ?";
+    public static final String BEAT_HEARTBEAT = "insert into replica_heartbeat(ID, BEAT_MILLIS) values(?, ?) "
+            + "on duplicate key update BEAT_MILLIS = values(BEAT_MILLIS)";
+    public static final String DELETE_HEARTBEAT = "delete from replica_heartbeat where ID = ?";
 }
@@ -3,5 +3,35 @@ package com.parkit.parkingsystem.constants;
 public enum ParkingType {
     CAR,
     BIKE,
-    UNKNOWN
+    COMPACT,
+    EV,
+    DISABLED,
+    MOTORCYCLE,
+    UNKNOWN;
+
+    private static final ParkingType[] VALUES = values();
+
+    /**
+     * Resolves a type name read from a database row, a journal or an export, once, where it enters the
+     * application; the type is carried as the enum from there on.
+     * @return the type stored under the given name, UNKNOWN for the types this version does not know
+     */
+    public static ParkingType of(String name) {
+        if (name == null) {
+            return UNKNOWN;
+        }
+        //the stored names are written by name(), only the hand written ones need trimming
+        for (ParkingType parkingType : VALUES) {
+            if (parkingType.name().equals(name)) {
+                return parkingType;
+            }
+        }
+        String trimmed = name.trim();
+        for (ParkingType parkingType : VALUES) {
+            if (parkingType.name().equalsIgnoreCase(trimmed)) {
+                return parkingType;
+            }
+        }
+        return UNKNOWN;
+    }
 }
@@ -0,0 +1,10 @@
+package com.parkit.parkingsystem.constants;
+
+public enum ReservationState {
+    PENDING,
+    ACTIVE,
+    REDEEMED,
+    EXPIRED,
+    CANCELLED,
+    FAILED
+}
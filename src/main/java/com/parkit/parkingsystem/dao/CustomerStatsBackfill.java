@@ -0,0 +1,117 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.config.DataBaseConfig;
+import com.parkit.parkingsystem.constants.DBConstants;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Fills customer_stats from the tickets and the archived tickets. The id range is cut in chunks aggregated in
+ * parallel, each in its own transaction; as the chunks add up their figures, a failed chunk is simply retried.
+ * It empties the table first and recomputes every row, so that a run which failed halfway is rerun as is. It
+ * must run while the gates are stopped, as their visits recorded meanwhile would be lost or counted twice.
+ */
+public class CustomerStatsBackfill {
+    private static final Logger logger = LogManager.getLogger("CustomerStatsBackfill");
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final DataBaseConfig dataBaseConfig;
+    private final int chunkSize;
+    private final int threads;
+
+    public CustomerStatsBackfill(DataBaseConfig dataBaseConfig, int chunkSize, int threads) {
+        this.dataBaseConfig = dataBaseConfig;
+        this.chunkSize = chunkSize;
+        this.threads = threads;
+    }
+
+    /**
+     * @return the number of chunks aggregated
+     */
+    public int backfill() throws SQLException, ClassNotFoundException, InterruptedException {
+        int[] range = readIdRange();
+        if (range == null) {
+            return 0;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> chunks = new ArrayList<>();
+        try {
+            for (long from = range[0]; from <= range[1]; from += chunkSize) {
+                int chunkFrom = (int) from;
+                int chunkTo = (int) Math.min(from + chunkSize - 1, range[1]);
+                chunks.add(executor.submit(() -> {
+                    aggregateChunk(chunkFrom, chunkTo);
+                    return null;
+                }));
+            }
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+        } catch (ExecutionException e) {
+            throw new SQLException("Customer stats backfill failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        logger.info("Backfilled customer stats of tickets " + range[0] + " to " + range[1] + " in " + chunks.size() + " chunks");
+        return chunks.size();
+    }
+
+    private int[] readIdRange() throws SQLException, ClassNotFoundException {
+        Connection con = null;
+        try {
+            con = dataBaseConfig.getConnection();
+            //the rows of an earlier run, complete or not, are recomputed
+            PreparedStatement clear = con.prepareStatement(DBConstants.CLEAR_CUSTOMER_STATS);
+            clear.executeUpdate();
+            dataBaseConfig.closePreparedStatement(clear);
+            PreparedStatement ps = con.prepareStatement(DBConstants.GET_TICKET_ID_RANGE);
+            ResultSet rs = ps.executeQuery();
+            int[] range = rs.next() && rs.getInt(2) > 0 ? new int[]{rs.getInt(1), rs.getInt(2)} : null;
+            dataBaseConfig.closeResultSet(rs);
+            dataBaseConfig.closePreparedStatement(ps);
+            return range;
+        } finally {
+            dataBaseConfig.closeConnection(con);
+        }
+    }
+
+    private void aggregateChunk(int from, int to) throws SQLException, ClassNotFoundException {
+        for (int attempt = 1; ; attempt++) {
+            Connection con = null;
+            try {
+                con = dataBaseConfig.getConnection();
+                con.setAutoCommit(false);
+                PreparedStatement ps = con.prepareStatement(DBConstants.BACKFILL_CUSTOMER_STATS);
+                ps.setInt(1, from);
+                ps.setInt(2, to);
+                ps.setInt(3, from);
+                ps.setInt(4, to);
+                ps.executeUpdate();
+                dataBaseConfig.closePreparedStatement(ps);
+                con.commit();
+                return;
+            } catch (SQLException e) {
+                if (con != null) {
+                    con.rollback();
+                }
+                if (attempt == MAX_ATTEMPTS) {
+                    throw e;
+                }
+                logger.warn("Retrying the customer stats of tickets " + from + " to " + to, e);
+            } finally {
+                dataBaseConfig.closeConnection(con);
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.config.CircuitBreakingDataBaseConfig;
+import com.parkit.parkingsystem.config.DataBaseConfig;
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.constants.StorageType;
+import com.parkit.parkingsystem.model.ParkingSpot;
+import com.parkit.parkingsystem.util.CircuitBreaker;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates the DAOs matching the storage selected in {@link DataBaseConfig}.
+ */
+public class DAOFactory {
+
+    private static final Logger logger = LogManager.getLogger("DAOFactory");
+    //a refused connection is enough to switch the gates to the local state
+    private static final int FAILURES_BEFORE_OFFLINE = 1;
+    private static final long OFFLINE_PROBE_INTERVAL_MILLIS = 5_000;
+
+    private final StorageType storageType;
+    private final ParkingSpotDAO parkingSpotDAO;
+    private final TicketDAO ticketDAO;
+    private final TrafficSummaryDAO trafficSummaryDAO;
+    private TicketArchiver ticketArchiver;
+
+    public DAOFactory(DataBaseConfig dataBaseConfig) {
+        this.storageType = dataBaseConfig.getStorageType();
+        logger.info("Using " + storageType + " storage");
+        switch (storageType) {
+            case MEMORY: {
+                InMemoryParkingSpotDAO inMemoryParkingSpotDAO = new InMemoryParkingSpotDAO();
+                addParkingSpots(inMemoryParkingSpotDAO, dataBaseConfig.getParkingLayout());
+                parkingSpotDAO = inMemoryParkingSpotDAO;
+                ticketDAO = new InMemoryTicketDAO();
+                trafficSummaryDAO = new InMemoryTrafficSummaryDAO();
+                break;
+            }
+            case EMBEDDED: {
+                EmbeddedStorage embeddedStorage = openEmbeddedStorage(dataBaseConfig);
+                parkingSpotDAO = embeddedStorage;
+                ticketDAO = embeddedStorage;
+                trafficSummaryDAO = new InMemoryTrafficSummaryDAO();
+                break;
+            }
+            case MYSQL:
+            default: {
+                JdbcParkingSpotDAO jdbcParkingSpotDAO = new JdbcParkingSpotDAO();
+                jdbcParkingSpotDAO.dataBaseConfig = dataBaseConfig;
+                JdbcTicketDAO jdbcTicketDAO = new JdbcTicketDAO();
+                jdbcTicketDAO.dataBaseConfig = dataBaseConfig;
+                if (dataBaseConfig.getOfflineDirectory() == null) {
+                    parkingSpotDAO = jdbcParkingSpotDAO;
+                    ticketDAO = jdbcTicketDAO;
+                } else {
+                    FailoverStorage failoverStorage = openFailoverStorage(dataBaseConfig);
+                    parkingSpotDAO = failoverStorage;
+                    ticketDAO = failoverStorage;
+                }
+                JdbcTrafficSummaryDAO jdbcTrafficSummaryDAO = new JdbcTrafficSummaryDAO();
+                jdbcTrafficSummaryDAO.dataBaseConfig = dataBaseConfig;
+                trafficSummaryDAO = jdbcTrafficSummaryDAO;
+                if (dataBaseConfig.getArchiveAgeDays() > 0) {
+                    ticketArchiver = new TicketArchiver(dataBaseConfig, TimeUnit.DAYS.toMillis(dataBaseConfig.getArchiveAgeDays()),
+                            dataBaseConfig.getArchiveBatchSize(), Clock.systemUTC());
+                }
+            }
+        }
+    }
+
+    private static EmbeddedStorage openEmbeddedStorage(DataBaseConfig dataBaseConfig) {
+        try {
+            return new EmbeddedStorage(dataBaseConfig.getDataDirectory(), dataBaseConfig.getParkingLayout());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open embedded storage in " + dataBaseConfig.getDataDirectory(), e);
+        }
+    }
+
+    private static FailoverStorage openFailoverStorage(DataBaseConfig dataBaseConfig) {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(Clock.systemUTC(), FAILURES_BEFORE_OFFLINE, OFFLINE_PROBE_INTERVAL_MILLIS);
+        DataBaseConfig circuitBreakingConfig = new CircuitBreakingDataBaseConfig(dataBaseConfig, circuitBreaker);
+        JdbcParkingSpotDAO jdbcParkingSpotDAO = new JdbcParkingSpotDAO();
+        jdbcParkingSpotDAO.dataBaseConfig = circuitBreakingConfig;
+        JdbcTicketDAO jdbcTicketDAO = new JdbcTicketDAO();
+        jdbcTicketDAO.dataBaseConfig = circuitBreakingConfig;
+        List<ParkingSpot> parkingSpots = jdbcParkingSpotDAO.getParkingSpots();
+        if (parkingSpots.isEmpty()) {
+            logger.warn("Unable to read the spots from the database, starting from the configured layout");
+            InMemoryParkingSpotDAO layout = new InMemoryParkingSpotDAO();
+            addParkingSpots(layout, dataBaseConfig.getParkingLayout());
+            parkingSpots = layout.getParkingSpots();
+        }
+        try {
+            return new FailoverStorage(jdbcParkingSpotDAO, jdbcTicketDAO, circuitBreaker, dataBaseConfig.getOfflineDirectory(),
+                    parkingSpots, jdbcTicketDAO.getOpenTickets());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open offline journal in " + dataBaseConfig.getOfflineDirectory(), e);
+        }
+    }
+
+    private static void addParkingSpots(InMemoryParkingSpotDAO parkingSpotDAO, Map<ParkingType, Integer> layout) {
+        int number = 1;
+        for (Map.Entry<ParkingType, Integer> spots : layout.entrySet()) {
+            for (int i = 0; i < spots.getValue(); i++) {
+                parkingSpotDAO.addParkingSpot(number++, spots.getKey(), true);
+            }
+        }
+    }
+
+    public StorageType getStorageType() {
+        return storageType;
+    }
+
+    public ParkingSpotDAO getParkingSpotDAO() {
+        return parkingSpotDAO;
+    }
+
+    public TicketDAO getTicketDAO() {
+        return ticketDAO;
+    }
+
+    /**
+     * @return the hourly traffic store, kept in memory unless the storage is MySQL
+     */
+    public TrafficSummaryDAO getTrafficSummaryDAO() {
+        return trafficSummaryDAO;
+    }
+
+    /**
+     * @return the archiver of the MySQL tickets, or null when tickets are not archived. It is not started, the
+     * caller starting it and closing it on shutdown
+     */
+    public TicketArchiver getTicketArchiver() {
+        return ticketArchiver;
+    }
+}
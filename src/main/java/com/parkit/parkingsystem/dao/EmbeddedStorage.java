@@ -0,0 +1,253 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.model.CustomerStats;
+import com.parkit.parkingsystem.model.ParkingSpot;
+import com.parkit.parkingsystem.model.Ticket;
+import com.parkit.parkingsystem.util.SegmentLog;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Embedded storage for single lot deployments without MySQL. The spots and tickets live in the in-memory
+ * DAOs, and every change is first written to a {@link SegmentLog} in the data directory, so an entry or exit
+ * costs a local fsync. On startup the log is replayed to rebuild the in-memory state, and it is periodically
+ * compacted down to one record per spot and per ticket.
+ */
+public class EmbeddedStorage implements ParkingSpotDAO, TicketDAO, Closeable {
+
+    private static final Logger logger = LogManager.getLogger("EmbeddedStorage");
+    private static final long MAX_SEGMENT_BYTES = 64L * 1024 * 1024;
+    private static final long COMPACTION_INTERVAL_SECONDS = 60;
+    private static final int MIN_RECORDS_BEFORE_COMPACTION = 10_000;
+    private static final byte SPOT_RECORD = 1;
+    private static final byte TICKET_RECORD = 2;
+
+    private final InMemoryParkingSpotDAO parkingSpots = new InMemoryParkingSpotDAO();
+    private final InMemoryTicketDAO tickets = new InMemoryTicketDAO();
+    private final SegmentLog log;
+    private final ScheduledExecutorService compactor;
+
+    public EmbeddedStorage(Path dataDirectory, Map<ParkingType, Integer> layout) throws IOException {
+        log = SegmentLog.open(dataDirectory, MAX_SEGMENT_BYTES, this::restore);
+        if (parkingSpots.getParkingSpots().isEmpty()) {
+            int number = 1;
+            for (Map.Entry<ParkingType, Integer> spots : layout.entrySet()) {
+                for (int i = 0; i < spots.getValue(); i++) {
+                    writeSpot(number++, spots.getKey(), true);
+                }
+            }
+        }
+        logger.info("Opened embedded storage in " + dataDirectory + " with " + parkingSpots.getParkingSpots().size()
+                + " spots and " + tickets.size() + " tickets");
+        compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "embedded-storage-compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        compactor.scheduleWithFixedDelay(this::compactIfNeeded, COMPACTION_INTERVAL_SECONDS, COMPACTION_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public int getNextAvailableSlot(ParkingType parkingType) {
+        return parkingSpots.getNextAvailableSlot(parkingType);
+    }
+
+    @Override
+    public synchronized int takeNextAvailableSlot(ParkingType parkingType) {
+        int number = parkingSpots.getNextAvailableSlot(parkingType);
+        if (number > 0 && !updateParking(new ParkingSpot(number, parkingType, false))) {
+            return -1;
+        }
+        return number;
+    }
+
+    @Override
+    public synchronized boolean takeParkingSpot(int number) {
+        ParkingSpot stored = parkingSpots.getParkingSpot(number);
+        return stored != null && stored.isAvailable() && updateParking(stored.withAvailable(false));
+    }
+
+    @Override
+    public ParkingSpot getParkingSpot(int number) {
+        return parkingSpots.getParkingSpot(number);
+    }
+
+    @Override
+    public List<ParkingSpot> getParkingSpots() {
+        return parkingSpots.getParkingSpots();
+    }
+
+    @Override
+    public synchronized boolean updateParking(ParkingSpot parkingSpot) {
+        ParkingSpot stored = parkingSpots.getParkingSpot(parkingSpot.getId());
+        if (stored == null) {
+            return false;
+        }
+        try {
+            writeSpot(parkingSpot.getId(), stored.getParkingType(), parkingSpot.isAvailable());
+            return true;
+        } catch (IOException e) {
+            logger.error("Error updating parking info", e);
+            return false;
+        }
+    }
+
+    @Override
+    public synchronized boolean saveTicket(Ticket ticket) {
+        return writeTicket(tickets.newRecord(ticket));
+    }
+
+    @Override
+    public Ticket getTicketWithRecentInTime(String vehicleRegNumber) {
+        return tickets.getTicketWithRecentInTime(vehicleRegNumber);
+    }
+
+    @Override
+    public synchronized boolean updateTicket(Ticket ticket) {
+        TicketRecord record = tickets.updatedRecord(ticket);
+        return record != null && writeTicket(record);
+    }
+
+    @Override
+    public int getNbTickets(String vehicleRegNumber) {
+        return tickets.getNbTickets(vehicleRegNumber);
+    }
+
+    @Override
+    public CustomerStats getCustomerStats(String vehicleRegNumber) {
+        return tickets.getCustomerStats(vehicleRegNumber);
+    }
+
+    /**
+     * Rewrites the log as one record per spot and per ticket once it holds mostly outdated versions.
+     */
+    public synchronized void compactIfNeeded() {
+        long liveRecords = parkingSpots.getParkingSpots().size() + tickets.size();
+        if (log.getRecordsSinceCompaction() > Math.max(MIN_RECORDS_BEFORE_COMPACTION, 2 * liveRecords)) {
+            compact();
+        }
+    }
+
+    public synchronized void compact() {
+        List<byte[]> liveRecords = new ArrayList<>();
+        for (ParkingSpot parkingSpot : parkingSpots.getParkingSpots()) {
+            liveRecords.add(encodeSpot(parkingSpot.getId(), parkingSpot.getParkingType(), parkingSpot.isAvailable()));
+        }
+        tickets.forEachLatest(record -> liveRecords.add(encodeTicket(record)));
+        try {
+            log.compact(liveRecords);
+        } catch (IOException e) {
+            logger.error("Error compacting embedded storage", e);
+        }
+    }
+
+    /**
+     * Drops every ticket and makes every spot available again, like the reset of the test database.
+     */
+    public synchronized void reset() {
+        tickets.clear();
+        parkingSpots.reset();
+        compact();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        compactor.shutdownNow();
+        log.close();
+    }
+
+    private void writeSpot(int number, ParkingType parkingType, boolean available) throws IOException {
+        log.append(encodeSpot(number, parkingType, available));
+        parkingSpots.addParkingSpot(number, parkingType, available);
+    }
+
+    private boolean writeTicket(TicketRecord record) {
+        try {
+            log.append(encodeTicket(record));
+            tickets.apply(record);
+            return true;
+        } catch (IOException e) {
+            logger.error("Error saving ticket info", e);
+            return false;
+        }
+    }
+
+    private void restore(ByteBuffer payload) {
+        byte recordType = payload.get();
+        switch (recordType) {
+            case SPOT_RECORD: {
+                int number = payload.getInt();
+                boolean available = payload.get() != 0;
+                ParkingType parkingType = ParkingType.of(readString(payload));
+                parkingSpots.addParkingSpot(number, parkingType, available);
+                break;
+            }
+            case TICKET_RECORD: {
+                int id = payload.getInt();
+                int parkingNumber = payload.getInt();
+                double price = payload.getDouble();
+                long inTime = payload.getLong();
+                long outTime = payload.getLong();
+                ParkingType parkingType = ParkingType.of(readString(payload));
+                String vehicleRegNumber = readString(payload);
+                tickets.apply(new TicketRecord(id, parkingNumber, parkingType, vehicleRegNumber, price, inTime, outTime));
+                break;
+            }
+            default:
+                throw new IllegalStateException("Unknown record type " + recordType);
+        }
+    }
+
+    private static byte[] encodeSpot(int number, ParkingType parkingType, boolean available) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(SPOT_RECORD);
+            out.writeInt(number);
+            out.writeBoolean(available);
+            out.writeUTF(parkingType.name());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] encodeTicket(TicketRecord record) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(TICKET_RECORD);
+            out.writeInt(record.id);
+            out.writeInt(record.parkingNumber);
+            out.writeDouble(record.price);
+            out.writeLong(record.inTime);
+            out.writeLong(record.outTime);
+            out.writeUTF(record.parkingType.name());
+            out.writeUTF(record.vehicleRegNumber);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    //reads a string written by DataOutputStream.writeUTF, which is plain UTF-8 for the ASCII we store
+    private static String readString(ByteBuffer payload) {
+        byte[] bytes = new byte[payload.getShort() & 0xFFFF];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,506 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.model.CustomerStats;
+import com.parkit.parkingsystem.model.ParkingSpot;
+import com.parkit.parkingsystem.model.Ticket;
+import com.parkit.parkingsystem.model.TicketSnapshot;
+import com.parkit.parkingsystem.util.CircuitBreaker;
+import com.parkit.parkingsystem.util.PlateCodec;
+import com.parkit.parkingsystem.util.SegmentLog;
+import com.parkit.parkingsystem.util.collections.ConcurrentLongIntMap;
+import com.parkit.parkingsystem.util.collections.ConcurrentLongObjectMap;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the gates running while the database is unreachable. Calls go to the database while its
+ * {@link CircuitBreaker} is closed, and the spots and the latest ticket of each vehicle are mirrored in memory.
+ * When the database fails, the calls are served from the mirror and the changes are appended to a durable
+ * local journal, which a background task replays to the database, in order, once it answers again. Calls go
+ * back to the database when the journal is empty. A change the database answers but refuses, an update
+ * matching no row for instance, is reported as refused rather than journaled, and so is dropped from the
+ * journal when replayed.
+ * <p>
+ * Offline, the previous visits of a vehicle are the ones last read from the database plus the entries made
+ * since, and customer stats are not available. A replayed change is skipped when the database already holds
+ * a later visit of the vehicle, so a journal replayed twice after a crash does not duplicate tickets.
+ */
+public class FailoverStorage implements ParkingSpotDAO, TicketDAO, Closeable {
+
+    private static final Logger logger = LogManager.getLogger("FailoverStorage");
+    private static final long MAX_SEGMENT_BYTES = 16L * 1024 * 1024;
+    private static final long RECONCILE_INTERVAL_SECONDS = 5;
+    private static final int RECONCILE_BATCH = 100;
+    private static final int CONCURRENCY = 16;
+    //the DATETIME columns round the times to the second
+    private static final long TIME_TOLERANCE_MILLIS = 1000;
+    private static final byte SPOT_RECORD = 1;
+    private static final byte ENTRY_RECORD = 2;
+    private static final byte EXIT_RECORD = 3;
+
+    private static final class JournalEntry {
+        final byte recordType;
+        final int parkingNumber;
+        final ParkingType parkingType;
+        final boolean available;
+        final String vehicleRegNumber;
+        final double price;
+        final long inTime;
+        final long outTime;
+
+        JournalEntry(byte recordType, int parkingNumber, ParkingType parkingType, boolean available, String vehicleRegNumber,
+                     double price, long inTime, long outTime) {
+            this.recordType = recordType;
+            this.parkingNumber = parkingNumber;
+            this.parkingType = parkingType;
+            this.available = available;
+            this.vehicleRegNumber = vehicleRegNumber;
+            this.price = price;
+            this.inTime = inTime;
+            this.outTime = outTime;
+        }
+
+        static JournalEntry spot(ParkingSpot parkingSpot) {
+            return new JournalEntry(SPOT_RECORD, parkingSpot.getId(), parkingSpot.getParkingType(), parkingSpot.isAvailable(), "", 0, 0, 0);
+        }
+
+        static JournalEntry ticket(byte recordType, Ticket ticket) {
+            return new JournalEntry(recordType, ticket.getParkingSpot().getId(), ticket.getParkingSpot().getParkingType(), false,
+                    ticket.getVehicleRegNumber(), ticket.getPrice(), ticket.getInTimeMillis(), ticket.getOutTimeMillis());
+        }
+
+        TicketSnapshot toSnapshot() {
+            return new TicketSnapshot(0, new ParkingSpot(parkingNumber, parkingType, false), vehicleRegNumber, price, inTime, outTime, false);
+        }
+
+        @Override
+        public String toString() {
+            switch (recordType) {
+                case SPOT_RECORD:
+                    return "change of spot " + parkingNumber + " to " + (available ? "available" : "taken");
+                case ENTRY_RECORD:
+                    return "entry of " + vehicleRegNumber + " on spot " + parkingNumber;
+                default:
+                    return "exit of " + vehicleRegNumber + " from spot " + parkingNumber;
+            }
+        }
+
+        byte[] encode() {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeByte(recordType);
+                out.writeInt(parkingNumber);
+                out.writeBoolean(available);
+                out.writeDouble(price);
+                out.writeLong(inTime);
+                out.writeLong(outTime);
+                out.writeUTF(parkingType.name());
+                out.writeUTF(vehicleRegNumber);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return bytes.toByteArray();
+        }
+
+        static JournalEntry decode(ByteBuffer payload) {
+            byte recordType = payload.get();
+            int parkingNumber = payload.getInt();
+            boolean available = payload.get() != 0;
+            double price = payload.getDouble();
+            long inTime = payload.getLong();
+            long outTime = payload.getLong();
+            ParkingType parkingType = ParkingType.of(readString(payload));
+            String vehicleRegNumber = readString(payload);
+            return new JournalEntry(recordType, parkingNumber, parkingType, available, vehicleRegNumber, price, inTime, outTime);
+        }
+    }
+
+    private final ParkingSpotDAO onlineSpots;
+    private final TicketDAO onlineTickets;
+    private final CircuitBreaker circuitBreaker;
+    private final InMemoryParkingSpotDAO spots = new InMemoryParkingSpotDAO();
+    private final ConcurrentLongObjectMap<TicketSnapshot> latestTickets = new ConcurrentLongObjectMap<>(CONCURRENCY);
+    private final ConcurrentLongIntMap ticketCounts = new ConcurrentLongIntMap(CONCURRENCY, 0);
+    private final SegmentLog journal;
+    //the changes of the journal, in order, the first replayed ones already in the database, guarded by this
+    private final List<JournalEntry> pending = new ArrayList<>();
+    private int replayed;
+    private volatile boolean offline;
+    private final ScheduledExecutorService reconciler;
+
+    /**
+     * @param parkingSpots the spots to mirror, read from the database or, when it is down, from the layout
+     * @param openTickets the tickets of the vehicles parked when starting
+     */
+    public FailoverStorage(ParkingSpotDAO onlineSpots, TicketDAO onlineTickets, CircuitBreaker circuitBreaker, Path journalDirectory,
+                           List<ParkingSpot> parkingSpots, List<Ticket> openTickets) throws IOException {
+        this.onlineSpots = onlineSpots;
+        this.onlineTickets = onlineTickets;
+        this.circuitBreaker = circuitBreaker;
+        for (ParkingSpot parkingSpot : parkingSpots) {
+            spots.addParkingSpot(parkingSpot.getId(), parkingSpot.getParkingType(), parkingSpot.isAvailable());
+        }
+        for (Ticket ticket : openTickets) {
+            latestTickets.put(PlateCodec.tryKey(ticket.getVehicleRegNumber()), TicketSnapshot.of(ticket));
+        }
+        journal = SegmentLog.open(journalDirectory, MAX_SEGMENT_BYTES, payload -> {
+            JournalEntry entry = JournalEntry.decode(payload);
+            pending.add(entry);
+            mirror(entry);
+        });
+        offline = !pending.isEmpty();
+        if (offline) {
+            logger.warn(pending.size() + " offline changes in " + journalDirectory + " wait for the database");
+        }
+        reconciler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "offline-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reconciler.scheduleWithFixedDelay(this::reconcile, RECONCILE_INTERVAL_SECONDS, RECONCILE_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @return true while the calls are served locally
+     */
+    public boolean isOffline() {
+        return !useDatabase();
+    }
+
+    public synchronized int getPendingCount() {
+        return pending.size() - replayed;
+    }
+
+    @Override
+    public int getNextAvailableSlot(ParkingType parkingType) {
+        if (useDatabase()) {
+            int number = onlineSpots.getNextAvailableSlot(parkingType);
+            //failed while the database answers, a lock wait timeout for instance
+            if (number != -1 || useDatabase()) {
+                return number;
+            }
+        }
+        return spots.getNextAvailableSlot(parkingType);
+    }
+
+    @Override
+    public int takeNextAvailableSlot(ParkingType parkingType) {
+        if (useDatabase()) {
+            int number = onlineSpots.takeNextAvailableSlot(parkingType);
+            if (number != -1) {
+                if (number > 0) {
+                    mirror(JournalEntry.spot(new ParkingSpot(number, parkingType, false)));
+                }
+                return number;
+            }
+            //failed while the database answers: the local spots may be taken by other gates
+            if (useDatabase()) {
+                return -1;
+            }
+        }
+        int number = spots.takeNextAvailableSlot(parkingType);
+        if (number > 0 && !journal(JournalEntry.spot(new ParkingSpot(number, parkingType, false)))) {
+            spots.updateParking(new ParkingSpot(number, parkingType, true));
+            return -1;
+        }
+        return number;
+    }
+
+    @Override
+    public boolean takeParkingSpot(int number) {
+        ParkingSpot parkingSpot = spots.getParkingSpot(number);
+        if (parkingSpot == null) {
+            return useDatabase() && onlineSpots.takeParkingSpot(number);
+        }
+        JournalEntry entry = JournalEntry.spot(parkingSpot.withAvailable(false));
+        if (useDatabase()) {
+            if (onlineSpots.takeParkingSpot(number)) {
+                mirror(entry);
+                return true;
+            }
+            //taken by another gate rather than failed
+            if (useDatabase()) {
+                return false;
+            }
+        }
+        if (!spots.takeParkingSpot(number)) {
+            return false;
+        }
+        if (!journal(entry)) {
+            spots.updateParking(parkingSpot.withAvailable(true));
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public ParkingSpot getParkingSpot(int number) {
+        if (useDatabase()) {
+            ParkingSpot parkingSpot = onlineSpots.getParkingSpot(number);
+            if (parkingSpot != null || useDatabase()) {
+                return parkingSpot;
+            }
+        }
+        return spots.getParkingSpot(number);
+    }
+
+    @Override
+    public List<ParkingSpot> getParkingSpots() {
+        if (useDatabase()) {
+            List<ParkingSpot> parkingSpots = onlineSpots.getParkingSpots();
+            if (!parkingSpots.isEmpty() || useDatabase()) {
+                return parkingSpots;
+            }
+        }
+        return spots.getParkingSpots();
+    }
+
+    @Override
+    public boolean updateParking(ParkingSpot parkingSpot) {
+        if (spots.getParkingSpot(parkingSpot.getId()) == null) {
+            return useDatabase() && onlineSpots.updateParking(parkingSpot);
+        }
+        JournalEntry entry = JournalEntry.spot(parkingSpot);
+        if (useDatabase()) {
+            if (onlineSpots.updateParking(parkingSpot)) {
+                mirror(entry);
+                return true;
+            }
+            //refused by the database rather than failed
+            if (useDatabase()) {
+                return false;
+            }
+        }
+        return journal(entry);
+    }
+
+    @Override
+    public boolean saveTicket(Ticket ticket) {
+        JournalEntry entry = JournalEntry.ticket(ENTRY_RECORD, ticket);
+        if (useDatabase()) {
+            if (onlineTickets.saveTicket(ticket)) {
+                mirror(entry);
+                return true;
+            }
+            if (useDatabase()) {
+                return false;
+            }
+        }
+        return journal(entry);
+    }
+
+    @Override
+    public Ticket getTicketWithRecentInTime(String vehicleRegNumber) {
+        if (useDatabase()) {
+            Ticket ticket = onlineTickets.getTicketWithRecentInTime(vehicleRegNumber);
+            if (ticket != null || useDatabase()) {
+                return ticket;
+            }
+        }
+        TicketSnapshot ticket = latestTickets.get(PlateCodec.tryKey(vehicleRegNumber));
+        return ticket == null ? null : ticket.toTicket();
+    }
+
+    @Override
+    public boolean updateTicket(Ticket ticket) {
+        JournalEntry entry = JournalEntry.ticket(EXIT_RECORD, ticket);
+        if (useDatabase()) {
+            if (onlineTickets.updateTicket(ticket)) {
+                mirror(entry);
+                return true;
+            }
+            if (useDatabase()) {
+                return false;
+            }
+        }
+        return journal(entry);
+    }
+
+    @Override
+    public int getNbTickets(String vehicleRegNumber) {
+        if (useDatabase()) {
+            int nbTickets = onlineTickets.getNbTickets(vehicleRegNumber);
+            if (nbTickets > 0 || useDatabase()) {
+                ticketCounts.put(PlateCodec.tryKey(vehicleRegNumber), nbTickets);
+                return nbTickets;
+            }
+        }
+        return ticketCounts.get(PlateCodec.tryKey(vehicleRegNumber));
+    }
+
+    @Override
+    public CustomerStats getCustomerStats(String vehicleRegNumber) {
+        return useDatabase() ? onlineTickets.getCustomerStats(vehicleRegNumber) : null;
+    }
+
+    /**
+     * Replays the journal to the database when it answers again, {@value #RECONCILE_BATCH} changes at a time, and
+     * deletes it once every change is replayed.
+     */
+    public void reconcile() {
+        if (useDatabase() || !circuitBreaker.allowRequest()) {
+            return;
+        }
+        try {
+            List<JournalEntry> batch = nextBatch();
+            if (batch == null) {
+                //nothing to replay, the probe only tells whether the database is back
+                onlineSpots.getParkingSpot(1);
+                return;
+            }
+            while (!batch.isEmpty()) {
+                int count = 0;
+                while (count < batch.size() && replay(batch.get(count))) {
+                    count++;
+                }
+                synchronized (this) {
+                    replayed += count;
+                }
+                if (count < batch.size()) {
+                    logger.warn("Database unavailable, " + getPendingCount() + " offline changes left to replay");
+                    return;
+                }
+                batch = nextBatch();
+            }
+            int drained;
+            synchronized (this) {
+                drained = replayed;
+            }
+            //fails when a gate journaled a change meanwhile, replayed by the next run
+            if (journal.clearIfHolding(drained)) {
+                synchronized (this) {
+                    pending.subList(0, drained).clear();
+                    replayed = 0;
+                    if (pending.isEmpty()) {
+                        offline = false;
+                        logger.info("Offline changes replayed, back to the database");
+                    }
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Error replaying offline changes", e);
+        }
+    }
+
+    //the changes following the replayed ones, or null when the journal is empty
+    private synchronized List<JournalEntry> nextBatch() {
+        if (pending.isEmpty()) {
+            return null;
+        }
+        return new ArrayList<>(pending.subList(replayed, Math.min(replayed + RECONCILE_BATCH, pending.size())));
+    }
+
+    private boolean replay(JournalEntry entry) {
+        switch (entry.recordType) {
+            case SPOT_RECORD: {
+                return onlineSpots.updateParking(new ParkingSpot(entry.parkingNumber, entry.parkingType, entry.available))
+                        || dropIfRefused(entry);
+            }
+            case ENTRY_RECORD: {
+                Ticket stored = onlineTickets.getTicketWithRecentInTime(entry.vehicleRegNumber);
+                if (stored == null && !circuitBreaker.isClosed()) {
+                    return false;
+                }
+                if (stored != null && stored.getInTimeMillis() >= entry.inTime - TIME_TOLERANCE_MILLIS) {
+                    return true;
+                }
+                return onlineTickets.saveTicket(entry.toSnapshot().toTicket()) || dropIfRefused(entry);
+            }
+            case EXIT_RECORD: {
+                Ticket stored = onlineTickets.getTicketWithRecentInTime(entry.vehicleRegNumber);
+                if (stored == null) {
+                    if (!circuitBreaker.isClosed()) {
+                        return false;
+                    }
+                    logger.error("No ticket of " + entry.vehicleRegNumber + " to record the offline exit of");
+                    return true;
+                }
+                if (stored.getInTimeMillis() > entry.inTime + TIME_TOLERANCE_MILLIS || stored.hasOutTime()) {
+                    return true;
+                }
+                stored.setPrice(entry.price);
+                stored.setOutTimeMillis(entry.outTime);
+                return onlineTickets.updateTicket(stored) || dropIfRefused(entry);
+            }
+            default:
+                throw new IllegalStateException("Unknown record type " + entry.recordType);
+        }
+    }
+
+    //a change the database answered but refused, a spot removed meanwhile for instance, would block the journal for good
+    private boolean dropIfRefused(JournalEntry entry) {
+        if (!circuitBreaker.isClosed()) {
+            return false;
+        }
+        logger.error("The database refused the offline " + entry + ", dropping it");
+        return true;
+    }
+
+    private boolean useDatabase() {
+        return !offline && circuitBreaker.isClosed();
+    }
+
+    private synchronized boolean journal(JournalEntry entry) {
+        try {
+            journal.append(entry.encode());
+        } catch (IOException e) {
+            logger.error("Error writing the offline journal", e);
+            return false;
+        }
+        if (!offline) {
+            logger.warn("Database unavailable, recording the changes in the offline journal");
+        }
+        pending.add(entry);
+        offline = true;
+        mirror(entry);
+        return true;
+    }
+
+    private void mirror(JournalEntry entry) {
+        switch (entry.recordType) {
+            case SPOT_RECORD:
+                spots.addParkingSpot(entry.parkingNumber, entry.parkingType, entry.available);
+                break;
+            case ENTRY_RECORD:
+                latestTickets.put(PlateCodec.tryKey(entry.vehicleRegNumber), entry.toSnapshot());
+                ticketCounts.addTo(PlateCodec.tryKey(entry.vehicleRegNumber), 1);
+                break;
+            case EXIT_RECORD:
+                latestTickets.compute(PlateCodec.tryKey(entry.vehicleRegNumber), (vehicleKey, latest) ->
+                        latest == null || Math.abs(latest.getInTimeMillis() - entry.inTime) >= TIME_TOLERANCE_MILLIS ? latest : latest.withExit(entry.price, entry.outTime));
+                break;
+            default:
+                throw new IllegalStateException("Unknown record type " + entry.recordType);
+        }
+    }
+
+    //reads a string written by DataOutputStream.writeUTF, which is plain UTF-8 for the ASCII we store
+    private static String readString(ByteBuffer payload) {
+        byte[] bytes = new byte[payload.getShort() & 0xFFFF];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reconciler.shutdownNow();
+        synchronized (this) {
+            journal.close();
+        }
+    }
+}
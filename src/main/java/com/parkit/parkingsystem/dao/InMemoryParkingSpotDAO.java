@@ -0,0 +1,108 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.model.ParkingSpot;
+
+import com.parkit.parkingsystem.util.collections.ConcurrentIntIntMap;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Keeps the parking spots in memory, for deployments without database and for tests.
+ * The available spots of each type are kept in a lock-free sorted set, so the lowest one is found
+ * without scanning the lot. The type of each spot is kept by the ordinal of its type, in a primitive map.
+ */
+public class InMemoryParkingSpotDAO implements ParkingSpotDAO {
+
+    private static final ParkingType[] PARKING_TYPES = ParkingType.values();
+    private static final int NO_SPOT = -1;
+    private static final int CONCURRENCY = 16;
+
+    private final ConcurrentIntIntMap spotTypes = new ConcurrentIntIntMap(CONCURRENCY, NO_SPOT);
+    private final Map<ParkingType, NavigableSet<Integer>> availableSpots = new EnumMap<>(ParkingType.class);
+
+    public InMemoryParkingSpotDAO() {
+        for (ParkingType parkingType : ParkingType.values()) {
+            availableSpots.put(parkingType, new ConcurrentSkipListSet<>());
+        }
+    }
+
+    public void addParkingSpot(int number, ParkingType parkingType, boolean available) {
+        int previousType = spotTypes.put(number, parkingType.ordinal());
+        if (previousType != NO_SPOT) {
+            availableSpots.get(PARKING_TYPES[previousType]).remove(number);
+        }
+        if (available) {
+            availableSpots.get(parkingType).add(number);
+        }
+    }
+
+    /**
+     * @return a copy of the spot with the given number, or null when there is none
+     */
+    @Override
+    public ParkingSpot getParkingSpot(int number) {
+        int parkingType = spotTypes.get(number);
+        if (parkingType == NO_SPOT) {
+            return null;
+        }
+        return copyOf(number, parkingType);
+    }
+
+    private ParkingSpot copyOf(int number, int parkingType) {
+        ParkingType type = PARKING_TYPES[parkingType];
+        return new ParkingSpot(number, type, availableSpots.get(type).contains(number));
+    }
+
+    @Override
+    public List<ParkingSpot> getParkingSpots() {
+        List<ParkingSpot> parkingSpots = new ArrayList<>(spotTypes.size());
+        spotTypes.forEach((number, parkingType) -> parkingSpots.add(copyOf(number, parkingType)));
+        return parkingSpots;
+    }
+
+    /**
+     * Makes every spot available again.
+     */
+    public void reset() {
+        spotTypes.forEach((number, parkingType) -> availableSpots.get(PARKING_TYPES[parkingType]).add(number));
+    }
+
+    @Override
+    public int getNextAvailableSlot(ParkingType parkingType) {
+        Integer number = availableSpots.get(parkingType).ceiling(Integer.MIN_VALUE);
+        return number == null ? 0 : number;
+    }
+
+    @Override
+    public int takeNextAvailableSlot(ParkingType parkingType) {
+        Integer number = availableSpots.get(parkingType).pollFirst();
+        return number == null ? 0 : number;
+    }
+
+    @Override
+    public boolean takeParkingSpot(int number) {
+        int type = spotTypes.get(number);
+        return type != NO_SPOT && availableSpots.get(PARKING_TYPES[type]).remove(number);
+    }
+
+    @Override
+    public boolean updateParking(ParkingSpot parkingSpot) {
+        int type = spotTypes.get(parkingSpot.getId());
+        if (type == NO_SPOT) {
+            return false;
+        }
+        ParkingType parkingType = PARKING_TYPES[type];
+        if (parkingSpot.isAvailable()) {
+            availableSpots.get(parkingType).add(parkingSpot.getId());
+        } else {
+            availableSpots.get(parkingType).remove(parkingSpot.getId());
+        }
+        return true;
+    }
+}
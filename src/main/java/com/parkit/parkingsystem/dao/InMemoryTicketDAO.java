@@ -0,0 +1,157 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.model.CustomerStats;
+import com.parkit.parkingsystem.model.Ticket;
+import com.parkit.parkingsystem.util.AppendOnlyLog;
+import com.parkit.parkingsystem.util.PlateCodec;
+import com.parkit.parkingsystem.util.collections.ConcurrentLongLongMap;
+import com.parkit.parkingsystem.util.collections.ConcurrentLongObjectMap;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the tickets in memory, for deployments without database and for tests.
+ * Every save or update appends a new immutable version of the ticket to a log; the maps only index
+ * the latest version of each ticket and the most recent ticket of each vehicle, by the key of its plate.
+ */
+public class InMemoryTicketDAO implements TicketDAO {
+
+    private static final long NO_POSITION = -1;
+    private static final int CONCURRENCY = 16;
+
+    private final AtomicInteger lastId = new AtomicInteger();
+    private volatile AppendOnlyLog<TicketRecord> log = new AppendOnlyLog<>();
+    private final ConcurrentLongLongMap positionById = new ConcurrentLongLongMap(CONCURRENCY, NO_POSITION);
+    private final ConcurrentLongObjectMap<VehicleHistory> historyByVehicle = new ConcurrentLongObjectMap<>(CONCURRENCY);
+
+    private static final class VehicleHistory {
+        final int nbTickets;
+        final int recentTicketId;
+        final long recentInTime;
+        final long lastVisit;
+        final double totalSpent;
+
+        VehicleHistory(int nbTickets, int recentTicketId, long recentInTime, long lastVisit, double totalSpent) {
+            this.nbTickets = nbTickets;
+            this.recentTicketId = recentTicketId;
+            this.recentInTime = recentInTime;
+            this.lastVisit = lastVisit;
+            this.totalSpent = totalSpent;
+        }
+
+        static VehicleHistory first(TicketRecord record) {
+            return new VehicleHistory(1, record.id, record.inTime, visitTime(record), record.price);
+        }
+
+        /**
+         * @param previous the version of the ticket the record replaces, null for a new ticket
+         */
+        VehicleHistory add(TicketRecord previous, TicketRecord record) {
+            long visit = Math.max(lastVisit, visitTime(record));
+            double spent = totalSpent + record.price - (previous == null ? 0 : previous.price);
+            if (previous != null) {
+                return new VehicleHistory(nbTickets, recentTicketId, recentInTime, visit, spent);
+            }
+            if (record.inTime >= recentInTime) {
+                return new VehicleHistory(nbTickets + 1, record.id, record.inTime, visit, spent);
+            }
+            return new VehicleHistory(nbTickets + 1, recentTicketId, recentInTime, visit, spent);
+        }
+
+        private static long visitTime(TicketRecord record) {
+            return record.outTime == TicketRecord.NO_TIME ? record.inTime : record.outTime;
+        }
+    }
+
+    @Override
+    public boolean saveTicket(Ticket ticket) {
+        apply(newRecord(ticket));
+        return true;
+    }
+
+    @Override
+    public Ticket getTicketWithRecentInTime(String vehicleRegNumber) {
+        VehicleHistory history = historyByVehicle.get(PlateCodec.tryKey(vehicleRegNumber));
+        if (history == null) {
+            return null;
+        }
+        return log.get(positionById.get(history.recentTicketId)).toTicket();
+    }
+
+    @Override
+    public boolean updateTicket(Ticket ticket) {
+        TicketRecord record = updatedRecord(ticket);
+        if (record == null) {
+            return false;
+        }
+        apply(record);
+        return true;
+    }
+
+    @Override
+    public int getNbTickets(String vehicleRegNumber) {
+        VehicleHistory history = historyByVehicle.get(PlateCodec.tryKey(vehicleRegNumber));
+        return history == null ? 0 : history.nbTickets;
+    }
+
+    @Override
+    public CustomerStats getCustomerStats(String vehicleRegNumber) {
+        VehicleHistory history = historyByVehicle.get(PlateCodec.tryKey(vehicleRegNumber));
+        return history == null ? null : new CustomerStats(vehicleRegNumber, history.nbTickets, history.lastVisit, history.totalSpent);
+    }
+
+    /**
+     * Drops every ticket. Not meant to run while tickets are being written.
+     */
+    public void clear() {
+        historyByVehicle.clear();
+        positionById.clear();
+        log = new AppendOnlyLog<>();
+        lastId.set(0);
+    }
+
+    /**
+     * @return the first version of the given ticket, with a new id
+     */
+    TicketRecord newRecord(Ticket ticket) {
+        return TicketRecord.of(lastId.incrementAndGet(), ticket);
+    }
+
+    /**
+     * @return the next version of the stored ticket with the id, price and out-time of the given one,
+     * or null when no such ticket is stored
+     */
+    TicketRecord updatedRecord(Ticket ticket) {
+        long position = positionById.get(ticket.getId());
+        if (position == NO_POSITION) {
+            return null;
+        }
+        return log.get(position).withExit(ticket.getPrice(), ticket.getOutTimeMillis());
+    }
+
+    /**
+     * Appends a ticket version and makes it the latest one of its ticket.
+     */
+    void apply(TicketRecord record) {
+        lastId.accumulateAndGet(record.id, Math::max);
+        long previous = positionById.put(record.id, log.append(record));
+        TicketRecord previousRecord = previous == NO_POSITION ? null : log.get(previous);
+        if (record.vehicleKey != PlateCodec.INVALID) {
+            historyByVehicle.compute(record.vehicleKey,
+                    (vehicleKey, history) -> history == null ? VehicleHistory.first(record) : history.add(previousRecord, record));
+        }
+    }
+
+    /**
+     * Visits the latest version of every ticket.
+     */
+    void forEachLatest(Consumer<TicketRecord> consumer) {
+        AppendOnlyLog<TicketRecord> current = log;
+        positionById.forEach((id, position) -> consumer.accept(current.get(position)));
+    }
+
+    int size() {
+        return positionById.size();
+    }
+}
@@ -0,0 +1,43 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.model.HourlyTraffic;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Keeps the hourly traffic in memory, for deployments without database and for tests.
+ */
+public class InMemoryTrafficSummaryDAO implements TrafficSummaryDAO {
+
+    private final Map<ParkingType, ConcurrentNavigableMap<Long, HourlyTraffic>> hoursByType = new EnumMap<>(ParkingType.class);
+
+    public InMemoryTrafficSummaryDAO() {
+        for (ParkingType parkingType : ParkingType.values()) {
+            hoursByType.put(parkingType, new ConcurrentSkipListMap<>());
+        }
+    }
+
+    @Override
+    public boolean addHourlyTraffic(List<HourlyTraffic> hourlyTraffic) {
+        for (HourlyTraffic hour : hourlyTraffic) {
+            hoursByType.get(hour.getParkingType()).merge(hour.getHourStartMillis(), hour, (stored, added) ->
+                    new HourlyTraffic(stored.getParkingType(), stored.getHourStartMillis(), stored.getExits() + added.getExits(),
+                            stored.getRevenue() + added.getRevenue(), stored.getOccupiedMillis() + added.getOccupiedMillis()));
+        }
+        return true;
+    }
+
+    @Override
+    public List<HourlyTraffic> getHourlyTraffic(ParkingType parkingType, long fromMillis, long toMillis) {
+        if (fromMillis >= toMillis) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(hoursByType.get(parkingType).subMap(fromMillis, toMillis).values());
+    }
+}
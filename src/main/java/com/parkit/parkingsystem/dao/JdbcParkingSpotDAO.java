@@ -0,0 +1,170 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.config.DataBaseConfig;
+import com.parkit.parkingsystem.constants.DBConstants;
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.model.ParkingSpot;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the spots from the primary only, a lagging replica showing taken spots as available.
+ */
+public class JdbcParkingSpotDAO implements ParkingSpotDAO {
+    private static final Logger logger = LogManager.getLogger("JdbcParkingSpotDAO");
+
+    public DataBaseConfig dataBaseConfig = new DataBaseConfig();
+
+    @Override
+    public int getNextAvailableSlot(ParkingType parkingType){
+        Connection con = null;
+        int result=-1;
+        try {
+            con = dataBaseConfig.getConnection();
+            PreparedStatement ps = con.prepareStatement(DBConstants.GET_NEXT_PARKING_SPOT);
+            ps.setString(1, parkingType.toString());
+            ResultSet rs = ps.executeQuery();
+            if(rs.next()){
+                result = rs.getInt(1);;
+            }
+            dataBaseConfig.closeResultSet(rs);
+            dataBaseConfig.closePreparedStatement(ps);
+        }catch (Exception ex){
+            logger.error("Error fetching next available slot",ex);
+            dataBaseConfig.recordError(ex);
+        }finally {
+            dataBaseConfig.closeConnection(con);
+        }
+        return result;
+    }
+
+    /**
+     * Reads the lowest available spot then takes it only if it is still available, reading the next one when
+     * another gate took it meanwhile.
+     */
+    @Override
+    public int takeNextAvailableSlot(ParkingType parkingType){
+        Connection con = null;
+        try {
+            con = dataBaseConfig.getConnection();
+            PreparedStatement next = con.prepareStatement(DBConstants.GET_NEXT_PARKING_SPOT);
+            PreparedStatement take = con.prepareStatement(DBConstants.TAKE_PARKING_SPOT);
+            next.setString(1, parkingType.toString());
+            int result = 0;
+            while (result == 0) {
+                ResultSet rs = next.executeQuery();
+                int number = rs.next() ? rs.getInt(1) : 0;
+                dataBaseConfig.closeResultSet(rs);
+                if (number == 0) {
+                    break;
+                }
+                take.setInt(1, number);
+                if (take.executeUpdate() == 1) {
+                    result = number;
+                }
+            }
+            dataBaseConfig.closePreparedStatement(next);
+            dataBaseConfig.closePreparedStatement(take);
+            return result;
+        }catch (Exception ex){
+            logger.error("Error taking next available slot",ex);
+            dataBaseConfig.recordError(ex);
+            return -1;
+        }finally {
+            dataBaseConfig.closeConnection(con);
+        }
+    }
+
+    @Override
+    public boolean takeParkingSpot(int number){
+        Connection con = null;
+        try {
+            con = dataBaseConfig.getConnection();
+            PreparedStatement ps = con.prepareStatement(DBConstants.TAKE_PARKING_SPOT);
+            ps.setInt(1, number);
+            int updateRowCount = ps.executeUpdate();
+            dataBaseConfig.closePreparedStatement(ps);
+            return (updateRowCount == 1);
+        }catch (Exception ex){
+            logger.error("Error taking parking spot",ex);
+            dataBaseConfig.recordError(ex);
+            return false;
+        }finally {
+            dataBaseConfig.closeConnection(con);
+        }
+    }
+
+    @Override
+    public ParkingSpot getParkingSpot(int number){
+        Connection con = null;
+        ParkingSpot parkingSpot = null;
+        try {
+            con = dataBaseConfig.getConnection();
+            PreparedStatement ps = con.prepareStatement(DBConstants.GET_PARKING_SPOT);
+            ps.setInt(1, number);
+            ResultSet rs = ps.executeQuery();
+            if(rs.next()){
+                parkingSpot = new ParkingSpot(rs.getInt(1), ParkingType.of(rs.getString(3)), rs.getBoolean(2));
+            }
+            dataBaseConfig.closeResultSet(rs);
+            dataBaseConfig.closePreparedStatement(ps);
+        }catch (Exception ex){
+            logger.error("Error fetching parking spot",ex);
+            dataBaseConfig.recordError(ex);
+        }finally {
+            dataBaseConfig.closeConnection(con);
+        }
+        return parkingSpot;
+    }
+
+    @Override
+    public List<ParkingSpot> getParkingSpots(){
+        Connection con = null;
+        List<ParkingSpot> parkingSpots = new ArrayList<>();
+        try {
+            con = dataBaseConfig.getConnection();
+            PreparedStatement ps = con.prepareStatement(DBConstants.GET_PARKING_SPOTS);
+            ResultSet rs = ps.executeQuery();
+            while(rs.next()){
+                parkingSpots.add(new ParkingSpot(rs.getInt(1), ParkingType.of(rs.getString(3)), rs.getBoolean(2)));
+            }
+            dataBaseConfig.closeResultSet(rs);
+            dataBaseConfig.closePreparedStatement(ps);
+        }catch (Exception ex){
+            logger.error("Error fetching parking spots",ex);
+            dataBaseConfig.recordError(ex);
+            parkingSpots.clear();
+        }finally {
+            dataBaseConfig.closeConnection(con);
+        }
+        return parkingSpots;
+    }
+
+    @Override
+    public boolean updateParking(ParkingSpot parkingSpot){
+        //update the availability fo that parking slot
+        Connection con = null;
+        try {
+            con = dataBaseConfig.getConnection();
+            PreparedStatement ps = con.prepareStatement(DBConstants.UPDATE_PARKING_SPOT);
+            ps.setBoolean(1, parkingSpot.isAvailable());
+            ps.setInt(2, parkingSpot.getId());
+            int updateRowCount = ps.executeUpdate();
+            dataBaseConfig.closePreparedStatement(ps);
+            return (updateRowCount == 1);
+        }catch (Exception ex){
+            logger.error("Error updating parking info",ex);
+            dataBaseConfig.recordError(ex);
+            return false;
+        }finally {
+            dataBaseConfig.closeConnection(con);
+        }
+    }
+
+}
@@ -0,0 +1,226 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.config.DataBaseConfig;
+import com.parkit.parkingsystem.constants.DBConstants;
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.model.CustomerStats;
+import com.parkit.parkingsystem.model.ParkingSpot;
+import com.parkit.parkingsystem.model.Ticket;
+import com.parkit.parkingsystem.util.PlateCodec;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The IN_TIME and OUT_TIME DATETIME columns hold UTC date-times, bound as {@link LocalDateTime} so that neither
+ * the driver nor the server shifts them to their own time zone.
+ * <p>
+ * The customer stats are read from a replica unless the vehicle was written too recently for it to have them,
+ * the tickets always from the primary: the open ticket is read at the exit, right after the entry.
+ */
+public class JdbcTicketDAO implements TicketDAO {
+
+    private static final Logger logger = LogManager.getLogger("JdbcTicketDAO");
+
+    public DataBaseConfig dataBaseConfig = new DataBaseConfig();
+
+    @Override
+    public boolean saveTicket(Ticket ticket) {
+        Connection con = null;
+        try {
+            con = dataBaseConfig.getConnection();
+            //the ticket and the visit of the customer are stored together
+            con.setAutoCommit(false);
+            long vehicleKey = PlateCodec.key(ticket.getVehicleRegNumber());
+            PreparedStatement ps = con.prepareStatement(DBConstants.SAVE_TICKET);
+            //ID, PARKING_NUMBER, VEHICLE_REG_NUMBER, VEHICLE_KEY, PRICE, IN_TIME, OUT_TIME)
+            //ps.setInt(1,ticket.getId());
+            ps.setInt(1, ticket.getParkingSpot().getId());
+            ps.setString(2, ticket.getVehicleRegNumber());
+            ps.setLong(3, vehicleKey);
+            ps.setDouble(4, ticket.getPrice());
+            ps.setObject(5, toUtcDateTime(ticket.getInTimeMillis()));
+            ps.setObject(6, toUtcDateTime(ticket.getOutTimeMillis()));
+            boolean saved = ps.executeUpdate() == 1;
+            dataBaseConfig.closePreparedStatement(ps);
+            PreparedStatement visit = con.prepareStatement(DBConstants.RECORD_CUSTOMER_VISIT);
+            visit.setLong(1, vehicleKey);
+            visit.setString(2, ticket.getVehicleRegNumber());
+            visit.setObject(3, toUtcDateTime(ticket.getInTimeMillis()));
+            visit.setObject(4, toUtcDateTime(ticket.getInTimeMillis()));
+            visit.executeUpdate();
+            dataBaseConfig.closePreparedStatement(visit);
+            con.commit();
+            dataBaseConfig.recordWrite(vehicleKey);
+            return saved;
+        } catch (Exception ex) {
+            logger.error("Error fetching next available slot", ex);
+            dataBaseConfig.recordError(ex);
+            rollback(con);
+            return false;
+        } finally {
+            dataBaseConfig.closeConnection(con);
+        }
+    }
+
+    @Override
+    public Ticket getTicketWithRecentInTime(String vehicleRegNumber) {
+        long vehicleKey = PlateCodec.tryKey(vehicleRegNumber);
+        if (vehicleKey == PlateCodec.INVALID) {
+            return null;
+        }
+        Connection con = null;
+        Ticket ticket = null;
+        try {
+            con = dataBaseConfig.getConnection();
+            PreparedStatement ps = con.prepareStatement(DBConstants.GET_TICKET_WITH_RECENT_IN_TIME);
+            //ID, PARKING_NUMBER, VEHICLE_REG_NUMBER, PRICE, IN_TIME, OUT_TIME
+            ps.setLong(1, vehicleKey);
+            ResultSet rs = ps.executeQuery();
+            if (rs.next()) {
+                ticket = new Ticket();
+                ParkingSpot parkingSpot = new ParkingSpot(rs.getInt(1), ParkingType.of(rs.getString(6)), false);
+                ticket.setParkingSpot(parkingSpot);
+                ticket.setId(rs.getInt(2));
+                ticket.setVehicleRegNumber(vehicleRegNumber);
+                ticket.setPrice(rs.getDouble(3));
+                ticket.setInTimeMillis(readUtcDateTime(rs, 4));
+                ticket.setOutTimeMillis(readUtcDateTime(rs, 5));
+            }
+            dataBaseConfig.closeResultSet(rs);
+            dataBaseConfig.closePreparedStatement(ps);
+        } catch (Exception ex) {
+            logger.error("Error fetching next available slot", ex);
+            dataBaseConfig.recordError(ex);
+        } finally {
+            dataBaseConfig.closeConnection(con);
+        }
+        return ticket;
+    }
+
+    @Override
+    public boolean updateTicket(Ticket ticket) {
+        Connection con = null;
+        try {
+            con = dataBaseConfig.getConnection();
+            con.setAutoCommit(false);
+            PreparedStatement payment = con.prepareStatement(DBConstants.RECORD_CUSTOMER_PAYMENT);
+            payment.setDouble(1, ticket.getPrice());
+            payment.setInt(2, ticket.getId());
+            payment.setObject(3, toUtcDateTime(ticket.getOutTimeMillis()));
+            payment.setLong(4, PlateCodec.key(ticket.getVehicleRegNumber()));
+            payment.executeUpdate();
+            dataBaseConfig.closePreparedStatement(payment);
+            PreparedStatement ps = con.prepareStatement(DBConstants.UPDATE_TICKET);
+            ps.setDouble(1, ticket.getPrice());
+            ps.setObject(2, toUtcDateTime(ticket.getOutTimeMillis()));
+            ps.setInt(3, ticket.getId());
+            ps.execute();
+            dataBaseConfig.closePreparedStatement(ps);
+            con.commit();
+            dataBaseConfig.recordWrite(PlateCodec.key(ticket.getVehicleRegNumber()));
+            return true;
+        } catch (Exception ex) {
+            logger.error("Error saving ticket info", ex);
+            dataBaseConfig.recordError(ex);
+            rollback(con);
+            return false;
+        } finally {
+            dataBaseConfig.closeConnection(con);
+        }
+    }
+
+    @Override
+    public int getNbTickets(String vehicleRegNumber) {
+        CustomerStats customerStats = getCustomerStats(vehicleRegNumber);
+        return customerStats == null ? 0 : customerStats.getVisitCount();
+    }
+
+    @Override
+    public CustomerStats getCustomerStats(String vehicleRegNumber) {
+        long vehicleKey = PlateCodec.tryKey(vehicleRegNumber);
+        if (vehicleKey == PlateCodec.INVALID) {
+            return null;
+        }
+        Connection con = null;
+        CustomerStats customerStats = null;
+        try {
+            con = dataBaseConfig.getReadConnection(vehicleKey);
+            PreparedStatement ps = con.prepareStatement(DBConstants.GET_CUSTOMER_STATS);
+            ps.setLong(1, vehicleKey);
+            ResultSet rs = ps.executeQuery();
+            if (rs.next()) {
+                customerStats = new CustomerStats(vehicleRegNumber, rs.getInt(1), readUtcDateTime(rs, 2), rs.getDouble(3));
+            }
+            dataBaseConfig.closeResultSet(rs);
+            dataBaseConfig.closePreparedStatement(ps);
+        } catch (Exception ex) {
+            logger.error("Error fetching customer stats", ex);
+            dataBaseConfig.recordError(ex);
+        } finally {
+            dataBaseConfig.closeConnection(con);
+        }
+        return customerStats;
+    }
+
+    /**
+     * @return the tickets of the vehicles still parked, or an empty list when they cannot be read
+     */
+    public List<Ticket> getOpenTickets() {
+        Connection con = null;
+        List<Ticket> tickets = new ArrayList<>();
+        try {
+            con = dataBaseConfig.getConnection();
+            PreparedStatement ps = con.prepareStatement(DBConstants.GET_OPEN_TICKETS);
+            ResultSet rs = ps.executeQuery();
+            while (rs.next()) {
+                Ticket ticket = new Ticket();
+                ticket.setParkingSpot(new ParkingSpot(rs.getInt(1), ParkingType.of(rs.getString(6)), false));
+                ticket.setId(rs.getInt(2));
+                ticket.setPrice(rs.getDouble(3));
+                ticket.setInTimeMillis(readUtcDateTime(rs, 4));
+                ticket.setVehicleRegNumber(rs.getString(5));
+                tickets.add(ticket);
+            }
+            dataBaseConfig.closeResultSet(rs);
+            dataBaseConfig.closePreparedStatement(ps);
+        } catch (Exception ex) {
+            logger.error("Error fetching open tickets", ex);
+            dataBaseConfig.recordError(ex);
+            tickets.clear();
+        } finally {
+            dataBaseConfig.closeConnection(con);
+        }
+        return tickets;
+    }
+
+    private static void rollback(Connection con) {
+        if (con != null) {
+            try {
+                con.rollback();
+            } catch (SQLException e) {
+                logger.error("Error rolling back", e);
+            }
+        }
+    }
+
+    static LocalDateTime toUtcDateTime(long epochMillis) {
+        if (epochMillis == Ticket.NO_TIME) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, 1000L), (int) Math.floorMod(epochMillis, 1000L) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    static long readUtcDateTime(ResultSet rs, int column) throws SQLException {
+        LocalDateTime dateTime = rs.getObject(column, LocalDateTime.class);
+        return dateTime == null ? Ticket.NO_TIME : dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
@@ -0,0 +1,59 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.config.DataBaseConfig;
+import com.parkit.parkingsystem.constants.DBConstants;
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.model.ParkingSpot;
+import com.parkit.parkingsystem.model.Ticket;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Reads every ticket, archived ones included, in id order without loading them all: the MySQL driver streams
+ * the rows of a forward-only statement with a fetch size of {@link Integer#MIN_VALUE}. They are read from a
+ * replica when there is one.
+ */
+public class JdbcTicketStream implements Closeable {
+
+    private final DataBaseConfig dataBaseConfig;
+    private final Connection con;
+    private final PreparedStatement ps;
+    private final ResultSet rs;
+
+    public JdbcTicketStream(DataBaseConfig dataBaseConfig) throws SQLException, ClassNotFoundException {
+        this.dataBaseConfig = dataBaseConfig;
+        this.con = dataBaseConfig.getReadConnection();
+        this.ps = con.prepareStatement(DBConstants.GET_ALL_TICKETS, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        ps.setFetchSize(Integer.MIN_VALUE);
+        this.rs = ps.executeQuery();
+    }
+
+    /**
+     * @return the next ticket, or null after the last one
+     */
+    public Ticket next() throws SQLException {
+        if (!rs.next()) {
+            return null;
+        }
+        //ID, PARKING_NUMBER, TYPE, VEHICLE_REG_NUMBER, PRICE, IN_TIME, OUT_TIME
+        Ticket ticket = new Ticket();
+        ticket.setId(rs.getInt(1));
+        ticket.setParkingSpot(new ParkingSpot(rs.getInt(2), ParkingType.of(rs.getString(3)), false));
+        ticket.setVehicleRegNumber(rs.getString(4));
+        ticket.setPrice(rs.getDouble(5));
+        ticket.setInTimeMillis(JdbcTicketDAO.readUtcDateTime(rs, 6));
+        ticket.setOutTimeMillis(JdbcTicketDAO.readUtcDateTime(rs, 7));
+        return ticket;
+    }
+
+    @Override
+    public void close() {
+        dataBaseConfig.closeResultSet(rs);
+        dataBaseConfig.closePreparedStatement(ps);
+        dataBaseConfig.closeConnection(con);
+    }
+}
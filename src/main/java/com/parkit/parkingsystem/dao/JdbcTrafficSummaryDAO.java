@@ -0,0 +1,84 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.config.DataBaseConfig;
+import com.parkit.parkingsystem.constants.DBConstants;
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.model.HourlyTraffic;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stores the hourly traffic in traffic_summary, keyed by type and hour, so that a report reads one row per hour
+ * instead of scanning the tickets. The reports read it from a replica when there is one.
+ */
+public class JdbcTrafficSummaryDAO implements TrafficSummaryDAO {
+
+    private static final Logger logger = LogManager.getLogger("JdbcTrafficSummaryDAO");
+
+    public DataBaseConfig dataBaseConfig = new DataBaseConfig();
+
+    @Override
+    public boolean addHourlyTraffic(List<HourlyTraffic> hourlyTraffic) {
+        Connection con = null;
+        try {
+            con = dataBaseConfig.getConnection();
+            con.setAutoCommit(false);
+            PreparedStatement ps = con.prepareStatement(DBConstants.ADD_HOURLY_TRAFFIC);
+            for (HourlyTraffic hour : hourlyTraffic) {
+                ps.setString(1, hour.getParkingType().toString());
+                ps.setObject(2, JdbcTicketDAO.toUtcDateTime(hour.getHourStartMillis()));
+                ps.setInt(3, hour.getExits());
+                ps.setDouble(4, hour.getRevenue());
+                ps.setLong(5, hour.getOccupiedMillis());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            dataBaseConfig.closePreparedStatement(ps);
+            con.commit();
+            return true;
+        } catch (Exception ex) {
+            logger.error("Error saving hourly traffic", ex);
+            if (con != null) {
+                try {
+                    con.rollback();
+                } catch (SQLException e) {
+                    logger.error("Error rolling back", e);
+                }
+            }
+            return false;
+        } finally {
+            dataBaseConfig.closeConnection(con);
+        }
+    }
+
+    @Override
+    public List<HourlyTraffic> getHourlyTraffic(ParkingType parkingType, long fromMillis, long toMillis) {
+        Connection con = null;
+        List<HourlyTraffic> hourlyTraffic = new ArrayList<>();
+        try {
+            con = dataBaseConfig.getReadConnection();
+            PreparedStatement ps = con.prepareStatement(DBConstants.GET_HOURLY_TRAFFIC);
+            ps.setString(1, parkingType.toString());
+            ps.setObject(2, JdbcTicketDAO.toUtcDateTime(fromMillis));
+            ps.setObject(3, JdbcTicketDAO.toUtcDateTime(toMillis));
+            ResultSet rs = ps.executeQuery();
+            while (rs.next()) {
+                hourlyTraffic.add(new HourlyTraffic(parkingType, JdbcTicketDAO.readUtcDateTime(rs, 1), rs.getInt(2), rs.getDouble(3), rs.getLong(4)));
+            }
+            dataBaseConfig.closeResultSet(rs);
+            dataBaseConfig.closePreparedStatement(ps);
+        } catch (Exception ex) {
+            logger.error("Error fetching hourly traffic", ex);
+        } finally {
+            dataBaseConfig.closeConnection(con);
+        }
+        return hourlyTraffic;
+    }
+}
@@ -1,59 +1,42 @@
 package com.parkit.parkingsystem.dao;
 
-import com.parkit.parkingsystem.config.DataBaseConfig;
-import com.parkit.parkingsystem.constants.DBConstants;
 import com.parkit.parkingsystem.constants.ParkingType;
 import com.parkit.parkingsystem.model.ParkingSpot;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
-
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-
-public class ParkingSpotDAO {
-    private static final Logger logger = LogManager.getLogger("ParkingSpotDAO");
-
-    public DataBaseConfig dataBaseConfig = new DataBaseConfig();
-
-    public int getNextAvailableSlot(ParkingType parkingType){
-        Connection con = null;
-        int result=-1;
-        try {
-            con = dataBaseConfig.getConnection();
-            PreparedStatement ps = con.prepareStatement(DBConstants.GET_NEXT_PARKING_SPOT);
-            ps.setString(1, parkingType.toString());
-            ResultSet rs = ps.executeQuery();
-            if(rs.next()){
-                result = rs.getInt(1);;
-            }
-            dataBaseConfig.closeResultSet(rs);
-            dataBaseConfig.closePreparedStatement(ps);
-        }catch (Exception ex){
-            logger.error("Error fetching next available slot",ex);
-        }finally {
-            dataBaseConfig.closeConnection(con);
-        }
-        return result;
-    }
-
-    public boolean updateParking(ParkingSpot parkingSpot){
-        //update the availability fo that parking slot
-        Connection con = null;
-        try {
-            con = dataBaseConfig.getConnection();
-            PreparedStatement ps = con.prepareStatement(DBConstants.UPDATE_PARKING_SPOT);
-            ps.setBoolean(1, parkingSpot.isAvailable());
-            ps.setInt(2, parkingSpot.getId());
-            int updateRowCount = ps.executeUpdate();
-            dataBaseConfig.closePreparedStatement(ps);
-            return (updateRowCount == 1);
-        }catch (Exception ex){
-            logger.error("Error updating parking info",ex);
-            return false;
-        }finally {
-            dataBaseConfig.closeConnection(con);
-        }
-    }
 
+import java.util.List;
+
+public interface ParkingSpotDAO {
+
+    /**
+     * @return the lowest available spot number for the given type, 0 when none is available and -1 on error
+     */
+    int getNextAvailableSlot(ParkingType parkingType);
+
+    /**
+     * Stores the lowest available spot of the given type unavailable, no two callers getting the same spot.
+     * @return its number, 0 when none is available and -1 on error
+     */
+    int takeNextAvailableSlot(ParkingType parkingType);
+
+    /**
+     * Stores the given spot unavailable if it is available, no two callers taking the same spot.
+     * @return true when this call took it
+     */
+    boolean takeParkingSpot(int number);
+
+    /**
+     * @return the spot with the given number, or null when there is none or on error
+     */
+    ParkingSpot getParkingSpot(int number);
+
+    /**
+     * @return every spot, in no particular order, or an empty list on error
+     */
+    List<ParkingSpot> getParkingSpots();
+
+    /**
+     * Stores the availability of the given spot.
+     * @return true when the spot exists and was updated
+     */
+    boolean updateParking(ParkingSpot parkingSpot);
 }
@@ -0,0 +1,81 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.config.DataBaseConfig;
+import com.parkit.parkingsystem.constants.DBConstants;
+import com.parkit.parkingsystem.util.PlateCodec;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Normalizes the registration numbers of the tickets and archived tickets stored before the plates were
+ * normalized, and fills their VEHICLE_KEY, left at 0 by the column migration. The plates that cannot be
+ * normalized keep a key of 0, are logged, and are no longer found by the gates.
+ * It is meant to run once, before the gates start, followed by a rebuild of customer_stats.
+ */
+public class PlateKeyMigration {
+    private static final Logger logger = LogManager.getLogger("PlateKeyMigration");
+    private static final int BATCH_SIZE = 500;
+
+    private final DataBaseConfig dataBaseConfig;
+
+    public PlateKeyMigration(DataBaseConfig dataBaseConfig) {
+        this.dataBaseConfig = dataBaseConfig;
+    }
+
+    /**
+     * @return the number of distinct plates given a key
+     */
+    public int migrate() throws SQLException, ClassNotFoundException {
+        Connection con = null;
+        try {
+            con = dataBaseConfig.getConnection();
+            List<String> plates = new ArrayList<>();
+            PreparedStatement select = con.prepareStatement(DBConstants.GET_PLATES_WITHOUT_KEY);
+            ResultSet rs = select.executeQuery();
+            while (rs.next()) {
+                plates.add(rs.getString(1));
+            }
+            dataBaseConfig.closeResultSet(rs);
+            dataBaseConfig.closePreparedStatement(select);
+
+            con.setAutoCommit(false);
+            PreparedStatement tickets = con.prepareStatement(DBConstants.SET_TICKET_PLATE_KEY);
+            PreparedStatement archivedTickets = con.prepareStatement(DBConstants.SET_ARCHIVED_TICKET_PLATE_KEY);
+            int migrated = 0;
+            for (String plate : plates) {
+                long vehicleKey = PlateCodec.tryKey(plate);
+                if (vehicleKey == PlateCodec.INVALID) {
+                    logger.warn("Cannot normalize the registration number " + plate + ", its tickets are left without key");
+                    continue;
+                }
+                for (PreparedStatement ps : new PreparedStatement[]{tickets, archivedTickets}) {
+                    ps.setString(1, PlateCodec.decode(vehicleKey));
+                    ps.setLong(2, vehicleKey);
+                    ps.setString(3, plate);
+                    ps.addBatch();
+                }
+                if (++migrated % BATCH_SIZE == 0) {
+                    tickets.executeBatch();
+                    archivedTickets.executeBatch();
+                    con.commit();
+                }
+            }
+            tickets.executeBatch();
+            archivedTickets.executeBatch();
+            con.commit();
+            dataBaseConfig.closePreparedStatement(tickets);
+            dataBaseConfig.closePreparedStatement(archivedTickets);
+            logger.info("Gave a key to the tickets of " + migrated + " of " + plates.size() + " plates");
+            return migrated;
+        } finally {
+            dataBaseConfig.closeConnection(con);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.config.DataBaseConfig;
+import com.parkit.parkingsystem.constants.DBConstants;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves the closed tickets older than a given age from ticket to ticket_archive, so that the queries of the
+ * entries and exits only go through the recent tickets. Tickets are moved in small transactions, lowest ids
+ * first, with a pause between them to leave room to the gates.
+ */
+public class TicketArchiver implements Closeable {
+    private static final Logger logger = LogManager.getLogger("TicketArchiver");
+    private static final long RUN_INTERVAL_MINUTES = 60;
+    private static final long PAUSE_BETWEEN_BATCHES_MILLIS = 200;
+
+    private final DataBaseConfig dataBaseConfig;
+    private final long maxAgeMillis;
+    private final int batchSize;
+    private final Clock clock;
+    private ScheduledExecutorService scheduler;
+
+    public TicketArchiver(DataBaseConfig dataBaseConfig, long maxAgeMillis, int batchSize, Clock clock) {
+        this.dataBaseConfig = dataBaseConfig;
+        this.maxAgeMillis = maxAgeMillis;
+        this.batchSize = batchSize;
+        this.clock = clock;
+    }
+
+    /**
+     * Archives in the background every hour.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ticket-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::archive, RUN_INTERVAL_MINUTES, RUN_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Archives every ticket closed before the maximum age, batch after batch.
+     * @return the number of tickets archived
+     */
+    public int archive() {
+        LocalDateTime cutoff = JdbcTicketDAO.toUtcDateTime(clock.millis() - maxAgeMillis);
+        int archived = 0;
+        try {
+            int moved;
+            do {
+                moved = archiveBatch(cutoff);
+                archived += moved;
+                if (moved == batchSize) {
+                    Thread.sleep(PAUSE_BETWEEN_BATCHES_MILLIS);
+                }
+            } while (moved == batchSize);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.error("Error archiving tickets", e);
+        }
+        if (archived > 0) {
+            logger.info("Archived " + archived + " tickets closed before " + cutoff);
+        }
+        return archived;
+    }
+
+    private int archiveBatch(LocalDateTime cutoff) throws SQLException, ClassNotFoundException {
+        Connection con = null;
+        try {
+            con = dataBaseConfig.getConnection();
+            con.setAutoCommit(false);
+            int lastId = getBatchLastId(con, cutoff);
+            if (lastId == 0) {
+                con.commit();
+                return 0;
+            }
+            PreparedStatement insert = con.prepareStatement(DBConstants.ARCHIVE_TICKETS);
+            insert.setObject(1, cutoff);
+            insert.setInt(2, lastId);
+            insert.executeUpdate();
+            dataBaseConfig.closePreparedStatement(insert);
+            PreparedStatement delete = con.prepareStatement(DBConstants.DELETE_ARCHIVED_TICKETS);
+            delete.setObject(1, cutoff);
+            delete.setInt(2, lastId);
+            int moved = delete.executeUpdate();
+            dataBaseConfig.closePreparedStatement(delete);
+            con.commit();
+            return moved;
+        } catch (SQLException e) {
+            if (con != null) {
+                con.rollback();
+            }
+            throw e;
+        } finally {
+            dataBaseConfig.closeConnection(con);
+        }
+    }
+
+    private int getBatchLastId(Connection con, LocalDateTime cutoff) throws SQLException {
+        PreparedStatement ps = con.prepareStatement(DBConstants.GET_ARCHIVE_BATCH_LAST_ID);
+        ps.setObject(1, cutoff);
+        ps.setInt(2, batchSize);
+        ResultSet rs = ps.executeQuery();
+        int lastId = rs.next() ? rs.getInt(1) : 0;
+        dataBaseConfig.closeResultSet(rs);
+        dataBaseConfig.closePreparedStatement(ps);
+        return lastId;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+}
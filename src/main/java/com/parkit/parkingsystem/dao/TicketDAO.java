@@ -1,110 +1,33 @@
 package com.parkit.parkingsystem.dao;
 
-import com.parkit.parkingsystem.config.DataBaseConfig;
-import com.parkit.parkingsystem.constants.DBConstants;
-import com.parkit.parkingsystem.constants.ParkingType;
-import com.parkit.parkingsystem.model.ParkingSpot;
+import com.parkit.parkingsystem.model.CustomerStats;
 import com.parkit.parkingsystem.model.Ticket;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.Timestamp;
-
-public class TicketDAO {
-
-    private static final Logger logger = LogManager.getLogger("TicketDAO");
-
-    public DataBaseConfig dataBaseConfig = new DataBaseConfig();
-
-    public boolean saveTicket(Ticket ticket) {
-        Connection con = null;
-        try {
-            con = dataBaseConfig.getConnection();
-            PreparedStatement ps = con.prepareStatement(DBConstants.SAVE_TICKET);
-            //ID, PARKING_NUMBER, VEHICLE_REG_NUMBER, PRICE, IN_TIME, OUT_TIME)
-            //ps.setInt(1,ticket.getId());
-            ps.setInt(1, ticket.getParkingSpot().getId());
-            ps.setString(2, ticket.getVehicleRegNumber());
-            ps.setDouble(3, ticket.getPrice());
-            ps.setTimestamp(4, new Timestamp(ticket.getInTime().getTime()));
-            ps.setTimestamp(5, (ticket.getOutTime() == null) ? null : (new Timestamp(ticket.getOutTime().getTime())));
-            return ps.execute();
-        } catch (Exception ex) {
-            logger.error("Error fetching next available slot", ex);
-            return false;
-        } finally {
-            dataBaseConfig.closeConnection(con);
-        }
-    }
-
-    public Ticket getTicketWithRecentInTime(String vehicleRegNumber) {
-        Connection con = null;
-        Ticket ticket = null;
-        try {
-            con = dataBaseConfig.getConnection();
-            PreparedStatement ps = con.prepareStatement(DBConstants.GET_TICKET_WITH_RECENT_IN_TIME);
-            //ID, PARKING_NUMBER, VEHICLE_REG_NUMBER, PRICE, IN_TIME, OUT_TIME
-            ps.setString(1, vehicleRegNumber);
-            ResultSet rs = ps.executeQuery();
-            if (rs.next()) {
-                ticket = new Ticket();
-                ParkingSpot parkingSpot = new ParkingSpot(rs.getInt(1), ParkingType.valueOf(rs.getString(6)), false);
-                ticket.setParkingSpot(parkingSpot);
-                ticket.setId(rs.getInt(2));
-                ticket.setVehicleRegNumber(vehicleRegNumber);
-                ticket.setPrice(rs.getDouble(3));
-                ticket.setInTime(rs.getTimestamp(4));
-                ticket.setOutTime(rs.getTimestamp(5));
-            }
-            dataBaseConfig.closeResultSet(rs);
-            dataBaseConfig.closePreparedStatement(ps);
-        } catch (Exception ex) {
-            logger.error("Error fetching next available slot", ex);
-        } finally {
-            dataBaseConfig.closeConnection(con);
-        }
-        return ticket;
-    }
-
-    public boolean updateTicket(Ticket ticket) {
-        Connection con = null;
-        try {
-            con = dataBaseConfig.getConnection();
-            PreparedStatement ps = con.prepareStatement(DBConstants.UPDATE_TICKET);
-            ps.setDouble(1, ticket.getPrice());
-            ps.setTimestamp(2, new Timestamp(ticket.getOutTime().getTime()));
-            ps.setInt(3, ticket.getId());
-            ps.execute();
-            return true;
-        } catch (Exception ex) {
-            logger.error("Error saving ticket info", ex);
-            return false;
-        } finally {
-            dataBaseConfig.closeConnection(con);
-        }
-    }
-
-    public int getNbTickets(String vehicleRegNumber) {
-        Connection con = null;
-        int nbTickets = 0;
-        try {
-            con = dataBaseConfig.getConnection();
-            PreparedStatement ps = con.prepareStatement(DBConstants.COUNT_TICKETS);
-            ps.setString(1, vehicleRegNumber);
-            ResultSet rs = ps.executeQuery();
-            if (rs.next()) {
-                nbTickets = rs.getInt(1);
-            }
-            dataBaseConfig.closeResultSet(rs);
-            dataBaseConfig.closePreparedStatement(ps);
-        } catch (Exception ex) {
-            logger.error("Error fetching number of tickets", ex);
-        } finally {
-            dataBaseConfig.closeConnection(con);
-        }
-        return nbTickets;
-    }
+public interface TicketDAO {
+
+    /**
+     * @return true when the ticket was stored
+     */
+    boolean saveTicket(Ticket ticket);
+
+    /**
+     * @return the ticket of the vehicle with the most recent in-time, or null when the vehicle has none
+     */
+    Ticket getTicketWithRecentInTime(String vehicleRegNumber);
+
+    /**
+     * Stores the price and out-time of the ticket with the same id.
+     * @return true when the update succeeded
+     */
+    boolean updateTicket(Ticket ticket);
+
+    /**
+     * @return the number of tickets ever issued to the vehicle
+     */
+    int getNbTickets(String vehicleRegNumber);
+
+    /**
+     * @return the visit count, last visit and total spent of the vehicle, or null when it never came
+     */
+    CustomerStats getCustomerStats(String vehicleRegNumber);
 }
@@ -0,0 +1,54 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.model.ParkingSpot;
+import com.parkit.parkingsystem.model.Ticket;
+import com.parkit.parkingsystem.util.PlateCodec;
+
+/**
+ * Immutable version of a ticket as stored by the in-memory DAOs.
+ */
+final class TicketRecord {
+    static final long NO_TIME = Ticket.NO_TIME;
+
+    final int id;
+    final int parkingNumber;
+    final ParkingType parkingType;
+    final String vehicleRegNumber;
+    //PlateCodec.INVALID for the plates stored before they were normalized
+    final long vehicleKey;
+    final double price;
+    final long inTime;
+    final long outTime;
+
+    TicketRecord(int id, int parkingNumber, ParkingType parkingType, String vehicleRegNumber, double price, long inTime, long outTime) {
+        this.id = id;
+        this.parkingNumber = parkingNumber;
+        this.parkingType = parkingType;
+        this.vehicleRegNumber = vehicleRegNumber;
+        this.vehicleKey = PlateCodec.tryKey(vehicleRegNumber);
+        this.price = price;
+        this.inTime = inTime;
+        this.outTime = outTime;
+    }
+
+    static TicketRecord of(int id, Ticket ticket) {
+        return new TicketRecord(id, ticket.getParkingSpot().getId(), ticket.getParkingSpot().getParkingType(),
+                ticket.getVehicleRegNumber(), ticket.getPrice(), ticket.getInTimeMillis(), ticket.getOutTimeMillis());
+    }
+
+    TicketRecord withExit(double price, long outTime) {
+        return new TicketRecord(id, parkingNumber, parkingType, vehicleRegNumber, price, inTime, outTime);
+    }
+
+    Ticket toTicket() {
+        Ticket ticket = new Ticket();
+        ticket.setId(id);
+        ticket.setParkingSpot(new ParkingSpot(parkingNumber, parkingType, false));
+        ticket.setVehicleRegNumber(vehicleRegNumber);
+        ticket.setPrice(price);
+        ticket.setInTimeMillis(inTime);
+        ticket.setOutTimeMillis(outTime);
+        return ticket;
+    }
+}
@@ -0,0 +1,94 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.config.DataBaseConfig;
+import com.parkit.parkingsystem.constants.DBConstants;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Converts the IN_TIME and OUT_TIME of the tickets and archived tickets stored before the times were kept in
+ * UTC, which hold the wall-clock time of the zone the gates ran in, to UTC. The shift follows the daylight
+ * saving changes of that zone; a time repeated when the clocks go back is taken as the earlier one.
+ * It shifts every row, in a single transaction, so it is meant to run exactly once, with the gates stopped,
+ * before the customer stats are rebuilt.
+ */
+public class TicketTimeMigration {
+    private static final Logger logger = LogManager.getLogger("TicketTimeMigration");
+    private static final int BATCH_SIZE = 500;
+
+    private final DataBaseConfig dataBaseConfig;
+    private final ZoneId zone;
+
+    /**
+     * @param zone the zone of the gates which wrote the tickets
+     */
+    public TicketTimeMigration(DataBaseConfig dataBaseConfig, ZoneId zone) {
+        this.dataBaseConfig = dataBaseConfig;
+        this.zone = zone;
+    }
+
+    /**
+     * @return the number of tickets and archived tickets converted
+     */
+    public long migrate() throws SQLException, ClassNotFoundException {
+        Connection con = null;
+        try {
+            con = dataBaseConfig.getConnection();
+            con.setAutoCommit(false);
+            try {
+                long migrated = migrate(con, DBConstants.GET_TICKET_TIMES, DBConstants.SET_TICKET_TIMES)
+                        + migrate(con, DBConstants.GET_ARCHIVED_TICKET_TIMES, DBConstants.SET_ARCHIVED_TICKET_TIMES);
+                con.commit();
+                logger.info("Converted the times of " + migrated + " tickets from " + zone + " to UTC");
+                return migrated;
+            } catch (SQLException e) {
+                con.rollback();
+                throw e;
+            }
+        } finally {
+            dataBaseConfig.closeConnection(con);
+        }
+    }
+
+    private long migrate(Connection con, String selectSql, String updateSql) throws SQLException {
+        PreparedStatement select = con.prepareStatement(selectSql);
+        PreparedStatement update = con.prepareStatement(updateSql);
+        long lastId = 0;
+        long migrated = 0;
+        while (true) {
+            select.setLong(1, lastId);
+            select.setInt(2, BATCH_SIZE);
+            ResultSet rs = select.executeQuery();
+            int rows = 0;
+            while (rs.next()) {
+                lastId = rs.getLong(1);
+                update.setObject(1, toUtc(rs.getObject(2, LocalDateTime.class), zone));
+                update.setObject(2, toUtc(rs.getObject(3, LocalDateTime.class), zone));
+                update.setLong(3, lastId);
+                update.addBatch();
+                rows++;
+            }
+            dataBaseConfig.closeResultSet(rs);
+            if (rows == 0) {
+                break;
+            }
+            update.executeBatch();
+            migrated += rows;
+        }
+        dataBaseConfig.closePreparedStatement(select);
+        dataBaseConfig.closePreparedStatement(update);
+        return migrated;
+    }
+
+    static LocalDateTime toUtc(LocalDateTime localDateTime, ZoneId zone) {
+        return localDateTime == null ? null : localDateTime.atZone(zone).withZoneSameInstant(ZoneOffset.UTC).toLocalDateTime();
+    }
+}
@@ -0,0 +1,21 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.model.HourlyTraffic;
+
+import java.util.List;
+
+public interface TrafficSummaryDAO {
+
+    /**
+     * Adds the exits, revenue and occupied time of each entry to the stored hour of the same type.
+     * @return true when every entry was stored
+     */
+    boolean addHourlyTraffic(List<HourlyTraffic> hourlyTraffic);
+
+    /**
+     * @return the stored hours of the type starting from the first time (inclusive) to the second (exclusive),
+     * in time order
+     */
+    List<HourlyTraffic> getHourlyTraffic(ParkingType parkingType, long fromMillis, long toMillis);
+}
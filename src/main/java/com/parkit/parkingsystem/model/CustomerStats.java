@@ -0,0 +1,40 @@
+package com.parkit.parkingsystem.model;
+
+import java.time.Instant;
+
+/**
+ * Loyalty figures of a vehicle: its number of visits, the time of its last entry or exit and the total it paid.
+ */
+public class CustomerStats {
+    private final String vehicleRegNumber;
+    private final int visitCount;
+    private final long lastVisitMillis;
+    private final double totalSpent;
+
+    public CustomerStats(final String vehicleRegNumber, final int visitCount, final long lastVisitMillis, final double totalSpent) {
+        this.vehicleRegNumber = vehicleRegNumber;
+        this.visitCount = visitCount;
+        this.lastVisitMillis = lastVisitMillis;
+        this.totalSpent = totalSpent;
+    }
+
+    public String getVehicleRegNumber() {
+        return vehicleRegNumber;
+    }
+
+    public int getVisitCount() {
+        return visitCount;
+    }
+
+    public long getLastVisitMillis() {
+        return lastVisitMillis;
+    }
+
+    public Instant getLastVisit() {
+        return Instant.ofEpochMilli(lastVisitMillis);
+    }
+
+    public double getTotalSpent() {
+        return totalSpent;
+    }
+}
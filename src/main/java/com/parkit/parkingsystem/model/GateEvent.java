@@ -0,0 +1,34 @@
+package com.parkit.parkingsystem.model;
+
+import com.parkit.parkingsystem.constants.GateOperation;
+import com.parkit.parkingsystem.constants.ParkingType;
+
+public class GateEvent {
+    private final long timestamp;
+    private final GateOperation operation;
+    private final ParkingType parkingType;
+    private final String vehicleRegNumber;
+
+    public GateEvent(final long timestamp, final GateOperation operation, final ParkingType parkingType, final String vehicleRegNumber) {
+        this.timestamp = timestamp;
+        this.operation = operation;
+        this.parkingType = parkingType;
+        this.vehicleRegNumber = vehicleRegNumber;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public GateOperation getOperation() {
+        return operation;
+    }
+
+    public ParkingType getParkingType() {
+        return parkingType;
+    }
+
+    public String getVehicleRegNumber() {
+        return vehicleRegNumber;
+    }
+}
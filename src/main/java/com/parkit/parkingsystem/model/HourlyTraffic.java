@@ -0,0 +1,58 @@
+package com.parkit.parkingsystem.model;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+
+import java.time.Instant;
+
+/**
+ * Traffic of the spots of a type during one hour: the exits and the revenue of the tickets paid in that hour,
+ * and the time spent parked in that hour by all the vehicles that have left.
+ */
+public class HourlyTraffic {
+    public static final long HOUR_MILLIS = 3_600_000L;
+
+    private final ParkingType parkingType;
+    private final long hourStartMillis;
+    private final int exits;
+    private final double revenue;
+    private final long occupiedMillis;
+
+    public HourlyTraffic(final ParkingType parkingType, final long hourStartMillis, final int exits, final double revenue, final long occupiedMillis) {
+        this.parkingType = parkingType;
+        this.hourStartMillis = hourStartMillis;
+        this.exits = exits;
+        this.revenue = revenue;
+        this.occupiedMillis = occupiedMillis;
+    }
+
+    public ParkingType getParkingType() {
+        return parkingType;
+    }
+
+    public long getHourStartMillis() {
+        return hourStartMillis;
+    }
+
+    public Instant getHourStart() {
+        return Instant.ofEpochMilli(hourStartMillis);
+    }
+
+    public int getExits() {
+        return exits;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+
+    public long getOccupiedMillis() {
+        return occupiedMillis;
+    }
+
+    /**
+     * @return the average number of spots taken during the hour
+     */
+    public double getAverageOccupancy() {
+        return (double) occupiedMillis / HOUR_MILLIS;
+    }
+}
@@ -0,0 +1,79 @@
+package com.parkit.parkingsystem.model;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Where each spot of the lot is: its zone (the ramp serving it), its level and its walking distance to the exit.
+ */
+public class ParkingLayout {
+
+    private final List<SpotLocation> spots;
+
+    public ParkingLayout(List<SpotLocation> spots) {
+        this.spots = Collections.unmodifiableList(new ArrayList<>(spots));
+    }
+
+    public List<SpotLocation> getSpots() {
+        return spots;
+    }
+
+    public int getZoneCount() {
+        int zones = 0;
+        for (SpotLocation spot : spots) {
+            zones = Math.max(zones, spot.getZone() + 1);
+        }
+        return zones;
+    }
+
+    /**
+     * Reads a layout file made of {@code number,type,zone,level,distanceToExit} lines, zones being numbered from 0.
+     * Blank lines and lines starting with # are ignored.
+     */
+    public static ParkingLayout read(Path file) throws IOException {
+        List<SpotLocation> spots = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                if (fields.length != 5) {
+                    throw new IllegalArgumentException("Invalid layout line " + lineNumber + ": " + line);
+                }
+                spots.add(new SpotLocation(Integer.parseInt(fields[0].trim()), ParkingType.valueOf(fields[1].trim().toUpperCase()),
+                        Integer.parseInt(fields[2].trim()), Integer.parseInt(fields[3].trim()), Integer.parseInt(fields[4].trim())));
+            }
+        }
+        return new ParkingLayout(spots);
+    }
+
+    /**
+     * Builds a single level layout numbering the spots from 1 in the order of the given counts, like the seeded
+     * storages do, dealing them to the zones in turn and placing the lowest numbers nearest to the exit.
+     */
+    public static ParkingLayout generate(Map<ParkingType, Integer> spotCounts, int zones) {
+        List<SpotLocation> spots = new ArrayList<>();
+        int number = 1;
+        for (Map.Entry<ParkingType, Integer> spotCount : spotCounts.entrySet()) {
+            for (int i = 0; i < spotCount.getValue(); i++) {
+                spots.add(new SpotLocation(number, spotCount.getKey(), i % zones, 0, number));
+                number++;
+            }
+        }
+        return new ParkingLayout(spots);
+    }
+}
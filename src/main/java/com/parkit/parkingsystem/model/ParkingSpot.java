@@ -2,10 +2,14 @@ package com.parkit.parkingsystem.model;
 
 import com.parkit.parkingsystem.constants.ParkingType;
 
-public class ParkingSpot {
+/**
+ * Immutable: the availability is the one the spot had when it was read, the spot DAO and the allocation
+ * strategy keeping the current one. Spots can then be cached and shared between gates without copies.
+ */
+public final class ParkingSpot {
     private final int number;
     private final ParkingType parkingType;
-    private boolean isAvailable;
+    private final boolean isAvailable;
 
     public ParkingSpot(final int number, final ParkingType parkingType, final boolean isAvailable) {
         this.number = number;
@@ -21,12 +25,19 @@ public class ParkingSpot {
         return parkingType;
     }
 
+    /**
+     * @return the availability of the spot when this value was read or built, not a state to check: ask the
+     * spot DAO for the current one
+     */
     public boolean isAvailable() {
         return isAvailable;
     }
 
-    public void setAvailable(final boolean available) {
-        isAvailable = available;
+    /**
+     * @return this spot when it already has the given availability, a copy with it otherwise
+     */
+    public ParkingSpot withAvailable(final boolean available) {
+        return available == isAvailable ? this : new ParkingSpot(number, parkingType, available);
     }
 
     @Override
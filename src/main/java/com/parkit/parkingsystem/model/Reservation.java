@@ -0,0 +1,64 @@
+package com.parkit.parkingsystem.model;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.constants.ReservationState;
+
+public class Reservation {
+    private final String vehicleRegNumber;
+    private final ParkingType parkingType;
+    private final int requestedSpotNumber;
+    private final long startMillis;
+    private final long endMillis;
+    private volatile int spotNumber;
+    private volatile ReservationState state = ReservationState.PENDING;
+
+    /**
+     * @param requestedSpotNumber the spot to hold, or 0 to hold any spot of the given type
+     */
+    public Reservation(String vehicleRegNumber, ParkingType parkingType, int requestedSpotNumber, long startMillis, long endMillis) {
+        this.vehicleRegNumber = vehicleRegNumber;
+        this.parkingType = parkingType;
+        this.requestedSpotNumber = requestedSpotNumber;
+        this.startMillis = startMillis;
+        this.endMillis = endMillis;
+    }
+
+    public String getVehicleRegNumber() {
+        return vehicleRegNumber;
+    }
+
+    public ParkingType getParkingType() {
+        return parkingType;
+    }
+
+    public int getRequestedSpotNumber() {
+        return requestedSpotNumber;
+    }
+
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    public long getEndMillis() {
+        return endMillis;
+    }
+
+    /**
+     * @return the held spot, 0 until the hold is active
+     */
+    public int getSpotNumber() {
+        return spotNumber;
+    }
+
+    public void setSpotNumber(int spotNumber) {
+        this.spotNumber = spotNumber;
+    }
+
+    public ReservationState getState() {
+        return state;
+    }
+
+    public void setState(ReservationState state) {
+        this.state = state;
+    }
+}
@@ -0,0 +1,55 @@
+package com.parkit.parkingsystem.model;
+
+import com.parkit.parkingsystem.constants.ChangeType;
+import com.parkit.parkingsystem.constants.ParkingType;
+
+/**
+ * A change of the availability of a spot, numbered in the order the changes were made.
+ */
+public class SpotChange {
+    private final long sequence;
+    private final long timestamp;
+    private final ChangeType changeType;
+    private final int parkingNumber;
+    private final ParkingType parkingType;
+    private final boolean available;
+
+    public SpotChange(final long sequence, final long timestamp, final ChangeType changeType, final int parkingNumber,
+                      final ParkingType parkingType, final boolean available) {
+        this.sequence = sequence;
+        this.timestamp = timestamp;
+        this.changeType = changeType;
+        this.parkingNumber = parkingNumber;
+        this.parkingType = parkingType;
+        this.available = available;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    public int getParkingNumber() {
+        return parkingNumber;
+    }
+
+    public ParkingType getParkingType() {
+        return parkingType;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public String toJson() {
+        return "{\"sequence\":" + sequence + ",\"timestamp\":" + timestamp + ",\"change\":\"" + changeType
+                + "\",\"parkingNumber\":" + parkingNumber + ",\"parkingType\":\"" + parkingType + "\",\"available\":" + available + "}";
+    }
+}
@@ -0,0 +1,39 @@
+package com.parkit.parkingsystem.model;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+
+public class SpotLocation {
+    private final int number;
+    private final ParkingType parkingType;
+    private final int zone;
+    private final int level;
+    private final int distanceToExit;
+
+    public SpotLocation(final int number, final ParkingType parkingType, final int zone, final int level, final int distanceToExit) {
+        this.number = number;
+        this.parkingType = parkingType;
+        this.zone = zone;
+        this.level = level;
+        this.distanceToExit = distanceToExit;
+    }
+
+    public int getNumber() {
+        return number;
+    }
+
+    public ParkingType getParkingType() {
+        return parkingType;
+    }
+
+    public int getZone() {
+        return zone;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public int getDistanceToExit() {
+        return distanceToExit;
+    }
+}
@@ -1,14 +1,20 @@
 package com.parkit.parkingsystem.model;
 
-import java.util.Date;
+import java.time.Instant;
 
+/**
+ * The in and out times are kept as epoch milliseconds, {@link #NO_TIME} standing for a missing time, and
+ * are exposed as {@link Instant}s to the callers that need a date.
+ */
 public class Ticket {
+    public static final long NO_TIME = -1;
+
     private int id;
     private ParkingSpot parkingSpot;
     private String vehicleRegNumber;
     private double price;
-    private Date inTime;
-    private Date outTime;
+    private long inTimeMillis = NO_TIME;
+    private long outTimeMillis = NO_TIME;
     private boolean isRegularCustomer;
 
     public int getId() {
@@ -43,20 +49,48 @@ public class Ticket {
         this.price = price;
     }
 
-    public Date getInTime() {
-        return inTime;
+    public long getInTimeMillis() {
+        return inTimeMillis;
+    }
+
+    public void setInTimeMillis(long inTimeMillis) {
+        this.inTimeMillis = inTimeMillis;
+    }
+
+    public long getOutTimeMillis() {
+        return outTimeMillis;
+    }
+
+    public void setOutTimeMillis(long outTimeMillis) {
+        this.outTimeMillis = outTimeMillis;
+    }
+
+    public boolean hasOutTime() {
+        return outTimeMillis != NO_TIME;
+    }
+
+    public Instant getInTime() {
+        return toInstant(inTimeMillis);
+    }
+
+    public void setInTime(Instant inTime) {
+        this.inTimeMillis = toMillis(inTime);
+    }
+
+    public Instant getOutTime() {
+        return toInstant(outTimeMillis);
     }
 
-    public void setInTime(Date inTime) {
-        this.inTime = inTime;
+    public void setOutTime(Instant outTime) {
+        this.outTimeMillis = toMillis(outTime);
     }
 
-    public Date getOutTime() {
-        return outTime;
+    private static Instant toInstant(long millis) {
+        return millis == NO_TIME ? null : Instant.ofEpochMilli(millis);
     }
 
-    public void setOutTime(Date outTime) {
-        this.outTime = outTime;
+    private static long toMillis(Instant instant) {
+        return instant == null ? NO_TIME : instant.toEpochMilli();
     }
 
     public boolean getIsRegularCustomer() {return isRegularCustomer;}
@@ -0,0 +1,90 @@
+package com.parkit.parkingsystem.model;
+
+/**
+ * Immutable version of a {@link Ticket}, for the caches shared by the gates: it is never changed once built,
+ * an exit giving a new snapshot, so it can be read from any thread without locks nor copies.
+ */
+public final class TicketSnapshot {
+    private final int id;
+    private final ParkingSpot parkingSpot;
+    private final String vehicleRegNumber;
+    private final double price;
+    private final long inTimeMillis;
+    private final long outTimeMillis;
+    private final boolean isRegularCustomer;
+
+    public TicketSnapshot(int id, ParkingSpot parkingSpot, String vehicleRegNumber, double price, long inTimeMillis,
+                          long outTimeMillis, boolean isRegularCustomer) {
+        this.id = id;
+        this.parkingSpot = parkingSpot;
+        this.vehicleRegNumber = vehicleRegNumber;
+        this.price = price;
+        this.inTimeMillis = inTimeMillis;
+        this.outTimeMillis = outTimeMillis;
+        this.isRegularCustomer = isRegularCustomer;
+    }
+
+    public static TicketSnapshot of(Ticket ticket) {
+        return new TicketSnapshot(ticket.getId(), ticket.getParkingSpot(), ticket.getVehicleRegNumber(), ticket.getPrice(),
+                ticket.getInTimeMillis(), ticket.getOutTimeMillis(), ticket.getIsRegularCustomer());
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public ParkingSpot getParkingSpot() {
+        return parkingSpot;
+    }
+
+    public String getVehicleRegNumber() {
+        return vehicleRegNumber;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public long getInTimeMillis() {
+        return inTimeMillis;
+    }
+
+    public long getOutTimeMillis() {
+        return outTimeMillis;
+    }
+
+    public boolean hasOutTime() {
+        return outTimeMillis != Ticket.NO_TIME;
+    }
+
+    public boolean getIsRegularCustomer() {
+        return isRegularCustomer;
+    }
+
+    public TicketSnapshot withId(int id) {
+        return new TicketSnapshot(id, parkingSpot, vehicleRegNumber, price, inTimeMillis, outTimeMillis, isRegularCustomer);
+    }
+
+    public TicketSnapshot withParkingSpot(ParkingSpot parkingSpot) {
+        return new TicketSnapshot(id, parkingSpot, vehicleRegNumber, price, inTimeMillis, outTimeMillis, isRegularCustomer);
+    }
+
+    public TicketSnapshot withExit(double price, long outTimeMillis) {
+        return new TicketSnapshot(id, parkingSpot, vehicleRegNumber, price, inTimeMillis, outTimeMillis, isRegularCustomer);
+    }
+
+    /**
+     * @return a new mutable ticket, which the caller may change without affecting this snapshot
+     */
+    public Ticket toTicket() {
+        Ticket ticket = new Ticket();
+        ticket.setId(id);
+        ticket.setParkingSpot(parkingSpot);
+        ticket.setVehicleRegNumber(vehicleRegNumber);
+        ticket.setPrice(price);
+        ticket.setInTimeMillis(inTimeMillis);
+        ticket.setOutTimeMillis(outTimeMillis);
+        ticket.setIsRegularCustomer(isRegularCustomer);
+        return ticket;
+    }
+}
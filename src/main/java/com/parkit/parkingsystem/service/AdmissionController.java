@@ -0,0 +1,82 @@
+package com.parkit.parkingsystem.service;
+
+import com.parkit.parkingsystem.constants.GateOperation;
+import com.parkit.parkingsystem.util.AdaptiveLimiter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounds the entries and exits processed at once, each operation with its own {@link AdaptiveLimiter}, so that
+ * when the database slows down the callers get a {@link GateBusyException} after the queue time budget instead
+ * of piling up on the connections.
+ */
+public class AdmissionController {
+
+    private static final Logger logger = LogManager.getLogger("AdmissionController");
+
+    /**
+     * Held while an operation runs, and closed once it is over.
+     */
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final Permit NO_PERMIT = () -> { };
+
+    private final Map<GateOperation, AdaptiveLimiter> limiters = new EnumMap<>(GateOperation.class);
+    private final long queueBudgetMillis;
+
+    /**
+     * @param maxConcurrency the most operations of each type running at once, 0 to admit every operation
+     */
+    public AdmissionController(int maxConcurrency, long queueBudgetMillis) {
+        this.queueBudgetMillis = queueBudgetMillis;
+        if (maxConcurrency > 0) {
+            for (GateOperation operation : GateOperation.values()) {
+                limiters.put(operation, new AdaptiveLimiter(1, maxConcurrency));
+            }
+        }
+    }
+
+    /**
+     * @return a controller admitting every operation
+     */
+    public static AdmissionController unlimited() {
+        return new AdmissionController(0, 0);
+    }
+
+    /**
+     * Waits for the operation to be allowed to run.
+     * @throws GateBusyException when it is not allowed within the queue time budget
+     */
+    public Permit admit(GateOperation operation) {
+        AdaptiveLimiter limiter = limiters.get(operation);
+        if (limiter == null) {
+            return NO_PERMIT;
+        }
+        try {
+            if (!limiter.acquire(queueBudgetMillis, TimeUnit.MILLISECONDS)) {
+                logger.warn(operation + " rejected, " + limiter.getInFlight() + " running for a limit of " + limiter.getLimit());
+                throw new GateBusyException(operation);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GateBusyException(operation);
+        }
+        long start = System.nanoTime();
+        return () -> limiter.release(System.nanoTime() - start);
+    }
+
+    /**
+     * @return the current limit of the operation, 0 when it is not limited
+     */
+    public int getLimit(GateOperation operation) {
+        AdaptiveLimiter limiter = limiters.get(operation);
+        return limiter == null ? 0 : limiter.getLimit();
+    }
+}
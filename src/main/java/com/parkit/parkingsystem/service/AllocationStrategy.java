@@ -0,0 +1,32 @@
+package com.parkit.parkingsystem.service;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+
+/**
+ * Chooses the spot given to an entering vehicle. A spot handed out by {@link #allocate} or {@link #claim} is not
+ * handed out again until it is {@link #release released}.
+ */
+public interface AllocationStrategy {
+
+    /**
+     * @return the number of the spot taken for the given type, 0 when none is free and -1 on error
+     */
+    int allocate(ParkingType parkingType);
+
+    /**
+     * Takes the given spot.
+     * @return true when it was free
+     */
+    boolean claim(int spotNumber);
+
+    /**
+     * Makes the given spot free again.
+     */
+    void release(int spotNumber);
+
+    /**
+     * @return true when {@link #allocate} and {@link #claim} store the spot unavailable themselves, the caller
+     * then leaving the storage alone
+     */
+    boolean takesInStorage();
+}
@@ -0,0 +1,61 @@
+package com.parkit.parkingsystem.service;
+
+import com.parkit.parkingsystem.config.DataBaseConfig;
+import com.parkit.parkingsystem.constants.AllocationType;
+import com.parkit.parkingsystem.dao.ParkingSpotDAO;
+import com.parkit.parkingsystem.model.ParkingLayout;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+/**
+ * Creates the {@link AllocationStrategy} selected in {@link DataBaseConfig}.
+ */
+public class AllocationStrategyFactory {
+
+    private static final Logger logger = LogManager.getLogger("AllocationStrategyFactory");
+
+    private AllocationStrategyFactory() {
+    }
+
+    public static AllocationStrategy create(DataBaseConfig dataBaseConfig, ParkingSpotDAO parkingSpotDAO) {
+        AllocationType allocationType = dataBaseConfig.getAllocationType();
+        logger.info("Using " + allocationType + " allocation");
+        if (allocationType == AllocationType.STORAGE) {
+            return new StorageAllocationStrategy(parkingSpotDAO);
+        }
+        ParkingLayout layout = readLayout(dataBaseConfig);
+        LayoutAllocationStrategy allocationStrategy;
+        switch (allocationType) {
+            case ZONE_ROUND_ROBIN: {
+                allocationStrategy = new ZoneRoundRobinAllocationStrategy(layout, parkingSpotDAO);
+                break;
+            }
+            case NEAREST_TO_EXIT: {
+                allocationStrategy = new NearestToExitAllocationStrategy(layout, parkingSpotDAO);
+                break;
+            }
+            case LOWEST_NUMBER:
+            default: {
+                allocationStrategy = new LowestNumberAllocationStrategy(layout, parkingSpotDAO);
+            }
+        }
+        allocationStrategy.load();
+        return allocationStrategy;
+    }
+
+    private static ParkingLayout readLayout(DataBaseConfig dataBaseConfig) {
+        Path layoutFile = dataBaseConfig.getParkingLayoutFile();
+        if (layoutFile == null) {
+            return ParkingLayout.generate(dataBaseConfig.getParkingLayout(), dataBaseConfig.getZoneCount());
+        }
+        try {
+            return ParkingLayout.read(layoutFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read the parking layout " + layoutFile, e);
+        }
+    }
+}
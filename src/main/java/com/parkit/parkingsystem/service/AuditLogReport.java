@@ -0,0 +1,95 @@
+package com.parkit.parkingsystem.service;
+
+import com.parkit.parkingsystem.constants.GateOperation;
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.util.AuditLog;
+import com.parkit.parkingsystem.util.AuditLogReader;
+import com.parkit.parkingsystem.util.LatencyHistogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Counts, revenue and latencies of the entries and exits of an {@link AuditLog}.
+ */
+public class AuditLogReport {
+
+    private final Map<GateOperation, LatencyHistogram> latencies = new EnumMap<>(GateOperation.class);
+    private final long[] exitsByType = new long[ParkingType.values().length];
+    private final double[] revenueByType = new double[ParkingType.values().length];
+    private long firstMillis = Long.MAX_VALUE;
+    private long lastMillis = Long.MIN_VALUE;
+    private long scanNanos;
+
+    private AuditLogReport() {
+        for (GateOperation operation : GateOperation.values()) {
+            latencies.put(operation, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * @param vehicleRegNumber the vehicle to report on, or null for all of them
+     */
+    public static AuditLogReport scan(Path directory, String vehicleRegNumber) throws IOException {
+        AuditLogReport report = new AuditLogReport();
+        boolean allVehicles = vehicleRegNumber == null;
+        long plateHash = allVehicles ? 0 : AuditLog.hashVehicleRegNumber(vehicleRegNumber);
+        long start = System.nanoTime();
+        try (AuditLogReader reader = new AuditLogReader(directory)) {
+            while (reader.next()) {
+                if (allVehicles || reader.getPlateHash() == plateHash) {
+                    report.add(reader);
+                }
+            }
+        }
+        report.scanNanos = System.nanoTime() - start;
+        return report;
+    }
+
+    private void add(AuditLogReader reader) {
+        GateOperation operation = reader.getOperation();
+        latencies.get(operation).recordNanos(reader.getLatencyNanos());
+        long time = operation == GateOperation.ENTRY ? reader.getInTimeMillis() : reader.getOutTimeMillis();
+        firstMillis = Math.min(firstMillis, time);
+        lastMillis = Math.max(lastMillis, time);
+        if (operation == GateOperation.EXIT) {
+            int type = reader.getParkingType().ordinal();
+            exitsByType[type]++;
+            revenueByType[type] += reader.getFare();
+        }
+    }
+
+    public long getCount(GateOperation operation) {
+        return latencies.get(operation).getCount();
+    }
+
+    public double getRevenue(ParkingType parkingType) {
+        return revenueByType[parkingType.ordinal()];
+    }
+
+    public LatencyHistogram getLatencies(GateOperation operation) {
+        return latencies.get(operation);
+    }
+
+    public void print(PrintStream out) {
+        long events = getCount(GateOperation.ENTRY) + getCount(GateOperation.EXIT);
+        out.printf("Scanned %d events in %d ms (%.0f events/s)%n", events, scanNanos / 1_000_000,
+                scanNanos == 0 ? 0 : events * 1e9 / scanNanos);
+        if (events == 0) {
+            return;
+        }
+        out.println("From " + Instant.ofEpochMilli(firstMillis) + " to " + Instant.ofEpochMilli(lastMillis));
+        for (GateOperation operation : GateOperation.values()) {
+            out.println(operation + " " + latencies.get(operation).summary());
+        }
+        for (ParkingType parkingType : ParkingType.values()) {
+            if (exitsByType[parkingType.ordinal()] > 0) {
+                out.printf("%s exits=%d revenue=%.2f%n", parkingType, exitsByType[parkingType.ordinal()], getRevenue(parkingType));
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.parkit.parkingsystem.service;
+
+import com.parkit.parkingsystem.constants.ChangeType;
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.dao.ParkingSpotDAO;
+import com.parkit.parkingsystem.model.ParkingSpot;
+
+import java.util.List;
+
+/**
+ * Publishes every successful spot update of the wrapped DAO to a {@link ChangeFeed}.
+ */
+public class ChangeCapturingParkingSpotDAO implements ParkingSpotDAO {
+
+    private final ParkingSpotDAO parkingSpotDAO;
+    private final ChangeFeed changeFeed;
+
+    public ChangeCapturingParkingSpotDAO(ParkingSpotDAO parkingSpotDAO, ChangeFeed changeFeed) {
+        this.parkingSpotDAO = parkingSpotDAO;
+        this.changeFeed = changeFeed;
+    }
+
+    @Override
+    public int getNextAvailableSlot(ParkingType parkingType) {
+        return parkingSpotDAO.getNextAvailableSlot(parkingType);
+    }
+
+    @Override
+    public int takeNextAvailableSlot(ParkingType parkingType) {
+        int number = parkingSpotDAO.takeNextAvailableSlot(parkingType);
+        if (number > 0) {
+            changeFeed.publish(ChangeType.SPOT_UPDATED, number, parkingType, false);
+        }
+        return number;
+    }
+
+    @Override
+    public boolean takeParkingSpot(int number) {
+        boolean taken = parkingSpotDAO.takeParkingSpot(number);
+        ParkingSpot parkingSpot = taken ? parkingSpotDAO.getParkingSpot(number) : null;
+        if (parkingSpot != null) {
+            changeFeed.publish(ChangeType.SPOT_UPDATED, number, parkingSpot.getParkingType(), false);
+        }
+        return taken;
+    }
+
+    @Override
+    public ParkingSpot getParkingSpot(int number) {
+        return parkingSpotDAO.getParkingSpot(number);
+    }
+
+    @Override
+    public List<ParkingSpot> getParkingSpots() {
+        return parkingSpotDAO.getParkingSpots();
+    }
+
+    @Override
+    public boolean updateParking(ParkingSpot parkingSpot) {
+        boolean updated = parkingSpotDAO.updateParking(parkingSpot);
+        if (updated) {
+            changeFeed.publish(ChangeType.SPOT_UPDATED, parkingSpot.getId(), parkingSpot.getParkingType(), parkingSpot.isAvailable());
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,59 @@
+package com.parkit.parkingsystem.service;
+
+import com.parkit.parkingsystem.constants.ChangeType;
+import com.parkit.parkingsystem.dao.TicketDAO;
+import com.parkit.parkingsystem.model.CustomerStats;
+import com.parkit.parkingsystem.model.ParkingSpot;
+import com.parkit.parkingsystem.model.Ticket;
+
+/**
+ * Publishes every ticket successfully opened or closed by the wrapped DAO to a {@link ChangeFeed}, as the
+ * occupation or release of its spot.
+ */
+public class ChangeCapturingTicketDAO implements TicketDAO {
+
+    private final TicketDAO ticketDAO;
+    private final ChangeFeed changeFeed;
+
+    public ChangeCapturingTicketDAO(TicketDAO ticketDAO, ChangeFeed changeFeed) {
+        this.ticketDAO = ticketDAO;
+        this.changeFeed = changeFeed;
+    }
+
+    @Override
+    public boolean saveTicket(Ticket ticket) {
+        boolean saved = ticketDAO.saveTicket(ticket);
+        if (saved) {
+            publish(ChangeType.TICKET_OPENED, ticket.getParkingSpot(), false);
+        }
+        return saved;
+    }
+
+    @Override
+    public Ticket getTicketWithRecentInTime(String vehicleRegNumber) {
+        return ticketDAO.getTicketWithRecentInTime(vehicleRegNumber);
+    }
+
+    @Override
+    public boolean updateTicket(Ticket ticket) {
+        boolean updated = ticketDAO.updateTicket(ticket);
+        if (updated) {
+            publish(ChangeType.TICKET_CLOSED, ticket.getParkingSpot(), true);
+        }
+        return updated;
+    }
+
+    @Override
+    public int getNbTickets(String vehicleRegNumber) {
+        return ticketDAO.getNbTickets(vehicleRegNumber);
+    }
+
+    @Override
+    public CustomerStats getCustomerStats(String vehicleRegNumber) {
+        return ticketDAO.getCustomerStats(vehicleRegNumber);
+    }
+
+    private void publish(ChangeType changeType, ParkingSpot parkingSpot, boolean available) {
+        changeFeed.publish(changeType, parkingSpot.getId(), parkingSpot.getParkingType(), available);
+    }
+}
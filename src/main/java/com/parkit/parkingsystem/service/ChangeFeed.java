@@ -0,0 +1,80 @@
+package com.parkit.parkingsystem.service;
+
+import com.parkit.parkingsystem.constants.ChangeType;
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.model.SpotChange;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sequence-numbered stream of the spot changes, keeping the latest ones in a ring buffer so that a subscriber
+ * resumes from the last sequence it saw. Sequences start at 1, a subscriber with nothing seen yet passing 0.
+ * A subscriber further behind than the ring is told so by {@link #read}, and re-reads the spots once before
+ * following the stream again. Sequences restart with every feed, whose {@link #getEpoch epoch} tells them apart.
+ */
+public class ChangeFeed {
+
+    private final Clock clock;
+    private final SpotChange[] ring;
+    private final long epoch;
+    private long lastSequence;
+
+    public ChangeFeed(Clock clock, int capacity) {
+        this.clock = clock;
+        this.ring = new SpotChange[capacity];
+        this.epoch = clock.millis();
+    }
+
+    /**
+     * @return the time this feed started at, the sequences of an earlier feed meaning nothing in this one
+     */
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public synchronized SpotChange publish(ChangeType changeType, int parkingNumber, ParkingType parkingType, boolean available) {
+        SpotChange change = new SpotChange(lastSequence + 1, clock.millis(), changeType, parkingNumber, parkingType, available);
+        ring[(int) (change.getSequence() % ring.length)] = change;
+        lastSequence = change.getSequence();
+        notifyAll();
+        return change;
+    }
+
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * @return the first sequence still held, the ones before it being lost for late subscribers
+     */
+    public synchronized long getFirstSequence() {
+        return Math.max(1, lastSequence - ring.length + 1);
+    }
+
+    /**
+     * Waits for changes after the given sequence.
+     * @return up to maxChanges changes following the given sequence, starting at {@link #getFirstSequence} when the
+     * following one was overwritten, or an empty list when none came within the timeout
+     */
+    public synchronized List<SpotChange> read(long afterSequence, int maxChanges, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        long remaining = timeoutMillis;
+        while (lastSequence <= afterSequence && remaining > 0) {
+            wait(remaining);
+            remaining = deadline - System.currentTimeMillis();
+        }
+        if (lastSequence <= afterSequence) {
+            return Collections.emptyList();
+        }
+        long from = Math.max(afterSequence + 1, getFirstSequence());
+        long to = Math.min(lastSequence, from + maxChanges - 1);
+        List<SpotChange> changes = new ArrayList<>((int) (to - from + 1));
+        for (long sequence = from; sequence <= to; sequence++) {
+            changes.add(ring[(int) (sequence % ring.length)]);
+        }
+        return changes;
+    }
+}
@@ -0,0 +1,145 @@
+package com.parkit.parkingsystem.service;
+
+import com.parkit.parkingsystem.model.SpotChange;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streams a {@link ChangeFeed} as server-sent events on {@code GET /changes}. Each change is sent as an event
+ * whose id is the epoch of the feed and its sequence, {@code <epoch>-<sequence>}, so a client reconnecting with
+ * the standard Last-Event-ID header, or with a {@code ?from=<sequence>} parameter, resumes after the last change
+ * it received. A client too far behind receives a {@code reset} event, telling it to re-read the spots, before
+ * the oldest changes still held; so does a client resuming from an earlier run of the app, before the changes
+ * to come.
+ */
+public class ChangeFeedServer implements Closeable {
+
+    private static final Logger logger = LogManager.getLogger("ChangeFeedServer");
+    private static final int BATCH = 256;
+    private static final long KEEP_ALIVE_MILLIS = 15_000;
+    //the resume sequence of a client following an earlier feed
+    private static final long STALE = -1;
+
+    private final ChangeFeed changeFeed;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicInteger connectionCount = new AtomicInteger();
+
+    /**
+     * @param host the address to listen on, {@code 0.0.0.0} for every interface
+     */
+    public ChangeFeedServer(ChangeFeed changeFeed, String host, int port) throws IOException {
+        this.changeFeed = changeFeed;
+        this.server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        //every subscriber holds a thread for as long as it stays connected
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "change-feed-" + connectionCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.createContext("/changes", this::stream);
+        server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+        logger.info("Streaming spot changes on port " + getPort());
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void stream(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            long afterSequence;
+            try {
+                afterSequence = getResumeSequence(exchange);
+            } catch (NumberFormatException e) {
+                exchange.sendResponseHeaders(400, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            exchange.sendResponseHeaders(200, 0);
+            OutputStream out = exchange.getResponseBody();
+            long lastSequence = changeFeed.getLastSequence();
+            if (afterSequence == STALE || afterSequence > lastSequence) {
+                //the sequences of the client belong to an earlier run, restarting from 1
+                afterSequence = lastSequence;
+                out.write(reset(lastSequence + 1).getBytes(StandardCharsets.UTF_8));
+                out.flush();
+            }
+            while (!executor.isShutdown()) {
+                List<SpotChange> changes = changeFeed.read(afterSequence, BATCH, KEEP_ALIVE_MILLIS);
+                StringBuilder events = new StringBuilder();
+                if (changes.isEmpty()) {
+                    events.append(": keep-alive\n\n");
+                } else if (changes.get(0).getSequence() > afterSequence + 1) {
+                    events.append(reset(changes.get(0).getSequence()));
+                }
+                for (SpotChange change : changes) {
+                    events.append("id: ").append(changeFeed.getEpoch()).append('-').append(change.getSequence()).append('\n')
+                            .append("event: ").append(change.getChangeType()).append('\n')
+                            .append("data: ").append(change.toJson()).append("\n\n");
+                    afterSequence = change.getSequence();
+                }
+                out.write(events.toString().getBytes(StandardCharsets.UTF_8));
+                out.flush();
+            }
+        } catch (IOException e) {
+            logger.debug("Change feed subscriber disconnected", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private long getResumeSequence(HttpExchange exchange) {
+        String lastEventId = exchange.getRequestHeaders().getFirst("Last-Event-ID");
+        if (lastEventId != null) {
+            String[] id = lastEventId.trim().split("-", 2);
+            if (id.length == 1) {
+                return Long.parseLong(id[0]);
+            }
+            return Long.parseLong(id[0]) == changeFeed.getEpoch() ? Long.parseLong(id[1]) : STALE;
+        }
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                if (parameter.startsWith("from=")) {
+                    return Long.parseLong(parameter.substring("from=".length()));
+                }
+            }
+        }
+        //new subscribers start with the changes to come
+        return changeFeed.getLastSequence();
+    }
+
+    private static String reset(long firstSequence) {
+        return "event: reset\ndata: {\"firstSequence\":" + firstSequence + "}\n\n";
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,11 @@
+package com.parkit.parkingsystem.service;
+
+import com.parkit.parkingsystem.model.Ticket;
+
+/**
+ * Told about every vehicle that has left, once its ticket is paid and stored.
+ */
+public interface ExitListener {
+
+    void onExit(Ticket ticket);
+}
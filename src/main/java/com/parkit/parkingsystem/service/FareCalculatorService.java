@@ -1,6 +1,6 @@
 package com.parkit.parkingsystem.service;
 
-import com.parkit.parkingsystem.constants.Fare;
+import com.parkit.parkingsystem.config.ParkingTypeCatalog;
 import com.parkit.parkingsystem.model.Ticket;
 
 import java.math.BigDecimal;
@@ -9,6 +9,16 @@ import java.math.RoundingMode;
 public class FareCalculatorService {
     private static final double DISCOUNT_RATE = 0.05;
 
+    private final ParkingTypeCatalog parkingTypeCatalog;
+
+    public FareCalculatorService() {
+        this(ParkingTypeCatalog.getDefault());
+    }
+
+    public FareCalculatorService(ParkingTypeCatalog parkingTypeCatalog) {
+        this.parkingTypeCatalog = parkingTypeCatalog;
+    }
+
     public void calculateFare(final Ticket ticket) {
         calculateFare(ticket,false);
     }
@@ -35,11 +45,11 @@ public class FareCalculatorService {
     }
 
     private void validateOutTime(final Ticket ticket) {
-        if ((ticket.getOutTime() == null)) {
+        if (!ticket.hasOutTime()) {
             throw new IllegalArgumentException("Out time provided is null");
         }
 
-        if (ticket.getOutTime().before(ticket.getInTime())) {
+        if (ticket.getOutTimeMillis() < ticket.getInTimeMillis()) {
             throw new IllegalArgumentException("Out time provided is incorrect:" + ticket.getOutTime().toString() + "compared To In time : " + ticket.getInTime().toString());
         }
     }
@@ -51,8 +61,8 @@ public class FareCalculatorService {
     }
 
     private double calculateTicketDurationInMinutes(final Ticket ticket) {
-        long inTimeInMillis = ticket.getInTime().getTime();
-        long outTimeInMillis = ticket.getOutTime().getTime();
+        long inTimeInMillis = ticket.getInTimeMillis();
+        long outTimeInMillis = ticket.getOutTimeMillis();
         long durationInMillis = outTimeInMillis - inTimeInMillis;
         return durationInMillis / 60000D;
     }
@@ -63,16 +73,7 @@ public class FareCalculatorService {
 
     private double getRatePerHour(final Ticket ticket) {
         validateParkingType(ticket);
-        switch (ticket.getParkingSpot().getParkingType()) {
-            case CAR: {
-                return Fare.CAR_RATE_PER_HOUR;
-            }
-            case BIKE: {
-                return Fare.BIKE_RATE_PER_HOUR;
-            }
-            default:
-                throw new IllegalArgumentException("Unknown Parking Type");
-        }
+        return parkingTypeCatalog.getRatePerHour(ticket.getParkingSpot().getParkingType());
     }
 
     public boolean isFreeParking (final double durationInMinutes) {
@@ -0,0 +1,23 @@
+package com.parkit.parkingsystem.service;
+
+import com.parkit.parkingsystem.constants.GateOperation;
+
+/**
+ * Thrown when an entry or exit could not start within the queue time budget, so the barrier can tell the
+ * driver to retry instead of waiting on a slow database.
+ */
+public class GateBusyException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final GateOperation operation;
+
+    public GateBusyException(GateOperation operation) {
+        super(operation + " gate busy, please retry");
+        this.operation = operation;
+    }
+
+    public GateOperation getOperation() {
+        return operation;
+    }
+}
@@ -1,16 +1,25 @@
 package com.parkit.parkingsystem.service;
 
+import com.parkit.parkingsystem.config.DataBaseConfig;
+import com.parkit.parkingsystem.dao.DAOFactory;
 import com.parkit.parkingsystem.dao.ParkingSpotDAO;
+import com.parkit.parkingsystem.dao.TicketArchiver;
 import com.parkit.parkingsystem.dao.TicketDAO;
+import com.parkit.parkingsystem.util.AuditLog;
 import com.parkit.parkingsystem.util.InputReaderUtil;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.time.Clock;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class InteractiveShell {
 
     private static final Logger logger = LogManager.getLogger("InteractiveShell");
+    private static final long AUDIT_SEGMENT_BYTES = 64L * 1024 * 1024;
+    private static final int AUDIT_RING_CAPACITY = 8192;
+    private static final int CHANGE_FEED_CAPACITY = 65536;
 
     public static void loadInterface() throws Exception {
         logger.info("App initialized!!!");
@@ -18,27 +27,85 @@ public class InteractiveShell {
 
         boolean continueApp = true;
         InputReaderUtil inputReaderUtil = new InputReaderUtil();
-        ParkingSpotDAO parkingSpotDAO = new ParkingSpotDAO();
-        TicketDAO ticketDAO = new TicketDAO();
+        DataBaseConfig dataBaseConfig = new DataBaseConfig();
+        DAOFactory daoFactory = new DAOFactory(dataBaseConfig);
         FareCalculatorService fareCalculatorService = new FareCalculatorService();
         Clock clock = Clock.systemUTC();
+        ParkingSpotDAO parkingSpotDAO = daoFactory.getParkingSpotDAO();
+        TicketDAO ticketDAO = daoFactory.getTicketDAO();
+        TicketArchiver ticketArchiver = daoFactory.getTicketArchiver();
+        if (ticketArchiver != null) {
+            ticketArchiver.start();
+        }
+        ChangeFeedServer changeFeedServer = null;
+        if (dataBaseConfig.getFeedPort() > 0) {
+            ChangeFeed changeFeed = new ChangeFeed(clock, CHANGE_FEED_CAPACITY);
+            parkingSpotDAO = new ChangeCapturingParkingSpotDAO(parkingSpotDAO, changeFeed);
+            ticketDAO = new ChangeCapturingTicketDAO(ticketDAO, changeFeed);
+            changeFeedServer = new ChangeFeedServer(changeFeed, dataBaseConfig.getFeedHost(), dataBaseConfig.getFeedPort());
+            changeFeedServer.start();
+        }
         ParkingService parkingService = new ParkingService(inputReaderUtil, parkingSpotDAO, ticketDAO, fareCalculatorService,clock);
+        AllocationStrategy allocationStrategy = AllocationStrategyFactory.create(dataBaseConfig, parkingSpotDAO);
+        parkingService.setAllocationStrategy(allocationStrategy);
+        ReservationService reservationService = new ReservationService(parkingSpotDAO, allocationStrategy, clock);
+        reservationService.start();
+        parkingService.setReservationService(reservationService);
+        TrafficAggregator trafficAggregator = new TrafficAggregator(daoFactory.getTrafficSummaryDAO());
+        trafficAggregator.start();
+        parkingService.setExitListener(trafficAggregator);
+        parkingService.setAdmissionController(new AdmissionController(dataBaseConfig.getAdmissionLimit(), dataBaseConfig.getAdmissionQueueMillis()));
+        AuditLog auditLog = dataBaseConfig.getAuditDirectory() == null ? null
+                : new AuditLog(dataBaseConfig.getAuditDirectory(), AUDIT_SEGMENT_BYTES, AUDIT_RING_CAPACITY);
+        parkingService.setAuditLog(auditLog);
+        //the shell serves one vehicle at a time, a single call at most runs beside it
+        ExecutorService daoExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "parking-dao");
+            thread.setDaemon(true);
+            return thread;
+        });
+        parkingService.setDaoExecutor(daoExecutor);
 
         while(continueApp){
             loadMenu();
             int option = inputReaderUtil.readSelection();
             switch(option){
                 case 1: {
-                    parkingService.processIncomingVehicle();
+                    try {
+                        parkingService.processIncomingVehicle();
+                    } catch (GateBusyException e) {
+                        System.out.println(e.getMessage());
+                    }
                     break;
                 }
                 case 2: {
-                    parkingService.processExitingVehicle();
+                    try {
+                        parkingService.processExitingVehicle();
+                    } catch (GateBusyException e) {
+                        System.out.println(e.getMessage());
+                    }
                     break;
                 }
                 case 3: {
                     System.out.println("Exiting from the system!");
                     continueApp = false;
+                    reservationService.close();
+                    trafficAggregator.close();
+                    daoExecutor.shutdown();
+                    if (auditLog != null) {
+                        auditLog.close();
+                    }
+                    if (changeFeedServer != null) {
+                        changeFeedServer.close();
+                    }
+                    if (ticketArchiver != null) {
+                        ticketArchiver.close();
+                    }
+                    DataBaseConfig.closeDataSource();
+                    break;
+                }
+                case 4: {
+                    parkingService.processReservation();
                     break;
                 }
                 default: System.out.println("Unsupported option. Please enter a number corresponding to the provided menu");
@@ -51,6 +118,7 @@ public class InteractiveShell {
         System.out.println("1 New Vehicle Entering - Allocate Parking Space");
         System.out.println("2 Vehicle Exiting - Generate Ticket Price");
         System.out.println("3 Shutdown System");
+        System.out.println("4 Reserve a Parking Space");
     }
 
 }
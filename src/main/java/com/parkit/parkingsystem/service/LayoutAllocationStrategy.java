@@ -0,0 +1,224 @@
+package com.parkit.parkingsystem.service;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.dao.ParkingSpotDAO;
+import com.parkit.parkingsystem.model.ParkingLayout;
+import com.parkit.parkingsystem.model.ParkingSpot;
+import com.parkit.parkingsystem.model.SpotLocation;
+import com.parkit.parkingsystem.util.RankedFreeList;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Chooses spots from free lists precomputed from the {@link ParkingLayout}. The spots of each type are split
+ * into groups, a single one or one per zone, and ranked inside each group in the order of preference, so taking
+ * the preferred free spot of a group is a {@link RankedFreeList} lookup. Non-empty groups are visited in turn.
+ * <p>
+ * The free lists start empty: {@link #load} fills them from the storage availability. They only know the spots
+ * this process took and released, so every choice is then taken in storage with
+ * {@link ParkingSpotDAO#takeParkingSpot}, a spot another gate took meanwhile being skipped until the next load.
+ */
+public abstract class LayoutAllocationStrategy implements AllocationStrategy {
+    private static final Logger logger = LogManager.getLogger("LayoutAllocationStrategy");
+
+    protected static final Comparator<SpotLocation> BY_NUMBER = Comparator.comparingInt(SpotLocation::getNumber);
+
+    private final ParkingSpotDAO parkingSpotDAO;
+    private final Map<ParkingType, TypePool> pools = new EnumMap<>(ParkingType.class);
+    //the pool, group and rank of each spot of the layout, indexed by spot number
+    private final TypePool[] poolBySpot;
+    private final int[] groupBySpot;
+    private final int[] rankBySpot;
+
+    private static final class TypePool {
+        final RankedFreeList[] groups;
+        final int[][] numbers;
+        final RankedFreeList nonEmptyGroups;
+        int cursor;
+
+        TypePool(List<List<SpotLocation>> spotsByGroup) {
+            groups = new RankedFreeList[spotsByGroup.size()];
+            numbers = new int[spotsByGroup.size()][];
+            nonEmptyGroups = new RankedFreeList(spotsByGroup.size());
+            for (int group = 0; group < groups.length; group++) {
+                List<SpotLocation> spots = spotsByGroup.get(group);
+                groups[group] = new RankedFreeList(spots.size());
+                numbers[group] = new int[spots.size()];
+                for (int rank = 0; rank < spots.size(); rank++) {
+                    numbers[group][rank] = spots.get(rank).getNumber();
+                }
+            }
+        }
+    }
+
+    /**
+     * @param parkingSpotDAO the storage the spots are taken in
+     * @param groupByZone    whether the spots of a type are split by zone, otherwise they are in a single group
+     * @param order          the order of preference of the spots inside a group
+     */
+    protected LayoutAllocationStrategy(ParkingLayout layout, ParkingSpotDAO parkingSpotDAO, boolean groupByZone,
+                                       Comparator<SpotLocation> order) {
+        this.parkingSpotDAO = parkingSpotDAO;
+        int groupCount = groupByZone ? Math.max(1, layout.getZoneCount()) : 1;
+        int maxNumber = 0;
+        Map<ParkingType, List<List<SpotLocation>>> spotsByType = new EnumMap<>(ParkingType.class);
+        for (SpotLocation spot : layout.getSpots()) {
+            List<List<SpotLocation>> spotsByGroup = spotsByType.get(spot.getParkingType());
+            if (spotsByGroup == null) {
+                spotsByGroup = new ArrayList<>();
+                for (int group = 0; group < groupCount; group++) {
+                    spotsByGroup.add(new ArrayList<>());
+                }
+                spotsByType.put(spot.getParkingType(), spotsByGroup);
+            }
+            spotsByGroup.get(groupByZone ? spot.getZone() : 0).add(spot);
+            maxNumber = Math.max(maxNumber, spot.getNumber());
+        }
+        poolBySpot = new TypePool[maxNumber + 1];
+        groupBySpot = new int[maxNumber + 1];
+        rankBySpot = new int[maxNumber + 1];
+        for (Map.Entry<ParkingType, List<List<SpotLocation>>> typeSpots : spotsByType.entrySet()) {
+            for (List<SpotLocation> spots : typeSpots.getValue()) {
+                spots.sort(order.thenComparing(BY_NUMBER));
+            }
+            TypePool pool = new TypePool(typeSpots.getValue());
+            pools.put(typeSpots.getKey(), pool);
+            for (int group = 0; group < pool.numbers.length; group++) {
+                for (int rank = 0; rank < pool.numbers[group].length; rank++) {
+                    int number = pool.numbers[group][rank];
+                    poolBySpot[number] = pool;
+                    groupBySpot[number] = group;
+                    rankBySpot[number] = rank;
+                }
+            }
+        }
+    }
+
+    /**
+     * Frees the spots of the layout that are available in the storage, read in a single call.
+     */
+    public synchronized void load() {
+        boolean[] stored = new boolean[poolBySpot.length];
+        for (ParkingSpot parkingSpot : parkingSpotDAO.getParkingSpots()) {
+            int number = parkingSpot.getId();
+            if (number <= 0 || number >= poolBySpot.length || poolBySpot[number] == null) {
+                continue;
+            }
+            stored[number] = true;
+            if (parkingSpot.isAvailable()) {
+                release(number);
+            }
+        }
+        for (int number = 1; number < poolBySpot.length; number++) {
+            if (poolBySpot[number] != null && !stored[number]) {
+                logger.error("Parking spot " + number + " of the layout is missing from the storage");
+            }
+        }
+    }
+
+    @Override
+    public int allocate(ParkingType parkingType) {
+        int number;
+        while ((number = choose(parkingType)) > 0) {
+            int taken = takeInStorage(number);
+            if (taken != 0) {
+                return taken;
+            }
+        }
+        return number;
+    }
+
+    @Override
+    public boolean claim(int spotNumber) {
+        synchronized (this) {
+            if (!isFree(spotNumber)) {
+                return false;
+            }
+            take(poolBySpot[spotNumber], groupBySpot[spotNumber], rankBySpot[spotNumber]);
+        }
+        return takeInStorage(spotNumber) > 0;
+    }
+
+    @Override
+    public synchronized void release(int spotNumber) {
+        if (spotNumber > 0 && spotNumber < poolBySpot.length && poolBySpot[spotNumber] != null) {
+            TypePool pool = poolBySpot[spotNumber];
+            if (pool.groups[groupBySpot[spotNumber]].add(rankBySpot[spotNumber])) {
+                pool.nonEmptyGroups.add(groupBySpot[spotNumber]);
+            }
+        }
+    }
+
+    @Override
+    public boolean takesInStorage() {
+        return true;
+    }
+    /**
+     * @return the number of free spots of the given type
+     */
+    public synchronized int getFreeCount(ParkingType parkingType) {
+        TypePool pool = pools.get(parkingType);
+        int free = 0;
+        if (pool != null) {
+            for (RankedFreeList group : pool.groups) {
+                free += group.size();
+            }
+        }
+        return free;
+    }
+
+    //removes the preferred free spot of the type from the free lists, the storage being left to the caller
+    private synchronized int choose(ParkingType parkingType) {
+        TypePool pool = pools.get(parkingType);
+        if (pool == null) {
+            return 0;
+        }
+        int group = pool.nonEmptyGroups.next(pool.cursor);
+        if (group < 0) {
+            group = pool.nonEmptyGroups.first();
+            if (group < 0) {
+                return 0;
+            }
+        }
+        pool.cursor = group + 1;
+        int rank = pool.groups[group].first();
+        take(pool, group, rank);
+        return pool.numbers[group][rank];
+    }
+
+    private boolean isFree(int spotNumber) {
+        return spotNumber > 0 && spotNumber < poolBySpot.length && poolBySpot[spotNumber] != null
+                && poolBySpot[spotNumber].groups[groupBySpot[spotNumber]].contains(rankBySpot[spotNumber]);
+    }
+
+    /**
+     * Takes a spot removed from the free lists in storage, outside the lock of the free lists.
+     * @return the spot number, 0 when another gate took it, which leaves it out of the free lists, and -1 on
+     * error, which puts it back
+     */
+    private int takeInStorage(int spotNumber) {
+        if (parkingSpotDAO.takeParkingSpot(spotNumber)) {
+            return spotNumber;
+        }
+        ParkingSpot stored = parkingSpotDAO.getParkingSpot(spotNumber);
+        if (stored != null && !stored.isAvailable()) {
+            logger.info("Parking spot " + spotNumber + " was taken by another gate");
+            return 0;
+        }
+        release(spotNumber);
+        return -1;
+    }
+
+    private static void take(TypePool pool, int group, int rank) {
+        pool.groups[group].remove(rank);
+        if (pool.groups[group].isEmpty()) {
+            pool.nonEmptyGroups.remove(group);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.parkit.parkingsystem.service;
+
+import com.parkit.parkingsystem.dao.ParkingSpotDAO;
+import com.parkit.parkingsystem.model.ParkingLayout;
+
+/**
+ * Gives the lowest free spot number of the type, like the storage does.
+ */
+public class LowestNumberAllocationStrategy extends LayoutAllocationStrategy {
+
+    public LowestNumberAllocationStrategy(ParkingLayout layout, ParkingSpotDAO parkingSpotDAO) {
+        super(layout, parkingSpotDAO, false, BY_NUMBER);
+    }
+}
@@ -0,0 +1,17 @@
+package com.parkit.parkingsystem.service;
+
+import com.parkit.parkingsystem.dao.ParkingSpotDAO;
+import com.parkit.parkingsystem.model.ParkingLayout;
+import com.parkit.parkingsystem.model.SpotLocation;
+
+import java.util.Comparator;
+
+/**
+ * Gives the free spot of the type nearest to the exit.
+ */
+public class NearestToExitAllocationStrategy extends LayoutAllocationStrategy {
+
+    public NearestToExitAllocationStrategy(ParkingLayout layout, ParkingSpotDAO parkingSpotDAO) {
+        super(layout, parkingSpotDAO, false, Comparator.comparingInt(SpotLocation::getDistanceToExit));
+    }
+}
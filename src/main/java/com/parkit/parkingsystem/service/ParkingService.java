@@ -1,25 +1,47 @@
 package com.parkit.parkingsystem.service;
 
+import com.parkit.parkingsystem.config.ParkingTypeCatalog;
+import com.parkit.parkingsystem.constants.GateOperation;
 import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.constants.ReservationState;
 import com.parkit.parkingsystem.dao.ParkingSpotDAO;
 import com.parkit.parkingsystem.dao.TicketDAO;
 import com.parkit.parkingsystem.model.ParkingSpot;
+import com.parkit.parkingsystem.model.Reservation;
 import com.parkit.parkingsystem.model.Ticket;
+import com.parkit.parkingsystem.util.AuditLog;
 import com.parkit.parkingsystem.util.InputReaderUtil;
+import com.parkit.parkingsystem.util.RequestCache;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.time.Clock;
-import java.util.Date;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 public class ParkingService {
     private static final Logger logger = LogManager.getLogger("ParkingService");
+    private static final long REQUEST_TIME_TO_LIVE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    private static final int REQUEST_CACHE_CAPACITY = 10_000;
 
     private final InputReaderUtil inputReaderUtil;
     private final ParkingSpotDAO parkingSpotDAO;
     private final TicketDAO ticketDAO;
     private final FareCalculatorService fareCalculatorService;
     private final Clock clock;
+    private final ParkingTypeCatalog parkingTypeCatalog = ParkingTypeCatalog.getDefault();
+    private final RequestCache<Ticket> requestCache;
+    private AllocationStrategy allocationStrategy;
+    private ReservationService reservationService;
+    private ExitListener exitListener = ticket -> { };
+    private AdmissionController admissionController = AdmissionController.unlimited();
+    private AuditLog auditLog;
+    private Executor daoExecutor;
 
     public ParkingService(InputReaderUtil inputReaderUtil, ParkingSpotDAO parkingSpotDAO, TicketDAO ticketDAO, FareCalculatorService fareCalculatorService, Clock clock) {
         this.inputReaderUtil = inputReaderUtil;
@@ -27,60 +49,142 @@ public class ParkingService {
         this.ticketDAO = ticketDAO;
         this.fareCalculatorService = fareCalculatorService;
         this.clock = clock;
+        this.allocationStrategy = new StorageAllocationStrategy(parkingSpotDAO);
+        this.requestCache = new RequestCache<>(clock, REQUEST_TIME_TO_LIVE_MILLIS, REQUEST_CACHE_CAPACITY);
     }
 
-    public void processIncomingVehicle() {
+    public void setAllocationStrategy(AllocationStrategy allocationStrategy) {
+        this.allocationStrategy = allocationStrategy;
+    }
+
+    /**
+     * Lets vehicles holding a spot enter on it, even when the lot is full for everyone else.
+     */
+    public void setReservationService(ReservationService reservationService) {
+        this.reservationService = reservationService;
+    }
+
+    /**
+     * Bounds the entries and exits running at once, the others failing with a {@link GateBusyException}.
+     */
+    public void setAdmissionController(AdmissionController admissionController) {
+        this.admissionController = admissionController;
+    }
+
+    /**
+     * Records every completed entry and exit, with its latency, to the given log.
+     */
+    public void setAuditLog(AuditLog auditLog) {
+        this.auditLog = auditLog;
+    }
+
+    /**
+     * Runs the DAO calls that do not depend on each other on the given executor, so that their round trips
+     * overlap. The caller owns the executor and shuts it down; by default the calls run one after the other.
+     */
+    public void setDaoExecutor(Executor daoExecutor) {
+        this.daoExecutor = daoExecutor;
+    }
+
+    /**
+     * Tells the given listener about every completed exit.
+     */
+    public void setExitListener(ExitListener exitListener) {
+        this.exitListener = exitListener;
+    }
+
+    /**
+     * Same as {@link #processIncomingVehicle()}, for a barrier sending an id with each request: a retry of a
+     * request that issued a ticket gets that ticket back, without reading the input nor the database.
+     */
+    public Ticket processIncomingVehicle(String requestId) throws Exception {
+        return requestCache.execute(GateOperation.ENTRY + ":" + requestId, this::processIncomingVehicle, Objects::nonNull);
+    }
+
+    public Ticket processIncomingVehicle() {
+        long start = System.nanoTime();
+        AdmissionController.Permit permit = admissionController.admit(GateOperation.ENTRY);
         try {
-            ParkingSpot parkingSpot = getNextParkingNumberIfAvailable();
+            ParkingSpot parkingSpot = takeNextParkingSpot();
 
-            if (parkingSpot != null) {
-                handleVehicleEntry(parkingSpot);
+            if (parkingSpot != null || reservationService != null) {
+                Ticket ticket = handleVehicleEntry(parkingSpot);
+                audit(GateOperation.ENTRY, ticket, start);
+                return ticket;
             }
         } catch (Exception e) {
             logger.error("Unable to process incoming vehicle", e);
+        } finally {
+            permit.close();
         }
+        return null;
     }
 
-    private void handleVehicleEntry(ParkingSpot parkingSpot) throws Exception {
-        String vehicleRegNumber = getVehicleRegNumber();
-        boolean isRegularCustomer = isRegularCustomerEntering(vehicleRegNumber);
-        allocateParkingSpot(parkingSpot);
-        Ticket ticket = createTicket(parkingSpot, vehicleRegNumber, isRegularCustomer);
-        printTicketInfo(parkingSpot, vehicleRegNumber, ticket.getInTime());
+    private Ticket handleVehicleEntry(ParkingSpot takenSpot) throws Exception {
+        ParkingSpot parkingSpot = takenSpot;
+        try {
+            String vehicleRegNumber = getVehicleRegNumber();
+            ParkingSpot heldSpot = reservationService == null ? null : reservationService.redeem(vehicleRegNumber);
+            if (heldSpot != null) {
+                releaseUnusedSpot(takenSpot);
+                parkingSpot = heldSpot;
+            }
+            if (parkingSpot == null) {
+                System.out.println("No parking spot is available for this vehicle");
+                return null;
+            }
+            long inTime = clock.millis();
+            //a held spot, like one taken by the strategy, is already unavailable in storage
+            boolean storesSpot = heldSpot == null && !allocationStrategy.takesInStorage();
+            //only the ticket insert needs the regular customer flag, the spot update can run meanwhile
+            CompletableFuture<Boolean> regularCustomer = storesSpot ? startDaoCall(() -> isRegularCustomerEntering(vehicleRegNumber)) : null;
+            if (storesSpot) {
+                parkingSpotDAO.updateParking(parkingSpot);
+            }
+            boolean isRegularCustomer = regularCustomer == null ? isRegularCustomerEntering(vehicleRegNumber) : await(regularCustomer);
+            Ticket ticket = createTicket(parkingSpot, vehicleRegNumber, inTime, isRegularCustomer);
+            printTicketInfo(parkingSpot, vehicleRegNumber, inTime);
 
-        if (isRegularCustomer) {
-            printRegularCustomerMessage();
+            if (isRegularCustomer) {
+                printRegularCustomerMessage();
+            }
+            return ticket;
+        } catch (Exception e) {
+            releaseUnusedSpot(parkingSpot);
+            throw e;
         }
     }
 
-    private void allocateParkingSpot(ParkingSpot parkingSpot) throws Exception {
-        parkingSpot.setAvailable(false);
-        parkingSpotDAO.updateParking(parkingSpot);
+    private void releaseUnusedSpot(ParkingSpot parkingSpot) {
+        if (parkingSpot != null) {
+            //the storage allocation, or an entry failing after its spot update, left the spot unavailable
+            parkingSpotDAO.updateParking(parkingSpot.withAvailable(true));
+            allocationStrategy.release(parkingSpot.getId());
+        }
     }
 
     private boolean isRegularCustomerEntering(String vehicleRegNumber) {
         return ticketDAO.getNbTickets(vehicleRegNumber) > 0;
     }
 
-    private Ticket createTicket(ParkingSpot parkingSpot, String vehicleRegNumber, boolean isRegularCustomer) {
-        Date inTime = new Date(clock.millis());
+    private Ticket createTicket(ParkingSpot parkingSpot, String vehicleRegNumber, long inTime, boolean isRegularCustomer) {
         Ticket ticket = new Ticket();
         //ID, PARKING_NUMBER, VEHICLE_REG_NUMBER, PRICE, IN_TIME, OUT_TIME)
         //ticket.setId(ticketID);
         ticket.setParkingSpot(parkingSpot);
         ticket.setVehicleRegNumber(vehicleRegNumber);
         ticket.setPrice(0);
-        ticket.setInTime(inTime);
-        ticket.setOutTime(null);
+        ticket.setInTimeMillis(inTime);
+        ticket.setOutTimeMillis(Ticket.NO_TIME);
         ticket.setIsRegularCustomer(isRegularCustomer);
         ticketDAO.saveTicket(ticket);
         return ticket;
     }
 
-    private void printTicketInfo(ParkingSpot parkingSpot, String vehicleRegNumber, Date inTime) {
+    private void printTicketInfo(ParkingSpot parkingSpot, String vehicleRegNumber, long inTime) {
         System.out.println("Generated Ticket and saved in DB");
         System.out.println("Please park your vehicle in spot number:" + parkingSpot.getId());
-        System.out.println("Recorded in-time for vehicle number:" + vehicleRegNumber + " is:" + inTime);
+        System.out.println("Recorded in-time for vehicle number:" + vehicleRegNumber + " is:" + Instant.ofEpochMilli(inTime));
     }
 
     private void printRegularCustomerMessage() {
@@ -95,15 +199,25 @@ public class ParkingService {
         return inputReaderUtil.readVehicleRegistrationNumber();
     }
 
-    public ParkingSpot getNextParkingNumberIfAvailable() {
-        int parkingNumber = 0;
+    /**
+     * Takes the next spot for the vehicle type read from the input, from the allocation strategy and, when it
+     * {@link AllocationStrategy#takesInStorage() takes spots in storage}, from the storage as well. A caller not
+     * giving the spot to a vehicle must release it.
+     * @return the spot taken, or null when none is free for the type
+     */
+    public ParkingSpot takeNextParkingSpot() {
         ParkingSpot parkingSpot = null;
         try {
-            ParkingType parkingType = getVehicleType();
-            parkingNumber = parkingSpotDAO.getNextAvailableSlot(parkingType);
-            if (parkingNumber > 0) {
-                parkingSpot = new ParkingSpot(parkingNumber, parkingType, true);
-            } else {
+            ParkingType vehicleType = getVehicleType();
+            //a vehicle may overflow to larger spot types when the spots of its own type are full
+            for (ParkingType spotType : parkingTypeCatalog.getAllowedSpotTypes(vehicleType)) {
+                int parkingNumber = allocationStrategy.allocate(spotType);
+                if (parkingNumber > 0) {
+                    parkingSpot = new ParkingSpot(parkingNumber, spotType, false);
+                    break;
+                }
+            }
+            if (parkingSpot == null) {
                 throw new Exception("Error fetching parking number from DB. Parking slots might be full");
             }
         } catch (IllegalArgumentException ie) {
@@ -116,69 +230,147 @@ public class ParkingService {
 
     private ParkingType getVehicleType() {
         System.out.println("Please select vehicle type from menu");
-        System.out.println("1 CAR");
-        System.out.println("2 BIKE");
+        for (ParkingType parkingType : parkingTypeCatalog.getMenuTypes()) {
+            System.out.println(parkingTypeCatalog.getMenuSelection(parkingType) + " " + parkingType);
+        }
         int input = inputReaderUtil.readSelection();
-        switch (input) {
-            case 1: {
-                return ParkingType.CAR;
-            }
-            case 2: {
-                return ParkingType.BIKE;
+        ParkingType parkingType = parkingTypeCatalog.getTypeForMenuSelection(input);
+        if (parkingType == null) {
+            System.out.println("Incorrect input provided");
+            throw new IllegalArgumentException("Entered input is invalid");
+        }
+        return parkingType;
+    }
+
+    /**
+     * Holds a spot of the selected type for the vehicle, starting now.
+     * @return the reservation, or null when it could not be made
+     */
+    public Reservation processReservation() {
+        if (reservationService == null) {
+            System.out.println("Reservations are not enabled");
+            return null;
+        }
+        try {
+            ParkingType parkingType = getVehicleType();
+            String vehicleRegNumber = getVehicleRegNumber();
+            System.out.println("Please type the duration of the reservation in minutes and press enter key");
+            int minutes = inputReaderUtil.readSelection();
+            if (minutes <= 0) {
+                throw new IllegalArgumentException("Entered duration is invalid");
             }
-            default: {
-                System.out.println("Incorrect input provided");
-                throw new IllegalArgumentException("Entered input is invalid");
+            long now = clock.millis();
+            Reservation reservation = reservationService.holdSpotType(vehicleRegNumber, parkingType, now, now + TimeUnit.MINUTES.toMillis(minutes));
+            if (reservation.getState() == ReservationState.ACTIVE) {
+                System.out.println("Parking spot number " + reservation.getSpotNumber() + " is held for vehicle number:" + vehicleRegNumber);
+            } else {
+                System.out.println("No parking spot could be held for vehicle number:" + vehicleRegNumber);
             }
+            return reservation;
+        } catch (Exception e) {
+            logger.error("Unable to process reservation", e);
         }
+        return null;
     }
 
     private boolean isRegularCustomerExiting(String vehicleRegNumber) {
         return ticketDAO.getNbTickets(vehicleRegNumber) > 1;
     }
 
+    /**
+     * Same as {@link #processExitingVehicle()}, for a barrier sending an id with each request: a retry of a
+     * request whose ticket was paid gets that ticket back, without reading the input nor the database.
+     */
+    public Ticket processExitingVehicle(String requestId) throws Exception {
+        return requestCache.execute(GateOperation.EXIT + ":" + requestId, this::processExitingVehicle,
+                Objects::nonNull);
+    }
+
+    /**
+     * @return the paid ticket, or null when there is no ticket to pay or it could not be updated
+     */
     public Ticket processExitingVehicle() throws Exception {
+        long start = System.nanoTime();
+        AdmissionController.Permit permit = admissionController.admit(GateOperation.EXIT);
         Ticket ticket = null;
         try {
             String vehicleRegNumber = getVehicleRegNumber();
+            CompletableFuture<Boolean> regularCustomer = startDaoCall(() -> isRegularCustomerExiting(vehicleRegNumber));
             ticket = ticketDAO.getTicketWithRecentInTime(vehicleRegNumber);
+            if (ticket == null) {
+                if (regularCustomer != null) {
+                    //a count not started yet is dropped from the executor queue
+                    regularCustomer.cancel(false);
+                }
+                System.out.println("No ticket found for vehicle number: " + vehicleRegNumber);
+                return null;
+            }
             updateTicketOutTime(ticket);
-            boolean isRegularCustomer = isRegularCustomerExiting(vehicleRegNumber);
+            boolean isRegularCustomer = regularCustomer == null ? isRegularCustomerExiting(vehicleRegNumber) : await(regularCustomer);
 
             fareCalculatorService.calculateFare(ticket, isRegularCustomer);
 
             if (ticketDAO.updateTicket(ticket)) {
                 ParkingSpot parkingSpot = handleParkingSpotAvailability(ticket.getParkingSpot());
                 ticket.setParkingSpot(parkingSpot);
-                printExitInfo(ticket.getVehicleRegNumber(), ticket.getPrice(), ticket.getOutTime());
+                printExitInfo(ticket.getVehicleRegNumber(), ticket.getPrice(), ticket.getOutTimeMillis());
+                exitListener.onExit(ticket);
+                audit(GateOperation.EXIT, ticket, start);
             } else {
                 System.out.println("Unable to update ticket information. Error occurred");
+                ticket = null;
             }
         } catch (Exception e) {
             logger.error("Unable to process exiting vehicle", e);
             throw e;
+        } finally {
+            permit.close();
         }
         return ticket;
     }
 
     private void updateTicketOutTime(Ticket ticket) {
-        if(ticket.getOutTime() != null) {
+        if(ticket.hasOutTime()) {
             throw new IllegalArgumentException("the ticket has already an outTime");
         }
         //ajouter une condition qui throw IllegalAr gumentException quand getOutTime est null "the ticket has already an outTime"
-        Date outTime = new Date(clock.millis());
-        ticket.setOutTime(outTime);
+        ticket.setOutTimeMillis(clock.millis());
     }
 
-    private ParkingSpot handleParkingSpotAvailability(ParkingSpot parkingSpot) {
-        parkingSpot.setAvailable(true);
+    private ParkingSpot handleParkingSpotAvailability(ParkingSpot occupiedSpot) {
+        ParkingSpot parkingSpot = occupiedSpot.withAvailable(true);
         parkingSpotDAO.updateParking(parkingSpot);
+        allocationStrategy.release(parkingSpot.getId());
         System.out.println("Parking has been updated: " + parkingSpot.getId() + parkingSpot.isAvailable());
         return parkingSpot;
     }
 
-    private void printExitInfo(String vehicleRegNumber, double ticketPrice, Date outTime) {
+    private void printExitInfo(String vehicleRegNumber, double ticketPrice, long outTime) {
         System.out.println("Please pay the parking fare: " + ticketPrice);
-        System.out.println("Recorded out-time for vehicle number: " + vehicleRegNumber + " is: " + outTime);
+        System.out.println("Recorded out-time for vehicle number: " + vehicleRegNumber + " is: " + Instant.ofEpochMilli(outTime));
+    }
+
+    private void audit(GateOperation operation, Ticket ticket, long start) {
+        if (auditLog != null && ticket != null) {
+            ParkingSpot parkingSpot = ticket.getParkingSpot();
+            auditLog.record(operation, ticket.getVehicleRegNumber(), parkingSpot.getId(), parkingSpot.getParkingType(),
+                    ticket.getInTimeMillis(), ticket.getOutTimeMillis(), ticket.getPrice(), System.nanoTime() - start);
+        }
+    }
+
+    //runs the call beside the caller's own, or returns null for the caller to run it when there is no executor
+    private <T> CompletableFuture<T> startDaoCall(Supplier<T> call) {
+        return daoExecutor == null ? null : CompletableFuture.supplyAsync(call, daoExecutor);
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
     }
 }
@@ -0,0 +1,86 @@
+package com.parkit.parkingsystem.service;
+
+import com.parkit.parkingsystem.constants.GateOperation;
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.model.ParkingSpot;
+import com.parkit.parkingsystem.util.LatencyHistogram;
+
+import java.io.PrintStream;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class ReplayReport {
+
+    private final Map<GateOperation, LatencyHistogram> latencies = new EnumMap<>(GateOperation.class);
+    private final Map<GateOperation, Integer> failures = new EnumMap<>(GateOperation.class);
+    private final Map<Integer, ParkingSpot> occupiedSpots = new TreeMap<>();
+    private long elapsedNanos;
+
+    ReplayReport() {
+        for (GateOperation operation : GateOperation.values()) {
+            latencies.put(operation, new LatencyHistogram());
+            failures.put(operation, 0);
+        }
+    }
+
+    void recordSuccess(GateOperation operation, long latencyNanos) {
+        latencies.get(operation).recordNanos(latencyNanos);
+    }
+
+    void recordFailure(GateOperation operation, long latencyNanos) {
+        latencies.get(operation).recordNanos(latencyNanos);
+        failures.merge(operation, 1, Integer::sum);
+    }
+
+    void occupy(ParkingSpot parkingSpot) {
+        occupiedSpots.put(parkingSpot.getId(), parkingSpot);
+    }
+
+    void release(ParkingSpot parkingSpot) {
+        occupiedSpots.remove(parkingSpot.getId());
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getEventCount() {
+        long events = 0;
+        for (LatencyHistogram histogram : latencies.values()) {
+            events += histogram.getCount();
+        }
+        return events;
+    }
+
+    public int getFailureCount(GateOperation operation) {
+        return failures.get(operation);
+    }
+
+    public LatencyHistogram getLatency(GateOperation operation) {
+        return latencies.get(operation);
+    }
+
+    public Map<Integer, ParkingSpot> getOccupiedSpots() {
+        return Collections.unmodifiableMap(occupiedSpots);
+    }
+
+    public double getThroughputPerSecond() {
+        return elapsedNanos == 0 ? 0 : getEventCount() * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    public void print(PrintStream out) {
+        out.printf("Replayed %d events in %.3fs (%.1f events/s)%n", getEventCount(), elapsedNanos / 1_000_000_000.0, getThroughputPerSecond());
+        for (GateOperation operation : GateOperation.values()) {
+            LatencyHistogram histogram = latencies.get(operation);
+            out.println(operation + ": " + histogram.summary() + " failures=" + failures.get(operation));
+            out.print(histogram.distribution());
+        }
+        Map<ParkingType, Integer> occupiedByType = new EnumMap<>(ParkingType.class);
+        for (ParkingSpot parkingSpot : occupiedSpots.values()) {
+            occupiedByType.merge(parkingSpot.getParkingType(), 1, Integer::sum);
+        }
+        out.println("Final lot state: " + occupiedSpots.size() + " occupied spots " + occupiedByType + " " + occupiedSpots.keySet());
+    }
+}
@@ -0,0 +1,106 @@
+package com.parkit.parkingsystem.service;
+
+import com.parkit.parkingsystem.constants.GateOperation;
+import com.parkit.parkingsystem.dao.ParkingSpotDAO;
+import com.parkit.parkingsystem.dao.TicketDAO;
+import com.parkit.parkingsystem.model.GateEvent;
+import com.parkit.parkingsystem.model.Ticket;
+import com.parkit.parkingsystem.util.GateEventReader;
+import com.parkit.parkingsystem.util.ReplayClock;
+import com.parkit.parkingsystem.util.ReplayInputReaderUtil;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives {@link ParkingService} from a recorded gate event log instead of the interactive shell.
+ */
+public class ReplayService {
+
+    private static final Logger logger = LogManager.getLogger("ReplayService");
+
+    private final ParkingSpotDAO parkingSpotDAO;
+    private final TicketDAO ticketDAO;
+    private final FareCalculatorService fareCalculatorService;
+    private AllocationStrategy allocationStrategy;
+
+    public ReplayService(ParkingSpotDAO parkingSpotDAO, TicketDAO ticketDAO, FareCalculatorService fareCalculatorService) {
+        this.parkingSpotDAO = parkingSpotDAO;
+        this.ticketDAO = ticketDAO;
+        this.fareCalculatorService = fareCalculatorService;
+    }
+
+    public void setAllocationStrategy(AllocationStrategy allocationStrategy) {
+        this.allocationStrategy = allocationStrategy;
+    }
+
+    /**
+     * @param wallSpeed when true, events are spaced out as they were recorded, otherwise they are replayed as fast as possible
+     */
+    public ReplayReport replay(Path eventLog, boolean wallSpeed) throws IOException {
+        ReplayInputReaderUtil inputReaderUtil = new ReplayInputReaderUtil();
+        ReplayClock clock = new ReplayClock();
+        ParkingService parkingService = new ParkingService(inputReaderUtil, parkingSpotDAO, ticketDAO, fareCalculatorService, clock);
+        if (allocationStrategy != null) {
+            parkingService.setAllocationStrategy(allocationStrategy);
+        }
+        ReplayReport report = new ReplayReport();
+
+        long start = System.nanoTime();
+        long firstTimestamp = -1;
+        try (GateEventReader reader = new GateEventReader(eventLog)) {
+            while (reader.hasNext()) {
+                GateEvent event = reader.next();
+                if (firstTimestamp < 0) {
+                    firstTimestamp = event.getTimestamp();
+                }
+                if (wallSpeed) {
+                    waitUntil(start + TimeUnit.MILLISECONDS.toNanos(event.getTimestamp() - firstTimestamp));
+                }
+                clock.setMillis(event.getTimestamp());
+                inputReaderUtil.setEvent(event);
+                process(parkingService, event, report);
+            }
+        }
+        report.setElapsedNanos(System.nanoTime() - start);
+        return report;
+    }
+
+    private void process(ParkingService parkingService, GateEvent event, ReplayReport report) {
+        long start = System.nanoTime();
+        Ticket ticket = null;
+        try {
+            ticket = event.getOperation() == GateOperation.ENTRY
+                    ? parkingService.processIncomingVehicle()
+                    : parkingService.processExitingVehicle();
+        } catch (Exception e) {
+            logger.error("Unable to replay " + event.getOperation() + " of " + event.getVehicleRegNumber(), e);
+        }
+        long latencyNanos = System.nanoTime() - start;
+
+        if (ticket == null) {
+            report.recordFailure(event.getOperation(), latencyNanos);
+        } else if (event.getOperation() == GateOperation.ENTRY) {
+            report.recordSuccess(event.getOperation(), latencyNanos);
+            report.occupy(ticket.getParkingSpot());
+        } else {
+            report.recordSuccess(event.getOperation(), latencyNanos);
+            report.release(ticket.getParkingSpot());
+        }
+    }
+
+    private static void waitUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.parkit.parkingsystem.service;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.constants.ReservationState;
+import com.parkit.parkingsystem.dao.ParkingSpotDAO;
+import com.parkit.parkingsystem.model.ParkingSpot;
+import com.parkit.parkingsystem.model.Reservation;
+import com.parkit.parkingsystem.util.HierarchicalTimerWheel;
+import com.parkit.parkingsystem.util.PlateCodec;
+import com.parkit.parkingsystem.util.collections.LongObjectMap;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.time.Clock;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds parking spots for a vehicle during a time window.
+ * <p>
+ * An active hold marks its spot unavailable in storage, so {@link ParkingSpotDAO#getNextAvailableSlot} skips it
+ * until the vehicle enters or the hold ends. Holds starting later are claimed when their window opens. Both the
+ * activations and the expiries are timers of a single {@link HierarchicalTimerWheel} ticked by one thread, so a
+ * pending hold costs two timer nodes and nothing is polled.
+ */
+public class ReservationService implements Closeable {
+    private static final Logger logger = LogManager.getLogger("ReservationService");
+    private static final long TICK_MILLIS = 1000;
+
+    private final ParkingSpotDAO parkingSpotDAO;
+    private final AllocationStrategy allocationStrategy;
+    private final Clock clock;
+    private final HierarchicalTimerWheel timerWheel;
+    private final LongObjectMap<Hold> holds = new LongObjectMap<>();
+    private ScheduledExecutorService ticker;
+
+    private static final class Hold {
+        final Reservation reservation;
+        final long vehicleKey;
+        HierarchicalTimerWheel.Timeout activation;
+        HierarchicalTimerWheel.Timeout expiry;
+
+        Hold(Reservation reservation) {
+            this.reservation = reservation;
+            this.vehicleKey = PlateCodec.key(reservation.getVehicleRegNumber());
+        }
+    }
+
+    public ReservationService(ParkingSpotDAO parkingSpotDAO, Clock clock) {
+        this(parkingSpotDAO, new StorageAllocationStrategy(parkingSpotDAO), clock);
+    }
+
+    /**
+     * @param allocationStrategy the strategy the entering vehicles are given spots by, so that a spot is never given twice
+     */
+    public ReservationService(ParkingSpotDAO parkingSpotDAO, AllocationStrategy allocationStrategy, Clock clock) {
+        this.parkingSpotDAO = parkingSpotDAO;
+        this.allocationStrategy = allocationStrategy;
+        this.clock = clock;
+        this.timerWheel = new HierarchicalTimerWheel(TICK_MILLIS, clock.millis());
+    }
+
+    /**
+     * Starts the thread that moves the timer wheel forward with the clock.
+     */
+    public synchronized void start() {
+        if (ticker != null) {
+            return;
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reservation-ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::advance, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Activates and expires the holds whose time has come.
+     * @return the number of timers that fired
+     */
+    public int advance() {
+        try {
+            return timerWheel.advanceTo(clock.millis());
+        } catch (RuntimeException e) {
+            logger.error("Error advancing the reservation timers", e);
+            return 0;
+        }
+    }
+
+    public Reservation holdSpot(String vehicleRegNumber, int spotNumber, long startMillis, long endMillis) {
+        ParkingSpot parkingSpot = parkingSpotDAO.getParkingSpot(spotNumber);
+        if (parkingSpot == null) {
+            throw new IllegalArgumentException("Unknown parking spot " + spotNumber);
+        }
+        return hold(new Reservation(vehicleRegNumber, parkingSpot.getParkingType(), spotNumber, startMillis, endMillis));
+    }
+
+    public Reservation holdSpotType(String vehicleRegNumber, ParkingType parkingType, long startMillis, long endMillis) {
+        return hold(new Reservation(vehicleRegNumber, parkingType, 0, startMillis, endMillis));
+    }
+
+    private synchronized Reservation hold(Reservation reservation) {
+        if (reservation.getEndMillis() <= reservation.getStartMillis() || reservation.getEndMillis() <= clock.millis()) {
+            throw new IllegalArgumentException("The reservation window is empty or already over");
+        }
+        Hold hold = new Hold(reservation);
+        if (holds.containsKey(hold.vehicleKey)) {
+            throw new IllegalArgumentException("The vehicle " + reservation.getVehicleRegNumber() + " already holds a spot");
+        }
+        holds.put(hold.vehicleKey, hold);
+        if (reservation.getStartMillis() <= clock.millis()) {
+            activate(hold);
+        } else {
+            hold.activation = timerWheel.schedule(reservation.getStartMillis(), () -> onActivation(hold));
+        }
+        return reservation;
+    }
+
+    /**
+     * Gives the spot held by the vehicle to it, ending the hold.
+     * @return the held spot, or null when the vehicle has no active hold
+     */
+    public synchronized ParkingSpot redeem(String vehicleRegNumber) {
+        Hold hold = holds.get(PlateCodec.tryKey(vehicleRegNumber));
+        if (hold == null || hold.reservation.getState() != ReservationState.ACTIVE) {
+            return null;
+        }
+        holds.remove(PlateCodec.tryKey(vehicleRegNumber));
+        hold.expiry.cancel();
+        hold.reservation.setState(ReservationState.REDEEMED);
+        return new ParkingSpot(hold.reservation.getSpotNumber(), hold.reservation.getParkingType(), false);
+    }
+
+    /**
+     * @return true when the vehicle had a pending or active hold
+     */
+    public synchronized boolean cancel(String vehicleRegNumber) {
+        Hold hold = holds.remove(PlateCodec.tryKey(vehicleRegNumber));
+        if (hold == null) {
+            return false;
+        }
+        if (hold.activation != null) {
+            hold.activation.cancel();
+        }
+        if (hold.expiry != null) {
+            hold.expiry.cancel();
+        }
+        release(hold, ReservationState.CANCELLED);
+        return true;
+    }
+
+    /**
+     * @return the pending or active hold of the vehicle, or null
+     */
+    public synchronized Reservation getReservation(String vehicleRegNumber) {
+        Hold hold = holds.get(PlateCodec.tryKey(vehicleRegNumber));
+        return hold == null ? null : hold.reservation;
+    }
+
+    public synchronized int getHoldCount() {
+        return holds.size();
+    }
+
+    private synchronized void onActivation(Hold hold) {
+        if (holds.get(hold.vehicleKey) == hold) {
+            activate(hold);
+        }
+    }
+
+    private synchronized void onExpiry(Hold hold) {
+        if (holds.get(hold.vehicleKey) == hold) {
+            holds.remove(hold.vehicleKey);
+            release(hold, ReservationState.EXPIRED);
+        }
+    }
+
+    private void activate(Hold hold) {
+        Reservation reservation = hold.reservation;
+        int spotNumber = reservation.getRequestedSpotNumber();
+        if (spotNumber > 0) {
+            spotNumber = allocationStrategy.claim(spotNumber) ? spotNumber : 0;
+        } else {
+            spotNumber = allocationStrategy.allocate(reservation.getParkingType());
+        }
+        boolean held = spotNumber > 0 && (allocationStrategy.takesInStorage()
+                || parkingSpotDAO.updateParking(new ParkingSpot(spotNumber, reservation.getParkingType(), false)));
+        if (!held) {
+            if (spotNumber > 0) {
+                allocationStrategy.release(spotNumber);
+            }
+            logger.error("No parking spot could be held for vehicle " + reservation.getVehicleRegNumber());
+            holds.remove(hold.vehicleKey);
+            reservation.setState(ReservationState.FAILED);
+            return;
+        }
+        reservation.setSpotNumber(spotNumber);
+        reservation.setState(ReservationState.ACTIVE);
+        hold.expiry = timerWheel.schedule(reservation.getEndMillis(), () -> onExpiry(hold));
+    }
+
+    private void release(Hold hold, ReservationState state) {
+        Reservation reservation = hold.reservation;
+        if (reservation.getState() == ReservationState.ACTIVE) {
+            parkingSpotDAO.updateParking(new ParkingSpot(reservation.getSpotNumber(), reservation.getParkingType(), true));
+            allocationStrategy.release(reservation.getSpotNumber());
+        }
+        reservation.setState(state);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+            ticker = null;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.parkit.parkingsystem.service;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.dao.ParkingSpotDAO;
+
+/**
+ * Takes the lowest available spot in the storage, which stores it unavailable at once so that two gates never
+ * get the same spot. A spot given but left unused must be stored available again by the caller.
+ */
+public class StorageAllocationStrategy implements AllocationStrategy {
+
+    private final ParkingSpotDAO parkingSpotDAO;
+
+    public StorageAllocationStrategy(ParkingSpotDAO parkingSpotDAO) {
+        this.parkingSpotDAO = parkingSpotDAO;
+    }
+
+    @Override
+    public int allocate(ParkingType parkingType) {
+        return parkingSpotDAO.takeNextAvailableSlot(parkingType);
+    }
+
+    @Override
+    public boolean claim(int spotNumber) {
+        return parkingSpotDAO.takeParkingSpot(spotNumber);
+    }
+
+    @Override
+    public void release(int spotNumber) {
+        //the storage availability is updated by the caller
+    }
+
+    @Override
+    public boolean takesInStorage() {
+        return true;
+    }
+}
@@ -0,0 +1,149 @@
+package com.parkit.parkingsystem.service;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+
+/**
+ * Figures of a batch of closed tickets re-priced under hypothetical rates. Partial reports computed on
+ * separate chunks are {@link #merge merged}.
+ */
+public class TariffAnalysisReport {
+    public static final int DWELL_BUCKET_MINUTES = 15;
+    //the last bucket holds every stay of a day or more
+    public static final int DWELL_BUCKETS = 24 * 60 / DWELL_BUCKET_MINUTES + 1;
+    private static final long DWELL_BUCKET_MILLIS = DWELL_BUCKET_MINUTES * 60_000L;
+    private static final ParkingType[] TYPES = ParkingType.values();
+
+    private long ticketCount;
+    private long freeTicketCount;
+    private long skippedCount;
+    private final long[] dwellHistogram = new long[DWELL_BUCKETS];
+    private final long[] ticketsByType = new long[TYPES.length];
+    private final double[] recordedRevenue = new double[TYPES.length];
+    private final double[] hypotheticalRevenue = new double[TYPES.length];
+
+    TariffAnalysisReport() {
+    }
+
+    void add(ParkingType parkingType, long dwellMillis, double recordedPrice, double hypotheticalPrice) {
+        int type = parkingType.ordinal();
+        ticketCount++;
+        ticketsByType[type]++;
+        if (hypotheticalPrice == 0) {
+            freeTicketCount++;
+        }
+        dwellHistogram[(int) Math.min(dwellMillis / DWELL_BUCKET_MILLIS, DWELL_BUCKETS - 1)]++;
+        recordedRevenue[type] += recordedPrice;
+        hypotheticalRevenue[type] += hypotheticalPrice;
+    }
+
+    void skip() {
+        skippedCount++;
+    }
+
+    TariffAnalysisReport merge(TariffAnalysisReport other) {
+        ticketCount += other.ticketCount;
+        freeTicketCount += other.freeTicketCount;
+        skippedCount += other.skippedCount;
+        for (int bucket = 0; bucket < DWELL_BUCKETS; bucket++) {
+            dwellHistogram[bucket] += other.dwellHistogram[bucket];
+        }
+        for (int type = 0; type < TYPES.length; type++) {
+            ticketsByType[type] += other.ticketsByType[type];
+            recordedRevenue[type] += other.recordedRevenue[type];
+            hypotheticalRevenue[type] += other.hypotheticalRevenue[type];
+        }
+        return this;
+    }
+
+    /**
+     * @return the number of closed tickets re-priced
+     */
+    public long getTicketCount() {
+        return ticketCount;
+    }
+
+    /**
+     * @return the number of tickets that could not be read or re-priced, such as an out-time before the in-time
+     */
+    public long getSkippedCount() {
+        return skippedCount;
+    }
+
+    /**
+     * @return the share of the tickets that are free under the hypothetical rates
+     */
+    public double getFreeShare() {
+        return ticketCount == 0 ? 0 : (double) freeTicketCount / ticketCount;
+    }
+
+    public long getTicketCount(ParkingType parkingType) {
+        return ticketsByType[parkingType.ordinal()];
+    }
+
+    public double getRecordedRevenue(ParkingType parkingType) {
+        return recordedRevenue[parkingType.ordinal()];
+    }
+
+    public double getHypotheticalRevenue(ParkingType parkingType) {
+        return hypotheticalRevenue[parkingType.ordinal()];
+    }
+
+    public double getRecordedRevenue() {
+        return Arrays.stream(recordedRevenue).sum();
+    }
+
+    public double getHypotheticalRevenue() {
+        return Arrays.stream(hypotheticalRevenue).sum();
+    }
+
+    /**
+     * @return the revenue the hypothetical rates would have brought minus the revenue recorded
+     */
+    public double getRevenueDelta() {
+        return getHypotheticalRevenue() - getRecordedRevenue();
+    }
+
+    /**
+     * @return the number of stays per {@link #DWELL_BUCKET_MINUTES} minutes bucket
+     */
+    public long[] getDwellHistogram() {
+        return dwellHistogram.clone();
+    }
+
+    /**
+     * @return the upper bound, in minutes, of the bucket holding the given percentile of the stays
+     */
+    public int getDwellPercentileMinutes(double percentile) {
+        long rank = (long) Math.ceil(percentile / 100 * ticketCount);
+        long seen = 0;
+        for (int bucket = 0; bucket < DWELL_BUCKETS; bucket++) {
+            seen += dwellHistogram[bucket];
+            if (seen >= rank && seen > 0) {
+                return (bucket + 1) * DWELL_BUCKET_MINUTES;
+            }
+        }
+        return 0;
+    }
+
+    public void print(PrintStream out) {
+        out.printf("Re-priced %d tickets (%d skipped), %.1f%% free%n", ticketCount, skippedCount, getFreeShare() * 100);
+        out.printf("Revenue: recorded %.2f, hypothetical %.2f, delta %+.2f%n", getRecordedRevenue(), getHypotheticalRevenue(), getRevenueDelta());
+        for (ParkingType parkingType : TYPES) {
+            if (getTicketCount(parkingType) > 0) {
+                out.printf("  %s: %d tickets, recorded %.2f, hypothetical %.2f%n", parkingType, getTicketCount(parkingType),
+                        getRecordedRevenue(parkingType), getHypotheticalRevenue(parkingType));
+            }
+        }
+        out.printf("Dwell time: p50<=%dmin p90<=%dmin p99<=%dmin%n", getDwellPercentileMinutes(50), getDwellPercentileMinutes(90), getDwellPercentileMinutes(99));
+        for (int bucket = 0; bucket < DWELL_BUCKETS; bucket++) {
+            if (dwellHistogram[bucket] > 0) {
+                String bounds = bucket == DWELL_BUCKETS - 1 ? ">=" + bucket * DWELL_BUCKET_MINUTES
+                        : bucket * DWELL_BUCKET_MINUTES + "-" + (bucket + 1) * DWELL_BUCKET_MINUTES;
+                out.printf("  %smin: %d%n", bounds, dwellHistogram[bucket]);
+            }
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.parkit.parkingsystem.service;
+
+import com.parkit.parkingsystem.config.DataBaseConfig;
+import com.parkit.parkingsystem.dao.JdbcTicketStream;
+import com.parkit.parkingsystem.model.Ticket;
+import com.parkit.parkingsystem.util.PlateCodec;
+import com.parkit.parkingsystem.util.TicketExportParser;
+import com.parkit.parkingsystem.util.collections.LongIntMap;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Re-prices historical tickets with a {@link FareCalculatorService} built on hypothetical rates. The tickets
+ * are read in id order by the calling thread, in chunks handed to a fork/join pool that parses, re-prices and
+ * summarizes them, while the next chunks are read. As at the gates, every ticket of a vehicle but its first
+ * one gets the regular customer discount; this is decided while reading, which only needs the vehicle.
+ */
+public class TariffAnalysisService {
+
+    private static final Logger logger = LogManager.getLogger("TariffAnalysisService");
+    private static final int CHUNK_SIZE = 16_384;
+    private static final int LEAF_SIZE = 1_024;
+
+    private final FareCalculatorService fareCalculatorService;
+    private final int parallelism;
+
+    public TariffAnalysisService(FareCalculatorService fareCalculatorService, int parallelism) {
+        this.fareCalculatorService = fareCalculatorService;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Analyzes a ticket export, see {@link TicketExportParser} for its format.
+     */
+    public TariffAnalysisReport analyzeExport(Path exportFile) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(exportFile, StandardCharsets.UTF_8)) {
+            return analyze(() -> {
+                String line;
+                do {
+                    line = reader.readLine();
+                } while (line != null && !TicketExportParser.isTicket(line));
+                return line;
+            }, TicketExportParser::getVehicleRegNumber, TicketExportParser::parse);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Analyzes the tickets and archived tickets of the database.
+     */
+    public TariffAnalysisReport analyzeDataBase(DataBaseConfig dataBaseConfig) throws SQLException, ClassNotFoundException {
+        try (JdbcTicketStream tickets = new JdbcTicketStream(dataBaseConfig)) {
+            return analyze(tickets::next, Ticket::getVehicleRegNumber, Function.identity());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private interface RecordReader<R> {
+        /**
+         * @return the next record, or null after the last one
+         */
+        R read() throws IOException, SQLException;
+    }
+
+    private <R> TariffAnalysisReport analyze(RecordReader<R> reader, Function<R, String> vehicleOf, Function<R, Ticket> toTicket)
+            throws IOException, SQLException {
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        TariffAnalysisReport report = new TariffAnalysisReport();
+        //a few chunks ahead keep every worker busy while bounding the memory used
+        Deque<ForkJoinTask<TariffAnalysisReport>> inFlight = new ArrayDeque<>();
+        //the visits of each vehicle so far, a vehicle seen before being regular
+        LongIntMap visits = new LongIntMap(0);
+        try {
+            List<R> records = new ArrayList<>(CHUNK_SIZE);
+            BitSet regular = new BitSet(CHUNK_SIZE);
+            R record;
+            while ((record = reader.read()) != null) {
+                long vehicleKey = PlateCodec.tryKey(vehicleOf.apply(record));
+                if (vehicleKey != PlateCodec.INVALID && visits.addTo(vehicleKey, 1) > 1) {
+                    regular.set(records.size());
+                }
+                records.add(record);
+                if (records.size() == CHUNK_SIZE) {
+                    inFlight.add(pool.submit(chunkTask(records, regular, toTicket)));
+                    records = new ArrayList<>(CHUNK_SIZE);
+                    regular = new BitSet(CHUNK_SIZE);
+                    if (inFlight.size() > 2 * parallelism) {
+                        report.merge(inFlight.poll().join());
+                    }
+                }
+            }
+            if (!records.isEmpty()) {
+                inFlight.add(pool.submit(chunkTask(records, regular, toTicket)));
+            }
+            while (!inFlight.isEmpty()) {
+                report.merge(inFlight.poll().join());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        logger.info("Re-priced " + report.getTicketCount() + " tickets in " + (System.nanoTime() - start) / 1_000_000 + "ms on " + parallelism + " threads");
+        return report;
+    }
+
+    private <R> ChunkTask chunkTask(List<R> records, BitSet regular, Function<R, Ticket> toTicket) {
+        return new ChunkTask(records, i -> toTicket.apply(records.get(i)), regular, 0, records.size());
+    }
+
+    private final class ChunkTask extends RecursiveTask<TariffAnalysisReport> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<?> records;
+        private final IntFunction<Ticket> ticketAt;
+        private final BitSet regular;
+        private final int from;
+        private final int to;
+
+        ChunkTask(List<?> records, IntFunction<Ticket> ticketAt, BitSet regular, int from, int to) {
+            this.records = records;
+            this.ticketAt = ticketAt;
+            this.regular = regular;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected TariffAnalysisReport compute() {
+            if (to - from > LEAF_SIZE) {
+                int middle = (from + to) >>> 1;
+                ChunkTask second = new ChunkTask(records, ticketAt, regular, middle, to);
+                second.fork();
+                TariffAnalysisReport report = new ChunkTask(records, ticketAt, regular, from, middle).compute();
+                return report.merge(second.join());
+            }
+            TariffAnalysisReport report = new TariffAnalysisReport();
+            for (int i = from; i < to; i++) {
+                Ticket ticket;
+                try {
+                    ticket = ticketAt.apply(i);
+                } catch (RuntimeException e) {
+                    logger.warn("Skipping unreadable ticket " + records.get(i), e);
+                    report.skip();
+                    continue;
+                }
+                reprice(ticket, regular.get(i), report);
+            }
+            return report;
+        }
+    }
+
+    private void reprice(Ticket ticket, boolean regularCustomer, TariffAnalysisReport report) {
+        if (!ticket.hasOutTime()) {
+            return;
+        }
+        double recordedPrice = ticket.getPrice();
+        try {
+            fareCalculatorService.calculateFare(ticket, regularCustomer);
+        } catch (IllegalArgumentException e) {
+            report.skip();
+            return;
+        }
+        report.add(ticket.getParkingSpot().getParkingType(), ticket.getOutTimeMillis() - ticket.getInTimeMillis(), recordedPrice, ticket.getPrice());
+    }
+}
@@ -0,0 +1,160 @@
+package com.parkit.parkingsystem.service;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.dao.TrafficSummaryDAO;
+import com.parkit.parkingsystem.model.HourlyTraffic;
+import com.parkit.parkingsystem.model.Ticket;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.parkit.parkingsystem.model.HourlyTraffic.HOUR_MILLIS;
+
+/**
+ * Folds every exit into hourly revenue and occupancy per spot type, and periodically adds them to the
+ * {@link TrafficSummaryDAO}. The figures not flushed yet live in a ring of one week of hours, one primitive
+ * array per figure and type; an hour still holding figures when its slot is needed by another hour, after a
+ * long stay for instance, is set aside until the next flush.
+ * Revenue is counted in the hour of the exit and occupancy in every hour of the stay, so the occupancy of an
+ * hour only includes the vehicles that have left since.
+ */
+public class TrafficAggregator implements ExitListener, Closeable {
+    private static final Logger logger = LogManager.getLogger("TrafficAggregator");
+    private static final int RING_HOURS = 24 * 7;
+    private static final long NO_HOUR = Long.MIN_VALUE;
+    private static final long FLUSH_INTERVAL_SECONDS = 60;
+    private static final ParkingType[] TYPES = ParkingType.values();
+
+    private final TrafficSummaryDAO trafficSummaryDAO;
+    private final long[] slotHours = new long[RING_HOURS];
+    private final int[][] exits = new int[TYPES.length][RING_HOURS];
+    private final double[][] revenue = new double[TYPES.length][RING_HOURS];
+    private final long[][] occupiedMillis = new long[TYPES.length][RING_HOURS];
+    private final List<HourlyTraffic> setAside = new ArrayList<>();
+    private ScheduledExecutorService scheduler;
+
+    public TrafficAggregator(TrafficSummaryDAO trafficSummaryDAO) {
+        this.trafficSummaryDAO = trafficSummaryDAO;
+        Arrays.fill(slotHours, NO_HOUR);
+    }
+
+    /**
+     * Flushes in the background every minute.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "traffic-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_SECONDS, FLUSH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void onExit(Ticket ticket) {
+        if (!ticket.hasOutTime()) {
+            return;
+        }
+        int type = ticket.getParkingSpot().getParkingType().ordinal();
+        long inTime = ticket.getInTimeMillis();
+        long outTime = ticket.getOutTimeMillis();
+        synchronized (this) {
+            int slot = slotOf(hourOf(outTime));
+            exits[type][slot]++;
+            revenue[type][slot] += ticket.getPrice();
+            for (long hour = hourOf(inTime); hour < outTime; hour += HOUR_MILLIS) {
+                occupiedMillis[type][slotOf(hour)] += Math.min(outTime, hour + HOUR_MILLIS) - Math.max(inTime, hour);
+            }
+        }
+    }
+
+    /**
+     * Adds the figures gathered since the last flush to the summary. They are kept for the next flush when
+     * the summary cannot be written.
+     */
+    public void flush() {
+        List<HourlyTraffic> hours = drain();
+        if (hours.isEmpty() || trafficSummaryDAO.addHourlyTraffic(hours)) {
+            return;
+        }
+        logger.warn("Keeping " + hours.size() + " hours of traffic for the next flush");
+        synchronized (this) {
+            for (HourlyTraffic hour : hours) {
+                int type = hour.getParkingType().ordinal();
+                int slot = slotOf(hour.getHourStartMillis());
+                exits[type][slot] += hour.getExits();
+                revenue[type][slot] += hour.getRevenue();
+                occupiedMillis[type][slot] += hour.getOccupiedMillis();
+            }
+        }
+    }
+
+    /**
+     * @return the traffic of the type for each hour between the two times that saw any, in time order
+     */
+    public List<HourlyTraffic> getHourlyTraffic(ParkingType parkingType, long fromMillis, long toMillis) {
+        flush();
+        return trafficSummaryDAO.getHourlyTraffic(parkingType, hourOf(fromMillis), toMillis);
+    }
+
+    private synchronized List<HourlyTraffic> drain() {
+        List<HourlyTraffic> hours = new ArrayList<>(setAside);
+        setAside.clear();
+        for (int slot = 0; slot < RING_HOURS; slot++) {
+            if (slotHours[slot] != NO_HOUR) {
+                collect(slot, hours);
+                slotHours[slot] = NO_HOUR;
+            }
+        }
+        return hours;
+    }
+
+    //must hold the lock
+    private int slotOf(long hour) {
+        int slot = (int) Math.floorMod(hour / HOUR_MILLIS, (long) RING_HOURS);
+        if (slotHours[slot] != hour) {
+            if (slotHours[slot] != NO_HOUR) {
+                collect(slot, setAside);
+            }
+            slotHours[slot] = hour;
+        }
+        return slot;
+    }
+
+    //must hold the lock
+    private void collect(int slot, List<HourlyTraffic> hours) {
+        for (int type = 0; type < TYPES.length; type++) {
+            if (exits[type][slot] != 0 || occupiedMillis[type][slot] != 0) {
+                hours.add(new HourlyTraffic(TYPES[type], slotHours[slot], exits[type][slot], revenue[type][slot], occupiedMillis[type][slot]));
+                exits[type][slot] = 0;
+                revenue[type][slot] = 0;
+                occupiedMillis[type][slot] = 0;
+            }
+        }
+    }
+
+    private static long hourOf(long millis) {
+        return Math.floorDiv(millis, HOUR_MILLIS) * HOUR_MILLIS;
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (scheduler != null) {
+                scheduler.shutdownNow();
+                scheduler = null;
+            }
+        }
+        flush();
+    }
+}
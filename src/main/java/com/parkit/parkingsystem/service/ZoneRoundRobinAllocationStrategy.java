@@ -0,0 +1,14 @@
+package com.parkit.parkingsystem.service;
+
+import com.parkit.parkingsystem.dao.ParkingSpotDAO;
+import com.parkit.parkingsystem.model.ParkingLayout;
+
+/**
+ * Spreads the vehicles of each type over the zones in turn, taking the lowest free number of the zone.
+ */
+public class ZoneRoundRobinAllocationStrategy extends LayoutAllocationStrategy {
+
+    public ZoneRoundRobinAllocationStrategy(ParkingLayout layout, ParkingSpotDAO parkingSpotDAO) {
+        super(layout, parkingSpotDAO, true, BY_NUMBER);
+    }
+}
@@ -0,0 +1,109 @@
+package com.parkit.parkingsystem.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limits the number of calls running at once, the limit adapting to the observed latency: it shrinks by 10%
+ * when calls take more than twice the baseline latency, the lowest latency of the last samples, which means
+ * they queue somewhere downstream, and grows by one per limit's worth of fast calls made while busy.
+ */
+public class AdaptiveLimiter {
+
+    private static final double LATENCY_TOLERANCE = 2.0;
+    private static final double DECREASE_FACTOR = 0.9;
+    private static final int BASELINE_WINDOW = 500;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private double limit;
+    private int inFlight;
+    private long baselineNanos = Long.MAX_VALUE;
+    private long windowMinNanos = Long.MAX_VALUE;
+    private int windowSamples;
+    private int samplesSinceDecrease;
+
+    public AdaptiveLimiter(int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = maxLimit;
+    }
+
+    /**
+     * Waits at most the given time for the number of running calls to fall under the limit.
+     * @return true when the call may run, in which case {@link #release} must follow
+     */
+    public boolean acquire(long timeout, TimeUnit unit) throws InterruptedException {
+        long remainingNanos = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (inFlight >= (int) limit) {
+                if (remainingNanos <= 0) {
+                    return false;
+                }
+                remainingNanos = released.awaitNanos(remainingNanos);
+            }
+            inFlight++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ends a call that lasted the given time.
+     */
+    public void release(long latencyNanos) {
+        lock.lock();
+        try {
+            boolean busy = inFlight * 2 >= (int) limit;
+            inFlight--;
+            updateBaseline(latencyNanos);
+            samplesSinceDecrease++;
+            if (latencyNanos > LATENCY_TOLERANCE * baselineNanos) {
+                //one decrease per round of calls, the slow calls of a same round telling the same story
+                if (samplesSinceDecrease >= limit) {
+                    limit = Math.max(minLimit, limit * DECREASE_FACTOR);
+                    samplesSinceDecrease = 0;
+                }
+            } else if (busy) {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void updateBaseline(long latencyNanos) {
+        windowMinNanos = Math.min(windowMinNanos, latencyNanos);
+        baselineNanos = Math.min(baselineNanos, latencyNanos);
+        //the baseline follows the latency up when the downstream gets durably slower
+        if (++windowSamples == BASELINE_WINDOW) {
+            baselineNanos = windowMinNanos;
+            windowMinNanos = Long.MAX_VALUE;
+            windowSamples = 0;
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.parkit.parkingsystem.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Lock-free log of entries that are never modified once appended. Entries are stored in fixed size chunks
+ * allocated on demand, so appending never copies what is already there.
+ */
+public class AppendOnlyLog<T> {
+
+    private static final int CHUNK_BITS = 14;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int MAX_CHUNKS = 1 << 17;
+
+    private final AtomicReferenceArray<AtomicReferenceArray<T>> chunks = new AtomicReferenceArray<>(MAX_CHUNKS);
+    private final AtomicLong size = new AtomicLong();
+
+    /**
+     * @return the position of the appended entry
+     */
+    public long append(T entry) {
+        long position = size.getAndIncrement();
+        chunkOf(position).set((int) (position & (CHUNK_SIZE - 1)), entry);
+        return position;
+    }
+
+    /**
+     * @return the entry at the given position, or null when the append to that position is still in progress
+     */
+    public T get(long position) {
+        if (position < 0 || position >= size.get()) {
+            throw new IndexOutOfBoundsException("No entry at position " + position);
+        }
+        AtomicReferenceArray<T> chunk = chunks.get((int) (position >>> CHUNK_BITS));
+        return chunk == null ? null : chunk.get((int) (position & (CHUNK_SIZE - 1)));
+    }
+
+    public long size() {
+        return size.get();
+    }
+
+    /**
+     * Visits the entries in append order, skipping those still being appended.
+     */
+    public void forEach(Consumer<? super T> consumer) {
+        long end = size.get();
+        for (long position = 0; position < end; position++) {
+            T entry = get(position);
+            if (entry != null) {
+                consumer.accept(entry);
+            }
+        }
+    }
+
+    private AtomicReferenceArray<T> chunkOf(long position) {
+        int index = (int) (position >>> CHUNK_BITS);
+        if (index >= MAX_CHUNKS) {
+            throw new IllegalStateException("Append only log is full");
+        }
+        AtomicReferenceArray<T> chunk = chunks.get(index);
+        if (chunk == null) {
+            chunks.compareAndSet(index, null, new AtomicReferenceArray<>(CHUNK_SIZE));
+            chunk = chunks.get(index);
+        }
+        return chunk;
+    }
+}
@@ -0,0 +1,251 @@
+package com.parkit.parkingsystem.util;
+
+import com.parkit.parkingsystem.constants.GateOperation;
+import com.parkit.parkingsystem.constants.ParkingType;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Append-only binary log of the entries and exits, kept in memory-mapped segment files of fixed-width records.
+ * <p>
+ * {@link #record} only copies the event to a slot of a ring buffer and never blocks nor waits for another caller:
+ * a slot is claimed with a compare-and-set, and when the ring is full the event is dropped and counted rather
+ * than slowing down the gate. A single writer thread moves the events from the ring to the current segment,
+ * rolling to a new segment when it is full.
+ * <p>
+ * A segment starts with a {@value #HEADER_SIZE}-byte header, the {@link #MAGIC} number then the record size,
+ * followed by {@value #RECORD_SIZE}-byte little-endian records:
+ * <pre>
+ * 0  long   hash of the vehicle registration number, see {@link #hashVehicleRegNumber}
+ * 8  long   in-time, epoch millis
+ * 16 long   out-time, epoch millis, -1 for entries
+ * 24 double fare
+ * 32 long   latency of the operation, nanos
+ * 40 int    spot number
+ * 44 byte   operation, 1 for entries and 2 for exits, 0 past the last record of the segment
+ * 45 byte   ordinal of the spot type
+ * </pre>
+ * The records reach the page cache when written, so they survive a crash of the process; segments are
+ * forced to disk when rolled and on {@link #close}.
+ */
+public class AuditLog implements Closeable {
+
+    public static final int MAGIC = 0x504B4556;
+    public static final int HEADER_SIZE = 16;
+    public static final int RECORD_SIZE = 48;
+    public static final byte ENTRY_RECORD = 1;
+    public static final byte EXIT_RECORD = 2;
+    static final String PREFIX = "events-";
+    static final String SUFFIX = ".bin";
+
+    private static final Logger logger = LogManager.getLogger("AuditLog");
+    private static final long IDLE_PARK_NANOS = 1_000_000;
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final int mask;
+    //the slots of the ring, the event of sequence s being stored at index s & mask
+    private final long[] plateHashes;
+    private final long[] inTimes;
+    private final long[] outTimes;
+    private final double[] fares;
+    private final long[] latencies;
+    private final int[] spots;
+    private final byte[] operations;
+    private final byte[] types;
+    //the sequence last published in each slot, read by the writer to know the slot is complete
+    private final AtomicLongArray published;
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean running = true;
+    private long segmentSequence;
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+
+    /**
+     * @param maxSegmentBytes the size of a segment file, rounded down to a whole number of records
+     * @param ringCapacity the number of events waiting for the writer beyond which events are dropped, rounded
+     *                     up to a power of two
+     */
+    public AuditLog(Path directory, long maxSegmentBytes, int ringCapacity) throws IOException {
+        this.directory = directory;
+        this.recordsPerSegment = (int) Math.min(Integer.MAX_VALUE / RECORD_SIZE, (maxSegmentBytes - HEADER_SIZE) / RECORD_SIZE);
+        if (recordsPerSegment <= 0) {
+            throw new IllegalArgumentException("Segments of " + maxSegmentBytes + " bytes cannot hold a record");
+        }
+        int capacity = Integer.highestOneBit(Math.max(2, ringCapacity - 1)) << 1;
+        this.mask = capacity - 1;
+        plateHashes = new long[capacity];
+        inTimes = new long[capacity];
+        outTimes = new long[capacity];
+        fares = new double[capacity];
+        latencies = new long[capacity];
+        spots = new int[capacity];
+        operations = new byte[capacity];
+        types = new byte[capacity];
+        published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, i - capacity);
+        }
+        Files.createDirectories(directory);
+        segmentSequence = lastSegmentSequence(directory);
+        roll();
+        writer = new Thread(this::drainLoop, "audit-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queues an event for the writer.
+     * @return false when the ring was full and the event dropped
+     */
+    public boolean record(GateOperation operation, String vehicleRegNumber, int spotNumber, ParkingType parkingType,
+                          long inTime, long outTime, double fare, long latencyNanos) {
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - written.get() > mask) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+        int slot = (int) sequence & mask;
+        plateHashes[slot] = hashVehicleRegNumber(vehicleRegNumber);
+        inTimes[slot] = inTime;
+        outTimes[slot] = outTime;
+        fares[slot] = fare;
+        latencies[slot] = latencyNanos;
+        spots[slot] = spotNumber;
+        operations[slot] = operation == GateOperation.ENTRY ? ENTRY_RECORD : EXIT_RECORD;
+        types[slot] = (byte) (parkingType == null ? ParkingType.UNKNOWN : parkingType).ordinal();
+        published.lazySet(slot, sequence);
+        return true;
+    }
+
+    /**
+     * @return the number of events dropped because the writer fell behind
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * @return the number of events written to the segments
+     */
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    /**
+     * Stable 64-bit FNV-1a hash of the registration number, so that the log can be searched for a vehicle
+     * without storing its number.
+     */
+    public static long hashVehicleRegNumber(String vehicleRegNumber) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < vehicleRegNumber.length(); i++) {
+            char c = vehicleRegNumber.charAt(i);
+            hash = (hash ^ (c & 0xFF)) * FNV_PRIME;
+            hash = (hash ^ (c >>> 8)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private void drainLoop() {
+        while (running) {
+            try {
+                if (drain() == 0) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            } catch (IOException e) {
+                logger.error("Error writing the audit log, stopping it", e);
+                return;
+            }
+        }
+    }
+
+    //moves the published events to the segment, in sequence order
+    private int drain() throws IOException {
+        int count = 0;
+        long sequence = written.get();
+        int slot = (int) sequence & mask;
+        while (published.get(slot) == sequence) {
+            if (!segment.hasRemaining()) {
+                roll();
+            }
+            segment.putLong(plateHashes[slot])
+                    .putLong(inTimes[slot])
+                    .putLong(outTimes[slot])
+                    .putDouble(fares[slot])
+                    .putLong(latencies[slot])
+                    .putInt(spots[slot])
+                    .put(operations[slot])
+                    .put(types[slot])
+                    .putShort((short) 0);
+            sequence++;
+            written.lazySet(sequence);
+            slot = (int) sequence & mask;
+            count++;
+        }
+        return count;
+    }
+
+    private void roll() throws IOException {
+        if (channel != null) {
+            segment.force();
+            channel.close();
+        }
+        segmentSequence++;
+        Path file = directory.resolve(String.format("%s%010d%s", PREFIX, segmentSequence, SUFFIX));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) recordsPerSegment * RECORD_SIZE);
+        segment.order(ByteOrder.LITTLE_ENDIAN);
+        segment.putInt(MAGIC).putInt(RECORD_SIZE).putLong(0);
+    }
+
+    private static long lastSegmentSequence(Path directory) throws IOException {
+        long last = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                last = Math.max(last, Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Writes the queued events then closes the current segment.
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drain();
+        segment.force();
+        channel.close();
+        if (dropped.get() > 0) {
+            logger.warn(dropped.get() + " gate events were dropped from the audit log");
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.parkit.parkingsystem.util;
+
+import com.parkit.parkingsystem.constants.GateOperation;
+import com.parkit.parkingsystem.constants.ParkingType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Scans the segments written by an {@link AuditLog}, oldest first. The reader is a cursor over the mapped
+ * segments: {@link #next} moves to the following record and the getters read its fields in place, so a scan
+ * allocates nothing per record.
+ * <pre>
+ * try (AuditLogReader reader = new AuditLogReader(directory)) {
+ *     while (reader.next()) {
+ *         revenue += reader.getFare();
+ *     }
+ * }
+ * </pre>
+ */
+public class AuditLogReader implements Closeable {
+
+    private static final ParkingType[] PARKING_TYPES = ParkingType.values();
+
+    private final List<Path> segments = new ArrayList<>();
+    private int nextSegment;
+    private MappedByteBuffer segment;
+    private int position = -1;
+
+    public AuditLogReader(Path directory) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, AuditLog.PREFIX + "*" + AuditLog.SUFFIX)) {
+            for (Path file : files) {
+                segments.add(file);
+            }
+        }
+        //the sequence numbers are zero-padded, so the names sort in writing order
+        Collections.sort(segments);
+    }
+
+    /**
+     * @return true when the cursor moved to a record, false past the last one
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            if (segment != null) {
+                int following = position < 0 ? AuditLog.HEADER_SIZE : position + AuditLog.RECORD_SIZE;
+                if (following + AuditLog.RECORD_SIZE <= segment.limit() && segment.get(following + 44) != 0) {
+                    position = following;
+                    return true;
+                }
+            }
+            if (nextSegment == segments.size()) {
+                segment = null;
+                return false;
+            }
+            open(segments.get(nextSegment++));
+        }
+    }
+
+    private void open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        segment.order(ByteOrder.LITTLE_ENDIAN);
+        if (segment.limit() < AuditLog.HEADER_SIZE || segment.getInt(0) != AuditLog.MAGIC) {
+            throw new IOException(file + " is not an audit log segment");
+        }
+        if (segment.getInt(4) != AuditLog.RECORD_SIZE) {
+            throw new IOException(file + " holds records of " + segment.getInt(4) + " bytes");
+        }
+        position = -1;
+    }
+
+    public long getPlateHash() {
+        return segment.getLong(position);
+    }
+
+    public long getInTimeMillis() {
+        return segment.getLong(position + 8);
+    }
+
+    public long getOutTimeMillis() {
+        return segment.getLong(position + 16);
+    }
+
+    public double getFare() {
+        return segment.getDouble(position + 24);
+    }
+
+    public long getLatencyNanos() {
+        return segment.getLong(position + 32);
+    }
+
+    public int getSpotNumber() {
+        return segment.getInt(position + 40);
+    }
+
+    public GateOperation getOperation() {
+        return segment.get(position + 44) == AuditLog.ENTRY_RECORD ? GateOperation.ENTRY : GateOperation.EXIT;
+    }
+
+    public ParkingType getParkingType() {
+        int ordinal = segment.get(position + 45);
+        return ordinal < PARKING_TYPES.length ? PARKING_TYPES[ordinal] : ParkingType.UNKNOWN;
+    }
+
+    @Override
+    public void close() {
+        segment = null;
+        nextSegment = segments.size();
+    }
+}
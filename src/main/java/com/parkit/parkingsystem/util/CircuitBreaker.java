@@ -0,0 +1,54 @@
+package com.parkit.parkingsystem.util;
+
+import java.time.Clock;
+
+/**
+ * Stops calling a failing dependency. After a number of consecutive failures the breaker opens and
+ * {@link #allowRequest} refuses calls for a while; once that time is over calls are let through again as
+ * probes, the first success closing the breaker and the first failure opening it for another while.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN }
+
+    private final Clock clock;
+    private final int failureThreshold;
+    private final long openMillis;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long retryAt;
+
+    public CircuitBreaker(Clock clock, int failureThreshold, long openMillis) {
+        this.clock = clock;
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    /**
+     * @return true when the dependency may be called, because the breaker is closed or a probe is due
+     */
+    public synchronized boolean allowRequest() {
+        return state == State.CLOSED || clock.millis() >= retryAt;
+    }
+
+    public synchronized void recordSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            retryAt = clock.millis() + openMillis;
+        }
+    }
+
+    public synchronized boolean isClosed() {
+        return state == State.CLOSED;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
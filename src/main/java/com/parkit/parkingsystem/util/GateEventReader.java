@@ -0,0 +1,102 @@
+package com.parkit.parkingsystem.util;
+
+import com.parkit.parkingsystem.constants.GateOperation;
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.model.GateEvent;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads a gate event log, one event per line:
+ * <pre>timestamp,operation,vehicleType,vehicleRegNumber</pre>
+ * The timestamp is either epoch milliseconds or an ISO-8601 instant, the operation is ENTRY or EXIT
+ * and the vehicle type may be left empty for exits. Blank lines and lines starting with # are skipped.
+ */
+public class GateEventReader implements Iterator<GateEvent>, Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final BufferedReader reader;
+    private GateEvent next;
+    private int lineNumber;
+
+    public GateEventReader(Path eventLog) throws IOException {
+        this.reader = new BufferedReader(Files.newBufferedReader(eventLog, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = readNext();
+        }
+        return next != null;
+    }
+
+    @Override
+    public GateEvent next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        GateEvent event = next;
+        next = null;
+        return event;
+    }
+
+    private GateEvent readNext() {
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (!line.isEmpty() && line.charAt(0) != '#') {
+                    return parse(line);
+                }
+            }
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private GateEvent parse(String line) {
+        String[] fields = line.split(",", -1);
+        if (fields.length != 4) {
+            throw new IllegalArgumentException("Invalid gate event at line " + lineNumber + ": " + line);
+        }
+        try {
+            long timestamp = parseTimestamp(fields[0].trim());
+            GateOperation operation = GateOperation.valueOf(fields[1].trim().toUpperCase());
+            String type = fields[2].trim();
+            ParkingType parkingType = type.isEmpty() ? null : ParkingType.valueOf(type.toUpperCase());
+            String vehicleRegNumber = fields[3].trim();
+            if (vehicleRegNumber.isEmpty() || (operation == GateOperation.ENTRY && parkingType == null)) {
+                throw new IllegalArgumentException("missing vehicle type or registration number");
+            }
+            vehicleRegNumber = PlateCodec.normalize(vehicleRegNumber);
+            return new GateEvent(timestamp, operation, parkingType, vehicleRegNumber);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid gate event at line " + lineNumber + ": " + line, e);
+        }
+    }
+
+    private static long parseTimestamp(String timestamp) {
+        if (timestamp.indexOf('T') >= 0) {
+            return Instant.parse(timestamp).toEpochMilli();
+        }
+        return Long.parseLong(timestamp);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
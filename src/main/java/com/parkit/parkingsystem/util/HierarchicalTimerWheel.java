@@ -0,0 +1,161 @@
+package com.parkit.parkingsystem.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timer wheel: {@value #LEVELS} levels of {@value #SLOTS} slots, each slot of a level spanning a whole
+ * turn of the level below. Scheduling and cancelling are O(1), a timer is moved down at most {@value #LEVELS} times
+ * before it expires, and nothing runs between ticks, so pending timers only cost their node.
+ * <p>
+ * The wheel has no thread of its own: the owner calls {@link #advanceTo} regularly, and the expired tasks run on
+ * that thread once the wheel lock is released. Deadlines are rounded up to the next tick.
+ */
+public class HierarchicalTimerWheel {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = 5;
+
+    private final long tickMillis;
+    private final Node[][] wheels = new Node[LEVELS][SLOTS];
+    private long currentTick;
+    private int size;
+
+    public final class Timeout {
+        private final Node node;
+
+        private Timeout(Node node) {
+            this.node = node;
+        }
+
+        /**
+         * @return true when the task was still pending and will not run
+         */
+        public boolean cancel() {
+            synchronized (HierarchicalTimerWheel.this) {
+                if (node.level < 0) {
+                    return false;
+                }
+                unlink(node);
+                return true;
+            }
+        }
+
+        public long getDeadlineMillis() {
+            return node.deadlineTick * tickMillis;
+        }
+    }
+
+    private static final class Node {
+        final long deadlineTick;
+        final Runnable task;
+        Node previous;
+        Node next;
+        int level = -1;
+        int slot;
+
+        Node(long deadlineTick, Runnable task) {
+            this.deadlineTick = deadlineTick;
+            this.task = task;
+        }
+    }
+
+    public HierarchicalTimerWheel(long tickMillis, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    public synchronized Timeout schedule(long deadlineMillis, Runnable task) {
+        long deadlineTick = (deadlineMillis + tickMillis - 1) / tickMillis;
+        Node node = new Node(Math.max(deadlineTick, currentTick + 1), task);
+        insert(node);
+        return new Timeout(node);
+    }
+
+    /**
+     * Moves the wheel to the given time and runs every task whose deadline has passed, in deadline order.
+     * @return the number of tasks run
+     */
+    public int advanceTo(long nowMillis) {
+        List<Runnable> expired = new ArrayList<>();
+        synchronized (this) {
+            long targetTick = nowMillis / tickMillis;
+            while (currentTick < targetTick) {
+                currentTick++;
+                cascade();
+                int slot = (int) (currentTick & (SLOTS - 1));
+                Node node = wheels[0][slot];
+                while (node != null) {
+                    Node next = node.next;
+                    unlink(node);
+                    expired.add(node.task);
+                    node = next;
+                }
+            }
+        }
+        for (Runnable task : expired) {
+            task.run();
+        }
+        return expired.size();
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    //moves down the timers of the higher level slots whose turn starts at the current tick
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+                return;
+            }
+            int slot = (int) ((currentTick >>> (SLOT_BITS * level)) & (SLOTS - 1));
+            Node node = wheels[level][slot];
+            wheels[level][slot] = null;
+            while (node != null) {
+                Node next = node.next;
+                node.level = -1;
+                node.previous = null;
+                node.next = null;
+                size--;
+                insert(node);
+                node = next;
+            }
+        }
+    }
+
+    private void insert(Node node) {
+        long delta = node.deadlineTick - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        //timers beyond the last level wait in its furthest slot and are placed again when it cascades
+        long placementTick = Math.min(node.deadlineTick, currentTick + (1L << (SLOT_BITS * LEVELS)) - 1);
+        int slot = (int) ((placementTick >>> (SLOT_BITS * level)) & (SLOTS - 1));
+        node.level = level;
+        node.slot = slot;
+        node.next = wheels[level][slot];
+        if (node.next != null) {
+            node.next.previous = node;
+        }
+        wheels[level][slot] = node;
+        size++;
+    }
+
+    private void unlink(Node node) {
+        if (node.previous != null) {
+            node.previous.next = node.next;
+        } else {
+            wheels[node.level][node.slot] = node.next;
+        }
+        if (node.next != null) {
+            node.next.previous = node.previous;
+        }
+        node.level = -1;
+        node.previous = null;
+        node.next = null;
+        size--;
+    }
+}
@@ -0,0 +1,115 @@
+package com.parkit.parkingsystem.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread safe latency histogram with microsecond values grouped in log-linear buckets:
+ * 16 sub-buckets per power of two, so any recorded value is known within 6.25%.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    public void recordNanos(long nanos) {
+        recordMicros(nanos / 1000);
+    }
+
+    public void recordMicros(long micros) {
+        long value = Math.max(0, micros);
+        counts.incrementAndGet(indexOf(value));
+        count.incrementAndGet();
+        totalMicros.addAndGet(value);
+        maxMicros.accumulateAndGet(value, Math::max);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public double getMeanMicros() {
+        long recorded = count.get();
+        return recorded == 0 ? 0 : (double) totalMicros.get() / recorded;
+    }
+
+    public long getMaxMicros() {
+        return maxMicros.get();
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the upper bound of the bucket holding the given percentile, in microseconds
+     */
+    public long getPercentileMicros(double percentile) {
+        long recorded = count.get();
+        if (recorded == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(recorded * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), getMaxMicros());
+            }
+        }
+        return getMaxMicros();
+    }
+
+    public String summary() {
+        return String.format("count=%d mean=%.1fus p50=%dus p90=%dus p99=%dus p99.9=%dus max=%dus",
+                getCount(), getMeanMicros(), getPercentileMicros(50), getPercentileMicros(90),
+                getPercentileMicros(99), getPercentileMicros(99.9), getMaxMicros());
+    }
+
+    /**
+     * @return one line per non empty power of two range, with its share of the recorded values
+     */
+    public String distribution() {
+        StringBuilder builder = new StringBuilder();
+        long recorded = count.get();
+        for (int range = 0; range * SUB_BUCKETS < BUCKETS; range++) {
+            long inRange = 0;
+            for (int i = range * SUB_BUCKETS; i < (range + 1) * SUB_BUCKETS; i++) {
+                inRange += counts.get(i);
+            }
+            if (inRange > 0) {
+                builder.append(String.format("%10dus - %10dus %10d %6.2f%%%n", lowerBoundOf(range * SUB_BUCKETS),
+                        upperBoundOf((range + 1) * SUB_BUCKETS - 1), inRange, 100.0 * inRange / recorded));
+            }
+        }
+        return builder.toString();
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long lowerBoundOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        return (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+    }
+
+    static long upperBoundOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        return ((long) (SUB_BUCKETS + index % SUB_BUCKETS + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,93 @@
+package com.parkit.parkingsystem.util;
+
+/**
+ * Normalizes vehicle registration numbers and packs them into a {@code long} key.
+ * <p>
+ * A normalized plate keeps the ASCII letters, upper-cased, and the digits of the input, so that "ab-123",
+ * "AB 123" and "AB123" are the same vehicle, and holds 1 to {@value #MAX_LENGTH} characters. Its key reads
+ * the characters as the digits 1 to 36 of a base-37 number, the digit 0 being left out so that leading zeros
+ * of the plate count: every normalized plate has its own positive key and {@link #decode} gives it back.
+ */
+public final class PlateCodec {
+
+    public static final int MAX_LENGTH = 12;
+    /**
+     * Returned by {@link #tryKey} for input that is not a plate.
+     */
+    public static final long INVALID = -1;
+
+    private static final int RADIX = 37;
+
+    private PlateCodec() {
+    }
+
+    /**
+     * @throws IllegalArgumentException when the input holds no letter nor digit, or more than {@value #MAX_LENGTH}
+     */
+    public static String normalize(String vehicleRegNumber) {
+        return decode(key(vehicleRegNumber));
+    }
+
+    /**
+     * @return the key of the normalized plate, computed without building the normalized string
+     * @throws IllegalArgumentException when the input holds no letter nor digit, or more than {@value #MAX_LENGTH}
+     */
+    public static long key(String vehicleRegNumber) {
+        long key = tryKey(vehicleRegNumber);
+        if (key == INVALID) {
+            throw new IllegalArgumentException("Invalid vehicle registration number: " + vehicleRegNumber);
+        }
+        return key;
+    }
+
+    /**
+     * @return the key of the normalized plate, or {@link #INVALID}
+     */
+    public static long tryKey(String vehicleRegNumber) {
+        if (vehicleRegNumber == null) {
+            return INVALID;
+        }
+        long key = 0;
+        int length = 0;
+        for (int i = 0; i < vehicleRegNumber.length(); i++) {
+            int digit = digitOf(vehicleRegNumber.charAt(i));
+            if (digit > 0) {
+                if (++length > MAX_LENGTH) {
+                    return INVALID;
+                }
+                key = key * RADIX + digit;
+            }
+        }
+        return length == 0 ? INVALID : key;
+    }
+
+    public static String decode(long key) {
+        if (key <= 0) {
+            throw new IllegalArgumentException("Invalid plate key: " + key);
+        }
+        char[] chars = new char[MAX_LENGTH];
+        int start = MAX_LENGTH;
+        for (long rest = key; rest > 0; rest /= RADIX) {
+            int digit = (int) (rest % RADIX);
+            if (digit == 0 || start == 0) {
+                throw new IllegalArgumentException("Invalid plate key: " + key);
+            }
+            chars[--start] = digit <= 10 ? (char) ('0' + digit - 1) : (char) ('A' + digit - 11);
+        }
+        return new String(chars, start, MAX_LENGTH - start);
+    }
+
+    //1 to 10 for the digits, 11 to 36 for the letters, 0 for the separators left out
+    private static int digitOf(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0' + 1;
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A' + 11;
+        }
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a' + 11;
+        }
+        return 0;
+    }
+}
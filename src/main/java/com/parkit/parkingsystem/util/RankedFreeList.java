@@ -0,0 +1,131 @@
+package com.parkit.parkingsystem.util;
+
+/**
+ * Set of ranks in [0, capacity) answering "lowest free rank at or after r" by walking a hierarchy of 64-bit
+ * bitmaps: each bit of a level tells whether the matching word of the level below has a bit set. Adding,
+ * removing and finding the lowest rank touch one word per level, which is at most four levels for
+ * sixteen million ranks.
+ * <p>
+ * Not thread-safe.
+ */
+public class RankedFreeList {
+
+    private final int capacity;
+    private final long[][] levels;
+    private int size;
+
+    public RankedFreeList(int capacity) {
+        this.capacity = capacity;
+        int depth = 1;
+        for (long words = wordsFor(capacity); words > 1; words = wordsFor(words)) {
+            depth++;
+        }
+        levels = new long[depth][];
+        long bits = capacity;
+        for (int level = 0; level < depth; level++) {
+            levels[level] = new long[(int) wordsFor(bits)];
+            bits = levels[level].length;
+        }
+    }
+
+    private static long wordsFor(long bits) {
+        return Math.max(1, (bits + 63) >>> 6);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int rank) {
+        return rank >= 0 && rank < capacity && (levels[0][rank >>> 6] & (1L << rank)) != 0;
+    }
+
+    /**
+     * @return true when the rank was not already free
+     */
+    public boolean add(int rank) {
+        if (contains(rank)) {
+            return false;
+        }
+        int index = rank;
+        for (long[] words : levels) {
+            boolean wasEmpty = words[index >>> 6] == 0;
+            words[index >>> 6] |= 1L << index;
+            if (!wasEmpty) {
+                break;
+            }
+            index >>>= 6;
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * @return true when the rank was free
+     */
+    public boolean remove(int rank) {
+        if (!contains(rank)) {
+            return false;
+        }
+        int index = rank;
+        for (long[] words : levels) {
+            words[index >>> 6] &= ~(1L << index);
+            if (words[index >>> 6] != 0) {
+                break;
+            }
+            index >>>= 6;
+        }
+        size--;
+        return true;
+    }
+
+    /**
+     * @return the lowest free rank at or after the given one, or -1 when there is none
+     */
+    public int next(int from) {
+        if (from < 0) {
+            from = 0;
+        }
+        if (from >= capacity) {
+            return -1;
+        }
+        int level = 0;
+        int index = from;
+        //climbs until a word holds a set bit at or after the position, then walks down to the lowest one
+        while (true) {
+            long word = levels[level][index >>> 6] & (-1L << index);
+            if (word != 0) {
+                index = (index & ~63) | Long.numberOfTrailingZeros(word);
+                break;
+            }
+            if (level == levels.length - 1) {
+                return -1;
+            }
+            index = (index >>> 6) + 1;
+            if (index >= levels[level].length) {
+                return -1;
+            }
+            level++;
+        }
+        while (level > 0) {
+            level--;
+            index = (index << 6) | Long.numberOfTrailingZeros(levels[level][index]);
+        }
+        return index;
+    }
+
+    /**
+     * @return the lowest free rank, or -1 when there is none
+     */
+    public int first() {
+        return next(0);
+    }
+}
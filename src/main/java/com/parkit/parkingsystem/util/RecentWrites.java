@@ -0,0 +1,44 @@
+package com.parkit.parkingsystem.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Remembers when keys were last written, in a fixed table of slots shared by the keys of the same hash. A
+ * shared slot can only make a key look written more recently than it was, never less, so nothing has to be
+ * evicted and a recent write is never missed.
+ */
+public class RecentWrites {
+
+    private final AtomicLongArray writtenAtNanos;
+    private final int mask;
+    private final long windowNanos;
+
+    /**
+     * @param slots the size of the table, rounded up to a power of two
+     * @param windowNanos how long a write stays recent
+     */
+    public RecentWrites(int slots, long windowNanos) {
+        int size = Integer.highestOneBit(Math.max(1, slots - 1)) << 1;
+        this.writtenAtNanos = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.windowNanos = windowNanos;
+    }
+
+    public void record(long key) {
+        //0 stands for never written
+        writtenAtNanos.set(slot(key), System.nanoTime() | 1);
+    }
+
+    /**
+     * @return true when the key, or one sharing its slot, was written less than the window ago
+     */
+    public boolean isRecent(long key) {
+        long writtenAt = writtenAtNanos.get(slot(key));
+        return writtenAt != 0 && System.nanoTime() - writtenAt < windowNanos;
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
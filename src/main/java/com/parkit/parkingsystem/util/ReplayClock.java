@@ -0,0 +1,52 @@
+package com.parkit.parkingsystem.util;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Clock showing the time of the gate event being replayed instead of the wall time.
+ */
+public class ReplayClock extends Clock {
+
+    private final AtomicLong millis;
+    private final ZoneId zone;
+
+    public ReplayClock() {
+        this(new AtomicLong(), ZoneOffset.UTC);
+    }
+
+    private ReplayClock(AtomicLong millis, ZoneId zone) {
+        this.millis = millis;
+        this.zone = zone;
+    }
+
+    public void setMillis(long millis) {
+        this.millis.set(millis);
+    }
+
+    @Override
+    public long millis() {
+        return millis.get();
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(millis.get());
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    /**
+     * @return a clock in the given zone showing the same replayed time, moved along with this one
+     */
+    @Override
+    public ReplayClock withZone(ZoneId zone) {
+        return zone.equals(this.zone) ? this : new ReplayClock(millis, zone);
+    }
+}
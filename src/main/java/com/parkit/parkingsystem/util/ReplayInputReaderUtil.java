@@ -0,0 +1,29 @@
+package com.parkit.parkingsystem.util;
+
+import com.parkit.parkingsystem.config.ParkingTypeCatalog;
+import com.parkit.parkingsystem.model.GateEvent;
+
+/**
+ * Answers the shell prompts of {@code ParkingService} from the gate event being replayed.
+ */
+public class ReplayInputReaderUtil extends InputReaderUtil {
+
+    private GateEvent event;
+
+    public void setEvent(GateEvent event) {
+        this.event = event;
+    }
+
+    @Override
+    public int readSelection() {
+        if (event.getParkingType() == null) {
+            return -1;
+        }
+        return ParkingTypeCatalog.getDefault().getMenuSelection(event.getParkingType());
+    }
+
+    @Override
+    public String readVehicleRegistrationNumber() {
+        return event.getVehicleRegNumber();
+    }
+}
@@ -0,0 +1,115 @@
+package com.parkit.parkingsystem.util;
+
+import java.time.Clock;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Predicate;
+
+/**
+ * Remembers the results of the recent requests, by request id, so that a retried request gets the original
+ * result instead of running again. Results are forgotten after a given time, or earlier, oldest first, once
+ * the cache is full. A retry arriving while the request is still running waits for its result.
+ */
+public class RequestCache<V> {
+
+    private static final class Entry<V> {
+        final long expiresAt;
+        final CompletableFuture<V> result;
+
+        Entry(long expiresAt, CompletableFuture<V> result) {
+            this.expiresAt = expiresAt;
+            this.result = result;
+        }
+    }
+
+    private final Clock clock;
+    private final long timeToLiveMillis;
+    private final int capacity;
+    //in insertion order, so the first entries are the first to expire
+    private final LinkedHashMap<String, Entry<V>> entries = new LinkedHashMap<>();
+
+    public RequestCache(Clock clock, long timeToLiveMillis, int capacity) {
+        this.clock = clock;
+        this.timeToLiveMillis = timeToLiveMillis;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Runs the request unless a request with the same id ran recently, in which case its result is returned.
+     * Only the results accepted by the given predicate are remembered; the failed requests run again on retry.
+     */
+    public V execute(String requestId, Callable<V> request, Predicate<V> remember) throws Exception {
+        CompletableFuture<V> result;
+        boolean running = false;
+        synchronized (entries) {
+            long now = clock.millis();
+            evictExpired(now);
+            Entry<V> entry = entries.get(requestId);
+            if (entry == null) {
+                result = new CompletableFuture<>();
+                entries.put(requestId, new Entry<>(now + timeToLiveMillis, result));
+                if (entries.size() > capacity) {
+                    Iterator<Entry<V>> eldest = entries.values().iterator();
+                    eldest.next();
+                    eldest.remove();
+                }
+                running = true;
+            } else {
+                result = entry.result;
+            }
+        }
+        if (!running) {
+            return await(result);
+        }
+        try {
+            V value = request.call();
+            if (!remember.test(value)) {
+                forget(requestId, result);
+            }
+            result.complete(value);
+            return value;
+        } catch (Exception e) {
+            forget(requestId, result);
+            result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            evictExpired(clock.millis());
+            return entries.size();
+        }
+    }
+
+    private void evictExpired(long now) {
+        Iterator<Map.Entry<String, Entry<V>>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext() && iterator.next().getValue().expiresAt <= now) {
+            iterator.remove();
+        }
+    }
+
+    private void forget(String requestId, CompletableFuture<V> result) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(requestId);
+            if (entry != null && entry.result == result) {
+                entries.remove(requestId);
+            }
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> result) throws Exception {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
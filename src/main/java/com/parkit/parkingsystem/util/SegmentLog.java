@@ -0,0 +1,218 @@
+package com.parkit.parkingsystem.util;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Durable log of records kept in numbered segment files of a directory. Each record is written as its length,
+ * the CRC32 of its payload and the payload, and is forced to disk before {@link #append} returns.
+ * <p>
+ * On {@link #open}, the records of every segment are replayed in order. A record cut short by a crash at the
+ * end of the last segment is dropped and the segment truncated; damage anywhere else is reported as an error.
+ * {@link #compact} writes a snapshot of the live records to a new segment then deletes the older ones, so a
+ * crash during compaction leaves either the old segments or the old segments followed by part of the snapshot,
+ * which replays to the same state as long as records are idempotent upserts.
+ */
+public class SegmentLog implements Closeable {
+
+    private static final Logger logger = LogManager.getLogger("SegmentLog");
+    private static final String PREFIX = "segment-";
+    private static final String SUFFIX = ".log";
+    private static final int HEADER_SIZE = 8;
+
+    private final Path directory;
+    private final long maxSegmentBytes;
+    private final List<Long> segments = new ArrayList<>();
+    private final CRC32 crc = new CRC32();
+    private final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    private FileChannel current;
+    private long currentSize;
+    private long recordsSinceCompaction;
+
+    private SegmentLog(Path directory, long maxSegmentBytes) {
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+    }
+
+    /**
+     * Opens the log of the given directory, creating it when needed, and passes every stored payload to the consumer.
+     */
+    public static SegmentLog open(Path directory, long maxSegmentBytes, Consumer<ByteBuffer> consumer) throws IOException {
+        Files.createDirectories(directory);
+        SegmentLog log = new SegmentLog(directory, maxSegmentBytes);
+        log.recover(consumer);
+        return log;
+    }
+
+    private void recover(Consumer<ByteBuffer> consumer) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                segments.add(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+            }
+        }
+        Collections.sort(segments);
+        for (int i = 0; i < segments.size(); i++) {
+            boolean last = i == segments.size() - 1;
+            long validSize = replay(segmentPath(segments.get(i)), consumer, last);
+            if (last) {
+                current = FileChannel.open(segmentPath(segments.get(i)), StandardOpenOption.WRITE);
+                if (validSize < current.size()) {
+                    logger.warn("Dropping " + (current.size() - validSize) + " bytes of incomplete record at the end of segment " + segments.get(i));
+                    current.truncate(validSize);
+                    current.force(true);
+                }
+                current.position(validSize);
+                currentSize = validSize;
+            }
+        }
+        if (current == null) {
+            roll();
+        }
+    }
+
+    private long replay(Path segment, Consumer<ByteBuffer> consumer, boolean last) throws IOException {
+        ByteBuffer content;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            content = ByteBuffer.allocate((int) channel.size());
+            while (content.hasRemaining() && channel.read(content) >= 0) {
+                //read the whole segment
+            }
+            content.flip();
+        }
+        while (content.hasRemaining()) {
+            int start = content.position();
+            if (content.remaining() < HEADER_SIZE) {
+                return incomplete(segment, start, last);
+            }
+            int length = content.getInt();
+            int checksum = content.getInt();
+            if (length < 0 || length > content.remaining()) {
+                return incomplete(segment, start, last);
+            }
+            ByteBuffer payload = content.slice();
+            payload.limit(length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                return incomplete(segment, start, last);
+            }
+            consumer.accept(payload.asReadOnlyBuffer());
+            content.position(start + HEADER_SIZE + length);
+            recordsSinceCompaction++;
+        }
+        return content.limit();
+    }
+
+    private static long incomplete(Path segment, int position, boolean last) throws IOException {
+        if (!last) {
+            throw new IOException("Corrupt record at offset " + position + " of " + segment);
+        }
+        return position;
+    }
+
+    public synchronized void append(byte[] payload) throws IOException {
+        if (currentSize >= maxSegmentBytes) {
+            roll();
+        }
+        write(payload);
+        current.force(false);
+        recordsSinceCompaction++;
+    }
+
+    /**
+     * Replaces every segment with a single one holding the given records, which must describe the whole live state.
+     */
+    public synchronized void compact(Iterable<byte[]> liveRecords) throws IOException {
+        List<Long> obsolete = new ArrayList<>(segments);
+        roll();
+        long records = 0;
+        for (byte[] payload : liveRecords) {
+            write(payload);
+            records++;
+        }
+        current.force(true);
+        for (Long segment : obsolete) {
+            Files.deleteIfExists(segmentPath(segment));
+            segments.remove(segment);
+        }
+        recordsSinceCompaction = records;
+        logger.info("Compacted " + obsolete.size() + " segments into " + records + " records");
+    }
+
+    /**
+     * @return the number of records appended since the last compaction or, after opening, the number replayed
+     */
+    public synchronized long getRecordsSinceCompaction() {
+        return recordsSinceCompaction;
+    }
+
+    /**
+     * Deletes every record.
+     */
+    public synchronized void clear() throws IOException {
+        compact(Collections.<byte[]>emptyList());
+    }
+
+    /**
+     * Deletes every record, provided the log holds the given number of them, so that none appended since they
+     * were counted is lost.
+     * @return whether the records were deleted
+     */
+    public synchronized boolean clearIfHolding(long records) throws IOException {
+        if (recordsSinceCompaction != records) {
+            return false;
+        }
+        clear();
+        return true;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    private void write(byte[] payload) throws IOException {
+        crc.reset();
+        crc.update(payload, 0, payload.length);
+        header.clear();
+        header.putInt(payload.length).putInt((int) crc.getValue()).flip();
+        ByteBuffer[] buffers = {header, ByteBuffer.wrap(payload)};
+        long remaining = HEADER_SIZE + payload.length;
+        while (remaining > 0) {
+            remaining -= current.write(buffers);
+        }
+        currentSize += HEADER_SIZE + payload.length;
+    }
+
+    private void roll() throws IOException {
+        if (current != null) {
+            current.force(true);
+            current.close();
+        }
+        long sequence = segments.isEmpty() ? 1 : segments.get(segments.size() - 1) + 1;
+        current = FileChannel.open(segmentPath(sequence), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        segments.add(sequence);
+        currentSize = 0;
+    }
+
+    private Path segmentPath(long sequence) {
+        return directory.resolve(String.format("%s%010d%s", PREFIX, sequence, SUFFIX));
+    }
+}
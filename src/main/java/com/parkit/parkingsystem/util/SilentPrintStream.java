@@ -0,0 +1,22 @@
+package com.parkit.parkingsystem.util;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Discards everything printed to it, used to mute the shell prompts when no one is reading them.
+ */
+public class SilentPrintStream extends PrintStream {
+
+    public SilentPrintStream() {
+        super(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        });
+    }
+}
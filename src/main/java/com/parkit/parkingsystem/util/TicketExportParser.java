@@ -0,0 +1,69 @@
+package com.parkit.parkingsystem.util;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.model.ParkingSpot;
+import com.parkit.parkingsystem.model.Ticket;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Parses the lines of a ticket export, as written by a MySQL export of the tickets joined to their spot:
+ * <pre>ID,PARKING_NUMBER,TYPE,VEHICLE_REG_NUMBER,PRICE,IN_TIME,OUT_TIME</pre>
+ * The times are UTC date-times such as 2024-03-31 01:30:00, and an empty or \N out-time stands for a vehicle
+ * still parked. Lines not starting with a digit, such as the header, are not tickets.
+ */
+public final class TicketExportParser {
+
+    private TicketExportParser() {
+    }
+
+    public static boolean isTicket(String line) {
+        return !line.isEmpty() && Character.isDigit(line.charAt(0));
+    }
+
+    /**
+     * @return the vehicle of the ticket, without parsing the rest of the line, or an empty string when the line
+     * is malformed
+     */
+    public static String getVehicleRegNumber(String line) {
+        int start = nthComma(line, 3) + 1;
+        int end = line.indexOf(',', start);
+        return start == 0 || end < 0 ? "" : line.substring(start, end);
+    }
+
+    public static Ticket parse(String line) {
+        String[] fields = line.split(",", -1);
+        if (fields.length != 7) {
+            throw new IllegalArgumentException("Expected 7 fields in ticket export line: " + line);
+        }
+        Ticket ticket = new Ticket();
+        ticket.setId(Integer.parseInt(fields[0].trim()));
+        ticket.setParkingSpot(new ParkingSpot(Integer.parseInt(fields[1].trim()), ParkingType.of(fields[2].trim()), false));
+        ticket.setVehicleRegNumber(fields[3]);
+        ticket.setPrice(isNull(fields[4]) ? 0 : Double.parseDouble(fields[4].trim()));
+        ticket.setInTimeMillis(parseTime(fields[5]));
+        ticket.setOutTimeMillis(isNull(fields[6]) ? Ticket.NO_TIME : parseTime(fields[6]));
+        return ticket;
+    }
+
+    private static long parseTime(String field) {
+        return LocalDateTime.parse(field.trim().replace(' ', 'T')).toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static boolean isNull(String field) {
+        String value = field.trim();
+        return value.isEmpty() || value.equals("\\N");
+    }
+
+    private static int nthComma(String line, int n) {
+        int index = -1;
+        for (int i = 0; i < n; i++) {
+            index = line.indexOf(',', index + 1);
+            if (index < 0) {
+                return -1;
+            }
+        }
+        return index;
+    }
+}
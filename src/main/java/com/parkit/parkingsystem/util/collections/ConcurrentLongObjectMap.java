@@ -0,0 +1,154 @@
+package com.parkit.parkingsystem.util.collections;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Thread safe {@link LongObjectMap}: the keys are spread over segments, each a {@link LongObjectMap} guarded by its own
+ * lock, so that calls on keys of different segments do not contend. {@link #get} reads the segment without
+ * locking it, and only takes the lock when a write ran meanwhile.
+ */
+public class ConcurrentLongObjectMap<V> {
+
+    private final LongObjectMap<V>[] segments;
+    private final StampedLock[] locks;
+    private final int segmentShift;
+
+    /**
+     * @param concurrency the number of threads expected to write at once, rounded up to a power of two segments
+     */
+    public ConcurrentLongObjectMap(int concurrency) {
+        int count = Integer.highestOneBit(Math.max(1, concurrency - 1)) << 1;
+        @SuppressWarnings("unchecked")
+        LongObjectMap<V>[] segments = (LongObjectMap<V>[]) new LongObjectMap<?>[count];
+        this.segments = segments;
+        locks = new StampedLock[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new LongObjectMap<>();
+            locks[i] = new StampedLock();
+        }
+        segmentShift = 64 - Integer.numberOfTrailingZeros(count);
+    }
+
+    public V get(long key) {
+        int segment = segmentOf(key);
+        StampedLock lock = locks[segment];
+        long stamp = lock.tryOptimisticRead();
+        V value = segments[segment].optimisticGet(key);
+        if (lock.validate(stamp)) {
+            return value;
+        }
+        stamp = lock.readLock();
+        try {
+            return segments[segment].get(key);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public boolean containsKey(long key) {
+        int segment = segmentOf(key);
+        long stamp = locks[segment].readLock();
+        try {
+            return segments[segment].containsKey(key);
+        } finally {
+            locks[segment].unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return the previous value of the key, or null when there was none
+     */
+    public V put(long key, V value) {
+        int segment = segmentOf(key);
+        long stamp = locks[segment].writeLock();
+        try {
+            return segments[segment].put(key, value);
+        } finally {
+            locks[segment].unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return the value the key had, or null when there was none
+     */
+    public V remove(long key) {
+        int segment = segmentOf(key);
+        long stamp = locks[segment].writeLock();
+        try {
+            return segments[segment].remove(key);
+        } finally {
+            locks[segment].unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Receives the current value of a key, null when there is none, and returns its new value, null to remove it.
+     */
+    public interface Remapping<V> {
+        V apply(long key, V value);
+    }
+
+    /**
+     * Atomically replaces the value of the key by the one computed from it. The function must not call the map.
+     * @return the new value
+     */
+    public V compute(long key, Remapping<V> remapping) {
+        int segment = segmentOf(key);
+        long stamp = locks[segment].writeLock();
+        try {
+            V updated = remapping.apply(key, segments[segment].get(key));
+            if (updated == null) {
+                segments[segment].remove(key);
+            } else {
+                segments[segment].put(key, updated);
+            }
+            return updated;
+        } finally {
+            locks[segment].unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (int segment = 0; segment < segments.length; segment++) {
+            long stamp = locks[segment].readLock();
+            try {
+                size += segments[segment].size();
+            } finally {
+                locks[segment].unlockRead(stamp);
+            }
+        }
+        return size;
+    }
+
+    public void clear() {
+        for (int segment = 0; segment < segments.length; segment++) {
+            long stamp = locks[segment].writeLock();
+            try {
+                segments[segment].clear();
+            } finally {
+                locks[segment].unlockWrite(stamp);
+            }
+        }
+    }
+
+    /**
+     * Passes every entry to the consumer, one segment at a time, so that the entries changed meanwhile may or
+     * may not be seen. The consumer must not call the map.
+     */
+    public void forEach(LongObjectMap.EntryConsumer<V> consumer) {
+        for (int segment = 0; segment < segments.length; segment++) {
+            long stamp = locks[segment].readLock();
+            try {
+                segments[segment].forEach(consumer);
+            } finally {
+                locks[segment].unlockRead(stamp);
+            }
+        }
+    }
+
+    //uses the high bits of another multiplier than the segments, so that a segment fills its whole table
+    private int segmentOf(long key) {
+        return (int) ((key * 0xC2B2AE3D27D4EB4FL) >>> segmentShift);
+    }
+}
@@ -0,0 +1,234 @@
+package com.parkit.parkingsystem.util.collections;
+
+import java.util.Arrays;
+
+/**
+ * Hash map from long keys to int values, without boxing nor entry objects: keys and values are kept in two
+ * arrays probed linearly, and removals shift the following entries back instead of leaving tombstones.
+ * The key 0 marks a free slot, so it is kept aside. Not thread safe, see {@link ConcurrentLongIntMap}.
+ */
+public class LongIntMap {
+
+    /**
+     * Receives the entries of the map.
+     */
+    public interface EntryConsumer {
+        void accept(long key, int value);
+    }
+
+    private static final int MIN_CAPACITY = 8;
+
+    private final int noValue;
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+    private boolean hasZeroKey;
+    private int zeroValue;
+
+    public LongIntMap(int noValue) {
+        this(MIN_CAPACITY, noValue);
+    }
+
+    /**
+     * @param expectedSize the number of entries the map holds without growing
+     * @param noValue the value returned for the keys without mapping
+     */
+    public LongIntMap(int expectedSize, int noValue) {
+        this.noValue = noValue;
+        int capacity = MIN_CAPACITY;
+        while (capacity * 2 / 3 < expectedSize) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        return key == 0 ? hasZeroKey : slotOf(key) >= 0;
+    }
+
+    /**
+     * @return the value of the key, or the no-value when there is none
+     */
+    public int get(long key) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : noValue;
+        }
+        int slot = slotOf(key);
+        return slot < 0 ? noValue : values[slot];
+    }
+
+    /**
+     * @return the previous value of the key, or the no-value when there was none
+     */
+    public int put(long key, int value) {
+        if (key == 0) {
+            int previous = hasZeroKey ? zeroValue : noValue;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return previous;
+        }
+        int slot = index(key);
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                int previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeAt) {
+            rehash(keys.length << 1);
+        }
+        return noValue;
+    }
+
+    /**
+     * Adds the delta to the value of the key, a key without value counting as 0.
+     * @return the new value
+     */
+    public int addTo(long key, int delta) {
+        int current = get(key);
+        int updated = (current == noValue ? 0 : current) + delta;
+        put(key, updated);
+        return updated;
+    }
+
+    /**
+     * @return the value the key had, or the no-value when there was none
+     */
+    public int remove(long key) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                return noValue;
+            }
+            int previous = zeroValue;
+            hasZeroKey = false;
+            zeroValue = noValue;
+            size--;
+            return previous;
+        }
+        int slot = slotOf(key);
+        if (slot < 0) {
+            return noValue;
+        }
+        int previous = values[slot];
+        //moves back the entries of the cluster that could not be stored in the freed slot
+        int gap = slot;
+        int next = (slot + 1) & mask;
+        while (keys[next] != 0) {
+            int home = index(keys[next]);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = 0;
+        values[gap] = 0;
+        size--;
+        return previous;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, 0);
+        hasZeroKey = false;
+        zeroValue = noValue;
+        size = 0;
+    }
+
+    /**
+     * Passes every entry to the consumer, in no particular order. The consumer must not change the map.
+     */
+    public void forEach(EntryConsumer consumer) {
+        if (hasZeroKey) {
+            consumer.accept(0, zeroValue);
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0) {
+                consumer.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    /**
+     * Same as {@link #get}, for a reader racing with a writer: the value returned then may be wrong, but the call
+     * neither fails nor loops, so that the caller can check afterwards whether a write ran meanwhile.
+     */
+    int optimisticGet(long key) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : noValue;
+        }
+        long[] keys = this.keys;
+        int[] values = this.values;
+        int mask = keys.length - 1;
+        int slot = index(key, mask);
+        for (int probe = 0; probe < keys.length && keys[slot] != 0; probe++) {
+            if (keys[slot] == key) {
+                return slot < values.length ? values[slot] : noValue;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return noValue;
+    }
+
+    private int slotOf(long key) {
+        int slot = index(key);
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    //Fibonacci hashing spreads the sequential keys, such as ids and spot numbers, over the table
+    private int index(long key) {
+        return index(key, mask);
+    }
+
+    private static int index(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        resizeAt = capacity * 2 / 3;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = index(oldKeys[i]);
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.parkit.parkingsystem.util.collections;
+
+import java.util.Arrays;
+
+/**
+ * Hash map from long keys to objects, without boxing nor entry objects: keys and values are kept in two
+ * arrays probed linearly, and removals shift the following entries back instead of leaving tombstones.
+ * The key 0 marks a free slot, so it is kept aside. Not thread safe, see {@link ConcurrentLongObjectMap}.
+ */
+public class LongObjectMap<V> {
+
+    /**
+     * Receives the entries of the map.
+     */
+    public interface EntryConsumer<V> {
+        void accept(long key, V value);
+    }
+
+    private static final int MIN_CAPACITY = 8;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+    private boolean hasZeroKey;
+    private V zeroValue;
+
+    public LongObjectMap() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize the number of entries the map holds without growing
+     */
+    public LongObjectMap(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 2 / 3 < expectedSize) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        return key == 0 ? hasZeroKey : slotOf(key) >= 0;
+    }
+
+    /**
+     * @return the value of the key, or null when there is none
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : null;
+        }
+        int slot = slotOf(key);
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    /**
+     * @return the previous value of the key, or null when there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (key == 0) {
+            V previous = hasZeroKey ? zeroValue : null;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return previous;
+        }
+        int slot = index(key);
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeAt) {
+            rehash(keys.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * @return the value the key had, or null when there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                return null;
+            }
+            V previous = zeroValue;
+            hasZeroKey = false;
+            zeroValue = null;
+            size--;
+            return previous;
+        }
+        int slot = slotOf(key);
+        if (slot < 0) {
+            return null;
+        }
+        V previous = (V) values[slot];
+        //moves back the entries of the cluster that could not be stored in the freed slot
+        int gap = slot;
+        int next = (slot + 1) & mask;
+        while (keys[next] != 0) {
+            int home = index(keys[next]);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = 0;
+        values[gap] = null;
+        size--;
+        return previous;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, null);
+        hasZeroKey = false;
+        zeroValue = null;
+        size = 0;
+    }
+
+    /**
+     * Passes every entry to the consumer, in no particular order. The consumer must not change the map.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<V> consumer) {
+        if (hasZeroKey) {
+            consumer.accept(0, zeroValue);
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0) {
+                consumer.accept(keys[slot], (V) values[slot]);
+            }
+        }
+    }
+
+    /**
+     * Same as {@link #get}, for a reader racing with a writer: the value returned then may be wrong, but the call
+     * neither fails nor loops, so that the caller can check afterwards whether a write ran meanwhile.
+     */
+    @SuppressWarnings("unchecked")
+    V optimisticGet(long key) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : null;
+        }
+        long[] keys = this.keys;
+        Object[] values = this.values;
+        int mask = keys.length - 1;
+        int slot = index(key, mask);
+        for (int probe = 0; probe < keys.length && keys[slot] != 0; probe++) {
+            if (keys[slot] == key) {
+                return slot < values.length ? (V) values[slot] : null;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    private int slotOf(long key) {
+        int slot = index(key);
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    //Fibonacci hashing spreads the sequential keys, such as ids and spot numbers, over the table
+    private int index(long key) {
+        return index(key, mask);
+    }
+
+    private static int index(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeAt = capacity * 2 / 3;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = index(oldKeys[i]);
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
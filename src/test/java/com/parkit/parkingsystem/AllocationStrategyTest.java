@@ -0,0 +1,126 @@
+package com.parkit.parkingsystem;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.dao.InMemoryParkingSpotDAO;
+import com.parkit.parkingsystem.model.ParkingLayout;
+import com.parkit.parkingsystem.model.ParkingSpot;
+import com.parkit.parkingsystem.model.SpotLocation;
+import com.parkit.parkingsystem.service.LayoutAllocationStrategy;
+import com.parkit.parkingsystem.service.LowestNumberAllocationStrategy;
+import com.parkit.parkingsystem.service.NearestToExitAllocationStrategy;
+import com.parkit.parkingsystem.service.ZoneRoundRobinAllocationStrategy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AllocationStrategyTest {
+
+    private ParkingLayout layout;
+    private InMemoryParkingSpotDAO parkingSpotDAO;
+
+    @BeforeEach
+    void setUp() {
+        //two zones of three car spots, the farthest from the exit having the lowest numbers, and one bike spot
+        layout = new ParkingLayout(Arrays.asList(
+                new SpotLocation(1, ParkingType.CAR, 0, 0, 60),
+                new SpotLocation(2, ParkingType.CAR, 0, 0, 50),
+                new SpotLocation(3, ParkingType.CAR, 0, 1, 40),
+                new SpotLocation(4, ParkingType.CAR, 1, 0, 30),
+                new SpotLocation(5, ParkingType.CAR, 1, 0, 20),
+                new SpotLocation(6, ParkingType.CAR, 1, 1, 10),
+                new SpotLocation(7, ParkingType.BIKE, 0, 0, 5)));
+        parkingSpotDAO = new InMemoryParkingSpotDAO();
+        for (SpotLocation spot : layout.getSpots()) {
+            parkingSpotDAO.addParkingSpot(spot.getNumber(), spot.getParkingType(), true);
+        }
+    }
+
+    private static List<Integer> allocateAll(LayoutAllocationStrategy allocationStrategy, ParkingType parkingType) {
+        List<Integer> spots = new ArrayList<>();
+        int number;
+        while ((number = allocationStrategy.allocate(parkingType)) > 0) {
+            spots.add(number);
+        }
+        return spots;
+    }
+
+    @Test
+    @DisplayName("should give the lowest free numbers first and skip the spots taken in storage")
+    void lowestNumberTest() {
+        //given
+        parkingSpotDAO.updateParking(new ParkingSpot(2, ParkingType.CAR, false));
+        LayoutAllocationStrategy allocationStrategy = new LowestNumberAllocationStrategy(layout, parkingSpotDAO);
+        allocationStrategy.load();
+
+        //when
+        List<Integer> spots = allocateAll(allocationStrategy, ParkingType.CAR);
+        parkingSpotDAO.updateParking(new ParkingSpot(4, ParkingType.CAR, true));
+        allocationStrategy.release(4);
+
+        //then
+        assertEquals(Arrays.asList(1, 3, 4, 5, 6), spots);
+        assertEquals(4, allocationStrategy.allocate(ParkingType.CAR));
+        assertEquals(7, allocationStrategy.allocate(ParkingType.BIKE));
+    }
+
+    @Test
+    @DisplayName("should alternate the zones")
+    void zoneRoundRobinTest() {
+        //given
+        LayoutAllocationStrategy allocationStrategy = new ZoneRoundRobinAllocationStrategy(layout, parkingSpotDAO);
+        allocationStrategy.load();
+
+        //when
+        List<Integer> spots = allocateAll(allocationStrategy, ParkingType.CAR);
+
+        //then
+        assertEquals(Arrays.asList(1, 4, 2, 5, 3, 6), spots);
+    }
+
+    @Test
+    @DisplayName("should give the spots nearest to the exit first and not give a claimed spot")
+    void nearestToExitTest() {
+        //given
+        LayoutAllocationStrategy allocationStrategy = new NearestToExitAllocationStrategy(layout, parkingSpotDAO);
+        allocationStrategy.load();
+
+        //when
+        boolean claimed = allocationStrategy.claim(5);
+        boolean claimedTwice = allocationStrategy.claim(5);
+        List<Integer> spots = allocateAll(allocationStrategy, ParkingType.CAR);
+
+        //then
+        assertTrue(claimed);
+        assertFalse(claimedTwice);
+        assertEquals(Arrays.asList(6, 4, 3, 2, 1), spots);
+        assertEquals(0, allocationStrategy.getFreeCount(ParkingType.CAR));
+    }
+
+    @Test
+    @DisplayName("should take the chosen spots in storage and skip the ones another gate took")
+    void takenByAnotherGateTest() {
+        //given
+        LayoutAllocationStrategy allocationStrategy = new LowestNumberAllocationStrategy(layout, parkingSpotDAO);
+        allocationStrategy.load();
+        LayoutAllocationStrategy otherGate = new LowestNumberAllocationStrategy(layout, parkingSpotDAO);
+        otherGate.load();
+
+        //when
+        int first = otherGate.allocate(ParkingType.CAR);
+        int second = allocationStrategy.allocate(ParkingType.CAR);
+        boolean claimed = allocationStrategy.claim(first);
+
+        //then
+        assertEquals(1, first);
+        assertEquals(2, second);
+        assertFalse(claimed);
+        assertFalse(parkingSpotDAO.getParkingSpot(2).isAvailable());
+        assertEquals(4, allocationStrategy.getFreeCount(ParkingType.CAR));
+    }
+}
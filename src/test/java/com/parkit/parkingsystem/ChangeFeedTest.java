@@ -0,0 +1,149 @@
+package com.parkit.parkingsystem;
+
+import com.parkit.parkingsystem.constants.ChangeType;
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.dao.InMemoryParkingSpotDAO;
+import com.parkit.parkingsystem.dao.InMemoryTicketDAO;
+import com.parkit.parkingsystem.model.ParkingSpot;
+import com.parkit.parkingsystem.model.SpotChange;
+import com.parkit.parkingsystem.model.Ticket;
+import com.parkit.parkingsystem.service.ChangeCapturingParkingSpotDAO;
+import com.parkit.parkingsystem.service.ChangeCapturingTicketDAO;
+import com.parkit.parkingsystem.service.ChangeFeed;
+import com.parkit.parkingsystem.service.ChangeFeedServer;
+import com.parkit.parkingsystem.util.ReplayClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeFeedTest {
+
+    private ChangeFeed changeFeed;
+
+    @BeforeEach
+    void setUp() {
+        ReplayClock clock = new ReplayClock();
+        clock.setMillis(1_000L);
+        changeFeed = new ChangeFeed(clock, 4);
+    }
+
+    @Test
+    @DisplayName("should publish the successful writes of the DAOs and resume a subscriber after its last change")
+    void resumeTest() throws Exception {
+        //given
+        InMemoryParkingSpotDAO inMemoryParkingSpotDAO = new InMemoryParkingSpotDAO();
+        inMemoryParkingSpotDAO.addParkingSpot(1, ParkingType.CAR, true);
+        ChangeCapturingParkingSpotDAO parkingSpotDAO = new ChangeCapturingParkingSpotDAO(inMemoryParkingSpotDAO, changeFeed);
+        ChangeCapturingTicketDAO ticketDAO = new ChangeCapturingTicketDAO(new InMemoryTicketDAO(), changeFeed);
+        ParkingSpot parkingSpot = new ParkingSpot(1, ParkingType.CAR, false);
+        Ticket ticket = new Ticket();
+        ticket.setParkingSpot(parkingSpot);
+        ticket.setVehicleRegNumber("ABCDEF");
+        ticket.setInTimeMillis(1_000L);
+
+        //when
+        parkingSpotDAO.updateParking(parkingSpot);
+        parkingSpotDAO.updateParking(new ParkingSpot(9, ParkingType.CAR, false));
+        ticketDAO.saveTicket(ticket);
+
+        //then
+        List<SpotChange> changes = changeFeed.read(0, 10, 0);
+        assertEquals(2, changes.size());
+        assertEquals(ChangeType.SPOT_UPDATED, changes.get(0).getChangeType());
+        assertEquals(1, changes.get(0).getParkingNumber());
+        assertFalse(changes.get(0).isAvailable());
+        assertEquals(ChangeType.TICKET_OPENED, changes.get(1).getChangeType());
+        assertEquals(2, changes.get(1).getSequence());
+        List<SpotChange> resumed = changeFeed.read(1, 10, 0);
+        assertEquals(1, resumed.size());
+        assertEquals(2, resumed.get(0).getSequence());
+        assertTrue(changeFeed.read(2, 10, 0).isEmpty());
+    }
+
+    @Test
+    @DisplayName("should restart a subscriber further behind than the ring at the oldest change held")
+    void lateSubscriberTest() throws Exception {
+        //given
+        for (int number = 1; number <= 6; number++) {
+            changeFeed.publish(ChangeType.SPOT_UPDATED, number, ParkingType.CAR, false);
+        }
+
+        //when
+        List<SpotChange> changes = changeFeed.read(1, 10, 0);
+
+        //then
+        assertEquals(3, changeFeed.getFirstSequence());
+        assertEquals(4, changes.size());
+        assertEquals(3, changes.get(0).getSequence());
+        assertEquals(6, changes.get(3).getSequence());
+    }
+
+    @Test
+    @DisplayName("should stream the changes following the Last-Event-ID as server-sent events")
+    void serverSentEventsTest() throws Exception {
+        //given
+        changeFeed.publish(ChangeType.SPOT_UPDATED, 1, ParkingType.CAR, false);
+        changeFeed.publish(ChangeType.SPOT_UPDATED, 2, ParkingType.BIKE, false);
+        ChangeFeedServer server = new ChangeFeedServer(changeFeed, "localhost", 0);
+        server.start();
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + server.getPort() + "/changes").openConnection();
+            connection.setRequestProperty("Last-Event-ID", "1");
+
+            //when
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+
+                //then
+                assertEquals("text/event-stream; charset=utf-8", connection.getContentType());
+                assertEquals("id: 1000-2", reader.readLine());
+                assertEquals("event: SPOT_UPDATED", reader.readLine());
+                assertEquals("data: {\"sequence\":2,\"timestamp\":1000,\"change\":\"SPOT_UPDATED\",\"parkingNumber\":2,"
+                        + "\"parkingType\":\"BIKE\",\"available\":false}", reader.readLine());
+                assertEquals("", reader.readLine());
+                changeFeed.publish(ChangeType.TICKET_CLOSED, 1, ParkingType.CAR, true);
+                assertEquals("id: 1000-3", reader.readLine());
+            } finally {
+                connection.disconnect();
+            }
+        } finally {
+            server.close();
+        }
+    }
+
+    @Test
+    @DisplayName("should reset a subscriber resuming from an earlier run of the app")
+    void earlierRunResetTest() throws Exception {
+        //given
+        changeFeed.publish(ChangeType.SPOT_UPDATED, 1, ParkingType.CAR, false);
+        ChangeFeedServer server = new ChangeFeedServer(changeFeed, "localhost", 0);
+        server.start();
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + server.getPort() + "/changes").openConnection();
+            connection.setRequestProperty("Last-Event-ID", "500-1");
+
+            //when
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+
+                //then
+                assertEquals("event: reset", reader.readLine());
+                assertEquals("data: {\"firstSequence\":2}", reader.readLine());
+                assertEquals("", reader.readLine());
+                changeFeed.publish(ChangeType.SPOT_UPDATED, 1, ParkingType.CAR, true);
+                assertEquals("id: 1000-2", reader.readLine());
+            } finally {
+                connection.disconnect();
+            }
+        } finally {
+            server.close();
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package com.parkit.parkingsystem;
 
-import com.parkit.parkingsystem.constants.Fare;
+import com.parkit.parkingsystem.config.ParkingTypeCatalog;
 import com.parkit.parkingsystem.constants.ParkingType;
 import com.parkit.parkingsystem.model.ParkingSpot;
 import com.parkit.parkingsystem.model.Ticket;
@@ -10,13 +10,17 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
-import java.util.Date;
+import java.time.Instant;
+import java.util.Properties;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class FareCalculatorServiceTest {
 
+    private static final double CAR_RATE_PER_HOUR = ParkingTypeCatalog.getDefault().getRatePerHour(ParkingType.CAR);
+    private static final double BIKE_RATE_PER_HOUR = ParkingTypeCatalog.getDefault().getRatePerHour(ParkingType.BIKE);
+
     private static FareCalculatorService fareCalculatorService;
     private Ticket ticket;
 
@@ -32,37 +36,34 @@ public class FareCalculatorServiceTest {
 
     @Test
     public void calculateFareCar() {
-        Date inTime = new Date();
-        inTime.setTime(System.currentTimeMillis() - (60 * 60 * 1000));
-        Date outTime = new Date();
+        Instant inTime = Instant.ofEpochMilli(System.currentTimeMillis() - (60 * 60 * 1000));
+        Instant outTime = Instant.now();
         ParkingSpot parkingSpot = new ParkingSpot(1, ParkingType.CAR, false);
 
         ticket.setInTime(inTime);
         ticket.setOutTime(outTime);
         ticket.setParkingSpot(parkingSpot);
         fareCalculatorService.calculateFare(ticket);
-        assertEquals(Fare.CAR_RATE_PER_HOUR, ticket.getPrice());
+        assertEquals(CAR_RATE_PER_HOUR, ticket.getPrice());
     }
 
     @Test
     public void calculateFareBike() {
-        Date inTime = new Date();
-        inTime.setTime(System.currentTimeMillis() - (60 * 60 * 1000));
-        Date outTime = new Date();
+        Instant inTime = Instant.ofEpochMilli(System.currentTimeMillis() - (60 * 60 * 1000));
+        Instant outTime = Instant.now();
         ParkingSpot parkingSpot = new ParkingSpot(1, ParkingType.BIKE, false);
 
         ticket.setInTime(inTime);
         ticket.setOutTime(outTime);
         ticket.setParkingSpot(parkingSpot);
         fareCalculatorService.calculateFare(ticket);
-        assertEquals(Fare.BIKE_RATE_PER_HOUR, ticket.getPrice());
+        assertEquals(BIKE_RATE_PER_HOUR, ticket.getPrice());
     }
 
     @Test
     public void calculateFareUnknownType() {
-        Date inTime = new Date();
-        inTime.setTime(System.currentTimeMillis() - (60 * 60 * 1000));
-        Date outTime = new Date();
+        Instant inTime = Instant.ofEpochMilli(System.currentTimeMillis() - (60 * 60 * 1000));
+        Instant outTime = Instant.now();
         ParkingSpot parkingSpot = new ParkingSpot(1, ParkingType.UNKNOWN, false);
 
         ticket.setInTime(inTime);
@@ -73,9 +74,8 @@ public class FareCalculatorServiceTest {
 
     @Test
     public void calculateFareInvalidType() {
-        Date inTime = new Date();
-        inTime.setTime(System.currentTimeMillis() - (60 * 60 * 1000));
-        Date outTime = new Date();
+        Instant inTime = Instant.ofEpochMilli(System.currentTimeMillis() - (60 * 60 * 1000));
+        Instant outTime = Instant.now();
         ParkingSpot parkingSpot = new ParkingSpot(1, null, false);
         ticket.setInTime(inTime);
         ticket.setOutTime(outTime);
@@ -85,9 +85,8 @@ public class FareCalculatorServiceTest {
 
     @Test
     public void calculateFareBikeWithFutureInTime() {
-        Date inTime = new Date();
-        inTime.setTime(System.currentTimeMillis() + (60 * 60 * 1000));
-        Date outTime = new Date();
+        Instant inTime = Instant.ofEpochMilli(System.currentTimeMillis() + (60 * 60 * 1000));
+        Instant outTime = Instant.now();
         ParkingSpot parkingSpot = new ParkingSpot(1, ParkingType.BIKE, false);
 
         ticket.setInTime(inTime);
@@ -98,9 +97,8 @@ public class FareCalculatorServiceTest {
 
     @Test
     public void calculateFareBikeWithNullOutTime() {
-        Date inTime = new Date();
-        inTime.setTime(System.currentTimeMillis() - (60 * 60 * 1000));
-        Date outTime = null;
+        Instant inTime = Instant.ofEpochMilli(System.currentTimeMillis() - (60 * 60 * 1000));
+        Instant outTime = null;
         ParkingSpot parkingSpot = new ParkingSpot(1, ParkingType.BIKE, false);
 
         ticket.setInTime(inTime);
@@ -111,23 +109,21 @@ public class FareCalculatorServiceTest {
 
     @Test
     public void calculateFareBikeWithLessThanOneHourParkingTime() {
-        Date inTime = new Date();
-        inTime.setTime(System.currentTimeMillis() - (45 * 60 * 1000));//45 minutes parking time should give 3/4th parking fare
-        Date outTime = new Date();
+        Instant inTime = Instant.ofEpochMilli(System.currentTimeMillis() - (45 * 60 * 1000));//45 minutes parking time should give 3/4th parking fare
+        Instant outTime = Instant.now();
         ParkingSpot parkingSpot = new ParkingSpot(1, ParkingType.BIKE, false);
 
         ticket.setInTime(inTime);
         ticket.setOutTime(outTime);
         ticket.setParkingSpot(parkingSpot);
         fareCalculatorService.calculateFare(ticket);
-        assertEquals((0.75 * Fare.BIKE_RATE_PER_HOUR), ticket.getPrice());
+        assertEquals((0.75 * BIKE_RATE_PER_HOUR), ticket.getPrice());
     }
 
     @Test
     public void calculateFareCarWithLessThanOneHourParkingTime() {
-        Date inTime = new Date();
-        inTime.setTime(System.currentTimeMillis() - (45 * 60 * 1000));//45 minutes parking time should give 3/4th parking fare
-        Date outTime = new Date();
+        Instant inTime = Instant.ofEpochMilli(System.currentTimeMillis() - (45 * 60 * 1000));//45 minutes parking time should give 3/4th parking fare
+        Instant outTime = Instant.now();
         ParkingSpot parkingSpot = new ParkingSpot(1, ParkingType.CAR, false);
 
         ticket.setInTime(inTime);
@@ -135,7 +131,7 @@ public class FareCalculatorServiceTest {
         ticket.setParkingSpot(parkingSpot);
         fareCalculatorService.calculateFare(ticket);
 
-        double expectedRate = (45.0/60.0)*Fare.CAR_RATE_PER_HOUR;
+        double expectedRate = (45.0/60.0)*CAR_RATE_PER_HOUR;
         expectedRate = Math.ceil(expectedRate*100)/100 ;
 
         assertEquals(expectedRate, ticket.getPrice());
@@ -143,24 +139,22 @@ public class FareCalculatorServiceTest {
 
     @Test
     public void calculateFareCarWithMoreThanADayParkingTime() {
-        Date inTime = new Date();
-        inTime.setTime(System.currentTimeMillis() - (24 * 60 * 60 * 1000));//24 hours parking time should give 24 * parking fare per hour
-        Date outTime = new Date();
+        Instant inTime = Instant.ofEpochMilli(System.currentTimeMillis() - (24 * 60 * 60 * 1000));//24 hours parking time should give 24 * parking fare per hour
+        Instant outTime = Instant.now();
         ParkingSpot parkingSpot = new ParkingSpot(1, ParkingType.CAR, false);
 
         ticket.setInTime(inTime);
         ticket.setOutTime(outTime);
         ticket.setParkingSpot(parkingSpot);
         fareCalculatorService.calculateFare(ticket);
-        assertEquals((24 * Fare.CAR_RATE_PER_HOUR), ticket.getPrice());
+        assertEquals((24 * CAR_RATE_PER_HOUR), ticket.getPrice());
     }
 
     @Test
     public void calculateFareCarWithLessThan30minutesParkingTime(){
         //given
-        Date inTime = new Date();
-        inTime.setTime(System.currentTimeMillis() - (29 * 60 * 1000)-(54*1000)); // 29 minutes and 54 secondes
-        Date outTime = new Date();
+        Instant inTime = Instant.ofEpochMilli(System.currentTimeMillis() - (29 * 60 * 1000)-(54*1000)); // 29 minutes and 54 secondes
+        Instant outTime = Instant.now();
         ParkingSpot parkingSpot = new ParkingSpot(1, ParkingType.CAR, false);
         ticket.setInTime(inTime);
         ticket.setOutTime(outTime);
@@ -176,9 +170,8 @@ public class FareCalculatorServiceTest {
     @Test
     public void calculateFareBikeWithLessThan30minutesParkingTime(){
         //given
-        Date inTime = new Date();
-        inTime.setTime(System.currentTimeMillis() - (20 * 60 * 1000));
-        Date outTime = new Date();
+        Instant inTime = Instant.ofEpochMilli(System.currentTimeMillis() - (20 * 60 * 1000));
+        Instant outTime = Instant.now();
         ParkingSpot parkingSpot = new ParkingSpot(1, ParkingType.BIKE, false);
         ticket.setInTime(inTime);
         ticket.setOutTime(outTime);
@@ -194,9 +187,8 @@ public class FareCalculatorServiceTest {
     @Test
     public void calculateFareCarWithDiscount(){
         //given
-        Date inTime = new Date();
-        inTime.setTime(System.currentTimeMillis() - (60 * 60 * 1000)); // 60 min
-        Date outTime = new Date();
+        Instant inTime = Instant.ofEpochMilli(System.currentTimeMillis() - (60 * 60 * 1000)); // 60 min
+        Instant outTime = Instant.now();
         ParkingSpot parkingSpot = new ParkingSpot(1, ParkingType.CAR, false);
 
         ticket.setInTime(inTime);
@@ -206,7 +198,7 @@ public class FareCalculatorServiceTest {
         //when
         fareCalculatorService.calculateFare(ticket,true);
         //then
-        double expectedRate = Fare.CAR_RATE_PER_HOUR*0.95;
+        double expectedRate = CAR_RATE_PER_HOUR*0.95;
         expectedRate = Math.floor(expectedRate*100)/100 ;
         assertEquals(expectedRate, ticket.getPrice());
     }
@@ -214,9 +206,8 @@ public class FareCalculatorServiceTest {
     @Test
     public void calculateFareBikeWithDiscount(){
         //given
-        Date inTime = new Date();
-        inTime.setTime(System.currentTimeMillis() - (60 * 60 * 1000)); // 60min
-        Date outTime = new Date();
+        Instant inTime = Instant.ofEpochMilli(System.currentTimeMillis() - (60 * 60 * 1000)); // 60min
+        Instant outTime = Instant.now();
         ParkingSpot parkingSpot = new ParkingSpot(1, ParkingType.BIKE, false);
 
         ticket.setInTime(inTime);
@@ -226,16 +217,15 @@ public class FareCalculatorServiceTest {
         //when
         fareCalculatorService.calculateFare(ticket,true);
         //then
-        assertEquals(Fare.BIKE_RATE_PER_HOUR * 0.95, ticket.getPrice());
+        assertEquals(BIKE_RATE_PER_HOUR * 0.95, ticket.getPrice());
     }
 
     @Test
     @DisplayName("should return a fare rounding up")
     public void calculateFareRoundingUpTest(){
         //given
-        Date inTime = new Date();
-        inTime.setTime(System.currentTimeMillis() - (61 * 60 * 1000));
-        Date outTime = new Date();
+        Instant inTime = Instant.ofEpochMilli(System.currentTimeMillis() - (61 * 60 * 1000));
+        Instant outTime = Instant.now();
         ParkingSpot parkingSpot = new ParkingSpot(1, ParkingType.CAR, false);
         ticket.setInTime(inTime);
         ticket.setOutTime(outTime);
@@ -245,7 +235,7 @@ public class FareCalculatorServiceTest {
         fareCalculatorService.calculateFare(ticket);
 
         //then
-        double expectedRate = (61.0/60.0)*Fare.CAR_RATE_PER_HOUR;
+        double expectedRate = (61.0/60.0)*CAR_RATE_PER_HOUR;
         expectedRate = Math.ceil(expectedRate*100)/100 ;
         assertEquals(expectedRate, ticket.getPrice(),0.001);
     }
@@ -254,9 +244,8 @@ public class FareCalculatorServiceTest {
     @DisplayName("should return a fare rounding down")
     public void calculateFareRoundingDownTest(){
         //given
-        Date inTime = new Date();
-        inTime.setTime(System.currentTimeMillis() - (103 * 60 * 1000));
-        Date outTime = new Date();
+        Instant inTime = Instant.ofEpochMilli(System.currentTimeMillis() - (103 * 60 * 1000));
+        Instant outTime = Instant.now();
         ParkingSpot parkingSpot = new ParkingSpot(1, ParkingType.CAR, false);
         ticket.setInTime(inTime);
         ticket.setOutTime(outTime);
@@ -266,9 +255,27 @@ public class FareCalculatorServiceTest {
         fareCalculatorService.calculateFare(ticket);
 
         //then
-        double expectedRate = (103/60.0)*Fare.CAR_RATE_PER_HOUR;
+        double expectedRate = (103/60.0)*CAR_RATE_PER_HOUR;
         expectedRate = Math.floor(expectedRate*100)/100 ;
         assertEquals(expectedRate, ticket.getPrice(),0.001);
     }
 
+    @Test
+    @DisplayName("should use the rate of the catalog for the new spot types")
+    public void calculateFareFromCatalog() {
+        Properties properties = new Properties();
+        properties.setProperty("EV.rate", "2.5");
+        FareCalculatorService catalogFareCalculatorService = new FareCalculatorService(new ParkingTypeCatalog(properties));
+        Instant inTime = Instant.ofEpochMilli(System.currentTimeMillis() - (2 * 60 * 60 * 1000));
+        Instant outTime = Instant.now();
+        ParkingSpot parkingSpot = new ParkingSpot(1, ParkingType.EV, false);
+
+        ticket.setInTime(inTime);
+        ticket.setOutTime(outTime);
+        ticket.setParkingSpot(parkingSpot);
+        catalogFareCalculatorService.calculateFare(ticket);
+        assertEquals(5.0, ticket.getPrice(), 0.001);
+        ticket.setParkingSpot(new ParkingSpot(1, ParkingType.CAR, false));
+        assertThrows(IllegalArgumentException.class, () -> catalogFareCalculatorService.calculateFare(ticket));
+    }
 }
@@ -0,0 +1,106 @@
+package com.parkit.parkingsystem;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.dao.InMemoryParkingSpotDAO;
+import com.parkit.parkingsystem.dao.InMemoryTicketDAO;
+import com.parkit.parkingsystem.dao.SimulatedLatencyParkingSpotDAO;
+import com.parkit.parkingsystem.dao.SimulatedLatencyTicketDAO;
+import com.parkit.parkingsystem.model.ParkingSpot;
+import com.parkit.parkingsystem.model.Ticket;
+import com.parkit.parkingsystem.service.FareCalculatorService;
+import com.parkit.parkingsystem.service.ParkingService;
+import com.parkit.parkingsystem.util.InputReaderUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ParkingServicePipelineTest {
+
+    private static final long LATENCY_MILLIS = 200;
+
+    @Mock
+    private InputReaderUtil inputReaderUtil;
+    @Mock
+    private Clock clock;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private InMemoryParkingSpotDAO parkingSpotDAO;
+    private InMemoryTicketDAO ticketDAO;
+    private ParkingService parkingService;
+    private ExecutorService daoExecutor;
+
+    @BeforeEach
+    void setUp() {
+        parkingSpotDAO = spy(new InMemoryParkingSpotDAO());
+        parkingSpotDAO.addParkingSpot(1, ParkingType.CAR, true);
+        ticketDAO = new InMemoryTicketDAO();
+        parkingService = new ParkingService(inputReaderUtil,
+                new SimulatedLatencyParkingSpotDAO(parkingSpotDAO, LATENCY_MILLIS, inFlight, maxInFlight),
+                new SimulatedLatencyTicketDAO(ticketDAO, LATENCY_MILLIS, inFlight, maxInFlight),
+                new FareCalculatorService(), clock);
+        daoExecutor = Executors.newSingleThreadExecutor();
+        parkingService.setDaoExecutor(daoExecutor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        daoExecutor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("should take the spot in a single storage call on entry")
+    void entryTakesSpotInSingleCall() throws Exception {
+        //given
+        when(inputReaderUtil.readSelection()).thenReturn(1);
+        when(inputReaderUtil.readVehicleRegistrationNumber()).thenReturn("ABCDEF");
+        when(clock.millis()).thenReturn(1000L);
+
+        //when
+        parkingService.processIncomingVehicle();
+
+        //then
+        //takeNextAvailableSlot, then getNbTickets, then saveTicket which needs its result
+        assertEquals(1, maxInFlight.get());
+        verify(parkingSpotDAO, never()).updateParking(any(ParkingSpot.class));
+        assertFalse(parkingSpotDAO.getParkingSpot(1).isAvailable());
+        assertEquals(1, ticketDAO.getNbTickets("ABCDEF"));
+    }
+
+    @Test
+    @DisplayName("should overlap the regular customer check with the ticket lookup on exit")
+    void exitOverlapsIndependentDatabaseCalls() throws Exception {
+        //given
+        when(inputReaderUtil.readSelection()).thenReturn(1);
+        when(inputReaderUtil.readVehicleRegistrationNumber()).thenReturn("ABCDEF");
+        when(clock.millis()).thenReturn(1000L, 3_601_000L);
+        parkingService.processIncomingVehicle();
+        maxInFlight.set(0);
+
+        //when
+        Ticket ticket = parkingService.processExitingVehicle();
+
+        //then
+        //getNbTickets alongside getTicketWithRecentInTime, then updateTicket, then updateParking
+        assertEquals(2, maxInFlight.get());
+        assertEquals(1.5, ticket.getPrice());
+        assertTrue(parkingSpotDAO.getParkingSpot(1).isAvailable());
+    }
+}
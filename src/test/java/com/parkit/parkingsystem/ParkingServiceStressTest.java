@@ -0,0 +1,266 @@
+package com.parkit.parkingsystem;
+
+import com.parkit.parkingsystem.constants.GateOperation;
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.dao.InMemoryParkingSpotDAO;
+import com.parkit.parkingsystem.dao.InMemoryTicketDAO;
+import com.parkit.parkingsystem.dao.ParkingSpotDAO;
+import com.parkit.parkingsystem.dao.SimulatedLatencyParkingSpotDAO;
+import com.parkit.parkingsystem.dao.SimulatedLatencyTicketDAO;
+import com.parkit.parkingsystem.dao.TicketDAO;
+import com.parkit.parkingsystem.model.GateEvent;
+import com.parkit.parkingsystem.model.ParkingLayout;
+import com.parkit.parkingsystem.model.Ticket;
+import com.parkit.parkingsystem.service.AllocationStrategy;
+import com.parkit.parkingsystem.service.FareCalculatorService;
+import com.parkit.parkingsystem.service.LowestNumberAllocationStrategy;
+import com.parkit.parkingsystem.service.ParkingService;
+import com.parkit.parkingsystem.util.ReplayClock;
+import com.parkit.parkingsystem.util.ReplayInputReaderUtil;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs many gates at once against shared DAOs, each gate with its own {@link ParkingService} like the
+ * deployed barriers, and checks the lot stays consistent: no spot given twice, one open ticket per occupied
+ * spot and the visits of every vehicle counted.
+ */
+class ParkingServiceStressTest {
+
+    private static final Logger logger = LogManager.getLogger("ParkingServiceStressTest");
+    private static final int GATES = 16;
+    private static final int SPOTS = 100;
+    private static final int VEHICLES_PER_GATE = 10;
+    private static final int VISITS = 5;
+    private static final long PARKING_MILLIS = TimeUnit.HOURS.toMillis(2);
+
+    private InMemoryParkingSpotDAO parkingSpotDAO;
+    private InMemoryTicketDAO ticketDAO;
+
+    //a barrier of the lot, answering the shell prompts from the vehicle it serves
+    private static final class Gate {
+        final ReplayInputReaderUtil inputReaderUtil = new ReplayInputReaderUtil();
+        final ReplayClock clock = new ReplayClock();
+        final ParkingService parkingService;
+
+        Gate(ParkingSpotDAO parkingSpotDAO, TicketDAO ticketDAO, AllocationStrategy allocationStrategy) {
+            parkingService = new ParkingService(inputReaderUtil, parkingSpotDAO, ticketDAO, new FareCalculatorService(), clock);
+            if (allocationStrategy != null) {
+                parkingService.setAllocationStrategy(allocationStrategy);
+            }
+        }
+
+        Ticket enter(String vehicleRegNumber, long time) {
+            clock.setMillis(time);
+            inputReaderUtil.setEvent(new GateEvent(time, GateOperation.ENTRY, ParkingType.CAR, vehicleRegNumber));
+            return parkingService.processIncomingVehicle();
+        }
+
+        Ticket exit(String vehicleRegNumber, long time) throws Exception {
+            clock.setMillis(time);
+            inputReaderUtil.setEvent(new GateEvent(time, GateOperation.EXIT, null, vehicleRegNumber));
+            return parkingService.processExitingVehicle();
+        }
+    }
+
+    private interface GateTask {
+        void run(int gate) throws Exception;
+    }
+
+    @BeforeEach
+    void setUp() {
+        parkingSpotDAO = new InMemoryParkingSpotDAO();
+        for (int number = 1; number <= SPOTS; number++) {
+            parkingSpotDAO.addParkingSpot(number, ParkingType.CAR, true);
+        }
+        ticketDAO = new InMemoryTicketDAO();
+    }
+
+    @Test
+    @DisplayName("should never give a spot twice when more vehicles than spots enter at once through the storage allocation")
+    void storageAllocationStressTest() throws Exception {
+        assertEntriesAndExitsStayConsistent(null);
+    }
+
+    @Test
+    @DisplayName("should never give a spot twice when more vehicles than spots enter at once through a layout allocation")
+    void layoutAllocationStressTest() throws Exception {
+        Map<ParkingType, Integer> spotCounts = new EnumMap<>(ParkingType.class);
+        spotCounts.put(ParkingType.CAR, SPOTS);
+        LowestNumberAllocationStrategy allocationStrategy = new LowestNumberAllocationStrategy(ParkingLayout.generate(spotCounts, 1), parkingSpotDAO);
+        allocationStrategy.load();
+
+        assertEntriesAndExitsStayConsistent(allocationStrategy);
+    }
+
+    private void assertEntriesAndExitsStayConsistent(AllocationStrategy allocationStrategy) throws Exception {
+        //given
+        List<Gate> gates = new ArrayList<>();
+        for (int gate = 0; gate < GATES; gate++) {
+            gates.add(new Gate(parkingSpotDAO, ticketDAO, allocationStrategy));
+        }
+        Map<String, Integer> visits = new ConcurrentHashMap<>();
+        AtomicInteger regularCustomerEntries = new AtomicInteger();
+        AtomicInteger wronglyRegularEntries = new AtomicInteger();
+
+        for (int visit = 0; visit < VISITS; visit++) {
+            long inTime = visit * 2 * PARKING_MILLIS;
+            Map<String, Ticket> parked = new ConcurrentHashMap<>();
+
+            //when
+            runGates(GATES, gate -> {
+                for (int vehicle = 0; vehicle < VEHICLES_PER_GATE; vehicle++) {
+                    String vehicleRegNumber = plate(gate, vehicle);
+                    Ticket ticket = gates.get(gate).enter(vehicleRegNumber, inTime);
+                    if (ticket != null) {
+                        int previousVisits = visits.getOrDefault(vehicleRegNumber, 0);
+                        if (ticket.getIsRegularCustomer()) {
+                            regularCustomerEntries.incrementAndGet();
+                        }
+                        if (ticket.getIsRegularCustomer() != previousVisits > 0) {
+                            wronglyRegularEntries.incrementAndGet();
+                        }
+                        visits.put(vehicleRegNumber, previousVisits + 1);
+                        parked.put(vehicleRegNumber, ticket);
+                    }
+                }
+            });
+
+            //then
+            assertEquals(Math.min(SPOTS, GATES * VEHICLES_PER_GATE), parked.size());
+            Set<Integer> occupiedSpots = new HashSet<>();
+            for (Map.Entry<String, Ticket> vehicle : parked.entrySet()) {
+                int number = vehicle.getValue().getParkingSpot().getId();
+                assertTrue(occupiedSpots.add(number), "spot " + number + " was given twice");
+                assertFalse(parkingSpotDAO.getParkingSpot(number).isAvailable());
+                Ticket openTicket = ticketDAO.getTicketWithRecentInTime(vehicle.getKey());
+                assertEquals(number, openTicket.getParkingSpot().getId());
+                assertFalse(openTicket.hasOutTime());
+            }
+            assertEquals(occupiedSpots.size(), countOccupiedSpots());
+
+            //when
+            List<String> parkedVehicles = new ArrayList<>(parked.keySet());
+            Map<String, Ticket> paid = new ConcurrentHashMap<>();
+            runGates(GATES, gate -> {
+                for (int i = gate; i < parkedVehicles.size(); i += GATES) {
+                    String vehicleRegNumber = parkedVehicles.get(i);
+                    Ticket ticket = gates.get(gate).exit(vehicleRegNumber, inTime + PARKING_MILLIS);
+                    paid.put(vehicleRegNumber, ticket);
+                }
+            });
+
+            //then
+            assertEquals(parked.size(), paid.size());
+            for (Ticket ticket : paid.values()) {
+                assertTrue(ticket.getParkingSpot().isAvailable());
+                assertTrue(ticket.getPrice() > 0);
+            }
+            assertEquals(0, countOccupiedSpots());
+        }
+
+        int totalVisits = 0;
+        for (Map.Entry<String, Integer> vehicle : visits.entrySet()) {
+            assertEquals((int) vehicle.getValue(), ticketDAO.getNbTickets(vehicle.getKey()));
+            totalVisits += vehicle.getValue();
+        }
+        assertEquals(totalVisits - visits.size(), regularCustomerEntries.get());
+        assertEquals(0, wronglyRegularEntries.get());
+    }
+
+    @Test
+    @DisplayName("should run the database calls of the gates at once while they wait")
+    void gatesWaitTogetherTest() throws Exception {
+        //given
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        ParkingSpotDAO slowSpots = new SimulatedLatencyParkingSpotDAO(parkingSpotDAO, 2, inFlight, maxInFlight);
+        TicketDAO slowTickets = new SimulatedLatencyTicketDAO(ticketDAO, 2, inFlight, maxInFlight);
+
+        //when
+        double singleGate = measureThroughput(1, slowSpots, slowTickets);
+        int singleGateInFlight = maxInFlight.getAndSet(0);
+        double manyGates = measureThroughput(8, slowSpots, slowTickets);
+
+        //then
+        //the throughput depends on the machine, only the overlap of the calls is checked
+        logger.info(String.format("Entries and exits per second: %.0f with 1 gate, %.0f with 8 gates", singleGate, manyGates));
+        assertTrue(maxInFlight.get() > singleGateInFlight,
+                "8 gates had at most " + maxInFlight.get() + " calls in flight, 1 gate " + singleGateInFlight);
+    }
+
+    private double measureThroughput(int gateCount, ParkingSpotDAO parkingSpotDAO, TicketDAO ticketDAO) throws Exception {
+        List<Gate> gates = new ArrayList<>();
+        for (int gate = 0; gate < gateCount; gate++) {
+            gates.add(new Gate(parkingSpotDAO, ticketDAO, null));
+        }
+        int visitsPerGate = 40;
+        long start = System.nanoTime();
+        runGates(gateCount, gate -> {
+            String vehicleRegNumber = "T" + gateCount + plate(gate, 0);
+            for (int visit = 0; visit < visitsPerGate; visit++) {
+                long inTime = visit * 2 * PARKING_MILLIS;
+                assertNotNull(gates.get(gate).enter(vehicleRegNumber, inTime));
+                assertNotNull(gates.get(gate).exit(vehicleRegNumber, inTime + PARKING_MILLIS));
+            }
+        });
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return 2.0 * gateCount * visitsPerGate / seconds;
+    }
+
+    //starts the gates together so that their calls collide, and fails with the first error of a gate
+    private static void runGates(int gateCount, GateTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(gateCount);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int gate = 0; gate < gateCount; gate++) {
+                int index = gate;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run(index);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int countOccupiedSpots() {
+        int occupied = 0;
+        for (int number = 1; number <= SPOTS; number++) {
+            if (!parkingSpotDAO.getParkingSpot(number).isAvailable()) {
+                occupied++;
+            }
+        }
+        return occupied;
+    }
+
+    private static String plate(int gate, int vehicle) {
+        return String.format("G%02dV%03d", gate, vehicle);
+    }
+}
@@ -1,12 +1,16 @@
 package com.parkit.parkingsystem;
 
+import com.parkit.parkingsystem.constants.GateOperation;
 import com.parkit.parkingsystem.constants.ParkingType;
 import com.parkit.parkingsystem.dao.ParkingSpotDAO;
 import com.parkit.parkingsystem.dao.TicketDAO;
 import com.parkit.parkingsystem.model.ParkingSpot;
 import com.parkit.parkingsystem.model.Ticket;
+import com.parkit.parkingsystem.service.AdmissionController;
 import com.parkit.parkingsystem.service.FareCalculatorService;
+import com.parkit.parkingsystem.service.GateBusyException;
 import com.parkit.parkingsystem.service.ParkingService;
+import com.parkit.parkingsystem.service.ReservationService;
 import com.parkit.parkingsystem.util.InputReaderUtil;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -15,7 +19,7 @@ import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.Clock;
-import java.util.Date;
+import java.time.Instant;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -46,9 +50,8 @@ class ParkingServiceTest {
         final String vehicleRegistrationNumber ="ABCDEF";
         when(inputReaderUtil.readVehicleRegistrationNumber()).thenReturn(vehicleRegistrationNumber);
         when(inputReaderUtil.readSelection()).thenReturn(1);
-        when(parkingSpotDAO.getNextAvailableSlot(ParkingType.CAR)).thenReturn(1);
+        when(parkingSpotDAO.takeNextAvailableSlot(ParkingType.CAR)).thenReturn(1);
         when(ticketDAO.getNbTickets(vehicleRegistrationNumber)).thenReturn(0);
-        when(parkingSpotDAO.updateParking(any(ParkingSpot.class))).thenReturn(true);
         when(ticketDAO.saveTicket(any(Ticket.class))).thenReturn(true);
 
         //when
@@ -56,8 +59,9 @@ class ParkingServiceTest {
 
         //then
         verify(ticketDAO,times(1)).getNbTickets(vehicleRegistrationNumber);
-        verify(parkingSpotDAO, times(1)).getNextAvailableSlot(ParkingType.CAR);
+        verify(parkingSpotDAO, times(1)).takeNextAvailableSlot(ParkingType.CAR);
         verify(ticketDAO, times(1)).saveTicket(ticketCaptor.capture());
+        verify(parkingSpotDAO, never()).updateParking(any(ParkingSpot.class));
         verify(inputReaderUtil, times(1)).readVehicleRegistrationNumber();
 
         final Ticket savedTicket = ticketCaptor.getValue();
@@ -74,9 +78,8 @@ class ParkingServiceTest {
         when(inputReaderUtil.readVehicleRegistrationNumber()).thenReturn(vehicleRegistrationNumber);
         when(inputReaderUtil.readSelection()).thenReturn(1);
         when(clock.millis()).thenReturn(1000L);
-        when(parkingSpotDAO.getNextAvailableSlot(ParkingType.CAR)).thenReturn(1);
+        when(parkingSpotDAO.takeNextAvailableSlot(ParkingType.CAR)).thenReturn(1);
         when(ticketDAO.getNbTickets(vehicleRegistrationNumber)).thenReturn(2);
-        when(parkingSpotDAO.updateParking(any(ParkingSpot.class))).thenReturn(true);
         when(ticketDAO.saveTicket(any(Ticket.class))).thenReturn(true);
 
         //when
@@ -84,8 +87,9 @@ class ParkingServiceTest {
 
         //then
         verify(ticketDAO,times(1)).getNbTickets(vehicleRegistrationNumber);
-        verify(parkingSpotDAO, times(1)).getNextAvailableSlot(ParkingType.CAR);
+        verify(parkingSpotDAO, times(1)).takeNextAvailableSlot(ParkingType.CAR);
         verify(ticketDAO, times(1)).saveTicket(ticketCaptor.capture());
+        verify(parkingSpotDAO, never()).updateParking(any(ParkingSpot.class));
         verify(inputReaderUtil, times(1)).readVehicleRegistrationNumber();
 
         final Ticket savedTicket = ticketCaptor.getValue();
@@ -101,16 +105,16 @@ class ParkingServiceTest {
         when(clock.millis()).thenReturn(1000L).thenReturn(360_010_000L);
         when(inputReaderUtil.readVehicleRegistrationNumber()).thenReturn("ABCDEF");
         when(inputReaderUtil.readSelection()).thenReturn(2);
-        when(parkingSpotDAO.updateParking(any(ParkingSpot.class))).thenReturn(true);
-        when(parkingSpotDAO.getNextAvailableSlot(ParkingType.BIKE)).thenReturn(1);
+        when(parkingSpotDAO.takeNextAvailableSlot(ParkingType.BIKE)).thenReturn(1);
         when(ticketDAO.saveTicket(any(Ticket.class))).thenReturn(true);
 
         //when
         parkingService.processIncomingVehicle();
 
         //then
-        verify(parkingSpotDAO, times(1)).getNextAvailableSlot(ParkingType.BIKE);
+        verify(parkingSpotDAO, times(1)).takeNextAvailableSlot(ParkingType.BIKE);
         verify(ticketDAO, times(1)).saveTicket(ticketCaptor.capture());
+        verify(parkingSpotDAO, never()).updateParking(any(ParkingSpot.class));
         verify(inputReaderUtil, times(1)).readVehicleRegistrationNumber();
 
         final Ticket savedTicket = ticketCaptor.getValue();
@@ -119,7 +123,7 @@ class ParkingServiceTest {
         assertEquals(ParkingType.BIKE, savedTicket.getParkingSpot().getParkingType());
         assertEquals("ABCDEF", savedTicket.getVehicleRegNumber());
         assertEquals(0.0, savedTicket.getPrice());
-        assertEquals(new Date(1000L), savedTicket.getInTime());
+        assertEquals(Instant.ofEpochMilli(1000L), savedTicket.getInTime());
         assertNull(savedTicket.getOutTime());
     }
 
@@ -131,7 +135,7 @@ class ParkingServiceTest {
         final ParkingSpot parkingSpot = new ParkingSpot(1,ParkingType.CAR,false);
         final Ticket ticket = new Ticket();
         ticket.setParkingSpot(parkingSpot);
-        ticket.setInTime(new Date());
+        ticket.setInTime(Instant.now());
         ticket.setOutTime(null);
         ticket.setIsRegularCustomer(true);
 
@@ -140,9 +144,10 @@ class ParkingServiceTest {
         when(ticketDAO.updateTicket(any(Ticket.class))).thenReturn(false);
         when(clock.millis()).thenReturn(360_010_000L);
         //when
-        parkingService.processExitingVehicle();
+        Ticket paidTicket = parkingService.processExitingVehicle();
 
         //then
+        assertNull(paidTicket);
         verify(inputReaderUtil, times(1)).readVehicleRegistrationNumber();
         verify(ticketDAO,times(1)).getTicketWithRecentInTime(vehicleRegNumber);
         verify(fareCalculatorService,times(1)).calculateFare(ticket,false);
@@ -155,14 +160,14 @@ class ParkingServiceTest {
     void GetNextParkingNumberIfAvailableTest () {
         //given
         when(inputReaderUtil.readSelection()).thenReturn(1);
-        when(parkingSpotDAO.getNextAvailableSlot(ParkingType.CAR)).thenReturn(1);
+        when(parkingSpotDAO.takeNextAvailableSlot(ParkingType.CAR)).thenReturn(1);
         //when
-        ParkingSpot parkingSpot = parkingService.getNextParkingNumberIfAvailable();
+        ParkingSpot parkingSpot = parkingService.takeNextParkingSpot();
         //then
         assertNotNull(parkingSpot);
         assertEquals(ParkingType.CAR, parkingSpot.getParkingType());
         assertEquals(1, parkingSpot.getId());
-        assertTrue(parkingSpot.isAvailable());
+        assertFalse(parkingSpot.isAvailable());
     }
 
     @Test
@@ -170,30 +175,47 @@ class ParkingServiceTest {
     void GetNextParkingNumberIfUnavailableParkingNumberNotFoundTest (){
         //given
         when(inputReaderUtil.readSelection()).thenReturn(1);
-        when(parkingSpotDAO.getNextAvailableSlot(ParkingType.CAR)).thenReturn(0);
+        when(parkingSpotDAO.takeNextAvailableSlot(ParkingType.CAR)).thenReturn(0);
 
         //when
-        ParkingSpot parkingSpot = parkingService.getNextParkingNumberIfAvailable();
+        ParkingSpot parkingSpot = parkingService.takeNextParkingSpot();
 
         //then
         assertNull(parkingSpot);
-        verify(parkingSpotDAO, times(1)).getNextAvailableSlot(ParkingType.CAR);
+        verify(parkingSpotDAO, times(1)).takeNextAvailableSlot(ParkingType.CAR);
         verify(inputReaderUtil,times(1)).readSelection();
     }
 
+    @Test
+    @DisplayName("should give a larger spot to a compact car when the compact spots are full")
+    void GetNextParkingNumberIfAvailableOverflowTest() {
+        //given
+        when(inputReaderUtil.readSelection()).thenReturn(3);
+        when(parkingSpotDAO.takeNextAvailableSlot(ParkingType.COMPACT)).thenReturn(0);
+        when(parkingSpotDAO.takeNextAvailableSlot(ParkingType.CAR)).thenReturn(2);
+
+        //when
+        ParkingSpot parkingSpot = parkingService.takeNextParkingSpot();
+
+        //then
+        assertEquals(2, parkingSpot.getId());
+        assertEquals(ParkingType.CAR, parkingSpot.getParkingType());
+        assertFalse(parkingSpot.isAvailable());
+    }
+
     @Test
     @DisplayName("should return null when invalid vehicle type")
     void GetNextParkingNumberIfAvailableParkingNumberWrongArgumentTest (){
         //given
-        when(inputReaderUtil.readSelection()).thenReturn(3);
+        when(inputReaderUtil.readSelection()).thenReturn(7);
 
         //when
-        ParkingSpot parkingSpot = parkingService.getNextParkingNumberIfAvailable();
+        ParkingSpot parkingSpot = parkingService.takeNextParkingSpot();
 
         //then
         assertNull(parkingSpot);
         verify(inputReaderUtil,times(1)).readSelection();
-        verify(parkingSpotDAO, times(0)).getNextAvailableSlot(any(ParkingType.class));
+        verify(parkingSpotDAO, times(0)).takeNextAvailableSlot(any(ParkingType.class));
     }
 
     @Test
@@ -207,7 +229,7 @@ class ParkingServiceTest {
         ticket.setParkingSpot(parkingSpot);
         ticket.setVehicleRegNumber(vehicleRegNumber);
         ticket.setIsRegularCustomer(true);
-        ticket.setInTime(new Date(1000L));
+        ticket.setInTime(Instant.ofEpochMilli(1000L));
 
         when(inputReaderUtil.readVehicleRegistrationNumber()).thenReturn(vehicleRegNumber);
         when(ticketDAO.getTicketWithRecentInTime(vehicleRegNumber)).thenReturn(ticket);
@@ -229,8 +251,51 @@ class ParkingServiceTest {
         assertNotNull(updatedTicket);
         assertEquals(1, updatedTicket.getParkingSpot().getId());
         assertTrue(updatedTicket.getIsRegularCustomer());
-        assertEquals(new Date(1000L), updatedTicket.getInTime());
-        assertEquals(new Date(360_010_000L), updatedTicket.getOutTime());
+        assertEquals(Instant.ofEpochMilli(1000L), updatedTicket.getInTime());
+        assertEquals(Instant.ofEpochMilli(360_010_000L), updatedTicket.getOutTime());
+    }
+
+    @Test
+    @DisplayName("should give the original ticket back to a retried exit without processing it again")
+    void processRetriedExitingVehicleTest() throws Exception {
+        //given
+        final String vehicleRegNumber ="ABCDEF";
+        final Ticket ticket = new Ticket();
+        ticket.setParkingSpot(new ParkingSpot(1,ParkingType.CAR,false));
+        ticket.setVehicleRegNumber(vehicleRegNumber);
+        ticket.setInTime(Instant.ofEpochMilli(1000L));
+
+        when(inputReaderUtil.readVehicleRegistrationNumber()).thenReturn(vehicleRegNumber);
+        when(ticketDAO.getTicketWithRecentInTime(vehicleRegNumber)).thenReturn(ticket);
+        when(clock.millis()).thenReturn(360_010_000L);
+        when(ticketDAO.updateTicket(ticket)).thenReturn(true);
+
+        //when
+        Ticket exit = parkingService.processExitingVehicle("barrier-1:42");
+        Ticket retriedExit = parkingService.processExitingVehicle("barrier-1:42");
+
+        //then
+        assertSame(exit, retriedExit);
+        verify(inputReaderUtil, times(1)).readVehicleRegistrationNumber();
+        verify(ticketDAO, times(1)).getTicketWithRecentInTime(vehicleRegNumber);
+        verify(ticketDAO, times(1)).updateTicket(ticket);
+    }
+
+    @Test
+    @DisplayName("should reject an entry as busy without touching the database when the gate is full")
+    void processIncomingVehicleWhenBusyTest() {
+        //given
+        AdmissionController admissionController = new AdmissionController(1, 10);
+        parkingService.setAdmissionController(admissionController);
+        AdmissionController.Permit runningEntry = admissionController.admit(GateOperation.ENTRY);
+
+        //when
+        GateBusyException exception = assertThrows(GateBusyException.class, () -> parkingService.processIncomingVehicle());
+        runningEntry.close();
+
+        //then
+        assertEquals(GateOperation.ENTRY, exception.getOperation());
+        verifyNoInteractions(inputReaderUtil, parkingSpotDAO, ticketDAO);
     }
 
     @Test
@@ -239,7 +304,7 @@ class ParkingServiceTest {
         //given
         final String vehicleRegNumber ="ABCDEF";
         final ParkingSpot parkingSpot = new ParkingSpot(1,ParkingType.CAR,false);
-        final Date inTime = new Date(1000L);
+        final Instant inTime = Instant.ofEpochMilli(1000L);
         final Ticket ticket = new Ticket();
         ticket.setParkingSpot(parkingSpot);
         ticket.setInTime(inTime);
@@ -265,20 +330,60 @@ class ParkingServiceTest {
         assertFalse(updatedTicket.getIsRegularCustomer());
     }
 
+    @Test
+    @DisplayName("should not count the visits of a vehicle exiting without ticket")
+    void processExitingVehicleWithoutTicketTest() throws Exception {
+        //given
+        final String vehicleRegNumber = "ABCDEF";
+        when(inputReaderUtil.readVehicleRegistrationNumber()).thenReturn(vehicleRegNumber);
+        when(ticketDAO.getTicketWithRecentInTime(vehicleRegNumber)).thenReturn(null);
+
+        //when
+        Ticket ticket = parkingService.processExitingVehicle();
+
+        //then
+        assertNull(ticket);
+        verify(ticketDAO, never()).getNbTickets(anyString());
+        verify(ticketDAO, never()).updateTicket(any(Ticket.class));
+    }
+
     @Test
     @DisplayName("should do nothing if parkingSpot is null")
     void ShouldDoNothingIfParkingSpotIsNullTest() throws Exception {
         //given
-        when(parkingSpotDAO.getNextAvailableSlot(ParkingType.BIKE)).thenReturn(0);
+        when(parkingSpotDAO.takeNextAvailableSlot(ParkingType.BIKE)).thenReturn(0);
         when(inputReaderUtil.readSelection()).thenReturn(2);
         //when
         parkingService.processIncomingVehicle();
         //then
-        verify(parkingSpotDAO, times(1)).getNextAvailableSlot(ParkingType.BIKE);
+        verify(parkingSpotDAO, times(1)).takeNextAvailableSlot(ParkingType.BIKE);
         verify(ticketDAO, times(0)).saveTicket(any(Ticket.class));
         verify(inputReaderUtil, times(0)).readVehicleRegistrationNumber();
     }
 
+    @Test
+    @DisplayName("should let a vehicle holding a spot enter when the parking is full")
+    void processIncomingVehicleWithHeldSpotTest() throws Exception {
+        //given
+        final String vehicleRegistrationNumber = "ABCDEF";
+        ReservationService reservationService = mock(ReservationService.class);
+        parkingService.setReservationService(reservationService);
+        when(inputReaderUtil.readSelection()).thenReturn(1);
+        when(parkingSpotDAO.takeNextAvailableSlot(ParkingType.CAR)).thenReturn(0);
+        when(inputReaderUtil.readVehicleRegistrationNumber()).thenReturn(vehicleRegistrationNumber);
+        when(reservationService.redeem(vehicleRegistrationNumber)).thenReturn(new ParkingSpot(4, ParkingType.CAR, false));
+        when(ticketDAO.getNbTickets(vehicleRegistrationNumber)).thenReturn(0);
+        when(ticketDAO.saveTicket(any(Ticket.class))).thenReturn(true);
+
+        //when
+        Ticket ticket = parkingService.processIncomingVehicle();
+
+        //then
+        verify(ticketDAO, times(1)).saveTicket(any(Ticket.class));
+        assertEquals(4, ticket.getParkingSpot().getId());
+        assertFalse(ticket.getParkingSpot().isAvailable());
+    }
+
     @Test
     @DisplayName("should throw Illegal Argument Exception if outTime is already set")
     void ShouldThrowIllegalArgumentExceptionIfOutTimeIsAlreadySetTest() throws Exception {
@@ -288,8 +393,8 @@ class ParkingServiceTest {
         Ticket ticket = new Ticket();
         ticket.setVehicleRegNumber(vehicleRegNumber);
         ticket.setParkingSpot(parkingSpot);
-        ticket.setInTime(new Date(1000L));
-        ticket.setOutTime(new Date(1500L));
+        ticket.setInTime(Instant.ofEpochMilli(1000L));
+        ticket.setOutTime(Instant.ofEpochMilli(1500L));
 
         when(inputReaderUtil.readVehicleRegistrationNumber()).thenReturn(vehicleRegNumber);
         when(ticketDAO.getTicketWithRecentInTime(vehicleRegNumber)).thenReturn(ticket);
@@ -0,0 +1,109 @@
+package com.parkit.parkingsystem;
+
+import com.parkit.parkingsystem.constants.GateOperation;
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.dao.InMemoryParkingSpotDAO;
+import com.parkit.parkingsystem.dao.InMemoryTicketDAO;
+import com.parkit.parkingsystem.service.FareCalculatorService;
+import com.parkit.parkingsystem.service.ReplayReport;
+import com.parkit.parkingsystem.service.ReplayService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplayServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private InMemoryParkingSpotDAO parkingSpotDAO;
+    private InMemoryTicketDAO ticketDAO;
+    private ReplayService replayService;
+
+    @BeforeEach
+    void setUp() {
+        parkingSpotDAO = new InMemoryParkingSpotDAO();
+        parkingSpotDAO.addParkingSpot(1, ParkingType.CAR, true);
+        parkingSpotDAO.addParkingSpot(2, ParkingType.CAR, true);
+        parkingSpotDAO.addParkingSpot(4, ParkingType.BIKE, true);
+        ticketDAO = new InMemoryTicketDAO();
+        replayService = new ReplayService(parkingSpotDAO, ticketDAO, new FareCalculatorService());
+    }
+
+    @Test
+    @DisplayName("should replay entries and exits with the recorded timestamps and report the final lot state")
+    void replayEventLog() throws Exception {
+        //given
+        Path eventLog = write("# timestamp,operation,vehicleType,vehicleRegNumber",
+                "0,ENTRY,CAR,ABC123",
+                "1970-01-01T00:10:00Z,ENTRY,BIKE,XYZ789",
+                "",
+                "3600000,EXIT,,ABC123",
+                "3700000,ENTRY,car,DEF456");
+
+        //when
+        ReplayReport report = replayService.replay(eventLog, false);
+
+        //then
+        assertEquals(4, report.getEventCount());
+        assertEquals(0, report.getFailureCount(GateOperation.ENTRY));
+        assertEquals(0, report.getFailureCount(GateOperation.EXIT));
+        assertEquals(3, report.getLatency(GateOperation.ENTRY).getCount());
+        assertEquals(Arrays.asList(1, 4), Arrays.asList(report.getOccupiedSpots().keySet().toArray()));
+        assertEquals(1.5, ticketDAO.getTicketWithRecentInTime("ABC123").getPrice());
+        assertTrue(report.getThroughputPerSecond() > 0);
+    }
+
+    @Test
+    @DisplayName("should count an exit without ticket as a failure")
+    void replayExitWithoutTicket() throws Exception {
+        //given
+        Path eventLog = write("0,EXIT,,UNKNOWN");
+
+        //when
+        ReplayReport report = replayService.replay(eventLog, false);
+
+        //then
+        assertEquals(1, report.getFailureCount(GateOperation.EXIT));
+        assertTrue(report.getOccupiedSpots().isEmpty());
+    }
+
+    @Test
+    @DisplayName("should space the events out as recorded when replaying at wall speed")
+    void replayAtWallSpeed() throws Exception {
+        //given
+        Path eventLog = write("1000,ENTRY,CAR,ABC123", "1300,EXIT,,ABC123");
+
+        //when
+        long start = System.nanoTime();
+        replayService.replay(eventLog, true);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        //then
+        assertTrue(elapsedMillis >= 300, "replay took " + elapsedMillis + "ms");
+    }
+
+    @Test
+    @DisplayName("should reject a malformed event line")
+    void replayMalformedEventLog() throws Exception {
+        //given
+        Path eventLog = write("0,ENTRY,,ABC123");
+
+        //when & then
+        assertThrows(IllegalArgumentException.class, () -> replayService.replay(eventLog, false));
+    }
+
+    private Path write(String... lines) throws Exception {
+        Path eventLog = tempDir.resolve("events.csv");
+        Files.write(eventLog, Arrays.asList(lines), StandardCharsets.UTF_8);
+        return eventLog;
+    }
+}
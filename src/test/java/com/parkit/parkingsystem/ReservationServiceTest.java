@@ -0,0 +1,97 @@
+package com.parkit.parkingsystem;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.constants.ReservationState;
+import com.parkit.parkingsystem.dao.InMemoryParkingSpotDAO;
+import com.parkit.parkingsystem.model.ParkingSpot;
+import com.parkit.parkingsystem.model.Reservation;
+import com.parkit.parkingsystem.service.ReservationService;
+import com.parkit.parkingsystem.util.ReplayClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReservationServiceTest {
+
+    private static final long START = 1_600_000_000_000L;
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+    private InMemoryParkingSpotDAO parkingSpotDAO;
+    private ReplayClock clock;
+    private ReservationService reservationService;
+
+    @BeforeEach
+    void setUp() {
+        parkingSpotDAO = new InMemoryParkingSpotDAO();
+        parkingSpotDAO.addParkingSpot(1, ParkingType.CAR, true);
+        parkingSpotDAO.addParkingSpot(2, ParkingType.CAR, true);
+        parkingSpotDAO.addParkingSpot(3, ParkingType.BIKE, true);
+        clock = new ReplayClock();
+        clock.setMillis(START);
+        reservationService = new ReservationService(parkingSpotDAO, clock);
+    }
+
+    @Test
+    @DisplayName("should skip a held spot and make it available again when the hold expires")
+    void holdExpiryTest() {
+        //given
+        Reservation reservation = reservationService.holdSpot("ABCDEF", 1, START, START + 15 * MINUTE);
+
+        //when
+        int nextSlotWhileHeld = parkingSpotDAO.getNextAvailableSlot(ParkingType.CAR);
+        clock.setMillis(START + 15 * MINUTE);
+        reservationService.advance();
+
+        //then
+        assertEquals(2, nextSlotWhileHeld);
+        assertEquals(ReservationState.EXPIRED, reservation.getState());
+        assertEquals(1, parkingSpotDAO.getNextAvailableSlot(ParkingType.CAR));
+        assertEquals(0, reservationService.getHoldCount());
+        assertNull(reservationService.redeem("ABCDEF"));
+    }
+
+    @Test
+    @DisplayName("should claim a spot of the type when the window opens and hand it to the vehicle")
+    void futureHoldTest() {
+        //given
+        Reservation reservation = reservationService.holdSpotType("ABCDEF", ParkingType.BIKE, START + 60 * MINUTE, START + 90 * MINUTE);
+
+        //when
+        ParkingSpot beforeWindow = reservationService.redeem("ABCDEF");
+        clock.setMillis(START + 60 * MINUTE);
+        reservationService.advance();
+        ParkingSpot inWindow = reservationService.redeem("ABCDEF");
+        clock.setMillis(START + 120 * MINUTE);
+        reservationService.advance();
+
+        //then
+        assertNull(beforeWindow);
+        assertEquals(3, inWindow.getId());
+        assertFalse(inWindow.isAvailable());
+        assertEquals(ReservationState.REDEEMED, reservation.getState());
+        assertFalse(parkingSpotDAO.getParkingSpot(3).isAvailable());
+    }
+
+    @Test
+    @DisplayName("should fail a hold when its spot is taken and release a cancelled hold")
+    void failedAndCancelledHoldTest() {
+        //given
+        parkingSpotDAO.updateParking(new ParkingSpot(1, ParkingType.CAR, false));
+        Reservation failed = reservationService.holdSpot("ABCDEF", 1, START, START + MINUTE);
+        Reservation cancelled = reservationService.holdSpot("GHIJKL", 2, START, START + MINUTE);
+
+        //when
+        boolean wasCancelled = reservationService.cancel("GHIJKL");
+
+        //then
+        assertEquals(ReservationState.FAILED, failed.getState());
+        assertTrue(wasCancelled);
+        assertEquals(ReservationState.CANCELLED, cancelled.getState());
+        assertTrue(parkingSpotDAO.getParkingSpot(2).isAvailable());
+        assertThrows(IllegalArgumentException.class, () -> reservationService.holdSpot("ABCDEF", 9, START, START + MINUTE));
+    }
+}
@@ -0,0 +1,89 @@
+package com.parkit.parkingsystem;
+
+import com.parkit.parkingsystem.config.ParkingTypeCatalog;
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.service.FareCalculatorService;
+import com.parkit.parkingsystem.service.TariffAnalysisReport;
+import com.parkit.parkingsystem.service.TariffAnalysisService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TariffAnalysisServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("should re-price the closed tickets of an export under the new rates with the discount of returning vehicles")
+    void analyzeExportTest() throws Exception {
+        //given
+        Path export = tempDir.resolve("tickets.csv");
+        Files.write(export, Arrays.asList(
+                "ID,PARKING_NUMBER,TYPE,VEHICLE_REG_NUMBER,PRICE,IN_TIME,OUT_TIME",
+                "1,1,CAR,ABCDEF,1.5,2024-03-01 10:00:00,2024-03-01 11:00:00",
+                "2,4,BIKE,GHIJKL,0.0,2024-03-01 10:00:00,2024-03-01 10:20:00",
+                "3,1,CAR,ABCDEF,2.85,2024-03-02 10:00:00,2024-03-02 12:00:00",
+                "4,2,CAR,MNOPQR,0.0,2024-03-02 10:00:00,\\N",
+                "5,2,CAR,STUVWX,1.5,2024-03-03 10:00:00,2024-03-03 09:00:00",
+                "not a ticket"), StandardCharsets.UTF_8);
+        TariffAnalysisService tariffAnalysisService = new TariffAnalysisService(new FareCalculatorService(rates(3.0)), 2);
+
+        //when
+        TariffAnalysisReport report = tariffAnalysisService.analyzeExport(export);
+
+        //then
+        assertEquals(3, report.getTicketCount());
+        assertEquals(1, report.getSkippedCount());
+        assertEquals(1.0 / 3, report.getFreeShare(), 1e-9);
+        assertEquals(3.0 + 5.7, report.getHypotheticalRevenue(ParkingType.CAR), 1e-9);
+        assertEquals(1.5 + 2.85, report.getRecordedRevenue(ParkingType.CAR), 1e-9);
+        assertEquals(8.7 - 4.35, report.getRevenueDelta(), 1e-9);
+        long[] dwellHistogram = report.getDwellHistogram();
+        assertEquals(1, dwellHistogram[1]);
+        assertEquals(1, dwellHistogram[4]);
+        assertEquals(1, dwellHistogram[8]);
+        assertEquals(135, report.getDwellPercentileMinutes(100));
+    }
+
+    @Test
+    @DisplayName("should give the same figures whatever the number of threads")
+    void parallelismTest() throws Exception {
+        //given
+        Path export = tempDir.resolve("tickets.csv");
+        List<String> lines = new ArrayList<>();
+        for (int id = 1; id <= 100_000; id++) {
+            int minutes = (id * 37) % (26 * 60);
+            lines.add(id + "," + (id % 50 + 1) + "," + (id % 3 == 0 ? "BIKE" : "CAR") + ",PLATE" + (id % 7_919) + ",1.0,"
+                    + "2024-03-01 00:00:00,2024-03-0" + (1 + minutes / (24 * 60)) + " " + String.format("%02d:%02d:00", minutes / 60 % 24, minutes % 60));
+        }
+        Files.write(export, lines, StandardCharsets.UTF_8);
+
+        //when
+        TariffAnalysisReport sequential = new TariffAnalysisService(new FareCalculatorService(rates(2.0)), 1).analyzeExport(export);
+        TariffAnalysisReport parallel = new TariffAnalysisService(new FareCalculatorService(rates(2.0)), 4).analyzeExport(export);
+
+        //then
+        assertEquals(100_000, parallel.getTicketCount());
+        assertArrayEquals(sequential.getDwellHistogram(), parallel.getDwellHistogram());
+        assertEquals(sequential.getFreeShare(), parallel.getFreeShare());
+        assertEquals(sequential.getHypotheticalRevenue(), parallel.getHypotheticalRevenue(), 1e-6);
+    }
+
+    private static ParkingTypeCatalog rates(double carRate) {
+        Properties properties = new Properties();
+        properties.setProperty("CAR.rate", String.valueOf(carRate));
+        properties.setProperty("BIKE.rate", "1.0");
+        return new ParkingTypeCatalog(properties);
+    }
+}
@@ -0,0 +1,86 @@
+package com.parkit.parkingsystem;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.dao.InMemoryTrafficSummaryDAO;
+import com.parkit.parkingsystem.dao.TrafficSummaryDAO;
+import com.parkit.parkingsystem.model.HourlyTraffic;
+import com.parkit.parkingsystem.model.ParkingSpot;
+import com.parkit.parkingsystem.model.Ticket;
+import com.parkit.parkingsystem.service.TrafficAggregator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrafficAggregatorTest {
+
+    private static final long HOUR = HourlyTraffic.HOUR_MILLIS;
+    private static final long DAY_START = 1_600_041_600_000L;
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+    private TrafficSummaryDAO trafficSummaryDAO;
+    private TrafficAggregator trafficAggregator;
+
+    @BeforeEach
+    void setUp() {
+        trafficSummaryDAO = new InMemoryTrafficSummaryDAO();
+        trafficAggregator = new TrafficAggregator(trafficSummaryDAO);
+    }
+
+    @Test
+    @DisplayName("should count the revenue in the hour of the exit and the parked time in every hour of the stay")
+    void hourlyTrafficTest() {
+        //given
+        trafficAggregator.onExit(ticket(ParkingType.CAR, DAY_START + 30 * MINUTE, DAY_START + 2 * HOUR + 15 * MINUTE, 3.0));
+        trafficAggregator.onExit(ticket(ParkingType.CAR, DAY_START + 2 * HOUR, DAY_START + 2 * HOUR + 45 * MINUTE, 1.5));
+        trafficAggregator.onExit(ticket(ParkingType.BIKE, DAY_START, DAY_START + HOUR, 1.0));
+
+        //when
+        List<HourlyTraffic> cars = trafficAggregator.getHourlyTraffic(ParkingType.CAR, DAY_START, DAY_START + 24 * HOUR);
+
+        //then
+        assertEquals(3, cars.size());
+        assertEquals(0.5, cars.get(0).getAverageOccupancy());
+        assertEquals(0, cars.get(0).getExits());
+        assertEquals(1.0, cars.get(1).getAverageOccupancy());
+        assertEquals(DAY_START + 2 * HOUR, cars.get(2).getHourStartMillis());
+        assertEquals(1.0, cars.get(2).getAverageOccupancy());
+        assertEquals(2, cars.get(2).getExits());
+        assertEquals(4.5, cars.get(2).getRevenue());
+        assertEquals(1, trafficSummaryDAO.getHourlyTraffic(ParkingType.BIKE, DAY_START, DAY_START + HOUR).size());
+    }
+
+    @Test
+    @DisplayName("should add up the hours flushed at different times and keep a stay longer than the ring")
+    void flushTest() {
+        //given
+        trafficAggregator.onExit(ticket(ParkingType.CAR, DAY_START, DAY_START + 30 * MINUTE, 1.5));
+        trafficAggregator.flush();
+        trafficAggregator.onExit(ticket(ParkingType.CAR, DAY_START - 10 * 24 * HOUR, DAY_START + 30 * MINUTE, 100.0));
+
+        //when
+        List<HourlyTraffic> cars = trafficAggregator.getHourlyTraffic(ParkingType.CAR, DAY_START - 10 * 24 * HOUR, DAY_START + HOUR);
+
+        //then
+        assertEquals(10 * 24 + 1, cars.size());
+        HourlyTraffic lastHour = cars.get(cars.size() - 1);
+        assertEquals(1.0, lastHour.getAverageOccupancy());
+        assertEquals(2, lastHour.getExits());
+        assertEquals(101.5, lastHour.getRevenue());
+        assertTrue(cars.stream().allMatch(hour -> hour.getOccupiedMillis() >= HOUR));
+    }
+
+    private static Ticket ticket(ParkingType parkingType, long inTime, long outTime, double price) {
+        Ticket ticket = new Ticket();
+        ticket.setParkingSpot(new ParkingSpot(1, parkingType, true));
+        ticket.setVehicleRegNumber("ABCDEF");
+        ticket.setInTimeMillis(inTime);
+        ticket.setOutTimeMillis(outTime);
+        ticket.setPrice(price);
+        return ticket;
+    }
+}
@@ -0,0 +1,90 @@
+package com.parkit.parkingsystem.benchmark;
+
+import com.parkit.parkingsystem.constants.GateOperation;
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.dao.DAOFactory;
+import com.parkit.parkingsystem.dao.TicketDAO;
+import com.parkit.parkingsystem.integration.config.DataBaseTestConfig;
+import com.parkit.parkingsystem.integration.service.DataBaseSeeder;
+import com.parkit.parkingsystem.model.GateEvent;
+import com.parkit.parkingsystem.model.Ticket;
+import com.parkit.parkingsystem.service.FareCalculatorService;
+import com.parkit.parkingsystem.service.ParkingService;
+import com.parkit.parkingsystem.util.ReplayClock;
+import com.parkit.parkingsystem.util.ReplayInputReaderUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the JDBC DAOs and a whole entry and exit on an embedded MySQL-mode database seeded with a lot of
+ * {@code spots} spots and {@code tickets} closed tickets, so that the figures are comparable between machines.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-D" + DataBaseTestConfig.TEST_DATABASE_PROPERTY + "=h2")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JdbcParkingBenchmark {
+
+    @Param({"5000"})
+    int spots;
+
+    @Param({"1000000"})
+    long tickets;
+
+    @Param({"100000"})
+    int vehicles;
+
+    private TicketDAO ticketDAO;
+    private ParkingService parkingService;
+    private final ReplayInputReaderUtil inputReaderUtil = new ReplayInputReaderUtil();
+    private final ReplayClock clock = new ReplayClock();
+    private final Random random = new Random(42);
+    private long visitor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        DataBaseTestConfig dataBaseConfig = new DataBaseTestConfig();
+        new DataBaseSeeder(dataBaseConfig).seed(spots * 4 / 5, spots / 5, tickets, vehicles, 42);
+        DAOFactory daoFactory = new DAOFactory(dataBaseConfig);
+        ticketDAO = daoFactory.getTicketDAO();
+        parkingService = new ParkingService(inputReaderUtil, daoFactory.getParkingSpotDAO(), ticketDAO, new FareCalculatorService(), clock);
+    }
+
+    @Benchmark
+    public Ticket getTicketWithRecentInTime() {
+        return ticketDAO.getTicketWithRecentInTime(DataBaseSeeder.vehicle(random.nextInt(vehicles)));
+    }
+
+    @Benchmark
+    public int getNbTickets() {
+        return ticketDAO.getNbTickets(DataBaseSeeder.vehicle(random.nextInt(vehicles)));
+    }
+
+    @Benchmark
+    public Ticket entryAndExit() throws Exception {
+        //returning customers, so that both the loyalty lookups and the ticket writes hit the seeded history
+        String vehicleRegNumber = DataBaseSeeder.vehicle((int) (visitor++ % vehicles));
+        long inTime = System.currentTimeMillis();
+        clock.setMillis(inTime);
+        inputReaderUtil.setEvent(new GateEvent(inTime, GateOperation.ENTRY, ParkingType.CAR, vehicleRegNumber));
+        parkingService.processIncomingVehicle();
+        clock.setMillis(inTime + TimeUnit.HOURS.toMillis(1));
+        inputReaderUtil.setEvent(new GateEvent(inTime, GateOperation.EXIT, null, vehicleRegNumber));
+        return parkingService.processExitingVehicle();
+    }
+}
@@ -0,0 +1,139 @@
+package com.parkit.parkingsystem.benchmark;
+
+import com.parkit.parkingsystem.util.PlateCodec;
+import com.parkit.parkingsystem.util.collections.ConcurrentLongLongMap;
+import com.parkit.parkingsystem.util.collections.LongLongMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the primitive maps with the JDK maps on plate keys. The lookup benchmarks measure the time of a
+ * lookup; run with {@code -prof gc} the build benchmarks report, as gc.alloc.rate.norm, the bytes allocated to
+ * fill a map, which is its footprint plus the arrays dropped while it grew.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PrimitiveMapBenchmark {
+
+    @Param({"10000", "1000000"})
+    int size;
+
+    private long[] keys;
+    private long[] lookups;
+    private LongLongMap longLongMap;
+    private ConcurrentLongLongMap concurrentLongLongMap;
+    private Map<Long, Long> hashMap;
+    private Map<Long, Long> concurrentHashMap;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = PlateCodec.key("AB" + (100_000_000 + random.nextInt(900_000_000)));
+        }
+        lookups = new long[1 << 16];
+        for (int i = 0; i < lookups.length; i++) {
+            lookups[i] = keys[random.nextInt(size)];
+        }
+        longLongMap = buildLongLongMap();
+        concurrentLongLongMap = buildConcurrentLongLongMap();
+        hashMap = buildHashMap();
+        concurrentHashMap = buildConcurrentHashMap();
+    }
+
+    private long nextKey() {
+        next = (next + 1) & (lookups.length - 1);
+        return lookups[next];
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long lookupLongLongMap() {
+        return longLongMap.get(nextKey());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Long lookupHashMap() {
+        return hashMap.get(nextKey());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long lookupConcurrentLongLongMap() {
+        return concurrentLongLongMap.get(nextKey());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Long lookupConcurrentHashMap() {
+        return concurrentHashMap.get(nextKey());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public LongLongMap buildLongLongMap() {
+        LongLongMap map = new LongLongMap(-1);
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], i);
+        }
+        return map;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Map<Long, Long> buildHashMap() {
+        Map<Long, Long> map = new HashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], (long) i);
+        }
+        return map;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ConcurrentLongLongMap buildConcurrentLongLongMap() {
+        ConcurrentLongLongMap map = new ConcurrentLongLongMap(16, -1);
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], i);
+        }
+        return map;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Map<Long, Long> buildConcurrentHashMap() {
+        Map<Long, Long> map = new ConcurrentHashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], (long) i);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,71 @@
+package com.parkit.parkingsystem.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataBaseConfigTest {
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void tearDown() {
+        System.clearProperty(DataBaseConfig.CONFIG_FILE_PROPERTY);
+        System.clearProperty(DataBaseConfig.DB_POOL_SIZE_PROPERTY);
+        System.clearProperty(DataBaseConfig.DRIVER_PROPERTY_PREFIX + "socketTimeout");
+    }
+
+    @Test
+    @DisplayName("should read the settings from the system properties first, then the settings file, then the defaults")
+    void settingPrecedenceTest() throws Exception {
+        //given
+        Path file = directory.resolve("parkit.properties");
+        Files.write(file, Arrays.asList(
+                "parkit.db.url=jdbc:mysql://db.site:3306/prod",
+                "parkit.db.pool.size=4",
+                "parkit.layout.zones=3"), StandardCharsets.UTF_8);
+        System.setProperty(DataBaseConfig.CONFIG_FILE_PROPERTY, file.toString());
+        System.setProperty(DataBaseConfig.DB_POOL_SIZE_PROPERTY, "20");
+
+        //when
+        DataBaseConfig dataBaseConfig = new DataBaseConfig();
+
+        //then
+        assertEquals("jdbc:mysql://db.site:3306/prod", dataBaseConfig.getUrl());
+        assertEquals(20, dataBaseConfig.getPoolSize());
+        assertEquals(20, dataBaseConfig.getPoolMinIdle());
+        assertEquals(3, dataBaseConfig.getZoneCount());
+        assertEquals(3000, dataBaseConfig.getConnectionTimeoutMillis());
+    }
+
+    @Test
+    @DisplayName("should pass the prefixed settings to the driver without their prefix")
+    void driverPropertiesTest() throws Exception {
+        //given
+        Path file = directory.resolve("parkit.properties");
+        Files.write(file, Arrays.asList(
+                "parkit.db.property.cachePrepStmts=true",
+                "parkit.db.property.socketTimeout=10000",
+                "parkit.db.url=jdbc:mysql://db.site:3306/prod"), StandardCharsets.UTF_8);
+        System.setProperty(DataBaseConfig.CONFIG_FILE_PROPERTY, file.toString());
+        System.setProperty(DataBaseConfig.DRIVER_PROPERTY_PREFIX + "socketTimeout", "5000");
+
+        //when
+        Properties driverProperties = new DataBaseConfig().getDriverProperties();
+
+        //then
+        assertEquals(2, driverProperties.size());
+        assertEquals("true", driverProperties.getProperty("cachePrepStmts"));
+        assertEquals("5000", driverProperties.getProperty("socketTimeout"));
+    }
+}
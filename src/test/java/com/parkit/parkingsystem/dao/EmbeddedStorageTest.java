@@ -0,0 +1,129 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.model.ParkingSpot;
+import com.parkit.parkingsystem.model.Ticket;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmbeddedStorageTest {
+
+    @TempDir
+    Path dataDirectory;
+
+    @Test
+    @DisplayName("should rebuild spots and tickets from the log after a restart")
+    void restartTest() throws Exception {
+        //given
+        try (EmbeddedStorage storage = new EmbeddedStorage(dataDirectory, layout())) {
+            enter(storage, "ABCDEF", 1_000L);
+            Ticket ticket = storage.getTicketWithRecentInTime("ABCDEF");
+            ticket.setPrice(1.5);
+            ticket.setOutTime(Instant.ofEpochMilli(3_601_000L));
+            storage.updateTicket(ticket);
+            storage.updateParking(new ParkingSpot(1, ParkingType.CAR, true));
+            enter(storage, "GHIJKL", 5_000L);
+        }
+
+        //when
+        try (EmbeddedStorage storage = new EmbeddedStorage(dataDirectory, layout())) {
+
+            //then
+            assertEquals(2, storage.getNextAvailableSlot(ParkingType.CAR));
+            assertEquals(3, storage.getNextAvailableSlot(ParkingType.BIKE));
+            Ticket ticket = storage.getTicketWithRecentInTime("ABCDEF");
+            assertEquals(1.5, ticket.getPrice());
+            assertEquals(Instant.ofEpochMilli(3_601_000L), ticket.getOutTime());
+            assertEquals(1, storage.getNbTickets("GHIJKL"));
+            assertNull(storage.getTicketWithRecentInTime("GHIJKL").getOutTime());
+        }
+    }
+
+    @Test
+    @DisplayName("should drop a record cut short by a crash and keep the ones before it")
+    void tornRecordRecoveryTest() throws Exception {
+        //given
+        try (EmbeddedStorage storage = new EmbeddedStorage(dataDirectory, layout())) {
+            enter(storage, "ABCDEF", 1_000L);
+        }
+        Path segment = segments().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 42, 1, 2}));
+        }
+        long tornSize = Files.size(segment);
+
+        //when
+        try (EmbeddedStorage storage = new EmbeddedStorage(dataDirectory, layout())) {
+
+            //then
+            assertEquals(tornSize - 6, Files.size(segment));
+            assertEquals(1, storage.getNbTickets("ABCDEF"));
+            enter(storage, "GHIJKL", 2_000L);
+        }
+        try (EmbeddedStorage storage = new EmbeddedStorage(dataDirectory, layout())) {
+            assertEquals(1, storage.getNbTickets("GHIJKL"));
+        }
+    }
+
+    @Test
+    @DisplayName("should keep the same state after compacting the log into a single segment")
+    void compactionTest() throws Exception {
+        //given
+        try (EmbeddedStorage storage = new EmbeddedStorage(dataDirectory, layout())) {
+            for (int i = 0; i < 50; i++) {
+                storage.updateParking(new ParkingSpot(2, ParkingType.CAR, i % 2 == 1));
+            }
+            enter(storage, "ABCDEF", 1_000L);
+
+            //when
+            storage.compact();
+        }
+
+        //then
+        assertEquals(1, segments().size());
+        try (EmbeddedStorage storage = new EmbeddedStorage(dataDirectory, layout())) {
+            assertEquals(2, storage.getNextAvailableSlot(ParkingType.CAR));
+            assertEquals(1, storage.getNbTickets("ABCDEF"));
+        }
+    }
+
+    private static void enter(EmbeddedStorage storage, String vehicleRegNumber, long inTime) {
+        int number = storage.getNextAvailableSlot(ParkingType.CAR);
+        ParkingSpot parkingSpot = new ParkingSpot(number, ParkingType.CAR, false);
+        storage.updateParking(parkingSpot);
+        Ticket ticket = new Ticket();
+        ticket.setParkingSpot(parkingSpot);
+        ticket.setVehicleRegNumber(vehicleRegNumber);
+        ticket.setInTime(Instant.ofEpochMilli(inTime));
+        assertTrue(storage.saveTicket(ticket));
+    }
+
+    private static Map<ParkingType, Integer> layout() {
+        Map<ParkingType, Integer> layout = new EnumMap<>(ParkingType.class);
+        layout.put(ParkingType.CAR, 2);
+        layout.put(ParkingType.BIKE, 1);
+        return layout;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dataDirectory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.model.CustomerStats;
+import com.parkit.parkingsystem.model.ParkingSpot;
+import com.parkit.parkingsystem.model.Ticket;
+import com.parkit.parkingsystem.util.CircuitBreaker;
+import com.parkit.parkingsystem.util.ReplayClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FailoverStorageTest {
+
+    @TempDir
+    Path journalDirectory;
+
+    private ReplayClock clock;
+    private CircuitBreaker circuitBreaker;
+    private InMemoryParkingSpotDAO databaseSpots;
+    private InMemoryTicketDAO databaseTickets;
+    private Database database;
+
+    //the in-memory DAOs standing for MySQL, failing like the JDBC DAOs while the database is down
+    private final class Database implements ParkingSpotDAO, TicketDAO {
+        boolean down;
+        //answers but refuses the changes, like an update matching no row
+        boolean refusing;
+        //answers but fails the queries, like a lock wait timeout
+        boolean failing;
+
+        private boolean call() {
+            if (down) {
+                circuitBreaker.recordFailure();
+                return false;
+            }
+            circuitBreaker.recordSuccess();
+            return true;
+        }
+
+        private boolean change() {
+            return call() && !refusing;
+        }
+
+        @Override
+        public int getNextAvailableSlot(ParkingType parkingType) {
+            return call() && !failing ? databaseSpots.getNextAvailableSlot(parkingType) : -1;
+        }
+
+        @Override
+        public int takeNextAvailableSlot(ParkingType parkingType) {
+            return call() && !failing ? databaseSpots.takeNextAvailableSlot(parkingType) : -1;
+        }
+
+        @Override
+        public boolean takeParkingSpot(int number) {
+            return change() && databaseSpots.takeParkingSpot(number);
+        }
+
+        @Override
+        public ParkingSpot getParkingSpot(int number) {
+            return call() ? databaseSpots.getParkingSpot(number) : null;
+        }
+
+        @Override
+        public List<ParkingSpot> getParkingSpots() {
+            return call() ? databaseSpots.getParkingSpots() : Collections.emptyList();
+        }
+
+        @Override
+        public boolean updateParking(ParkingSpot parkingSpot) {
+            return change() && databaseSpots.updateParking(parkingSpot);
+        }
+
+        @Override
+        public boolean saveTicket(Ticket ticket) {
+            return change() && databaseTickets.saveTicket(ticket);
+        }
+
+        @Override
+        public Ticket getTicketWithRecentInTime(String vehicleRegNumber) {
+            return call() ? databaseTickets.getTicketWithRecentInTime(vehicleRegNumber) : null;
+        }
+
+        @Override
+        public boolean updateTicket(Ticket ticket) {
+            return change() && databaseTickets.updateTicket(ticket);
+        }
+
+        @Override
+        public int getNbTickets(String vehicleRegNumber) {
+            return call() ? databaseTickets.getNbTickets(vehicleRegNumber) : 0;
+        }
+
+        @Override
+        public CustomerStats getCustomerStats(String vehicleRegNumber) {
+            return call() ? databaseTickets.getCustomerStats(vehicleRegNumber) : null;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        clock = new ReplayClock();
+        clock.setMillis(0);
+        circuitBreaker = new CircuitBreaker(clock, 1, 5_000);
+        databaseSpots = new InMemoryParkingSpotDAO();
+        databaseSpots.addParkingSpot(1, ParkingType.CAR, true);
+        databaseSpots.addParkingSpot(2, ParkingType.CAR, true);
+        databaseTickets = new InMemoryTicketDAO();
+        database = new Database();
+    }
+
+    @Test
+    @DisplayName("should serve the gates from memory while the database is down and replay the changes once it is back")
+    void offlineEntryAndExitTest() throws Exception {
+        //given
+        try (FailoverStorage storage = open()) {
+            database.down = true;
+
+            //when
+            enter(storage, "ABCDEF", 1_000L);
+            exit(storage, "ABCDEF", 3_601_000L, 1.5);
+
+            //then
+            assertTrue(storage.isOffline());
+            assertEquals(4, storage.getPendingCount());
+            assertNull(databaseTickets.getTicketWithRecentInTime("ABCDEF"));
+
+            //when
+            database.down = false;
+            storage.reconcile();
+            assertTrue(storage.isOffline());
+            clock.setMillis(10_000);
+            storage.reconcile();
+
+            //then
+            assertFalse(storage.isOffline());
+            assertEquals(0, storage.getPendingCount());
+            Ticket ticket = databaseTickets.getTicketWithRecentInTime("ABCDEF");
+            assertEquals(1_000L, ticket.getInTimeMillis());
+            assertEquals(3_601_000L, ticket.getOutTimeMillis());
+            assertEquals(1.5, ticket.getPrice());
+            assertTrue(databaseSpots.getParkingSpot(1).isAvailable());
+        }
+    }
+
+    @Test
+    @DisplayName("should restore the journal after a restart and not duplicate the changes already replayed")
+    void restartTest() throws Exception {
+        //given
+        try (FailoverStorage storage = open()) {
+            database.down = true;
+            enter(storage, "ABCDEF", 1_000L);
+        }
+        //the ticket reached the database but the journal was not compacted before the crash
+        Ticket stored = new Ticket();
+        stored.setParkingSpot(new ParkingSpot(1, ParkingType.CAR, false));
+        stored.setVehicleRegNumber("ABCDEF");
+        stored.setInTimeMillis(1_000L);
+        databaseTickets.saveTicket(stored);
+        database.down = false;
+        circuitBreaker.recordSuccess();
+
+        //when
+        try (FailoverStorage storage = open()) {
+
+            //then
+            assertTrue(storage.isOffline());
+            assertEquals(2, storage.getPendingCount());
+            assertEquals(1_000L, storage.getTicketWithRecentInTime("ABCDEF").getInTimeMillis());
+
+            //when
+            storage.reconcile();
+
+            //then
+            assertFalse(storage.isOffline());
+            assertEquals(1, databaseTickets.getNbTickets("ABCDEF"));
+            assertFalse(databaseSpots.getParkingSpot(1).isAvailable());
+        }
+    }
+
+    @Test
+    @DisplayName("should report a change refused by a reachable database without going offline")
+    void refusedChangeTest() throws Exception {
+        //given
+        try (FailoverStorage storage = open()) {
+            database.refusing = true;
+            Ticket ticket = new Ticket();
+            ticket.setParkingSpot(new ParkingSpot(1, ParkingType.CAR, false));
+            ticket.setVehicleRegNumber("ABCDEF");
+            ticket.setInTimeMillis(1_000L);
+
+            //when
+            boolean saved = storage.saveTicket(ticket);
+            boolean updated = storage.updateParking(new ParkingSpot(1, ParkingType.CAR, false));
+
+            //then
+            assertFalse(saved);
+            assertFalse(updated);
+            assertFalse(storage.isOffline());
+            assertEquals(0, storage.getPendingCount());
+        }
+    }
+
+    @Test
+    @DisplayName("should not hand out a local spot when a reachable database fails to give one")
+    void failedSlotQueryTest() throws Exception {
+        //given
+        try (FailoverStorage storage = open()) {
+            database.failing = true;
+
+            //when
+            int next = storage.getNextAvailableSlot(ParkingType.CAR);
+            int taken = storage.takeNextAvailableSlot(ParkingType.CAR);
+
+            //then
+            assertEquals(-1, next);
+            assertEquals(-1, taken);
+            assertFalse(storage.isOffline());
+            assertEquals(0, storage.getPendingCount());
+            database.failing = false;
+            assertEquals(1, storage.takeNextAvailableSlot(ParkingType.CAR));
+        }
+    }
+
+    @Test
+    @DisplayName("should drop a replayed change refused by the database instead of blocking the journal")
+    void refusedReplayTest() throws Exception {
+        //given
+        try (FailoverStorage storage = open()) {
+            database.down = true;
+            enter(storage, "ABCDEF", 1_000L);
+            assertEquals(2, storage.getPendingCount());
+            database.down = false;
+            database.refusing = true;
+            clock.setMillis(10_000);
+
+            //when
+            storage.reconcile();
+
+            //then
+            assertFalse(storage.isOffline());
+            assertEquals(0, storage.getPendingCount());
+            assertNull(databaseTickets.getTicketWithRecentInTime("ABCDEF"));
+        }
+    }
+
+    @Test
+    @DisplayName("should replay a journal of several batches and delete it once drained")
+    void longJournalTest() throws Exception {
+        //given
+        try (FailoverStorage storage = open()) {
+            database.down = true;
+            for (int change = 0; change < 250; change++) {
+                storage.updateParking(new ParkingSpot(1, ParkingType.CAR, change % 2 == 1));
+            }
+            assertEquals(250, storage.getPendingCount());
+            database.down = false;
+            clock.setMillis(10_000);
+
+            //when
+            storage.reconcile();
+
+            //then
+            assertFalse(storage.isOffline());
+            assertEquals(0, storage.getPendingCount());
+            assertTrue(databaseSpots.getParkingSpot(1).isAvailable());
+        }
+        try (FailoverStorage storage = open()) {
+            assertFalse(storage.isOffline());
+            assertEquals(0, storage.getPendingCount());
+        }
+    }
+
+    private FailoverStorage open() throws Exception {
+        return new FailoverStorage(database, database, circuitBreaker, journalDirectory,
+                databaseSpots.getParkingSpots(), Collections.emptyList());
+    }
+
+    private static void enter(FailoverStorage storage, String vehicleRegNumber, long inTime) {
+        int number = storage.getNextAvailableSlot(ParkingType.CAR);
+        ParkingSpot parkingSpot = new ParkingSpot(number, ParkingType.CAR, false);
+        storage.updateParking(parkingSpot);
+        Ticket ticket = new Ticket();
+        ticket.setParkingSpot(parkingSpot);
+        ticket.setVehicleRegNumber(vehicleRegNumber);
+        ticket.setInTimeMillis(inTime);
+        storage.saveTicket(ticket);
+    }
+
+    private static void exit(FailoverStorage storage, String vehicleRegNumber, long outTime, double price) {
+        Ticket ticket = storage.getTicketWithRecentInTime(vehicleRegNumber);
+        ticket.setOutTimeMillis(outTime);
+        ticket.setPrice(price);
+        storage.updateTicket(ticket);
+        storage.updateParking(ticket.getParkingSpot().withAvailable(true));
+    }
+}
@@ -0,0 +1,104 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.model.CustomerStats;
+import com.parkit.parkingsystem.model.ParkingSpot;
+import com.parkit.parkingsystem.model.Ticket;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryTicketDAOTest {
+
+    private InMemoryTicketDAO ticketDAO;
+
+    @BeforeEach
+    void setUp() {
+        ticketDAO = new InMemoryTicketDAO();
+    }
+
+    @Test
+    @DisplayName("should return the ticket with the most recent in-time and count every ticket of the vehicle")
+    void getTicketWithRecentInTimeTest() {
+        //given
+        ticketDAO.saveTicket(ticket("ABCDEF", 2, 5_000L));
+        ticketDAO.saveTicket(ticket("ABCDEF", 1, 1_000L));
+        ticketDAO.saveTicket(ticket("GHIJKL", 3, 9_000L));
+
+        //when
+        Ticket ticket = ticketDAO.getTicketWithRecentInTime("ABCDEF");
+
+        //then
+        assertEquals(Instant.ofEpochMilli(5_000L), ticket.getInTime());
+        assertEquals(2, ticket.getParkingSpot().getId());
+        assertEquals(2, ticketDAO.getNbTickets("ABCDEF"));
+        assertEquals(0, ticketDAO.getNbTickets("UNKNOWN"));
+        assertNull(ticketDAO.getTicketWithRecentInTime("UNKNOWN"));
+    }
+
+    @Test
+    @DisplayName("should store the price and out-time of an existing ticket without touching the returned copies")
+    void updateTicketTest() {
+        //given
+        ticketDAO.saveTicket(ticket("ABCDEF", 1, 1_000L));
+        Ticket ticket = ticketDAO.getTicketWithRecentInTime("ABCDEF");
+        ticket.setPrice(3.0);
+        ticket.setOutTime(Instant.ofEpochMilli(7_201_000L));
+
+        //when
+        boolean updated = ticketDAO.updateTicket(ticket);
+
+        //then
+        assertTrue(updated);
+        Ticket stored = ticketDAO.getTicketWithRecentInTime("ABCDEF");
+        assertNotSame(ticket, stored);
+        assertEquals(3.0, stored.getPrice());
+        assertEquals(Instant.ofEpochMilli(7_201_000L), stored.getOutTime());
+        assertEquals(1, ticketDAO.getNbTickets("ABCDEF"));
+    }
+
+    @Test
+    @DisplayName("should keep the visits, last visit and spend of a vehicle as its tickets are saved and paid")
+    void getCustomerStatsTest() {
+        //given
+        ticketDAO.saveTicket(ticket("ABCDEF", 1, 1_000L));
+        Ticket ticket = ticketDAO.getTicketWithRecentInTime("ABCDEF");
+        ticket.setPrice(3.0);
+        ticket.setOutTime(Instant.ofEpochMilli(7_201_000L));
+        ticketDAO.updateTicket(ticket);
+        ticket.setPrice(1.5);
+        ticketDAO.updateTicket(ticket);
+
+        //when
+        ticketDAO.saveTicket(ticket("ABCDEF", 2, 9_000_000L));
+        CustomerStats customerStats = ticketDAO.getCustomerStats("ABCDEF");
+
+        //then
+        assertEquals(2, customerStats.getVisitCount());
+        assertEquals(1.5, customerStats.getTotalSpent());
+        assertEquals(Instant.ofEpochMilli(9_000_000L), customerStats.getLastVisit());
+        assertNull(ticketDAO.getCustomerStats("UNKNOWN"));
+    }
+
+    @Test
+    @DisplayName("should not update a ticket that was never saved")
+    void updateUnknownTicketTest() {
+        Ticket ticket = ticket("ABCDEF", 1, 1_000L);
+        ticket.setId(42);
+        ticket.setOutTime(Instant.ofEpochMilli(2_000L));
+
+        assertFalse(ticketDAO.updateTicket(ticket));
+    }
+
+    private static Ticket ticket(String vehicleRegNumber, int parkingNumber, long inTime) {
+        Ticket ticket = new Ticket();
+        ticket.setParkingSpot(new ParkingSpot(parkingNumber, ParkingType.CAR, false));
+        ticket.setVehicleRegNumber(vehicleRegNumber);
+        ticket.setInTime(Instant.ofEpochMilli(inTime));
+        return ticket;
+    }
+}
@@ -0,0 +1,196 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.config.DataBaseConfig;
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.integration.config.EmbeddedTestDatabase;
+import com.parkit.parkingsystem.model.HourlyTraffic;
+import com.parkit.parkingsystem.model.ParkingSpot;
+import com.parkit.parkingsystem.model.Ticket;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the JDBC DAOs against embedded databases standing for a primary and replicas which never catch up, so
+ * that every read shows which of them answered it. The heartbeats of the caught-up replica are a link to the
+ * ones of the primary, the lagging replica shows them a minute late.
+ */
+class ReplicaRoutingTest {
+
+    private static final String PRIMARY_URL = EmbeddedTestDatabase.url("primary");
+    private static final String REPLICA_URL = EmbeddedTestDatabase.url("replica");
+    private static final String LAGGING_REPLICA_URL = EmbeddedTestDatabase.url("laggingreplica");
+    private static final long MAX_LAG_MILLIS = 200;
+    private static final long HEARTBEAT_MILLIS = 50;
+
+    @BeforeAll
+    static void createDataBases() throws Exception {
+        for (String url : new String[]{PRIMARY_URL, REPLICA_URL, LAGGING_REPLICA_URL}) {
+            try (Connection con = DriverManager.getConnection(url, "sa", "")) {
+                EmbeddedTestDatabase.createSchema(con);
+            }
+        }
+        try (Connection con = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement statement = con.createStatement()) {
+            statement.execute("drop table replica_heartbeat");
+            statement.execute("create linked table replica_heartbeat('org.h2.Driver', '" + PRIMARY_URL + "', 'sa', '', 'replica_heartbeat')");
+        }
+        try (Connection con = DriverManager.getConnection(LAGGING_REPLICA_URL, "sa", "");
+             Statement statement = con.createStatement()) {
+            statement.execute("drop table replica_heartbeat");
+            statement.execute("create linked table primary_heartbeat('org.h2.Driver', '" + PRIMARY_URL + "', 'sa', '', 'replica_heartbeat')");
+            statement.execute("create view replica_heartbeat as select ID, BEAT_MILLIS - 60000 as BEAT_MILLIS from primary_heartbeat");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        DataBaseConfig.closeDataSource();
+        for (String property : new String[]{DataBaseConfig.DB_DRIVER_PROPERTY, DataBaseConfig.DB_URL_PROPERTY,
+                DataBaseConfig.DB_USER_PROPERTY, DataBaseConfig.DB_PASSWORD_PROPERTY, DataBaseConfig.DB_POOL_SIZE_PROPERTY,
+                DataBaseConfig.DB_CONNECTION_TIMEOUT_PROPERTY, DataBaseConfig.DB_REPLICA_URLS_PROPERTY,
+                DataBaseConfig.DB_REPLICA_MAX_LAG_PROPERTY, DataBaseConfig.DB_REPLICA_HEARTBEAT_PROPERTY}) {
+            System.clearProperty(property);
+        }
+    }
+
+    private static DataBaseConfig configure(String replicaUrl) throws InterruptedException {
+        System.setProperty(DataBaseConfig.DB_DRIVER_PROPERTY, "org.h2.Driver");
+        System.setProperty(DataBaseConfig.DB_URL_PROPERTY, PRIMARY_URL);
+        System.setProperty(DataBaseConfig.DB_USER_PROPERTY, "sa");
+        System.setProperty(DataBaseConfig.DB_PASSWORD_PROPERTY, "");
+        System.setProperty(DataBaseConfig.DB_POOL_SIZE_PROPERTY, "2");
+        System.setProperty(DataBaseConfig.DB_CONNECTION_TIMEOUT_PROPERTY, "250");
+        System.setProperty(DataBaseConfig.DB_REPLICA_URLS_PROPERTY, replicaUrl);
+        System.setProperty(DataBaseConfig.DB_REPLICA_MAX_LAG_PROPERTY, String.valueOf(MAX_LAG_MILLIS));
+        System.setProperty(DataBaseConfig.DB_REPLICA_HEARTBEAT_PROPERTY, String.valueOf(HEARTBEAT_MILLIS));
+        DataBaseConfig dataBaseConfig = new DataBaseConfig();
+        //the first heartbeats, after which a reachable replica has a known lag
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (dataBaseConfig.getReplicaLags().get(0) == -1 && !replicaUrl.contains("missing") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(HEARTBEAT_MILLIS);
+        }
+        return dataBaseConfig;
+    }
+
+    @Test
+    @DisplayName("should read the customer stats from the primary right after a write and from the replica afterwards")
+    void customerStatsRoutingTest() throws Exception {
+        //given
+        JdbcTicketDAO ticketDAO = new JdbcTicketDAO();
+        ticketDAO.dataBaseConfig = configure(REPLICA_URL);
+        Ticket ticket = new Ticket();
+        ticket.setParkingSpot(new ParkingSpot(1, ParkingType.CAR, false));
+        ticket.setVehicleRegNumber("RR100AA");
+        ticket.setInTimeMillis(1_000_000L);
+
+        //when
+        assertTrue(ticketDAO.saveTicket(ticket));
+
+        //then
+        assertEquals(1, ticketDAO.getNbTickets("RR100AA"));
+        Thread.sleep(MAX_LAG_MILLIS + 3 * HEARTBEAT_MILLIS);
+        assertEquals(0, ticketDAO.getNbTickets("RR100AA"));
+        assertNotNull(ticketDAO.getTicketWithRecentInTime("RR100AA"));
+    }
+
+    @Test
+    @DisplayName("should read from the primary while the replica lags too far behind")
+    void laggingReplicaTest() throws Exception {
+        //given
+        JdbcTrafficSummaryDAO trafficSummaryDAO = new JdbcTrafficSummaryDAO();
+        DataBaseConfig dataBaseConfig = configure(LAGGING_REPLICA_URL);
+        trafficSummaryDAO.dataBaseConfig = dataBaseConfig;
+        HourlyTraffic hour = new HourlyTraffic(ParkingType.CAR, 9 * HourlyTraffic.HOUR_MILLIS, 2, 3.0, 1_000L);
+        assertTrue(trafficSummaryDAO.addHourlyTraffic(Collections.singletonList(hour)));
+
+        //when
+        int hours = trafficSummaryDAO.getHourlyTraffic(ParkingType.CAR, 0, 24 * HourlyTraffic.HOUR_MILLIS).size();
+
+        //then
+        assertTrue(dataBaseConfig.getReplicaLags().get(0) > MAX_LAG_MILLIS);
+        assertEquals(1, hours);
+    }
+
+    @Test
+    @DisplayName("should read the reports from the replica, and from the primary while the replica is unreachable")
+    void reportRoutingTest() throws Exception {
+        //given
+        JdbcTrafficSummaryDAO primaryWriter = new JdbcTrafficSummaryDAO();
+        primaryWriter.dataBaseConfig = configure(REPLICA_URL);
+        HourlyTraffic hour = new HourlyTraffic(ParkingType.BIKE, 7 * HourlyTraffic.HOUR_MILLIS, 3, 4.5, 1_000L);
+        assertTrue(primaryWriter.addHourlyTraffic(Collections.singletonList(hour)));
+
+        //when
+        int replicaHours = primaryWriter.getHourlyTraffic(ParkingType.BIKE, 0, 24 * HourlyTraffic.HOUR_MILLIS).size();
+        DataBaseConfig.closeDataSource();
+        JdbcTrafficSummaryDAO trafficSummaryDAO = new JdbcTrafficSummaryDAO();
+        trafficSummaryDAO.dataBaseConfig = configure("jdbc:h2:mem:missing;IFEXISTS=TRUE");
+        int fallbackHours = trafficSummaryDAO.getHourlyTraffic(ParkingType.BIKE, 0, 24 * HourlyTraffic.HOUR_MILLIS).size();
+
+        //then
+        assertEquals(0, replicaHours);
+        assertEquals(1, fallbackHours);
+    }
+
+    @Test
+    @DisplayName("should not open the pool of the settings when the connections come from elsewhere and there are no replicas")
+    void overriddenConnectionTest() throws Exception {
+        //given
+        DataBaseConfig.closeDataSource();
+        JdbcTicketDAO ticketDAO = new JdbcTicketDAO();
+        ticketDAO.dataBaseConfig = new DataBaseConfig() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return DriverManager.getConnection(PRIMARY_URL, "sa", "");
+            }
+        };
+        Ticket ticket = new Ticket();
+        ticket.setParkingSpot(new ParkingSpot(2, ParkingType.CAR, false));
+        ticket.setVehicleRegNumber("RR200AA");
+        ticket.setInTimeMillis(1_000_000L);
+
+        //when
+        boolean saved = ticketDAO.saveTicket(ticket);
+        int tickets = ticketDAO.getNbTickets("RR200AA");
+
+        //then
+        assertTrue(saved);
+        assertEquals(1, tickets);
+        assertTrue(Thread.getAllStackTraces().keySet().stream().noneMatch(thread -> thread.getName().startsWith("parkit ")));
+    }
+
+    @Test
+    @DisplayName("should beat in a row of its own and remove it when closed")
+    void heartbeatRowTest() throws Exception {
+        //given
+        configure(REPLICA_URL);
+
+        //when
+        int beatingRows = countHeartbeats();
+        DataBaseConfig.closeDataSource();
+
+        //then
+        assertEquals(1, beatingRows);
+        assertEquals(0, countHeartbeats());
+    }
+
+    private static int countHeartbeats() throws SQLException {
+        try (Connection con = DriverManager.getConnection(PRIMARY_URL, "sa", "");
+             Statement statement = con.createStatement();
+             ResultSet rs = statement.executeQuery("select count(*) from replica_heartbeat")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
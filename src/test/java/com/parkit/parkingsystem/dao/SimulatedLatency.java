@@ -0,0 +1,24 @@
+package com.parkit.parkingsystem.dao;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+final class SimulatedLatency {
+
+    private SimulatedLatency() {
+    }
+
+    static void sleep(long latencyMillis, AtomicInteger inFlight, AtomicInteger maxInFlight) {
+        if (latencyMillis <= 0) {
+            return;
+        }
+        int current = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(current, Math::max);
+        try {
+            Thread.sleep(latencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+}
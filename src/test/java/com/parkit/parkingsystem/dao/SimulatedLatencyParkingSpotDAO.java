@@ -0,0 +1,62 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.model.ParkingSpot;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Wraps a {@link ParkingSpotDAO} and sleeps for a fixed latency on every call, to emulate the round trip
+ * to the database.
+ */
+public class SimulatedLatencyParkingSpotDAO implements ParkingSpotDAO {
+
+    private final ParkingSpotDAO delegate;
+    private final long latencyMillis;
+    private final AtomicInteger inFlight;
+    private final AtomicInteger maxInFlight;
+
+    public SimulatedLatencyParkingSpotDAO(ParkingSpotDAO delegate, long latencyMillis, AtomicInteger inFlight, AtomicInteger maxInFlight) {
+        this.delegate = delegate;
+        this.latencyMillis = latencyMillis;
+        this.inFlight = inFlight;
+        this.maxInFlight = maxInFlight;
+    }
+
+    @Override
+    public int getNextAvailableSlot(ParkingType parkingType) {
+        SimulatedLatency.sleep(latencyMillis, inFlight, maxInFlight);
+        return delegate.getNextAvailableSlot(parkingType);
+    }
+
+    @Override
+    public int takeNextAvailableSlot(ParkingType parkingType) {
+        SimulatedLatency.sleep(latencyMillis, inFlight, maxInFlight);
+        return delegate.takeNextAvailableSlot(parkingType);
+    }
+
+    @Override
+    public boolean takeParkingSpot(int number) {
+        SimulatedLatency.sleep(latencyMillis, inFlight, maxInFlight);
+        return delegate.takeParkingSpot(number);
+    }
+
+    @Override
+    public ParkingSpot getParkingSpot(int number) {
+        SimulatedLatency.sleep(latencyMillis, inFlight, maxInFlight);
+        return delegate.getParkingSpot(number);
+    }
+
+    @Override
+    public List<ParkingSpot> getParkingSpots() {
+        SimulatedLatency.sleep(latencyMillis, inFlight, maxInFlight);
+        return delegate.getParkingSpots();
+    }
+
+    @Override
+    public boolean updateParking(ParkingSpot parkingSpot) {
+        SimulatedLatency.sleep(latencyMillis, inFlight, maxInFlight);
+        return delegate.updateParking(parkingSpot);
+    }
+}
@@ -0,0 +1,55 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.model.CustomerStats;
+import com.parkit.parkingsystem.model.Ticket;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Wraps a {@link TicketDAO} and sleeps for a fixed latency on every call, to emulate the round trip
+ * to the database.
+ */
+public class SimulatedLatencyTicketDAO implements TicketDAO {
+
+    private final TicketDAO delegate;
+    private final long latencyMillis;
+    private final AtomicInteger inFlight;
+    private final AtomicInteger maxInFlight;
+
+    public SimulatedLatencyTicketDAO(TicketDAO delegate, long latencyMillis, AtomicInteger inFlight, AtomicInteger maxInFlight) {
+        this.delegate = delegate;
+        this.latencyMillis = latencyMillis;
+        this.inFlight = inFlight;
+        this.maxInFlight = maxInFlight;
+    }
+
+    @Override
+    public boolean saveTicket(Ticket ticket) {
+        SimulatedLatency.sleep(latencyMillis, inFlight, maxInFlight);
+        return delegate.saveTicket(ticket);
+    }
+
+    @Override
+    public Ticket getTicketWithRecentInTime(String vehicleRegNumber) {
+        SimulatedLatency.sleep(latencyMillis, inFlight, maxInFlight);
+        return delegate.getTicketWithRecentInTime(vehicleRegNumber);
+    }
+
+    @Override
+    public boolean updateTicket(Ticket ticket) {
+        SimulatedLatency.sleep(latencyMillis, inFlight, maxInFlight);
+        return delegate.updateTicket(ticket);
+    }
+
+    @Override
+    public int getNbTickets(String vehicleRegNumber) {
+        SimulatedLatency.sleep(latencyMillis, inFlight, maxInFlight);
+        return delegate.getNbTickets(vehicleRegNumber);
+    }
+
+    @Override
+    public CustomerStats getCustomerStats(String vehicleRegNumber) {
+        SimulatedLatency.sleep(latencyMillis, inFlight, maxInFlight);
+        return delegate.getCustomerStats(vehicleRegNumber);
+    }
+}
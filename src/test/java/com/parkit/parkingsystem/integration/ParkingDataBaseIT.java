@@ -1,10 +1,16 @@
 package com.parkit.parkingsystem.integration;
 
 import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.constants.StorageType;
+import com.parkit.parkingsystem.dao.CustomerStatsBackfill;
+import com.parkit.parkingsystem.dao.DAOFactory;
 import com.parkit.parkingsystem.dao.ParkingSpotDAO;
+import com.parkit.parkingsystem.dao.TicketArchiver;
 import com.parkit.parkingsystem.dao.TicketDAO;
+import com.parkit.parkingsystem.dao.TicketTimeMigration;
 import com.parkit.parkingsystem.integration.config.DataBaseTestConfig;
 import com.parkit.parkingsystem.integration.service.DataBasePrepareService;
+import com.parkit.parkingsystem.model.CustomerStats;
 import com.parkit.parkingsystem.model.ParkingSpot;
 import com.parkit.parkingsystem.model.Ticket;
 import com.parkit.parkingsystem.service.FareCalculatorService;
@@ -19,10 +25,13 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.Clock;
-import java.util.Date;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
 
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,6 +42,7 @@ public class ParkingDataBaseIT {
     private static TicketDAO ticketDAO;
     private static FareCalculatorService fareCalculatorService;
     private static DataBasePrepareService dataBasePrepareService;
+    private static DAOFactory daoFactory;
 
     @Mock
     private static InputReaderUtil inputReaderUtil;
@@ -42,11 +52,10 @@ public class ParkingDataBaseIT {
 
     @BeforeAll
     public static void setUp() {
-        parkingSpotDAO = new ParkingSpotDAO();
-        parkingSpotDAO.dataBaseConfig = dataBaseTestConfig;
-        ticketDAO = new TicketDAO();
-        ticketDAO.dataBaseConfig = dataBaseTestConfig;
-        dataBasePrepareService = new DataBasePrepareService();
+        daoFactory = new DAOFactory(dataBaseTestConfig);
+        parkingSpotDAO = daoFactory.getParkingSpotDAO();
+        ticketDAO = daoFactory.getTicketDAO();
+        dataBasePrepareService = new DataBasePrepareService(daoFactory);
         fareCalculatorService = new FareCalculatorService();
     }
 
@@ -82,7 +91,7 @@ public class ParkingDataBaseIT {
         assertNotNull(parkingSpot);
         assertEquals(ParkingType.CAR, parkingSpot.getParkingType());
         assertFalse(parkingSpot.isAvailable());
-        assertEquals(new Date(1000L), ticket.getInTime());
+        assertEquals(Instant.ofEpochMilli(1000L), ticket.getInTime());
 
         //TODO: check that a ticket is actually saved in DB and Parking table is updated with availability
     }
@@ -108,7 +117,7 @@ public class ParkingDataBaseIT {
         assertNotNull(parkingSpot);
         assertEquals(ParkingType.BIKE, parkingSpot.getParkingType());
         assertFalse(parkingSpot.isAvailable());
-        assertEquals(new Date(1000L), ticket.getInTime());
+        assertEquals(Instant.ofEpochMilli(1000L), ticket.getInTime());
     }
 
     @Test
@@ -127,8 +136,8 @@ public class ParkingDataBaseIT {
 
         assertNotNull(ticket);
         assertEquals(vehicleRegNumber, ticket.getVehicleRegNumber());
-        assertEquals(new Date(1000L), ticket.getInTime());
-        assertEquals(new Date(360_010_000L), ticket.getOutTime());
+        assertEquals(Instant.ofEpochMilli(1000L), ticket.getInTime());
+        assertEquals(Instant.ofEpochMilli(360_010_000L), ticket.getOutTime());
         assertTrue(ticket.getPrice() > 0.0);
 
 
@@ -157,8 +166,8 @@ public class ParkingDataBaseIT {
         //then
         assertNotNull(ticket);
         assertEquals(vehicleRegNumber, ticket.getVehicleRegNumber());
-        assertEquals(new Date(1000L), ticket.getInTime());
-        assertEquals(new Date(360_010_000L), ticket.getOutTime());
+        assertEquals(Instant.ofEpochMilli(1000L), ticket.getInTime());
+        assertEquals(Instant.ofEpochMilli(360_010_000L), ticket.getOutTime());
         assertTrue(ticket.getPrice() > 0.0);
     }
 
@@ -184,8 +193,8 @@ public class ParkingDataBaseIT {
         Ticket ticket = ticketDAO.getTicketWithRecentInTime(vehicleRegNumber);
         assertNotNull(ticket);
         assertEquals(vehicleRegNumber, ticket.getVehicleRegNumber());
-        assertEquals(new Date(1_440_040_000L), ticket.getInTime());
-        assertEquals(new Date(1_800_050_000L), ticket.getOutTime());
+        assertEquals(Instant.ofEpochMilli(1_440_040_000L), ticket.getInTime());
+        assertEquals(Instant.ofEpochMilli(1_800_050_000L), ticket.getOutTime());
         assertEquals( 142.5, ticket.getPrice(), 0.01,"the price is 150€ but with 5% discount is 142.5€");
     }
 
@@ -211,8 +220,8 @@ public class ParkingDataBaseIT {
         Ticket ticket = ticketDAO.getTicketWithRecentInTime(vehicleRegNumber);
         assertNotNull(ticket);
         assertEquals(vehicleRegNumber, ticket.getVehicleRegNumber());
-        assertEquals(new Date(1_440_040_000L), ticket.getInTime());
-        assertEquals(new Date(1_800_050_000L), ticket.getOutTime());
+        assertEquals(Instant.ofEpochMilli(1_440_040_000L), ticket.getInTime());
+        assertEquals(Instant.ofEpochMilli(1_800_050_000L), ticket.getOutTime());
         assertEquals( 95.0, ticket.getPrice(), 0.01,"the price is 100€ but with 5% discount is 95€");
     }
 
@@ -236,8 +245,8 @@ public class ParkingDataBaseIT {
         Ticket ticket = ticketDAO.getTicketWithRecentInTime(vehicleRegNumber);
         assertNotNull(ticket);
         assertEquals(vehicleRegNumber, ticket.getVehicleRegNumber());
-        assertEquals(new Date(1_739_534_400_000L), ticket.getInTime());
-        assertEquals(new Date(1_739_535_900_000L), ticket.getOutTime());
+        assertEquals(Instant.ofEpochMilli(1_739_534_400_000L), ticket.getInTime());
+        assertEquals(Instant.ofEpochMilli(1_739_535_900_000L), ticket.getOutTime());
         assertEquals(0.0, ticket.getPrice(), 0.01,"the price should be zero");
     }
 
@@ -261,8 +270,75 @@ public class ParkingDataBaseIT {
         Ticket ticket = ticketDAO.getTicketWithRecentInTime(vehicleRegNumber);
         assertNotNull(ticket);
         assertEquals(vehicleRegNumber, ticket.getVehicleRegNumber());
-        assertEquals(new Date(1_739_534_400_000L), ticket.getInTime());
-        assertEquals(new Date(1_739_535_900_000L), ticket.getOutTime());
+        assertEquals(Instant.ofEpochMilli(1_739_534_400_000L), ticket.getInTime());
+        assertEquals(Instant.ofEpochMilli(1_739_535_900_000L), ticket.getOutTime());
         assertEquals(0.0, ticket.getPrice(), 0.01,"the price should be zero");
     }
+
+    @Test
+    @DisplayName("should move old closed tickets to the archive and still count them for loyalty")
+    void testArchiveClosedTickets() throws Exception {
+        assumeTrue(daoFactory.getStorageType() == StorageType.MYSQL, "the archive is a MySQL table");
+        //given
+        String vehicleRegNumber = "ABCDEFGH";
+        commonSetup(1, vehicleRegNumber);
+        when(clock.millis()).thenReturn(1000L, 360_010_000L);
+        ParkingService parkingService = new ParkingService(inputReaderUtil, parkingSpotDAO, ticketDAO, fareCalculatorService, clock);
+        parkingService.processIncomingVehicle();
+        parkingService.processExitingVehicle();
+        TicketArchiver ticketArchiver = new TicketArchiver(dataBaseTestConfig, TimeUnit.DAYS.toMillis(1), 10, Clock.systemUTC());
+
+        //when
+        int archived = ticketArchiver.archive();
+
+        //then
+        assertEquals(1, archived);
+        assertNull(ticketDAO.getTicketWithRecentInTime(vehicleRegNumber));
+        assertEquals(1, ticketDAO.getNbTickets(vehicleRegNumber));
+    }
+
+    @Test
+    @DisplayName("should recompute the customer stats instead of adding them up when the backfill runs again")
+    void testBackfillCustomerStatsTwice() throws Exception {
+        assumeTrue(daoFactory.getStorageType() == StorageType.MYSQL, "the customer stats are a MySQL table");
+        //given
+        String vehicleRegNumber = "ABCDEFGH";
+        commonSetup(1, vehicleRegNumber);
+        when(clock.millis()).thenReturn(1000L, 360_010_000L);
+        ParkingService parkingService = new ParkingService(inputReaderUtil, parkingSpotDAO, ticketDAO, fareCalculatorService, clock);
+        parkingService.processIncomingVehicle();
+        Ticket ticket = parkingService.processExitingVehicle();
+        CustomerStatsBackfill backfill = new CustomerStatsBackfill(dataBaseTestConfig, 10, 2);
+
+        //when
+        backfill.backfill();
+        backfill.backfill();
+
+        //then
+        CustomerStats stats = ticketDAO.getCustomerStats(vehicleRegNumber);
+        assertEquals(1, stats.getVisitCount());
+        assertEquals(ticket.getPrice(), stats.getTotalSpent(), 0.01);
+    }
+
+    @Test
+    @DisplayName("should convert the ticket times written in the local time of the gates to UTC")
+    void testMigrateLocalTicketTimes() throws Exception {
+        assumeTrue(daoFactory.getStorageType() == StorageType.MYSQL, "the migration converts the MySQL tables");
+        //given
+        String vehicleRegNumber = "ABCDEFGH";
+        commonSetup(1, vehicleRegNumber);
+        //the wall-clock times of a gate in Paris, one hour ahead of UTC in winter
+        when(clock.millis()).thenReturn(1_739_535_900_000L);
+        ParkingService parkingService = new ParkingService(inputReaderUtil, parkingSpotDAO, ticketDAO, fareCalculatorService, clock);
+        parkingService.processIncomingVehicle();
+
+        //when
+        long migrated = new TicketTimeMigration(dataBaseTestConfig, ZoneId.of("Europe/Paris")).migrate();
+
+        //then
+        assertEquals(1, migrated);
+        Ticket ticket = ticketDAO.getTicketWithRecentInTime(vehicleRegNumber);
+        assertEquals(1_739_535_900_000L - TimeUnit.HOURS.toMillis(1), ticket.getInTimeMillis());
+        assertFalse(ticket.hasOutTime());
+    }
 }
@@ -4,17 +4,31 @@ import com.parkit.parkingsystem.config.DataBaseConfig;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.*;
 
 public class DataBaseTestConfig extends DataBaseConfig {
 
     private static final Logger logger = LogManager.getLogger("DataBaseTestConfig");
 
+    /**
+     * Set to {@code h2} to run the MySQL tests against an {@link EmbeddedTestDatabase} instead of a MySQL server.
+     */
+    public static final String TEST_DATABASE_PROPERTY = "parkit.test.database";
+
     public Connection getConnection() throws ClassNotFoundException, SQLException {
         logger.info("Create DB connection");
+        if ("h2".equalsIgnoreCase(System.getProperty(TEST_DATABASE_PROPERTY))) {
+            return EmbeddedTestDatabase.getConnection();
+        }
         Class.forName("com.mysql.cj.jdbc.Driver");
         return DriverManager.getConnection(
-                "jdbc:mysql://localhost:3306/test","root","rootroot"); // ?connectionTimeZone=UTC
+                "jdbc:mysql://localhost:3306/test","root","rootroot");
+    }
+
+    public Path getDataDirectory() {
+        return Paths.get("target", "embedded-test-data");
     }
 
     public void closeConnection(Connection con){
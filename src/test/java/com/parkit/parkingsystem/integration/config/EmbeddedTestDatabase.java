@@ -0,0 +1,80 @@
+package com.parkit.parkingsystem.integration.config;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An H2 database in MySQL mode, living in the test JVM, given the schema and spots of the test database of
+ * {@code Data.sql} on the first connection. It stands for the MySQL server on the machines without one.
+ */
+public final class EmbeddedTestDatabase {
+
+    private static final Logger logger = LogManager.getLogger("EmbeddedTestDatabase");
+    private static final String URL = url("test");
+    private static final Path SCHEMA = Paths.get("resources", "Data.sql");
+    private static final String TEST_DATABASE = "create database test";
+
+    private static boolean created;
+
+    private EmbeddedTestDatabase() {
+    }
+
+    public static synchronized Connection getConnection() throws ClassNotFoundException, SQLException {
+        Class.forName("org.h2.Driver");
+        Connection con = DriverManager.getConnection(URL, "sa", "");
+        if (!created) {
+            createSchema(con);
+            created = true;
+        }
+        return con;
+    }
+
+    /**
+     * @return the URL of another embedded database of the given name, kept until the JVM exits
+     */
+    public static String url(String name) {
+        return "jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    }
+
+    public static void createSchema(Connection con) throws SQLException {
+        List<String> statements;
+        try {
+            statements = readTestStatements(new String(Files.readAllBytes(SCHEMA), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new SQLException("Unable to read the schema " + SCHEMA, e);
+        }
+        try (Statement statement = con.createStatement()) {
+            for (String sql : statements) {
+                statement.execute(sql);
+            }
+        }
+        logger.info("Created the embedded test database from " + SCHEMA);
+    }
+
+    //the statements following "create database test", without the comments nor the database switches
+    static List<String> readTestStatements(String script) {
+        List<String> statements = new ArrayList<>();
+        boolean testDatabase = false;
+        for (String sql : script.replaceAll("(?s)/\\*.*?\\*/", "").split(";")) {
+            sql = sql.trim();
+            if (sql.equalsIgnoreCase(TEST_DATABASE)) {
+                testDatabase = true;
+            } else if (testDatabase && !sql.isEmpty() && !sql.toLowerCase().startsWith("use ")) {
+                statements.add(sql);
+            }
+        }
+        return statements;
+    }
+}
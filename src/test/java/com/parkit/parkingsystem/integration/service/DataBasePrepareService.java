@@ -1,5 +1,10 @@
 package com.parkit.parkingsystem.integration.service;
 
+import com.parkit.parkingsystem.constants.StorageType;
+import com.parkit.parkingsystem.dao.DAOFactory;
+import com.parkit.parkingsystem.dao.EmbeddedStorage;
+import com.parkit.parkingsystem.dao.InMemoryParkingSpotDAO;
+import com.parkit.parkingsystem.dao.InMemoryTicketDAO;
 import com.parkit.parkingsystem.integration.config.DataBaseTestConfig;
 
 import java.sql.Connection;
@@ -7,8 +12,22 @@ import java.sql.Connection;
 public class DataBasePrepareService {
 
     DataBaseTestConfig dataBaseTestConfig = new DataBaseTestConfig();
+    private final DAOFactory daoFactory;
+
+    public DataBasePrepareService(DAOFactory daoFactory) {
+        this.daoFactory = daoFactory;
+    }
 
     public void clearDataBaseEntries(){
+        if (daoFactory.getStorageType() == StorageType.MEMORY) {
+            ((InMemoryParkingSpotDAO) daoFactory.getParkingSpotDAO()).reset();
+            ((InMemoryTicketDAO) daoFactory.getTicketDAO()).clear();
+            return;
+        }
+        if (daoFactory.getStorageType() == StorageType.EMBEDDED) {
+            ((EmbeddedStorage) daoFactory.getTicketDAO()).reset();
+            return;
+        }
         Connection connection = null;
         try{
             connection = dataBaseTestConfig.getConnection();
@@ -18,6 +37,9 @@ public class DataBasePrepareService {
 
             //clear ticket entries;
             connection.prepareStatement("truncate table ticket").execute();
+            connection.prepareStatement("truncate table ticket_archive").execute();
+            connection.prepareStatement("truncate table customer_stats").execute();
+            connection.prepareStatement("truncate table traffic_summary").execute();
 
         }catch(Exception e){
             e.printStackTrace();
@@ -0,0 +1,105 @@
+package com.parkit.parkingsystem.integration.service;
+
+import com.parkit.parkingsystem.config.DataBaseConfig;
+import com.parkit.parkingsystem.constants.DBConstants;
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.dao.CustomerStatsBackfill;
+import com.parkit.parkingsystem.util.PlateCodec;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fills a MySQL schema, or its embedded stand-in, with a lot of the given size and a history of closed tickets,
+ * the same for a given seed, so that the DAOs and the gates can be measured on realistic volumes.
+ */
+public class DataBaseSeeder {
+
+    private static final Logger logger = LogManager.getLogger("DataBaseSeeder");
+    private static final String ADD_PARKING_SPOT = "insert into parking(PARKING_NUMBER, AVAILABLE, TYPE) values(?,?,?)";
+    private static final int BATCH_SIZE = 10_000;
+    private static final long HISTORY_START = Timestamp.valueOf("2024-01-01 00:00:00").getTime();
+    private static final long HISTORY_MILLIS = TimeUnit.DAYS.toMillis(365);
+    private static final double CAR_SHARE = 0.8;
+
+    private final DataBaseConfig dataBaseConfig;
+
+    public DataBaseSeeder(DataBaseConfig dataBaseConfig) {
+        this.dataBaseConfig = dataBaseConfig;
+    }
+
+    /**
+     * Replaces the spots and tickets with {@code carSpots} car spots followed by {@code bikeSpots} bike spots,
+     * all available, and {@code tickets} closed tickets of {@code vehicles} vehicles spread over a year, then
+     * computes their customer stats.
+     */
+    public void seed(int carSpots, int bikeSpots, long tickets, int vehicles, long seed) throws Exception {
+        long start = System.nanoTime();
+        Connection con = null;
+        try {
+            con = dataBaseConfig.getConnection();
+            try (Statement statement = con.createStatement()) {
+                statement.execute("delete from ticket");
+                statement.execute("delete from ticket_archive");
+                statement.execute("delete from customer_stats");
+                statement.execute("delete from traffic_summary");
+                statement.execute("delete from parking");
+            }
+            con.setAutoCommit(false);
+            PreparedStatement spots = con.prepareStatement(ADD_PARKING_SPOT);
+            for (int number = 1; number <= carSpots + bikeSpots; number++) {
+                spots.setInt(1, number);
+                spots.setBoolean(2, true);
+                spots.setString(3, (number <= carSpots ? ParkingType.CAR : ParkingType.BIKE).toString());
+                spots.addBatch();
+                if (number % BATCH_SIZE == 0) {
+                    spots.executeBatch();
+                }
+            }
+            spots.executeBatch();
+            dataBaseConfig.closePreparedStatement(spots);
+
+            Random random = new Random(seed);
+            PreparedStatement ps = con.prepareStatement(DBConstants.SAVE_TICKET);
+            for (long ticket = 1; ticket <= tickets; ticket++) {
+                String vehicleRegNumber = vehicle(random.nextInt(vehicles));
+                boolean car = bikeSpots == 0 || (carSpots > 0 && random.nextDouble() < CAR_SHARE);
+                int number = car ? 1 + random.nextInt(carSpots) : carSpots + 1 + random.nextInt(bikeSpots);
+                long inTime = HISTORY_START + HISTORY_MILLIS * ticket / tickets;
+                long parkedMinutes = 10 + random.nextInt(300);
+                ps.setInt(1, number);
+                ps.setString(2, vehicleRegNumber);
+                ps.setLong(3, PlateCodec.key(vehicleRegNumber));
+                ps.setDouble(4, parkedMinutes / 60.0 * (car ? 1.5 : 1.0));
+                ps.setTimestamp(5, new Timestamp(inTime));
+                ps.setTimestamp(6, new Timestamp(inTime + TimeUnit.MINUTES.toMillis(parkedMinutes)));
+                ps.addBatch();
+                if (ticket % BATCH_SIZE == 0) {
+                    ps.executeBatch();
+                    con.commit();
+                }
+            }
+            ps.executeBatch();
+            con.commit();
+            dataBaseConfig.closePreparedStatement(ps);
+        } finally {
+            dataBaseConfig.closeConnection(con);
+        }
+        new CustomerStatsBackfill(dataBaseConfig, 100_000, 4).backfill();
+        logger.info("Seeded " + (carSpots + bikeSpots) + " spots and " + tickets + " tickets in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms");
+    }
+
+    /**
+     * @return the registration number of the seeded vehicle of the given index
+     */
+    public static String vehicle(int index) {
+        return "S" + Integer.toString(index, 36).toUpperCase();
+    }
+}
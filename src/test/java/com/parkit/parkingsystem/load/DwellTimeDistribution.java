@@ -0,0 +1,47 @@
+package com.parkit.parkingsystem.load;
+
+import java.util.Random;
+
+/**
+ * How long a vehicle stays parked, in minutes of simulated time.
+ */
+public interface DwellTimeDistribution {
+
+    double sampleMinutes(Random random);
+
+    static DwellTimeDistribution fixed(double minutes) {
+        return random -> minutes;
+    }
+
+    static DwellTimeDistribution exponential(double meanMinutes) {
+        return random -> -meanMinutes * Math.log(1 - random.nextDouble());
+    }
+
+    static DwellTimeDistribution logNormal(double medianMinutes, double sigma) {
+        double mu = Math.log(medianMinutes);
+        return random -> Math.exp(mu + sigma * random.nextGaussian());
+    }
+
+    static DwellTimeDistribution uniform(double minMinutes, double maxMinutes) {
+        return random -> minMinutes + (maxMinutes - minMinutes) * random.nextDouble();
+    }
+
+    /**
+     * @param spec one of fixed:minutes, exp:meanMinutes, lognormal:medianMinutes:sigma or uniform:minMinutes:maxMinutes
+     */
+    static DwellTimeDistribution parse(String spec) {
+        String[] parts = spec.split(":");
+        switch (parts[0]) {
+            case "fixed":
+                return fixed(Double.parseDouble(parts[1]));
+            case "exp":
+                return exponential(Double.parseDouble(parts[1]));
+            case "lognormal":
+                return logNormal(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+            case "uniform":
+                return uniform(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+            default:
+                throw new IllegalArgumentException("Unknown dwell time distribution: " + spec);
+        }
+    }
+}
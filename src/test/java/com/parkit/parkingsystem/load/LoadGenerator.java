@@ -0,0 +1,276 @@
+package com.parkit.parkingsystem.load;
+
+import com.parkit.parkingsystem.config.DataBaseConfig;
+import com.parkit.parkingsystem.constants.GateOperation;
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.dao.DAOFactory;
+import com.parkit.parkingsystem.dao.InMemoryParkingSpotDAO;
+import com.parkit.parkingsystem.dao.InMemoryTicketDAO;
+import com.parkit.parkingsystem.dao.ParkingSpotDAO;
+import com.parkit.parkingsystem.dao.SimulatedLatencyParkingSpotDAO;
+import com.parkit.parkingsystem.dao.SimulatedLatencyTicketDAO;
+import com.parkit.parkingsystem.dao.TicketDAO;
+import com.parkit.parkingsystem.model.GateEvent;
+import com.parkit.parkingsystem.model.Ticket;
+import com.parkit.parkingsystem.service.FareCalculatorService;
+import com.parkit.parkingsystem.service.ParkingService;
+import com.parkit.parkingsystem.util.ReplayClock;
+import com.parkit.parkingsystem.util.ReplayInputReaderUtil;
+import com.parkit.parkingsystem.util.SilentPrintStream;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Synthetic gate traffic: each producer thread simulates its own share of a Poisson arrival stream, with
+ * dwell times drawn from a configurable distribution and a share of returning customers, and drives its
+ * own {@link ParkingService} against shared DAOs. Run from the test classpath, for instance:
+ * <pre>java com.parkit.parkingsystem.load.LoadGenerator producers=16 events=2000000 dwell=lognormal:90:0.8</pre>
+ */
+public class LoadGenerator {
+
+    private static final long SIMULATION_START = 1_700_000_000_000L;
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+
+    public static class Config {
+        public int producers = Runtime.getRuntime().availableProcessors() * 2;
+        public long events = 1_000_000;
+        public double arrivalsPerHour = 600;
+        public double carShare = 0.8;
+        public double returningCustomerRatio = 0.3;
+        public DwellTimeDistribution dwellTime = DwellTimeDistribution.logNormal(90, 0.8);
+        public int carSpots = 10_000;
+        public int bikeSpots = 2_000;
+        public boolean database = false;
+        public long latencyMillis = 0;
+        public long seed = 42;
+    }
+
+    private final Config config;
+    private final ParkingSpotDAO parkingSpotDAO;
+    private final TicketDAO ticketDAO;
+    private final FareCalculatorService fareCalculatorService = new FareCalculatorService();
+
+    public LoadGenerator(Config config) {
+        this.config = config;
+        if (config.database) {
+            DAOFactory daoFactory = new DAOFactory(new DataBaseConfig());
+            parkingSpotDAO = daoFactory.getParkingSpotDAO();
+            ticketDAO = daoFactory.getTicketDAO();
+        } else {
+            AtomicInteger inFlight = new AtomicInteger();
+            AtomicInteger maxInFlight = new AtomicInteger();
+            InMemoryParkingSpotDAO spots = new InMemoryParkingSpotDAO();
+            for (int number = 1; number <= config.carSpots; number++) {
+                spots.addParkingSpot(number, ParkingType.CAR, true);
+            }
+            for (int number = config.carSpots + 1; number <= config.carSpots + config.bikeSpots; number++) {
+                spots.addParkingSpot(number, ParkingType.BIKE, true);
+            }
+            parkingSpotDAO = new SimulatedLatencyParkingSpotDAO(spots, config.latencyMillis, inFlight, maxInFlight);
+            ticketDAO = new SimulatedLatencyTicketDAO(new InMemoryTicketDAO(), config.latencyMillis, inFlight, maxInFlight);
+        }
+    }
+
+    public LoadReport run() throws Exception {
+        LoadReport report = new LoadReport();
+        AtomicLong completed = new AtomicLong();
+        ExecutorService producers = Executors.newFixedThreadPool(config.producers);
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        report.minIntervalThroughput = Double.MAX_VALUE;
+        long[] lastSample = {0};
+        sampler.scheduleAtFixedRate(() -> {
+            long current = completed.get();
+            double perSecond = current - lastSample[0];
+            lastSample[0] = current;
+            report.minIntervalThroughput = Math.min(report.minIntervalThroughput, perSecond);
+            report.maxIntervalThroughput = Math.max(report.maxIntervalThroughput, perSecond);
+        }, 1, 1, TimeUnit.SECONDS);
+
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int producer = 0; producer < config.producers; producer++) {
+            long quota = config.events / config.producers + (producer < config.events % config.producers ? 1 : 0);
+            Producer task = new Producer(producer, quota, report, completed);
+            futures.add(producers.submit(() -> {
+                task.run();
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        report.elapsedNanos = System.nanoTime() - start;
+        sampler.shutdownNow();
+        //the interval throughputs are written by the sampler thread, wait for its last sample before reading them
+        sampler.awaitTermination(1, TimeUnit.MINUTES);
+        producers.shutdown();
+        if (report.minIntervalThroughput == Double.MAX_VALUE) {
+            report.minIntervalThroughput = report.getThroughputPerSecond();
+            report.maxIntervalThroughput = report.getThroughputPerSecond();
+        }
+        return report;
+    }
+
+    private static class PendingExit implements Comparable<PendingExit> {
+        final long time;
+        final String vehicleRegNumber;
+
+        PendingExit(long time, String vehicleRegNumber) {
+            this.time = time;
+            this.vehicleRegNumber = vehicleRegNumber;
+        }
+
+        @Override
+        public int compareTo(PendingExit other) {
+            return Long.compare(time, other.time);
+        }
+    }
+
+    private class Producer {
+        private final int index;
+        private final long quota;
+        private final LoadReport report;
+        private final AtomicLong completed;
+        private final Random random;
+        private final ReplayInputReaderUtil inputReaderUtil = new ReplayInputReaderUtil();
+        private final ReplayClock clock = new ReplayClock();
+        private final ParkingService parkingService;
+        private final PriorityQueue<PendingExit> pendingExits = new PriorityQueue<>();
+        //plates of customers that already came and are not parked at the moment
+        private final List<String> absentCustomers = new ArrayList<>();
+        private final double meanInterArrivalMinutes;
+        private long nextPlate;
+
+        Producer(int index, long quota, LoadReport report, AtomicLong completed) {
+            this.index = index;
+            this.quota = quota;
+            this.report = report;
+            this.completed = completed;
+            this.random = new Random(config.seed + index);
+            this.parkingService = new ParkingService(inputReaderUtil, parkingSpotDAO, ticketDAO, fareCalculatorService, clock);
+            this.meanInterArrivalMinutes = 60.0 * config.producers / config.arrivalsPerHour;
+        }
+
+        void run() {
+            long nextArrival = SIMULATION_START + sampleMillis(-meanInterArrivalMinutes * Math.log(1 - random.nextDouble()));
+            for (long event = 0; event < quota; event++) {
+                PendingExit exit = pendingExits.peek();
+                if (exit != null && exit.time <= nextArrival) {
+                    pendingExits.poll();
+                    exit(exit);
+                } else {
+                    enter(nextArrival);
+                    nextArrival += sampleMillis(-meanInterArrivalMinutes * Math.log(1 - random.nextDouble()));
+                }
+                completed.incrementAndGet();
+            }
+        }
+
+        private void enter(long time) {
+            String vehicleRegNumber = nextVehicle();
+            ParkingType parkingType = random.nextDouble() < config.carShare ? ParkingType.CAR : ParkingType.BIKE;
+            GateEvent event = new GateEvent(time, GateOperation.ENTRY, parkingType, vehicleRegNumber);
+            clock.setMillis(time);
+            inputReaderUtil.setEvent(event);
+
+            long start = System.nanoTime();
+            Ticket ticket = parkingService.processIncomingVehicle();
+            report.latencies.get(GateOperation.ENTRY).recordNanos(System.nanoTime() - start);
+
+            if (ticket == null) {
+                report.rejectedEntries.incrementAndGet();
+                absentCustomers.add(vehicleRegNumber);
+                return;
+            }
+            if (ticket.getIsRegularCustomer()) {
+                report.regularCustomerEntries.incrementAndGet();
+            }
+            pendingExits.add(new PendingExit(time + Math.max(1, sampleMillis(config.dwellTime.sampleMinutes(random))), vehicleRegNumber));
+        }
+
+        private void exit(PendingExit exit) {
+            GateEvent event = new GateEvent(exit.time, GateOperation.EXIT, null, exit.vehicleRegNumber);
+            clock.setMillis(exit.time);
+            inputReaderUtil.setEvent(event);
+
+            long start = System.nanoTime();
+            Ticket ticket = null;
+            try {
+                ticket = parkingService.processExitingVehicle();
+            } catch (Exception e) {
+                //counted below
+            }
+            report.latencies.get(GateOperation.EXIT).recordNanos(System.nanoTime() - start);
+
+            if (ticket == null) {
+                report.failedExits.incrementAndGet();
+            }
+            absentCustomers.add(exit.vehicleRegNumber);
+        }
+
+        private String nextVehicle() {
+            if (!absentCustomers.isEmpty() && random.nextDouble() < config.returningCustomerRatio) {
+                int chosen = random.nextInt(absentCustomers.size());
+                String vehicleRegNumber = absentCustomers.get(chosen);
+                absentCustomers.set(chosen, absentCustomers.get(absentCustomers.size() - 1));
+                absentCustomers.remove(absentCustomers.size() - 1);
+                return vehicleRegNumber;
+            }
+            //fixed-width producer part, so that the plates stay distinct once normalized, for up to 1296 producers
+            String producer = Integer.toString(index, 36).toUpperCase();
+            return "L" + (producer.length() == 1 ? "0" : "") + producer + Long.toString(nextPlate++, 36).toUpperCase();
+        }
+
+        private long sampleMillis(double minutes) {
+            return (long) (minutes * MILLIS_PER_MINUTE);
+        }
+    }
+
+    /**
+     * Arguments are key=value pairs overriding the {@link Config} defaults: producers, events, arrivalsPerHour,
+     * carShare, returningCustomerRatio, dwell (see {@link DwellTimeDistribution#parse}), carSpots, bikeSpots,
+     * database (true to use the storage selected by DataBaseConfig instead of the in-memory DAOs), latencyMillis and seed.
+     */
+    public static void main(String[] args) throws Exception {
+        Config config = new Config();
+        for (String arg : args) {
+            String[] keyValue = arg.split("=", 2);
+            String value = keyValue[1];
+            switch (keyValue[0]) {
+                case "producers": config.producers = Integer.parseInt(value); break;
+                case "events": config.events = Long.parseLong(value); break;
+                case "arrivalsPerHour": config.arrivalsPerHour = Double.parseDouble(value); break;
+                case "carShare": config.carShare = Double.parseDouble(value); break;
+                case "returningCustomerRatio": config.returningCustomerRatio = Double.parseDouble(value); break;
+                case "dwell": config.dwellTime = DwellTimeDistribution.parse(value); break;
+                case "carSpots": config.carSpots = Integer.parseInt(value); break;
+                case "bikeSpots": config.bikeSpots = Integer.parseInt(value); break;
+                case "database": config.database = Boolean.parseBoolean(value); break;
+                case "latencyMillis": config.latencyMillis = Long.parseLong(value); break;
+                case "seed": config.seed = Long.parseLong(value); break;
+                default: throw new IllegalArgumentException("Unknown setting: " + arg);
+            }
+        }
+
+        PrintStream console = System.out;
+        System.setOut(new SilentPrintStream());
+        LoadReport report;
+        try {
+            report = new LoadGenerator(config).run();
+        } finally {
+            System.setOut(console);
+        }
+        report.print(console);
+    }
+}
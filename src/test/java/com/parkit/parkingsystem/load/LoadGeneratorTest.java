@@ -0,0 +1,67 @@
+package com.parkit.parkingsystem.load;
+
+import com.parkit.parkingsystem.constants.GateOperation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadGeneratorTest {
+
+    @Test
+    @DisplayName("should drive entries and exits from several producers and report their latencies")
+    void runSmallLoad() throws Exception {
+        //given
+        LoadGenerator.Config config = new LoadGenerator.Config();
+        config.producers = 4;
+        config.events = 4_000;
+        config.arrivalsPerHour = 400;
+        config.carSpots = 200;
+        config.bikeSpots = 50;
+        config.returningCustomerRatio = 0.5;
+        config.dwellTime = DwellTimeDistribution.exponential(60);
+
+        //when
+        LoadReport report = new LoadGenerator(config).run();
+
+        //then
+        assertEquals(4_000, report.getOperationCount());
+        assertTrue(report.getLatency(GateOperation.EXIT).getCount() > 0);
+        assertEquals(0, report.getFailedExits());
+        assertTrue(report.getRegularCustomerEntries() > 0);
+        assertTrue(report.getThroughputPerSecond() > 0);
+    }
+
+    @Test
+    @DisplayName("should turn vehicles away once the lot is full")
+    void runLoadOnFullLot() throws Exception {
+        //given
+        LoadGenerator.Config config = new LoadGenerator.Config();
+        config.producers = 1;
+        config.events = 100;
+        config.carSpots = 5;
+        config.bikeSpots = 5;
+        config.dwellTime = DwellTimeDistribution.fixed(100_000);
+
+        //when
+        LoadReport report = new LoadGenerator(config).run();
+
+        //then
+        assertEquals(90, report.getRejectedEntries(), 10);
+    }
+
+    @Test
+    @DisplayName("should parse the dwell time distributions")
+    void parseDwellTimeDistribution() {
+        Random random = new Random(1);
+
+        assertEquals(45.0, DwellTimeDistribution.parse("fixed:45").sampleMinutes(random));
+        double uniform = DwellTimeDistribution.parse("uniform:10:20").sampleMinutes(random);
+        assertTrue(uniform >= 10 && uniform <= 20);
+        assertTrue(DwellTimeDistribution.parse("exp:60").sampleMinutes(random) >= 0);
+        assertTrue(DwellTimeDistribution.parse("lognormal:90:0.8").sampleMinutes(random) > 0);
+        assertThrows(IllegalArgumentException.class, () -> DwellTimeDistribution.parse("gamma:2"));
+    }
+}
@@ -0,0 +1,64 @@
+package com.parkit.parkingsystem.load;
+
+import com.parkit.parkingsystem.constants.GateOperation;
+import com.parkit.parkingsystem.util.LatencyHistogram;
+
+import java.io.PrintStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class LoadReport {
+
+    final Map<GateOperation, LatencyHistogram> latencies = new EnumMap<>(GateOperation.class);
+    final AtomicLong rejectedEntries = new AtomicLong();
+    final AtomicLong failedExits = new AtomicLong();
+    final AtomicLong regularCustomerEntries = new AtomicLong();
+    long elapsedNanos;
+    double minIntervalThroughput;
+    double maxIntervalThroughput;
+
+    LoadReport() {
+        for (GateOperation operation : GateOperation.values()) {
+            latencies.put(operation, new LatencyHistogram());
+        }
+    }
+
+    public long getOperationCount() {
+        long operations = 0;
+        for (LatencyHistogram histogram : latencies.values()) {
+            operations += histogram.getCount();
+        }
+        return operations;
+    }
+
+    public LatencyHistogram getLatency(GateOperation operation) {
+        return latencies.get(operation);
+    }
+
+    public long getRejectedEntries() {
+        return rejectedEntries.get();
+    }
+
+    public long getFailedExits() {
+        return failedExits.get();
+    }
+
+    public long getRegularCustomerEntries() {
+        return regularCustomerEntries.get();
+    }
+
+    public double getThroughputPerSecond() {
+        return elapsedNanos == 0 ? 0 : getOperationCount() * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    public void print(PrintStream out) {
+        out.printf("%d operations in %.3fs: %.1f ops/s overall, %.1f to %.1f ops/s per second sampled%n",
+                getOperationCount(), elapsedNanos / 1_000_000_000.0, getThroughputPerSecond(), minIntervalThroughput, maxIntervalThroughput);
+        for (GateOperation operation : GateOperation.values()) {
+            out.println(operation + ": " + latencies.get(operation).summary());
+        }
+        out.println("rejected entries (lot full)=" + rejectedEntries + " failed exits=" + failedExits
+                + " regular customer entries=" + regularCustomerEntries);
+    }
+}
@@ -38,14 +38,15 @@ class ParkingSpotTest {
     }
 
     @Test
-    @DisplayName("should set available")
-    void setAvailableTest() {
+    @DisplayName("should return a copy with the new availability and leave the spot unchanged")
+    void withAvailableTest() {
         parkingSpot = new ParkingSpot(1, ParkingType.CAR,true);
-        parkingSpot.setAvailable(false);
-        assertFalse(parkingSpot.isAvailable());
-
-        parkingSpot.setAvailable(true);
+        ParkingSpot occupiedSpot = parkingSpot.withAvailable(false);
+        assertFalse(occupiedSpot.isAvailable());
         assertTrue(parkingSpot.isAvailable());
+        assertEquals(ParkingType.CAR, occupiedSpot.getParkingType());
+
+        assertSame(parkingSpot, parkingSpot.withAvailable(true));
     }
     @Test
     void testEquals() {
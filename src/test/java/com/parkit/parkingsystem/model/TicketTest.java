@@ -1,8 +1,11 @@
 package com.parkit.parkingsystem.model;
 
+import com.parkit.parkingsystem.constants.ParkingType;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.time.Instant;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class TicketTest {
@@ -16,4 +19,39 @@ class TicketTest {
         assertEquals(42, ticket.getId());
     }
 
-}
\ No newline at end of file
+    @Test
+    @DisplayName("should expose the epoch millis times as instants and no out time as null")
+    void getTicketTimes() {
+        ticket = new Ticket();
+        ticket.setInTime(Instant.parse("2024-03-31T01:30:00Z"));
+
+        assertEquals(1_711_848_600_000L, ticket.getInTimeMillis());
+        assertFalse(ticket.hasOutTime());
+        assertNull(ticket.getOutTime());
+
+        ticket.setOutTimeMillis(1_711_855_800_000L);
+        assertEquals(Instant.parse("2024-03-31T03:30:00Z"), ticket.getOutTime());
+    }
+
+    @Test
+    @DisplayName("should keep a snapshot unchanged when its ticket or the copies it gives are changed")
+    void snapshotTest() {
+        ticket = new Ticket();
+        ticket.setId(42);
+        ticket.setParkingSpot(new ParkingSpot(1, ParkingType.CAR, false));
+        ticket.setVehicleRegNumber("ABCDEF");
+        ticket.setInTimeMillis(1_000L);
+        TicketSnapshot snapshot = TicketSnapshot.of(ticket);
+
+        ticket.setOutTimeMillis(2_000L);
+        snapshot.toTicket().setPrice(1.5);
+        TicketSnapshot paid = snapshot.withExit(1.5, 2_000L);
+
+        assertFalse(snapshot.hasOutTime());
+        assertEquals(0, snapshot.getPrice());
+        assertEquals(42, paid.getId());
+        assertEquals(1.5, paid.getPrice());
+        assertEquals(2_000L, paid.toTicket().getOutTimeMillis());
+        assertEquals("ABCDEF", paid.toTicket().getVehicleRegNumber());
+    }
+}
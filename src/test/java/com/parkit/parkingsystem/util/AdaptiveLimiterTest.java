@@ -0,0 +1,64 @@
+package com.parkit.parkingsystem.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(2);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(50);
+
+    @Test
+    @DisplayName("should reject a call once the limit is reached and the wait budget spent")
+    void acquireTest() throws Exception {
+        //given
+        AdaptiveLimiter limiter = new AdaptiveLimiter(1, 2);
+        assertTrue(limiter.acquire(0, TimeUnit.MILLISECONDS));
+        assertTrue(limiter.acquire(0, TimeUnit.MILLISECONDS));
+
+        //when
+        boolean third = limiter.acquire(10, TimeUnit.MILLISECONDS);
+        limiter.release(FAST);
+        boolean afterRelease = limiter.acquire(0, TimeUnit.MILLISECONDS);
+
+        //then
+        assertFalse(third);
+        assertTrue(afterRelease);
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    @DisplayName("should shrink the limit while calls are slower than the baseline and grow it back once they are fast")
+    void adaptTest() throws Exception {
+        //given
+        AdaptiveLimiter limiter = new AdaptiveLimiter(1, 20);
+        for (int i = 0; i < 20; i++) {
+            limiter.acquire(0, TimeUnit.MILLISECONDS);
+            limiter.release(FAST);
+        }
+
+        //when
+        for (int i = 0; i < 200; i++) {
+            limiter.acquire(0, TimeUnit.MILLISECONDS);
+            limiter.release(SLOW);
+        }
+        int slowLimit = limiter.getLimit();
+        for (int i = 0; i < 2_000; i++) {
+            while (limiter.acquire(0, TimeUnit.MILLISECONDS)) {
+                //saturate
+            }
+            limiter.release(FAST);
+            while (limiter.getInFlight() > 0) {
+                limiter.release(FAST);
+            }
+        }
+
+        //then
+        assertTrue(slowLimit < 10, "limit " + slowLimit);
+        assertEquals(20, limiter.getLimit());
+    }
+}
@@ -0,0 +1,97 @@
+package com.parkit.parkingsystem.util;
+
+import com.parkit.parkingsystem.constants.GateOperation;
+import com.parkit.parkingsystem.constants.ParkingType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("should read back the fields of the recorded events")
+    void recordAndReadTest() throws Exception {
+        //given
+        try (AuditLog auditLog = new AuditLog(directory, 1024, 16)) {
+
+            //when
+            assertTrue(auditLog.record(GateOperation.ENTRY, "ABCDEF", 3, ParkingType.BIKE, 1_000L, -1L, 0, 2_000_000L));
+            assertTrue(auditLog.record(GateOperation.EXIT, "ABCDEF", 3, ParkingType.BIKE, 1_000L, 3_601_000L, 1.5, 4_000_000L));
+        }
+
+        //then
+        try (AuditLogReader reader = new AuditLogReader(directory)) {
+            assertTrue(reader.next());
+            assertEquals(GateOperation.ENTRY, reader.getOperation());
+            assertEquals(AuditLog.hashVehicleRegNumber("ABCDEF"), reader.getPlateHash());
+            assertEquals(3, reader.getSpotNumber());
+            assertEquals(ParkingType.BIKE, reader.getParkingType());
+            assertEquals(1_000L, reader.getInTimeMillis());
+            assertEquals(-1L, reader.getOutTimeMillis());
+            assertEquals(2_000_000L, reader.getLatencyNanos());
+            assertTrue(reader.next());
+            assertEquals(GateOperation.EXIT, reader.getOperation());
+            assertEquals(3_601_000L, reader.getOutTimeMillis());
+            assertEquals(1.5, reader.getFare());
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    @DisplayName("should keep the events of concurrent gates across segments and restarts")
+    void concurrentRecordTest() throws Exception {
+        //given
+        int gates = 4;
+        int eventsPerGate = 2_000;
+        try (AuditLog auditLog = new AuditLog(directory, AuditLog.HEADER_SIZE + 100 * AuditLog.RECORD_SIZE, 1 << 16)) {
+            List<Thread> threads = new ArrayList<>();
+            for (int gate = 0; gate < gates; gate++) {
+                int spot = gate;
+                threads.add(new Thread(() -> {
+                    for (int i = 0; i < eventsPerGate; i++) {
+                        auditLog.record(GateOperation.ENTRY, "GATE" + spot, spot, ParkingType.CAR, i, -1L, 0, 1_000L);
+                    }
+                }));
+            }
+
+            //when
+            threads.forEach(Thread::start);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+        try (AuditLog auditLog = new AuditLog(directory, 1024, 16)) {
+            auditLog.record(GateOperation.EXIT, "GATE0", 0, ParkingType.CAR, 0, 1L, 1.5, 1_000L);
+        }
+
+        //then
+        long[] lastInTimes = {-1, -1, -1, -1};
+        int count = 0;
+        try (AuditLogReader reader = new AuditLogReader(directory)) {
+            while (reader.next() && reader.getOperation() == GateOperation.ENTRY) {
+                int gate = reader.getSpotNumber();
+                //the events of a gate keep their order
+                assertEquals(lastInTimes[gate] + 1, reader.getInTimeMillis());
+                lastInTimes[gate] = reader.getInTimeMillis();
+                count++;
+            }
+            assertEquals(GateOperation.EXIT, reader.getOperation());
+            assertFalse(reader.next());
+        }
+        assertEquals(gates * eventsPerGate, count);
+        try (Stream<Path> segments = Files.list(directory)) {
+            assertEquals(gates * eventsPerGate / 100 + 1, segments.count());
+        }
+    }
+}
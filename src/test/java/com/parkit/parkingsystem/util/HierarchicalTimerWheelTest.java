@@ -0,0 +1,68 @@
+package com.parkit.parkingsystem.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchicalTimerWheelTest {
+
+    @Test
+    @DisplayName("should run every timer at its deadline tick, across all the wheel levels")
+    void deadlineTest() {
+        //given
+        HierarchicalTimerWheel wheel = new HierarchicalTimerWheel(1, 0);
+        Random random = new Random(42);
+        List<long[]> fired = new ArrayList<>();
+        long[] now = new long[1];
+        for (int i = 0; i < 2_000; i++) {
+            long deadline = 1 + (long) Math.pow(random.nextDouble(), 4) * 20_000_000L;
+            wheel.schedule(deadline, () -> fired.add(new long[]{deadline, now[0]}));
+        }
+
+        //when
+        long time = 0;
+        while (wheel.size() > 0) {
+            time += 1 + random.nextInt(5_000);
+            now[0] = time;
+            wheel.advanceTo(time);
+        }
+
+        //then
+        assertEquals(2_000, fired.size());
+        long previousDeadline = 0;
+        for (long[] timer : fired) {
+            assertTrue(timer[0] <= timer[1], "fired before its deadline");
+            assertTrue(timer[1] - timer[0] < 5_001, "fired after the advance covering its deadline");
+            assertTrue(timer[0] >= previousDeadline || timer[1] - previousDeadline < 5_001);
+            previousDeadline = timer[0];
+        }
+    }
+
+    @Test
+    @DisplayName("should not run a cancelled timer")
+    void cancelTest() {
+        //given
+        HierarchicalTimerWheel wheel = new HierarchicalTimerWheel(1000, 0);
+        List<String> fired = new ArrayList<>();
+        HierarchicalTimerWheel.Timeout cancelled = wheel.schedule(5_000_000, () -> fired.add("cancelled"));
+        wheel.schedule(5_000_000, () -> fired.add("kept"));
+
+        //when
+        boolean firstCancel = cancelled.cancel();
+        boolean secondCancel = cancelled.cancel();
+        int run = wheel.advanceTo(10_000_000);
+
+        //then
+        assertTrue(firstCancel);
+        assertFalse(secondCancel);
+        assertEquals(1, run);
+        assertEquals(1, fired.size());
+        assertEquals("kept", fired.get(0));
+        assertEquals(0, wheel.size());
+    }
+}
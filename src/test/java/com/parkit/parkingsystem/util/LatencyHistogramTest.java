@@ -0,0 +1,45 @@
+package com.parkit.parkingsystem.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("should keep every bucket boundary consistent with the bucket index")
+    void bucketBoundsTest() {
+        for (long value : new long[]{0, 1, 15, 16, 17, 31, 32, 100, 1_000, 123_456, 10_000_000_000L}) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(LatencyHistogram.lowerBoundOf(index) <= value, "lower bound of " + value);
+            assertTrue(LatencyHistogram.upperBoundOf(index) >= value, "upper bound of " + value);
+        }
+    }
+
+    @Test
+    @DisplayName("should report percentiles within the bucket precision")
+    void percentileTest() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int micros = 1; micros <= 1000; micros++) {
+            histogram.recordMicros(micros);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500.5, histogram.getMeanMicros(), 0.001);
+        assertEquals(1000, histogram.getMaxMicros());
+        assertEquals(500, histogram.getPercentileMicros(50), 500 * 0.0625);
+        assertEquals(990, histogram.getPercentileMicros(99), 990 * 0.0625);
+        assertEquals(1000, histogram.getPercentileMicros(100));
+    }
+
+    @Test
+    @DisplayName("should report zero when nothing was recorded")
+    void emptyHistogramTest() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.getPercentileMicros(99));
+        assertEquals(0.0, histogram.getMeanMicros());
+        assertEquals("", histogram.distribution());
+    }
+}
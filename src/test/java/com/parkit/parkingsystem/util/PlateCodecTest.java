@@ -0,0 +1,40 @@
+package com.parkit.parkingsystem.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlateCodecTest {
+
+    @Test
+    @DisplayName("should give the same key to the spellings of a plate and decode it normalized")
+    void normalizeTest() {
+        //given
+        long key = PlateCodec.key("AB123");
+
+        //when
+        long spelled = PlateCodec.key(" ab-12.3 ");
+
+        //then
+        assertEquals(key, spelled);
+        assertEquals("AB123", PlateCodec.decode(spelled));
+        assertEquals("AB123", PlateCodec.normalize("ab 123"));
+    }
+
+    @Test
+    @DisplayName("should give distinct keys to plates differing by leading zeros and reject what is not a plate")
+    void distinctKeysTest() {
+        //given
+        long longest = PlateCodec.key("ZZZZZZZZZZZZ");
+
+        //then
+        assertNotEquals(PlateCodec.key("A1"), PlateCodec.key("0A1"));
+        assertEquals("0A1", PlateCodec.decode(PlateCodec.key("0A1")));
+        assertTrue(longest > 0);
+        assertEquals("ZZZZZZZZZZZZ", PlateCodec.decode(longest));
+        assertEquals(PlateCodec.INVALID, PlateCodec.tryKey("--"));
+        assertEquals(PlateCodec.INVALID, PlateCodec.tryKey("ABCDEFGHIJKLM"));
+        assertThrows(IllegalArgumentException.class, () -> PlateCodec.normalize(""));
+    }
+}
@@ -0,0 +1,52 @@
+package com.parkit.parkingsystem.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RankedFreeListTest {
+
+    @Test
+    @DisplayName("should find the same lowest free rank as a sorted set")
+    void nextTest() {
+        //given
+        int capacity = 300_000;
+        RankedFreeList freeList = new RankedFreeList(capacity);
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 200_000; i++) {
+            //when
+            int rank = random.nextInt(capacity);
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(rank), freeList.add(rank));
+            } else {
+                assertEquals(expected.remove(rank), freeList.remove(rank));
+            }
+            int from = random.nextInt(capacity);
+
+            //then
+            Integer ceiling = expected.ceiling(from);
+            assertEquals(ceiling == null ? -1 : ceiling, freeList.next(from));
+        }
+        assertEquals(expected.size(), freeList.size());
+        assertEquals(expected.isEmpty() ? -1 : expected.first(), freeList.first());
+    }
+
+    @Test
+    @DisplayName("should report no free rank when empty or out of range")
+    void emptyTest() {
+        RankedFreeList freeList = new RankedFreeList(10);
+
+        assertEquals(-1, freeList.first());
+        assertTrue(freeList.add(9));
+        assertEquals(9, freeList.next(3));
+        assertEquals(-1, freeList.next(10));
+        assertTrue(freeList.remove(9));
+        assertTrue(freeList.isEmpty());
+    }
+}
@@ -0,0 +1,40 @@
+package com.parkit.parkingsystem.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestCacheTest {
+
+    @Test
+    @DisplayName("should run a request again once its result expired or was pushed out, or when it failed")
+    void evictionTest() throws Exception {
+        //given
+        ReplayClock clock = new ReplayClock();
+        clock.setMillis(1_000L);
+        RequestCache<Integer> requestCache = new RequestCache<>(clock, 60_000L, 2);
+        AtomicInteger runs = new AtomicInteger();
+
+        //when
+        requestCache.execute("a", runs::incrementAndGet, result -> true);
+        int retry = requestCache.execute("a", runs::incrementAndGet, result -> true);
+        requestCache.execute("failed", runs::incrementAndGet, result -> false);
+        requestCache.execute("b", runs::incrementAndGet, result -> true);
+        requestCache.execute("c", runs::incrementAndGet, result -> true);
+        int afterCapacity = requestCache.execute("a", runs::incrementAndGet, result -> true);
+        clock.setMillis(61_000L);
+        int sizeAfterExpiry = requestCache.size();
+
+        //then
+        assertEquals(1, retry);
+        assertEquals(5, afterCapacity);
+        assertEquals(0, sizeAfterExpiry);
+        assertThrows(IllegalStateException.class, () -> requestCache.execute("d", () -> {
+            throw new IllegalStateException("database down");
+        }, result -> true));
+        assertEquals(6, (int) requestCache.execute("d", runs::incrementAndGet, result -> true));
+    }
+}
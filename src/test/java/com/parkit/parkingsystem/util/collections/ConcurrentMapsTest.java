@@ -0,0 +1,160 @@
+package com.parkit.parkingsystem.util.collections;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs readers against writers that keep putting and removing the same keys, every key only ever mapping to a
+ * value derived from it, so that a reader seeing another value read a segment in the middle of a write.
+ */
+class ConcurrentMapsTest {
+
+    private static final int KEYS = 2_000;
+    private static final int WRITERS = 2;
+    private static final int READERS = 4;
+    private static final int ROUNDS = 20;
+
+    private interface Reader {
+        //returns an error message for a wrong value, null otherwise
+        String read(int key);
+    }
+
+    private interface Writer {
+        void write(int key, boolean remove);
+    }
+
+    @Test
+    @DisplayName("should never give a reader a value the key did not have while writers rehash and shift the segments")
+    void readersRacingWritersTest() throws Exception {
+        ConcurrentIntIntMap ints = new ConcurrentIntIntMap(1, -1);
+        assertConsistent((key, remove) -> {
+            if (remove) {
+                ints.remove(key);
+            } else {
+                ints.put(key, key * 7);
+            }
+        }, key -> {
+            int value = ints.get(key);
+            return value == -1 || value == key * 7 ? null : "int " + key + " read as " + value;
+        });
+        ConcurrentLongIntMap longInts = new ConcurrentLongIntMap(1, -1);
+        assertConsistent((key, remove) -> {
+            if (remove) {
+                longInts.remove(key);
+            } else {
+                longInts.put(key, key * 7);
+            }
+        }, key -> {
+            int value = longInts.get(key);
+            return value == -1 || value == key * 7 ? null : "long int " + key + " read as " + value;
+        });
+        ConcurrentLongLongMap longs = new ConcurrentLongLongMap(1, -1);
+        assertConsistent((key, remove) -> {
+            if (remove) {
+                longs.remove(key);
+            } else {
+                longs.put(key, key * 7L);
+            }
+        }, key -> {
+            long value = longs.get(key);
+            return value == -1 || value == key * 7L ? null : "long " + key + " read as " + value;
+        });
+        ConcurrentLongObjectMap<String> objects = new ConcurrentLongObjectMap<>(1);
+        assertConsistent((key, remove) -> {
+            if (remove) {
+                objects.remove(key);
+            } else {
+                objects.put(key, "spot " + key);
+            }
+        }, key -> {
+            String value = objects.get(key);
+            return value == null || value.equals("spot " + key) ? null : "object " + key + " read as " + value;
+        });
+    }
+
+    @Test
+    @DisplayName("should apply every concurrent compute on the same keys")
+    void concurrentComputeTest() throws Exception {
+        //given
+        ConcurrentLongObjectMap<Integer> counts = new ConcurrentLongObjectMap<>(4);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    counts.compute(i % 100, (key, count) -> count == null ? 1 : count + 1);
+                }
+            }));
+        }
+
+        //when
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        //then
+        assertEquals(100, counts.size());
+        for (long key = 0; key < 100; key++) {
+            assertEquals(4_000, counts.get(key));
+        }
+    }
+
+    private static void assertConsistent(Writer writer, Reader reader) throws Exception {
+        //given
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicReference<String> error = new AtomicReference<>();
+        List<Thread> writers = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            int first = w;
+            writers.add(new Thread(() -> {
+                for (int round = 0; round < ROUNDS; round++) {
+                    for (int key = first; key < KEYS; key += WRITERS) {
+                        writer.write(key, false);
+                    }
+                    for (int key = first; key < KEYS; key += WRITERS) {
+                        writer.write(key, true);
+                    }
+                }
+            }));
+        }
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < READERS; r++) {
+            readers.add(new Thread(() -> {
+                while (writing.get() && error.get() == null) {
+                    for (int key = 0; key < KEYS; key++) {
+                        String wrong = reader.read(key);
+                        if (wrong != null) {
+                            error.compareAndSet(null, wrong);
+                        }
+                    }
+                }
+            }));
+        }
+
+        //when
+        readers.forEach(Thread::start);
+        writers.forEach(Thread::start);
+        for (Thread thread : writers) {
+            thread.join();
+        }
+        writing.set(false);
+        for (Thread thread : readers) {
+            thread.join();
+        }
+
+        //then
+        assertNull(error.get());
+        for (int key = 0; key < KEYS; key++) {
+            assertNull(reader.read(key));
+        }
+    }
+}
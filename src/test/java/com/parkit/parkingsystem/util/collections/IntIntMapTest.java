@@ -0,0 +1,69 @@
+package com.parkit.parkingsystem.util.collections;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntIntMapTest {
+
+    @Test
+    @DisplayName("should behave like a HashMap through random puts and removes, zero key included")
+    void randomOperationsTest() {
+        //given
+        IntIntMap map = new IntIntMap(-1);
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(7);
+
+        //when
+        for (int i = 0; i < 200_000; i++) {
+            //a small key range makes long probe clusters and many removals inside them
+            int key = (random.nextInt(2_000) - 10);
+            if (random.nextInt(3) == 0) {
+                Integer removed = expected.remove(key);
+                assertEquals(removed == null ? -1 : removed, map.remove(key));
+            } else {
+                Integer previous = expected.put(key, i);
+                assertEquals(previous == null ? -1 : previous, map.put(key, i));
+            }
+        }
+
+        //then
+        assertEquals(expected.size(), map.size());
+        for (int key = -10; key < 1_990; key++) {
+            assertEquals(expected.getOrDefault(key, -1), map.get(key));
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+        }
+        Map<Integer, Integer> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertEquals(expected, visited);
+    }
+
+    @Test
+    @DisplayName("should keep every key through the rehashes and find the keys shifted back by the removals")
+    void rehashAndRemovalTest() {
+        //given
+        IntIntMap map = new IntIntMap(-1);
+        for (int key = 1; key <= 10_000; key++) {
+            map.put(key, (key * 3));
+        }
+
+        //when
+        for (int key = 2; key <= 10_000; key += 2) {
+            assertEquals((key * 3), map.remove(key));
+        }
+
+        //then
+        assertEquals(5_000, map.size());
+        for (int key = 1; key <= 10_000; key++) {
+            assertEquals(key % 2 == 1 ? (key * 3) : -1, map.get(key));
+        }
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertEquals(-1, map.get(1));
+    }
+}
@@ -0,0 +1,69 @@
+package com.parkit.parkingsystem.util.collections;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongIntMapTest {
+
+    @Test
+    @DisplayName("should behave like a HashMap through random puts and removes, zero key included")
+    void randomOperationsTest() {
+        //given
+        LongIntMap map = new LongIntMap(-1);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(7);
+
+        //when
+        for (int i = 0; i < 200_000; i++) {
+            //a small key range makes long probe clusters and many removals inside them
+            long key = (random.nextInt(2_000) - 10);
+            if (random.nextInt(3) == 0) {
+                Integer removed = expected.remove(key);
+                assertEquals(removed == null ? -1 : removed, map.remove(key));
+            } else {
+                Integer previous = expected.put(key, (int) i);
+                assertEquals(previous == null ? -1 : previous, map.put(key, (int) i));
+            }
+        }
+
+        //then
+        assertEquals(expected.size(), map.size());
+        for (long key = -10; key < 1_990; key++) {
+            assertEquals(expected.getOrDefault(key, -1), map.get(key));
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+        }
+        Map<Long, Integer> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertEquals(expected, visited);
+    }
+
+    @Test
+    @DisplayName("should keep every key through the rehashes and find the keys shifted back by the removals")
+    void rehashAndRemovalTest() {
+        //given
+        LongIntMap map = new LongIntMap(-1);
+        for (long key = 1; key <= 10_000; key++) {
+            map.put(key, (int) (key * 3));
+        }
+
+        //when
+        for (long key = 2; key <= 10_000; key += 2) {
+            assertEquals((int) (key * 3), map.remove(key));
+        }
+
+        //then
+        assertEquals(5_000, map.size());
+        for (long key = 1; key <= 10_000; key++) {
+            assertEquals(key % 2 == 1 ? (int) (key * 3) : -1, map.get(key));
+        }
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertEquals(-1, map.get(1));
+    }
+}
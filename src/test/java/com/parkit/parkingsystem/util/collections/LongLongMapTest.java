@@ -0,0 +1,74 @@
+package com.parkit.parkingsystem.util.collections;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongLongMapTest {
+
+    @Test
+    @DisplayName("should behave like a HashMap through random puts and removes, zero key included")
+    void randomOperationsTest() {
+        //given
+        LongLongMap map = new LongLongMap(-1);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        //when
+        for (int i = 0; i < 200_000; i++) {
+            //a small key range makes long probe clusters and many removals inside them
+            long key = random.nextInt(2_000) - 10;
+            if (random.nextInt(3) == 0) {
+                Long removed = expected.remove(key);
+                assertEquals(removed == null ? -1 : removed, map.remove(key));
+            } else {
+                Long previous = expected.put(key, (long) i);
+                assertEquals(previous == null ? -1 : previous, map.put(key, i));
+            }
+        }
+
+        //then
+        assertEquals(expected.size(), map.size());
+        for (long key = -10; key < 1_990; key++) {
+            assertEquals(expected.getOrDefault(key, -1L), map.get(key));
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+        }
+        Map<Long, Long> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertEquals(expected, visited);
+    }
+
+    @Test
+    @DisplayName("should count concurrently without losing increments")
+    void concurrentAddToTest() throws Exception {
+        //given
+        ConcurrentLongIntMap counts = new ConcurrentLongIntMap(4, 0);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    counts.addTo(i % 100, 1);
+                }
+            });
+        }
+
+        //when
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        //then
+        assertEquals(100, counts.size());
+        for (long key = 0; key < 100; key++) {
+            assertEquals(4_000, counts.get(key));
+        }
+    }
+}
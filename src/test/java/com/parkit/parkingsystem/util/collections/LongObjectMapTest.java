@@ -0,0 +1,69 @@
+package com.parkit.parkingsystem.util.collections;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongObjectMapTest {
+
+    @Test
+    @DisplayName("should behave like a HashMap through random puts and removes, zero key included")
+    void randomOperationsTest() {
+        //given
+        LongObjectMap<String> map = new LongObjectMap<>();
+        Map<Long, String> expected = new HashMap<>();
+        Random random = new Random(11);
+
+        //when
+        for (int i = 0; i < 200_000; i++) {
+            //a small key range makes long probe clusters and many removals inside them
+            long key = random.nextInt(2_000) - 10;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                String value = String.valueOf(i);
+                assertEquals(expected.put(key, value), map.put(key, value));
+            }
+        }
+
+        //then
+        assertEquals(expected.size(), map.size());
+        for (long key = -10; key < 1_990; key++) {
+            assertEquals(expected.get(key), map.get(key));
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+        }
+        Map<Long, String> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertEquals(expected, visited);
+    }
+
+    @Test
+    @DisplayName("should keep every key through the rehashes and find the keys shifted back by the removals")
+    void rehashAndRemovalTest() {
+        //given
+        LongObjectMap<String> map = new LongObjectMap<>();
+        for (long key = 1; key <= 10_000; key++) {
+            map.put(key, "spot " + key);
+        }
+
+        //when
+        for (long key = 2; key <= 10_000; key += 2) {
+            assertEquals("spot " + key, map.remove(key));
+        }
+
+        //then
+        assertEquals(5_000, map.size());
+        for (long key = 1; key <= 10_000; key++) {
+            assertEquals(key % 2 == 1 ? "spot " + key : null, map.get(key));
+            assertEquals(key % 2 == 1 ? "spot " + key : null, map.optimisticGet(key));
+        }
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(1));
+    }
+}